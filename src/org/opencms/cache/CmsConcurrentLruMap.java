@@ -0,0 +1,339 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.cache;
+
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A thread safe, size bounded map with approximate LRU eviction.<p>
+ * 
+ * The map is split into a number of segments, each guarded by its own lock, so that 
+ * threads accessing different keys usually do not contend with each other. 
+ * Every segment evicts its least recently used entry when it reaches its share of the total size, 
+ * so the eviction order is only exact within a segment.<p>
+ * 
+ * Iterating over the map works on a snapshot of the current entries, 
+ * changes made through the returned views are not written back to the map.<p>
+ * 
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ * 
+ * @since 9.5.0
+ */
+public class CmsConcurrentLruMap<K, V> extends AbstractMap<K, V> implements I_CmsCacheStatistics {
+
+    /**
+     * A single segment of the map.<p>
+     * 
+     * @param <K> the type of the keys
+     * @param <V> the type of the values
+     */
+    private static final class Segment<K, V> extends LinkedHashMap<K, V> {
+
+        /** The serial version id. */
+        private static final long serialVersionUID = 3941267349025612311L;
+
+        /** The maximum number of entries in this segment. */
+        private final int m_capacity;
+
+        /** The counter for evicted entries, shared by all segments of a map. */
+        private final AtomicLong m_evictions;
+
+        /**
+         * Creates a new segment.<p>
+         * 
+         * @param capacity the maximum number of entries in this segment
+         * @param evictions the counter for evicted entries
+         */
+        Segment(int capacity, AtomicLong evictions) {
+
+            super(16, 0.75f, true);
+            m_capacity = capacity;
+            m_evictions = evictions;
+        }
+
+        /**
+         * @see java.util.LinkedHashMap#removeEldestEntry(java.util.Map.Entry)
+         */
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+
+            if (size() > m_capacity) {
+                m_evictions.incrementAndGet();
+                return true;
+            }
+            return false;
+        }
+    }
+
+    /** The default number of segments. */
+    public static final int DEFAULT_CONCURRENCY_LEVEL = 16;
+
+    /** The minimum number of entries a segment should be able to hold. */
+    private static final int MIN_SEGMENT_CAPACITY = 16;
+
+    /** The counter for evicted entries. */
+    private final AtomicLong m_evictions = new AtomicLong();
+
+    /** The counter for cache hits. */
+    private final AtomicLong m_hits = new AtomicLong();
+
+    /** The maximum number of entries. */
+    private final int m_maxSize;
+
+    /** The counter for cache misses. */
+    private final AtomicLong m_misses = new AtomicLong();
+
+    /** The segments. */
+    private final Segment<K, V>[] m_segments;
+
+    /** The bit mask used to select a segment from a hash code. */
+    private final int m_segmentMask;
+
+    /**
+     * Creates a new map with the given maximum size and the default concurrency level.<p>
+     * 
+     * @param maxSize the maximum number of entries
+     */
+    public CmsConcurrentLruMap(int maxSize) {
+
+        this(maxSize, DEFAULT_CONCURRENCY_LEVEL);
+    }
+
+    /**
+     * Creates a new map.<p>
+     * 
+     * The number of segments is the largest power of two not greater than the concurrency level, 
+     * but small maps are split into fewer segments so that every segment keeps a useful LRU order.<p>
+     * 
+     * @param maxSize the maximum number of entries
+     * @param concurrencyLevel the expected number of concurrently accessing threads
+     */
+    public CmsConcurrentLruMap(int maxSize, int concurrencyLevel) {
+
+        if (maxSize < 1) {
+            maxSize = 1;
+        }
+        m_maxSize = maxSize;
+        int segments = 1;
+        while (((segments << 1) <= concurrencyLevel) && (((segments << 1) * MIN_SEGMENT_CAPACITY) <= maxSize)) {
+            segments <<= 1;
+        }
+        m_segmentMask = segments - 1;
+        @SuppressWarnings("unchecked")
+        Segment<K, V>[] segmentArray = (Segment<K, V>[])new Segment<?, ?>[segments];
+        m_segments = segmentArray;
+        int capacity = (maxSize + segments - 1) / segments;
+        for (int i = 0; i < segments; i++) {
+            m_segments[i] = new Segment<K, V>(capacity, m_evictions);
+        }
+    }
+
+    /**
+     * @see java.util.AbstractMap#clear()
+     */
+    @Override
+    public void clear() {
+
+        for (Segment<K, V> segment : m_segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    /**
+     * @see java.util.AbstractMap#containsKey(java.lang.Object)
+     */
+    @Override
+    public boolean containsKey(Object key) {
+
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            return segment.containsKey(key);
+        }
+    }
+
+    /**
+     * Returns a snapshot of the entries of this map.<p>
+     * 
+     * @see java.util.AbstractMap#entrySet()
+     */
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+
+        Map<K, V> snapshot = new HashMap<K, V>();
+        for (Segment<K, V> segment : m_segments) {
+            synchronized (segment) {
+                snapshot.putAll(segment);
+            }
+        }
+        return Collections.unmodifiableMap(snapshot).entrySet();
+    }
+
+    /**
+     * @see java.util.AbstractMap#get(java.lang.Object)
+     */
+    @Override
+    public V get(Object key) {
+
+        Segment<K, V> segment = segmentFor(key);
+        V value;
+        synchronized (segment) {
+            value = segment.get(key);
+        }
+        if (value == null) {
+            m_misses.incrementAndGet();
+        } else {
+            m_hits.incrementAndGet();
+        }
+        return value;
+    }
+
+    /**
+     * @see org.opencms.cache.I_CmsCacheStatistics#getEvictionCount()
+     */
+    public long getEvictionCount() {
+
+        return m_evictions.get();
+    }
+
+    /**
+     * @see org.opencms.cache.I_CmsCacheStatistics#getHitCount()
+     */
+    public long getHitCount() {
+
+        return m_hits.get();
+    }
+
+    /**
+     * @see org.opencms.cache.I_CmsCacheStatistics#getMaxSize()
+     */
+    public int getMaxSize() {
+
+        return m_maxSize;
+    }
+
+    /**
+     * @see org.opencms.cache.I_CmsCacheStatistics#getMissCount()
+     */
+    public long getMissCount() {
+
+        return m_misses.get();
+    }
+
+    /**
+     * Returns the number of segments of this map.<p>
+     * 
+     * @return the number of segments
+     */
+    public int getSegmentCount() {
+
+        return m_segments.length;
+    }
+
+    /**
+     * @see java.util.AbstractMap#isEmpty()
+     */
+    @Override
+    public boolean isEmpty() {
+
+        return size() == 0;
+    }
+
+    /**
+     * @see java.util.AbstractMap#put(java.lang.Object, java.lang.Object)
+     */
+    @Override
+    public V put(K key, V value) {
+
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            return segment.put(key, value);
+        }
+    }
+
+    /**
+     * @see java.util.AbstractMap#remove(java.lang.Object)
+     */
+    @Override
+    public V remove(Object key) {
+
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            return segment.remove(key);
+        }
+    }
+
+    /**
+     * Resets the hit, miss and eviction counters.<p>
+     */
+    public void resetStatistics() {
+
+        m_hits.set(0);
+        m_misses.set(0);
+        m_evictions.set(0);
+    }
+
+    /**
+     * @see java.util.AbstractMap#size()
+     */
+    @Override
+    public int size() {
+
+        int size = 0;
+        for (Segment<K, V> segment : m_segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Returns the segment responsible for the given key.<p>
+     * 
+     * @param key the key
+     * 
+     * @return the segment for the key
+     */
+    private Segment<K, V> segmentFor(Object key) {
+
+        int h = (key == null) ? 0 : key.hashCode();
+        // spread the bits of the hash code, since the segment is selected by the lowest bits 
+        h ^= (h >>> 20) ^ (h >>> 12);
+        h ^= (h >>> 7) ^ (h >>> 4);
+        return m_segments[h & m_segmentMask];
+    }
+}
@@ -146,6 +146,8 @@ public class CmsVfsNameBasedDiskCache {
     /**
      * Saves the given file content in the disk cache.<p> 
      * 
+     * The file is replaced atomically if the file system supports it.<p>
+     * 
      * @param rfsName the RFS name of the file to save the content in
      * @param content the content of the file to save
      * 
@@ -153,6 +155,16 @@ public class CmsVfsNameBasedDiskCache {
      */
     public void saveCacheFile(String rfsName, byte[] content) throws IOException {
 
-        CmsVfsDiskCache.saveFile(rfsName, content);
+        // write to a temporary file first, so that concurrent readers never see a partially written file
+        File tempFile = CmsVfsDiskCache.saveFile(rfsName + "." + Thread.currentThread().getId() + ".tmp", content);
+        File f = new File(rfsName);
+        if (!tempFile.renameTo(f)) {
+            // some file systems can not replace an existing file
+            f.delete();
+            if (!tempFile.renameTo(f)) {
+                tempFile.delete();
+                throw new IOException(rfsName);
+            }
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,71 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.cache;
+
+/**
+ * Access to the usage statistics of a cache.<p>
+ * 
+ * @since 9.5.0
+ */
+public interface I_CmsCacheStatistics {
+
+    /**
+     * Returns the number of entries removed from the cache because it was full.<p>
+     * 
+     * @return the number of evicted entries
+     */
+    long getEvictionCount();
+
+    /**
+     * Returns the number of lookups that found a cached value.<p>
+     * 
+     * @return the number of cache hits
+     */
+    long getHitCount();
+
+    /**
+     * Returns the maximum number of entries the cache will hold.<p>
+     * 
+     * @return the maximum number of entries
+     */
+    int getMaxSize();
+
+    /**
+     * Returns the number of lookups that did not find a cached value.<p>
+     * 
+     * @return the number of cache misses
+     */
+    long getMissCount();
+
+    /**
+     * Returns the current number of entries in the cache.<p>
+     * 
+     * @return the current number of entries
+     */
+    int size();
+}
@@ -205,18 +205,27 @@ public class CmsImportExportConfiguration extends A_CmsXmlConfiguration {
     /**  The node name of the static export exportbackups node. */
     public static final String N_STATICEXPORT_EXPORTBACKUPS = "exportbackups";
 
+    /**  The node name of the static export exportgzip node. */
+    public static final String N_STATICEXPORT_EXPORTGZIP = "exportgzip";
+
     /**  The node name of the static export exportheaders node. */
     public static final String N_STATICEXPORT_EXPORTHEADERS = "exportheaders";
 
     /**  The node name of the static export exportpath node. */
     public static final String N_STATICEXPORT_EXPORTPATH = "exportpath";
 
+    /**  The node name of the static export exportrate node. */
+    public static final String N_STATICEXPORT_EXPORTRATE = "exportrate";
+
     /**  The node name of the static export export-rule node. */
     public static final String N_STATICEXPORT_EXPORTRULE = "export-rule";
 
     /**  The node name of the static export export-rules node. */
     public static final String N_STATICEXPORT_EXPORTRULES = "export-rules";
 
+    /**  The node name of the static export exportthreads node. */
+    public static final String N_STATICEXPORT_EXPORTTHREADS = "exportthreads";
+
     /**  The node name of the static export exporturl node. */
     public static final String N_STATICEXPORT_EXPORTURL = "exporturl";
 
@@ -413,6 +422,8 @@ public class CmsImportExportConfiguration extends A_CmsXmlConfiguration {
         digester.addCallMethod("*/" + N_STATICEXPORT + "/" + N_STATICEXPORT_EXPORTWORKPATH, "setExportWorkPath", 0);
         // exportbackups rule
         digester.addCallMethod("*/" + N_STATICEXPORT + "/" + N_STATICEXPORT_EXPORTBACKUPS, "setExportBackups", 0);
+        // exportgzip rule
+        digester.addCallMethod("*/" + N_STATICEXPORT + "/" + N_STATICEXPORT_EXPORTGZIP, "setExportGzip", 0);
         // default property rule
         digester.addCallMethod("*/" + N_STATICEXPORT + "/" + N_STATICEXPORT_DEFAULT, "setDefault", 0);
         // export suffix rule
@@ -489,6 +500,20 @@ public class CmsImportExportConfiguration extends A_CmsXmlConfiguration {
             + N_STATICEXPORT_RENDERSETTINGS
             + "/"
             + N_STATICEXPORT_PLAINOPTIMIZATION, "setPlainExportOptimization", 0);
+        // export threads rule
+        digester.addCallMethod("*/"
+            + N_STATICEXPORT
+            + "/"
+            + N_STATICEXPORT_RENDERSETTINGS
+            + "/"
+            + N_STATICEXPORT_EXPORTTHREADS, "setExportThreads", 0);
+        // export rate rule
+        digester.addCallMethod("*/"
+            + N_STATICEXPORT
+            + "/"
+            + N_STATICEXPORT_RENDERSETTINGS
+            + "/"
+            + N_STATICEXPORT_EXPORTRATE, "setExportRate", 0);
         // test resource rule
         digester.addCallMethod("*/"
             + N_STATICEXPORT
@@ -793,6 +818,11 @@ public class CmsImportExportConfiguration extends A_CmsXmlConfiguration {
             staticexportElement.addElement(N_STATICEXPORT_EXPORTBACKUPS).addText(exportBackupsUnmodified);
         }
 
+        // <exportgzip> node
+        if (m_staticExportManager.isExportGzip()) {
+            staticexportElement.addElement(N_STATICEXPORT_EXPORTGZIP).addText(Boolean.TRUE.toString());
+        }
+
         // <defaultpropertyvalue> node
         staticexportElement.addElement(N_STATICEXPORT_DEFAULT).addText(m_staticExportManager.getDefault());
 
@@ -854,6 +884,18 @@ public class CmsImportExportConfiguration extends A_CmsXmlConfiguration {
         rendersettingsElement.addElement(N_STATICEXPORT_PLAINOPTIMIZATION).addText(
             m_staticExportManager.getPlainExportOptimization());
 
+        // <exportthreads> node
+        if (m_staticExportManager.getExportThreads() > 1) {
+            rendersettingsElement.addElement(N_STATICEXPORT_EXPORTTHREADS).addText(
+                String.valueOf(m_staticExportManager.getExportThreads()));
+        }
+
+        // <exportrate> node
+        if (m_staticExportManager.getExportRate() > 0) {
+            rendersettingsElement.addElement(N_STATICEXPORT_EXPORTRATE).addText(
+                String.valueOf(m_staticExportManager.getExportRate()));
+        }
+
         // <testresource> node
         Element testresourceElement = rendersettingsElement.addElement(N_STATICEXPORT_TESTRESOURCE);
         testresourceElement.addAttribute(A_URI, m_staticExportManager.getTestResource());
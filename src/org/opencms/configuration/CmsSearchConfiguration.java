@@ -34,6 +34,7 @@ import org.opencms.search.CmsSearchAnalyzer;
 import org.opencms.search.CmsSearchDocumentType;
 import org.opencms.search.CmsSearchIndex;
 import org.opencms.search.CmsSearchIndexSource;
+import org.opencms.search.CmsSearchIndexingQueue;
 import org.opencms.search.CmsSearchManager;
 import org.opencms.search.fields.CmsLuceneField;
 import org.opencms.search.fields.CmsLuceneFieldConfiguration;
@@ -128,6 +129,9 @@ public class CmsSearchConfiguration extends A_CmsXmlConfiguration {
     /** Node name constant. */
     public static final String N_EXTRACTION_CACHE_MAX_AGE = "extractionCacheMaxAge";
 
+    /** Node name constant. */
+    public static final String N_EXTRACTION_CACHE_MAX_SIZE = "extractionCacheMaxSize";
+
     /** Node name constant. */
     public static final String N_FIELD = "field";
 
@@ -172,6 +176,9 @@ public class CmsSearchConfiguration extends A_CmsXmlConfiguration {
     /** Node name constant. */
     public static final String N_MAPPING = "mapping";
 
+    /** Node name constant. */
+    public static final String N_MAX_INDEXING_THREADS = "maxIndexingThreads";
+
     /** Node name constant. */
     public static final String N_MAX_MODIFICATIONS_BEFORE_COMMIT = "maxModificationsBeforeCommit";
 
@@ -181,9 +188,15 @@ public class CmsSearchConfiguration extends A_CmsXmlConfiguration {
     /** Node name constant. */
     public static final String N_MIMETYPES = "mimetypes";
 
+    /** Node name constant. */
+    public static final String N_OFFLINE_UPDATE_BATCH_SIZE = "offlineUpdateBatchSize";
+
     /** Node name constant. */
     public static final String N_OFFLINE_UPDATE_FREQUENCY = "offlineUpdateFrequency";
 
+    /** Node name constant. */
+    public static final String N_OFFLINE_UPDATE_QUEUE_CAPACITY = "offlineUpdateQueueCapacity";
+
     /** Node name constant. */
     public static final String N_PROJECT = "project";
 
@@ -248,6 +261,15 @@ public class CmsSearchConfiguration extends A_CmsXmlConfiguration {
         // offline update rule
         digester.addCallMethod(XPATH_SEARCH + "/" + N_OFFLINE_UPDATE_FREQUENCY, "setOfflineUpdateFrequency", 0);
 
+        // offline update batch size rule
+        digester.addCallMethod(XPATH_SEARCH + "/" + N_OFFLINE_UPDATE_BATCH_SIZE, "setOfflineUpdateBatchSize", 0);
+
+        // offline update queue capacity rule
+        digester.addCallMethod(
+            XPATH_SEARCH + "/" + N_OFFLINE_UPDATE_QUEUE_CAPACITY,
+            "setOfflineUpdateQueueCapacity",
+            0);
+
         // forceunlock rule
         digester.addCallMethod(XPATH_SEARCH + "/" + N_FORCEUNLOCK, "setForceunlock", 0);
 
@@ -257,12 +279,18 @@ public class CmsSearchConfiguration extends A_CmsXmlConfiguration {
         // rule for the max. age of entries in the extraction cache
         digester.addCallMethod(XPATH_SEARCH + "/" + N_EXTRACTION_CACHE_MAX_AGE, "setExtractionCacheMaxAge", 0);
 
+        // rule for the max. size of the extraction cache
+        digester.addCallMethod(XPATH_SEARCH + "/" + N_EXTRACTION_CACHE_MAX_SIZE, "setExtractionCacheMaxSize", 0);
+
         // rule for max. number of modifications before commit
         digester.addCallMethod(
             XPATH_SEARCH + "/" + N_MAX_MODIFICATIONS_BEFORE_COMMIT,
             "setMaxModificationsBeforeCommit",
             0);
 
+        // rule for max. number of parallel indexing threads
+        digester.addCallMethod(XPATH_SEARCH + "/" + N_MAX_INDEXING_THREADS, "setMaxIndexingThreads", 0);
+
         // rule for the highlighter to highlight the search terms in the excerpt of the search result
         digester.addCallMethod(XPATH_SEARCH + "/" + N_HIGHLIGHTER, "setHighlighter", 0);
 
@@ -403,6 +431,16 @@ public class CmsSearchConfiguration extends A_CmsXmlConfiguration {
         //add <offlineUpdateFrequency> element
         searchElement.addElement(N_OFFLINE_UPDATE_FREQUENCY).addText(
             String.valueOf(m_searchManager.getOfflineUpdateFrequency()));
+        if (m_searchManager.getOfflineUpdateBatchSize() != CmsSearchIndexingQueue.DEFAULT_BATCH_SIZE) {
+            // add <offlineUpdateBatchSize> element
+            searchElement.addElement(N_OFFLINE_UPDATE_BATCH_SIZE).addText(
+                String.valueOf(m_searchManager.getOfflineUpdateBatchSize()));
+        }
+        if (m_searchManager.getOfflineUpdateQueueCapacity() != CmsSearchIndexingQueue.DEFAULT_CAPACITY) {
+            // add <offlineUpdateQueueCapacity> element
+            searchElement.addElement(N_OFFLINE_UPDATE_QUEUE_CAPACITY).addText(
+                String.valueOf(m_searchManager.getOfflineUpdateQueueCapacity()));
+        }
         // add <forceunlock> element
         if (m_searchManager.getForceunlock() != null) {
             searchElement.addElement(N_FORCEUNLOCK).addText(m_searchManager.getForceunlock().toString());
@@ -412,9 +450,19 @@ public class CmsSearchConfiguration extends A_CmsXmlConfiguration {
         // add <extractionCacheMaxAge> element
         searchElement.addElement(N_EXTRACTION_CACHE_MAX_AGE).addText(
             String.valueOf(m_searchManager.getExtractionCacheMaxAge()));
+        if (m_searchManager.getExtractionCacheMaxSize() != CmsSearchManager.DEFAULT_EXTRACTION_CACHE_MAX_SIZE) {
+            // add <extractionCacheMaxSize> element
+            searchElement.addElement(N_EXTRACTION_CACHE_MAX_SIZE).addText(
+                String.valueOf(m_searchManager.getExtractionCacheMaxSize()));
+        }
         // add <maxModificationsBeforeCommit> element
         searchElement.addElement(N_MAX_MODIFICATIONS_BEFORE_COMMIT).addText(
             String.valueOf(m_searchManager.getMaxModificationsBeforeCommit()));
+        if (m_searchManager.getMaxIndexingThreads() != CmsSearchManager.DEFAULT_MAX_INDEXING_THREADS) {
+            // add <maxIndexingThreads> element
+            searchElement.addElement(N_MAX_INDEXING_THREADS).addText(
+                String.valueOf(m_searchManager.getMaxIndexingThreads()));
+        }
         // add <highlighter> element
         searchElement.addElement(N_HIGHLIGHTER).addText(m_searchManager.getHighlighter().getClass().getName());
 
@@ -137,6 +137,9 @@ public class CmsSystemConfiguration extends A_CmsXmlConfiguration {
     /** The "title" attribute. */
     public static final String A_TITLE = "title";
 
+    /** The attribute name for the traceheader attribute. */
+    public static final String A_TRACEHEADER = "traceheader";
+
     /** The "webserver" attribute. */
     public static final String A_WEBSERVER = "webserver";
 
@@ -176,6 +179,15 @@ public class CmsSystemConfiguration extends A_CmsXmlConfiguration {
     /** The node name for the cache-enabled node. */
     public static final String N_CACHE_ENABLED = "cache-enabled";
 
+    /** The node name for the expected number of threads concurrently accessing the result caches. */
+    public static final String N_CACHE_CONCURRENCY = "cache-concurrency";
+
+    /** The node name for the maximum number of published resources for selective removal of cache entries. */
+    public static final String N_CACHE_FLUSH_THRESHOLD = "cache-flush-threshold";
+
+    /** The node name for the implementation of the result caches. */
+    public static final String N_CACHE_IMPLEMENTATION = "cache-implementation";
+
     /** The node name for the cache-offline node. */
     public static final String N_CACHE_OFFLINE = "cache-offline";
 
@@ -323,6 +335,9 @@ public class CmsSystemConfiguration extends A_CmsXmlConfiguration {
     /** The node name for the maxkeys node. */
     public static final String N_MAXKEYS = "maxkeys";
 
+    /** The node name for the maxoffheapbytes node. */
+    public static final String N_MAXOFFHEAPBYTES = "maxoffheapbytes";
+
     /** The node name for the maxusagepercent node. */
     public static final String N_MAXUSAGE_PERCENT = "maxusagepercent";
 
@@ -332,6 +347,9 @@ public class CmsSystemConfiguration extends A_CmsXmlConfiguration {
     /** The node name for the login message text. */
     public static final String N_MESSAGE = "message";
 
+    /** The node name for the metrics node. */
+    public static final String N_METRICS = "metrics";
+
     /** The duration after which responsibles will be notified about out-dated content. */
     public static final String N_NOTIFICATION_PROJECT = "notification-project";
 
@@ -350,6 +368,9 @@ public class CmsSystemConfiguration extends A_CmsXmlConfiguration {
     /** The node name for the permission handler. */
     public static final String N_PERMISSIONHANDLER = "permissionhandler";
 
+    /** The node name for the precompress node. */
+    public static final String N_PRECOMPRESS = "precompress";
+
     /** The node name for the prevent-response-flush node. */
     public static final String N_PREVENTRESPONSEFLUSH = "prevent-response-flush";
 
@@ -359,6 +380,9 @@ public class CmsSystemConfiguration extends A_CmsXmlConfiguration {
     /** The node name for the publish list remove mode. */
     public static final String N_PUBLISH_LIST_REMOVE_MODE = "publish-list-remove-mode";
 
+    /** The node name for the number of threads publishing files in parallel. */
+    public static final String N_PUBLISH_THREADS = "publish-threads";
+
     /** The node name for the "publishhistory" section. */
     public static final String N_PUBLISHMANAGER = "publishmanager";
 
@@ -530,6 +554,9 @@ public class CmsSystemConfiguration extends A_CmsXmlConfiguration {
     /** The node name for the workplace-server node. */
     public static final String N_WORKPLACE_SERVER = "workplace-server";
 
+    /** The xmlcontents node name. */
+    public static final String N_XMLCONTENTS = "xmlcontents";
+
     /** The log object for this class. */
     private static final Log LOG = CmsLog.getLog(CmsSystemConfiguration.class);
 
@@ -1053,6 +1080,9 @@ public class CmsSystemConfiguration extends A_CmsXmlConfiguration {
             "*/" + N_SYSTEM + "/" + N_MEMORYMONITOR + "/" + N_EMAIL_RECEIVER + "/" + N_RECEIVER,
             "addEmailReceiver",
             0);
+        digester.addCallMethod("*/" + N_SYSTEM + "/" + N_MEMORYMONITOR + "/" + N_METRICS, "setMetrics", 2);
+        digester.addCallParam("*/" + N_SYSTEM + "/" + N_MEMORYMONITOR + "/" + N_METRICS, 0, A_ENABLED);
+        digester.addCallParam("*/" + N_SYSTEM + "/" + N_MEMORYMONITOR + "/" + N_METRICS, 1, A_TRACEHEADER);
 
         // set the MemoryMonitorConfiguration initialized once before
         digester.addSetNext("*/" + N_SYSTEM + "/" + N_MEMORYMONITOR, "setCmsMemoryMonitorConfiguration");
@@ -1066,6 +1096,10 @@ public class CmsSystemConfiguration extends A_CmsXmlConfiguration {
         digester.addCallParam("*/" + N_SYSTEM + "/" + N_FLEXCACHE + "/" + N_AVGCACHEBYTES, 3);
         digester.addCallParam("*/" + N_SYSTEM + "/" + N_FLEXCACHE + "/" + N_MAXENTRYBYTES, 4);
         digester.addCallParam("*/" + N_SYSTEM + "/" + N_FLEXCACHE + "/" + N_MAXKEYS, 5);
+        // add flexcache off-heap store size
+        digester.addCallMethod("*/" + N_SYSTEM + "/" + N_FLEXCACHE + "/" + N_MAXOFFHEAPBYTES, "setMaxOffHeapBytes", 0);
+        // add flexcache precompression
+        digester.addCallMethod("*/" + N_SYSTEM + "/" + N_FLEXCACHE + "/" + N_PRECOMPRESS, "setPrecompress", 0);
         // add flexcache device selector
         digester.addCallMethod(
             "*/" + N_SYSTEM + "/" + N_FLEXCACHE + "/" + N_DEVICESELECTOR,
@@ -1125,6 +1159,18 @@ public class CmsSystemConfiguration extends A_CmsXmlConfiguration {
             "*/" + N_SYSTEM + "/" + N_RESULTCACHE + "/" + N_SIZE_PERMISSIONS,
             "setPermissionCacheSize",
             0);
+        digester.addCallMethod(
+            "*/" + N_SYSTEM + "/" + N_RESULTCACHE + "/" + N_CACHE_IMPLEMENTATION,
+            "setCacheImplementation",
+            0);
+        digester.addCallMethod(
+            "*/" + N_SYSTEM + "/" + N_RESULTCACHE + "/" + N_CACHE_CONCURRENCY,
+            "setCacheConcurrencyLevel",
+            0);
+        digester.addCallMethod(
+            "*/" + N_SYSTEM + "/" + N_RESULTCACHE + "/" + N_CACHE_FLUSH_THRESHOLD,
+            "setCacheFlushThreshold",
+            0);
         digester.addCallMethod(
             "*/" + N_SYSTEM + "/" + N_RESULTCACHE + "/" + N_SIZE_CONTAINERPAGE_OFFLINE,
             "setContainerPageOfflineSize",
@@ -1167,6 +1213,10 @@ public class CmsSystemConfiguration extends A_CmsXmlConfiguration {
             "*/" + N_SYSTEM + "/" + N_PUBLISHMANAGER + "/" + N_QUEUESHUTDOWNTIME,
             "setPublishQueueShutdowntime",
             0);
+        digester.addCallMethod(
+            "*/" + N_SYSTEM + "/" + N_PUBLISHMANAGER + "/" + N_PUBLISH_THREADS,
+            "setPublishThreads",
+            0);
         digester.addSetNext("*/" + N_SYSTEM + "/" + N_PUBLISHMANAGER, "setPublishManager");
 
         // add rule for session storage provider
@@ -1206,6 +1256,11 @@ public class CmsSystemConfiguration extends A_CmsXmlConfiguration {
         digester.addCallParam(adeCachePath + "/" + N_GROUPCONTAINERS, 0, A_OFFLINE);
         digester.addCallMethod(adeCachePath + "/" + N_GROUPCONTAINERS, "setGroupContainerOnlineSize", 1);
         digester.addCallParam(adeCachePath + "/" + N_GROUPCONTAINERS, 0, A_ONLINE);
+        // XML content cache
+        digester.addCallMethod(adeCachePath + "/" + N_XMLCONTENTS, "setXmlContentOfflineSize", 1);
+        digester.addCallParam(adeCachePath + "/" + N_XMLCONTENTS, 0, A_OFFLINE);
+        digester.addCallMethod(adeCachePath + "/" + N_XMLCONTENTS, "setXmlContentOnlineSize", 1);
+        digester.addCallParam(adeCachePath + "/" + N_XMLCONTENTS, 0, A_ONLINE);
         // set the settings
         digester.addSetNext(adeCachePath, "setAdeCacheSettings");
 
@@ -1516,6 +1571,16 @@ public class CmsSystemConfiguration extends A_CmsXmlConfiguration {
                     emailreceiverElement.addElement(N_RECEIVER).addText(iter.next());
                 }
             }
+            if (m_cmsMemoryMonitorConfiguration.isMetricsEnabled()
+                || m_cmsMemoryMonitorConfiguration.isMetricsTraceHeaderEnabled()) {
+                Element metricsElement = memorymonitorElement.addElement(N_METRICS);
+                metricsElement.addAttribute(
+                    A_ENABLED,
+                    String.valueOf(m_cmsMemoryMonitorConfiguration.isMetricsEnabled()));
+                metricsElement.addAttribute(
+                    A_TRACEHEADER,
+                    String.valueOf(m_cmsMemoryMonitorConfiguration.isMetricsTraceHeaderEnabled()));
+            }
         }
 
         // create <flexcache> node
@@ -1531,6 +1596,13 @@ public class CmsSystemConfiguration extends A_CmsXmlConfiguration {
         flexcacheElement.addElement(N_MAXENTRYBYTES).addText(
             String.valueOf(m_cmsFlexCacheConfiguration.getMaxEntryBytes()));
         flexcacheElement.addElement(N_MAXKEYS).addText(String.valueOf(m_cmsFlexCacheConfiguration.getMaxKeys()));
+        if (m_cmsFlexCacheConfiguration.getMaxOffHeapBytes() > 0) {
+            flexcacheElement.addElement(N_MAXOFFHEAPBYTES).addText(
+                String.valueOf(m_cmsFlexCacheConfiguration.getMaxOffHeapBytes()));
+        }
+        if (m_cmsFlexCacheConfiguration.isPrecompress()) {
+            flexcacheElement.addElement(N_PRECOMPRESS).addText(Boolean.TRUE.toString());
+        }
         if (m_cmsFlexCacheConfiguration.getDeviceSelectorConfiguration() != null) {
             Element flexcacheDeviceSelectorElement = flexcacheElement.addElement(N_DEVICESELECTOR);
             flexcacheDeviceSelectorElement.addAttribute(
@@ -1576,6 +1648,17 @@ public class CmsSystemConfiguration extends A_CmsXmlConfiguration {
         }
         cacheElement.addElement(N_SIZE_ACLS).setText(Integer.toString(m_cacheSettings.getAclCacheSize()));
         cacheElement.addElement(N_SIZE_PERMISSIONS).setText(Integer.toString(m_cacheSettings.getPermissionCacheSize()));
+        if (m_cacheSettings.getConfiguredCacheImplementation() != null) {
+            cacheElement.addElement(N_CACHE_IMPLEMENTATION).setText(m_cacheSettings.getConfiguredCacheImplementation());
+        }
+        if (m_cacheSettings.getConfiguredCacheConcurrencyLevel() > -1) {
+            cacheElement.addElement(N_CACHE_CONCURRENCY).setText(
+                Integer.toString(m_cacheSettings.getConfiguredCacheConcurrencyLevel()));
+        }
+        if (m_cacheSettings.getConfiguredCacheFlushThreshold() > -1) {
+            cacheElement.addElement(N_CACHE_FLUSH_THRESHOLD).setText(
+                Integer.toString(m_cacheSettings.getConfiguredCacheFlushThreshold()));
+        }
 
         // content notification settings
         if ((m_notificationTime != null) || (m_notificationProject != null)) {
@@ -1603,6 +1686,10 @@ public class CmsSystemConfiguration extends A_CmsXmlConfiguration {
                 String.valueOf(m_publishManager.isPublishQueuePersistanceEnabled()));
             pubHistElement.addElement(N_QUEUESHUTDOWNTIME).setText(
                 String.valueOf(m_publishManager.getPublishQueueShutdowntime()));
+            if (m_publishManager.getPublishThreads() > 1) {
+                pubHistElement.addElement(N_PUBLISH_THREADS).setText(
+                    String.valueOf(m_publishManager.getPublishThreads()));
+            }
         }
 
         // session storage provider
@@ -1662,6 +1749,10 @@ public class CmsSystemConfiguration extends A_CmsXmlConfiguration {
                 groupContainerCacheElem.addAttribute(A_OFFLINE, ""
                     + getAdeCacheSettings().getGroupContainerOfflineSize());
                 groupContainerCacheElem.addAttribute(A_ONLINE, "" + getAdeCacheSettings().getGroupContainerOnlineSize());
+                // XML content cache
+                Element xmlContentCacheElem = cacheElem.addElement(N_XMLCONTENTS);
+                xmlContentCacheElem.addAttribute(A_OFFLINE, "" + getAdeCacheSettings().getXmlContentOfflineSize());
+                xmlContentCacheElem.addAttribute(A_ONLINE, "" + getAdeCacheSettings().getXmlContentOnlineSize());
             }
         }
 
@@ -0,0 +1,318 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.db;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory index of the aliases and rewrite aliases of each site.<p>
+ * 
+ * The aliases of a site are loaded once into a map keyed by alias path, so resolving an alias
+ * does not need a database lookup per request. The index is updated incrementally by the 
+ * driver manager whenever aliases are written. Since other cluster nodes may change the 
+ * alias table, the entries of a site expire after a maximum age and are reloaded.<p>
+ * 
+ * Loading is done by the caller in two steps: first {@link #getVersion()} is read, then the aliases
+ * are read from the database and passed to {@link #setAliases(String, List, long)} together with
+ * the version. If the index was changed in between, the loaded data is not stored, since it may
+ * already be outdated.<p>
+ * 
+ * @since 9.5.0
+ */
+public class CmsAliasIndex {
+
+    /** The default maximum age of the index entries of a site in milliseconds. */
+    public static final long DEFAULT_MAX_AGE = 5 * 60 * 1000L;
+
+    /** 
+     * The index entry of a single site.<p>
+     * 
+     * @param <T> the type of the indexed data
+     */
+    private static class CmsAliasIndexEntry<T> {
+
+        /** The indexed data. */
+        private T m_data;
+
+        /** The time the data was loaded from the database. */
+        private long m_loadTime;
+
+        /**
+         * Creates a new index entry.<p>
+         * 
+         * @param data the indexed data 
+         * @param loadTime the time the data was loaded from the database
+         */
+        CmsAliasIndexEntry(T data, long loadTime) {
+
+            m_data = data;
+            m_loadTime = loadTime;
+        }
+    }
+
+    /** The alias maps by site root. */
+    private Map<String, CmsAliasIndexEntry<Map<String, CmsAlias>>> m_aliases;
+
+    /** The maximum age of the index entries in milliseconds. */
+    private long m_maxAge;
+
+    /** The rewrite alias matchers by site root. */
+    private Map<String, CmsAliasIndexEntry<CmsRewriteAliasMatcher>> m_rewriteAliases;
+
+    /** The modification counter of the index. */
+    private volatile long m_version;
+
+    /**
+     * Creates a new alias index with the default maximum age.<p>
+     */
+    public CmsAliasIndex() {
+
+        this(DEFAULT_MAX_AGE);
+    }
+
+    /**
+     * Creates a new alias index.<p>
+     * 
+     * @param maxAge the maximum age of the index entries of a site in milliseconds, 
+     *      a value &lt;= 0 means the entries never expire
+     */
+    public CmsAliasIndex(long maxAge) {
+
+        m_maxAge = maxAge;
+        m_aliases = new ConcurrentHashMap<String, CmsAliasIndexEntry<Map<String, CmsAlias>>>();
+        m_rewriteAliases = new ConcurrentHashMap<String, CmsAliasIndexEntry<CmsRewriteAliasMatcher>>();
+    }
+
+    /**
+     * Adds an alias to the index.<p>
+     * 
+     * Nothing happens if the aliases of the site of the alias are not indexed.<p>
+     * 
+     * @param alias the alias to add 
+     */
+    public synchronized void addAlias(CmsAlias alias) {
+
+        m_version++;
+        CmsAliasIndexEntry<Map<String, CmsAlias>> entry = m_aliases.get(alias.getSiteRoot());
+        if (entry != null) {
+            Map<String, CmsAlias> aliases = new HashMap<String, CmsAlias>(entry.m_data);
+            aliases.put(alias.getAliasPath(), alias);
+            m_aliases.put(
+                alias.getSiteRoot(),
+                new CmsAliasIndexEntry<Map<String, CmsAlias>>(Collections.unmodifiableMap(aliases), entry.m_loadTime));
+        }
+    }
+
+    /**
+     * Removes all entries from the index.<p>
+     */
+    public synchronized void clear() {
+
+        m_version++;
+        m_aliases.clear();
+        m_rewriteAliases.clear();
+    }
+
+    /**
+     * Returns the indexed aliases of a site, keyed by alias path.<p>
+     * 
+     * @param siteRoot the site root 
+     * 
+     * @return the aliases of the site, or <code>null</code> if the site is not indexed or its entry expired
+     */
+    public Map<String, CmsAlias> getAliases(String siteRoot) {
+
+        CmsAliasIndexEntry<Map<String, CmsAlias>> entry = m_aliases.get(siteRoot);
+        if ((entry == null) || isExpired(entry)) {
+            return null;
+        }
+        return entry.m_data;
+    }
+
+    /**
+     * Returns the maximum age of the index entries in milliseconds.<p>
+     * 
+     * @return the maximum age of the index entries
+     */
+    public long getMaxAge() {
+
+        return m_maxAge;
+    }
+
+    /**
+     * Returns the indexed rewrite alias matcher of a site.<p>
+     * 
+     * @param siteRoot the site root 
+     * 
+     * @return the rewrite alias matcher, or <code>null</code> if the site is not indexed or its entry expired
+     */
+    public CmsRewriteAliasMatcher getRewriteAliasMatcher(String siteRoot) {
+
+        CmsAliasIndexEntry<CmsRewriteAliasMatcher> entry = m_rewriteAliases.get(siteRoot);
+        if ((entry == null) || isExpired(entry)) {
+            return null;
+        }
+        return entry.m_data;
+    }
+
+    /**
+     * Returns the modification counter of the index, which has to be read before loading data from the database.<p>
+     * 
+     * @return the modification counter of the index
+     */
+    public long getVersion() {
+
+        return m_version;
+    }
+
+    /**
+     * Removes all aliases matching the given filter from the index.<p>
+     * 
+     * @param filter the alias filter 
+     */
+    public synchronized void removeAliases(CmsAliasFilter filter) {
+
+        m_version++;
+        if (filter.getSiteRoot() != null) {
+            removeAliases(filter.getSiteRoot(), filter);
+        } else {
+            for (String siteRoot : new ArrayList<String>(m_aliases.keySet())) {
+                removeAliases(siteRoot, filter);
+            }
+        }
+    }
+
+    /**
+     * Removes the rewrite aliases of a site from the index, so they are reloaded on next access.<p>
+     * 
+     * @param siteRoot the site root, or <code>null</code> for all sites 
+     */
+    public synchronized void removeRewriteAliases(String siteRoot) {
+
+        m_version++;
+        if (siteRoot != null) {
+            m_rewriteAliases.remove(siteRoot);
+        } else {
+            m_rewriteAliases.clear();
+        }
+    }
+
+    /**
+     * Stores the aliases of a site loaded from the database.<p>
+     * 
+     * @param siteRoot the site root
+     * @param aliases the aliases of the site
+     * @param version the modification counter read before loading the aliases
+     *  
+     * @return the aliases of the site, keyed by alias path
+     */
+    public synchronized Map<String, CmsAlias> setAliases(String siteRoot, List<CmsAlias> aliases, long version) {
+
+        Map<String, CmsAlias> aliasMap = new HashMap<String, CmsAlias>(aliases.size());
+        for (CmsAlias alias : aliases) {
+            if (!aliasMap.containsKey(alias.getAliasPath())) {
+                aliasMap.put(alias.getAliasPath(), alias);
+            }
+        }
+        aliasMap = Collections.unmodifiableMap(aliasMap);
+        if (version == m_version) {
+            m_aliases.put(
+                siteRoot,
+                new CmsAliasIndexEntry<Map<String, CmsAlias>>(aliasMap, System.currentTimeMillis()));
+        }
+        return aliasMap;
+    }
+
+    /**
+     * Stores the rewrite aliases of a site loaded from the database.<p>
+     * 
+     * @param siteRoot the site root 
+     * @param aliases the rewrite aliases of the site
+     * @param version the modification counter read before loading the rewrite aliases
+     * 
+     * @return the rewrite alias matcher for the site 
+     */
+    public synchronized CmsRewriteAliasMatcher setRewriteAliases(
+        String siteRoot,
+        List<CmsRewriteAlias> aliases,
+        long version) {
+
+        CmsRewriteAliasMatcher matcher = new CmsRewriteAliasMatcher(aliases);
+        if (version == m_version) {
+            m_rewriteAliases.put(
+                siteRoot,
+                new CmsAliasIndexEntry<CmsRewriteAliasMatcher>(matcher, System.currentTimeMillis()));
+        }
+        return matcher;
+    }
+
+    /**
+     * Checks if an index entry has exceeded the maximum age.<p>
+     * 
+     * @param entry the index entry 
+     * 
+     * @return <code>true</code> if the entry has expired 
+     */
+    private boolean isExpired(CmsAliasIndexEntry<?> entry) {
+
+        return (m_maxAge > 0) && ((System.currentTimeMillis() - entry.m_loadTime) > m_maxAge);
+    }
+
+    /**
+     * Removes the aliases matching the given filter from the index entry of a single site.<p>
+     * 
+     * @param siteRoot the site root 
+     * @param filter the alias filter
+     */
+    private void removeAliases(String siteRoot, CmsAliasFilter filter) {
+
+        CmsAliasIndexEntry<Map<String, CmsAlias>> entry = m_aliases.get(siteRoot);
+        if (entry == null) {
+            return;
+        }
+        Map<String, CmsAlias> aliases = new HashMap<String, CmsAlias>(entry.m_data);
+        Iterator<CmsAlias> it = aliases.values().iterator();
+        while (it.hasNext()) {
+            CmsAlias alias = it.next();
+            if (((filter.getPath() == null) || filter.getPath().equals(alias.getAliasPath()))
+                && ((filter.getStructureId() == null) || filter.getStructureId().equals(alias.getStructureId()))) {
+                it.remove();
+            }
+        }
+        m_aliases.put(
+            siteRoot,
+            new CmsAliasIndexEntry<Map<String, CmsAlias>>(Collections.unmodifiableMap(aliases), entry.m_loadTime));
+    }
+}
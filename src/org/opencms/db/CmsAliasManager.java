@@ -171,8 +171,7 @@ public class CmsAliasManager {
      */
     public CmsRewriteAliasMatcher getRewriteAliasMatcher(CmsObject cms, String siteRoot) throws CmsException {
 
-        List<CmsRewriteAlias> aliases = getRewriteAliases(cms, siteRoot);
-        return new CmsRewriteAliasMatcher(aliases);
+        return m_securityManager.getRewriteAliasMatcher(cms.getRequestContext(), siteRoot);
     }
 
     /**
@@ -34,9 +34,24 @@ package org.opencms.db;
  */
 public class CmsCacheSettings {
 
+    /** Cache implementation: lock striped maps with approximate LRU eviction and usage statistics. */
+    public static final String CACHE_IMPLEMENTATION_CONCURRENT = "concurrent";
+
+    /** Cache implementation: synchronized commons-collections LRU maps. */
+    public static final String CACHE_IMPLEMENTATION_LRU = "lru";
+
     /** The size of the memory monitor's cache for ACLs. */
     private int m_aclCacheSize;
 
+    /** The expected number of threads concurrently accessing the memory monitor's caches. */
+    private int m_cacheConcurrencyLevel = -1; // this configuration entry is optional
+
+    /** The maximum number of published resources for which cache entries are removed selectively. */
+    private int m_cacheFlushThreshold = -1; // this configuration entry is optional
+
+    /** The implementation used for the memory monitor's caches. */
+    private String m_cacheImplementation; // this configuration entry is optional
+
     /** The name of the class to generate cache keys. */
     private String m_cacheKeyGenerator;
 
@@ -94,6 +109,52 @@ public class CmsCacheSettings {
         return m_aclCacheSize;
     }
 
+    /**
+     * Returns the expected number of threads concurrently accessing the memory monitor's caches.<p>
+     * 
+     * This is only used by the {@link #CACHE_IMPLEMENTATION_CONCURRENT} cache implementation.<p>
+     *
+     * @return the expected number of threads concurrently accessing the caches
+     */
+    public int getCacheConcurrencyLevel() {
+
+        if (m_cacheConcurrencyLevel < 0) {
+            return 16;
+        }
+        return m_cacheConcurrencyLevel;
+    }
+
+    /**
+     * Returns the maximum number of published resources for which the resource related cache entries 
+     * are removed selectively.<p>
+     * 
+     * If more resources are published, the resource related caches are flushed completely.<p>
+     *
+     * @return the maximum number of published resources for which cache entries are removed selectively
+     */
+    public int getCacheFlushThreshold() {
+
+        if (m_cacheFlushThreshold < 0) {
+            return 1000;
+        }
+        return m_cacheFlushThreshold;
+    }
+
+    /**
+     * Returns the implementation used for the memory monitor's caches.<p>
+     * 
+     * This is either {@link #CACHE_IMPLEMENTATION_LRU} or {@link #CACHE_IMPLEMENTATION_CONCURRENT}.<p>
+     *
+     * @return the implementation used for the memory monitor's caches
+     */
+    public String getCacheImplementation() {
+
+        if (m_cacheImplementation == null) {
+            return CACHE_IMPLEMENTATION_LRU;
+        }
+        return m_cacheImplementation;
+    }
+
     /**
      * Returns the name of the class to generate cache keys.<p>
      *
@@ -104,6 +165,42 @@ public class CmsCacheSettings {
         return m_cacheKeyGenerator;
     }
 
+    /**
+     * Returns the expected number of threads concurrently accessing the memory monitor's caches.<p>
+     *
+     * Might be <code>-1</code> if configuration entry is missing.<p>
+     *
+     * @return the expected number of threads concurrently accessing the caches
+     */
+    public int getConfiguredCacheConcurrencyLevel() {
+
+        return m_cacheConcurrencyLevel;
+    }
+
+    /**
+     * Returns the maximum number of published resources for which cache entries are removed selectively.<p>
+     *
+     * Might be <code>-1</code> if configuration entry is missing.<p>
+     *
+     * @return the maximum number of published resources for which cache entries are removed selectively
+     */
+    public int getConfiguredCacheFlushThreshold() {
+
+        return m_cacheFlushThreshold;
+    }
+
+    /**
+     * Returns the implementation used for the memory monitor's caches.<p>
+     *
+     * Might be <code>null</code> if configuration entry is missing.<p>
+     *
+     * @return the implementation used for the memory monitor's caches
+     */
+    public String getConfiguredCacheImplementation() {
+
+        return m_cacheImplementation;
+    }
+
     /**
      * Returns the size of the memory monitor's cache for organizational units.<p>
      *
@@ -284,6 +381,16 @@ public class CmsCacheSettings {
         return m_userGroupsCacheSize;
     }
 
+    /**
+     * Checks if the memory monitor's caches use the {@link #CACHE_IMPLEMENTATION_CONCURRENT} implementation.<p>
+     * 
+     * @return <code>true</code> if the concurrent cache implementation is used
+     */
+    public boolean isConcurrentCacheImplementation() {
+
+        return CACHE_IMPLEMENTATION_CONCURRENT.equals(getCacheImplementation());
+    }
+
     /**
      * Sets the size of the memory monitor's cache for ACLs.<p>
      *
@@ -294,6 +401,45 @@ public class CmsCacheSettings {
         m_aclCacheSize = getIntValue(size, 1024);
     }
 
+    /**
+     * Sets the expected number of threads concurrently accessing the memory monitor's caches.<p>
+     *
+     * @param level the expected number of threads concurrently accessing the caches
+     */
+    public void setCacheConcurrencyLevel(String level) {
+
+        m_cacheConcurrencyLevel = getIntValue(level, -1);
+    }
+
+    /**
+     * Sets the maximum number of published resources for which cache entries are removed selectively.<p>
+     *
+     * @param threshold the maximum number of published resources for which cache entries are removed selectively
+     */
+    public void setCacheFlushThreshold(String threshold) {
+
+        m_cacheFlushThreshold = getIntValue(threshold, -1);
+    }
+
+    /**
+     * Sets the implementation used for the memory monitor's caches.<p>
+     * 
+     * Unknown values fall back to {@link #CACHE_IMPLEMENTATION_LRU}.<p>
+     *
+     * @param implementation the implementation used for the memory monitor's caches
+     */
+    public void setCacheImplementation(String implementation) {
+
+        if (implementation != null) {
+            implementation = implementation.trim().toLowerCase();
+        }
+        if (CACHE_IMPLEMENTATION_CONCURRENT.equals(implementation) || CACHE_IMPLEMENTATION_LRU.equals(implementation)) {
+            m_cacheImplementation = implementation;
+        } else {
+            m_cacheImplementation = null;
+        }
+    }
+
     /**
      * Sets the name of the class to generate cache keys.<p>
      *
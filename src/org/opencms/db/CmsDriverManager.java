@@ -84,6 +84,7 @@ import org.opencms.main.I_CmsEventListener;
 import org.opencms.main.OpenCms;
 import org.opencms.module.CmsModule;
 import org.opencms.monitor.CmsMemoryMonitor;
+import org.opencms.monitor.CmsMetrics;
 import org.opencms.publish.CmsPublishEngine;
 import org.opencms.publish.CmsPublishJobInfoBean;
 import org.opencms.publish.CmsPublishReport;
@@ -114,6 +115,8 @@ import org.opencms.util.CmsUUID;
 import org.opencms.util.PrintfFormat;
 import org.opencms.workplace.commons.CmsProgressThread;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -122,6 +125,7 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Locale;
@@ -321,6 +325,9 @@ public final class CmsDriverManager implements I_CmsEventListener {
     /** Constant mode parameter to read all files and folders in the {@link #readChangedResourcesInsideProject(CmsDbContext, CmsUUID, CmsReadChangedProjectResourceMode)}} method. */
     private static final CmsReadChangedProjectResourceMode RCPRM_FOLDERS_ONLY_MODE = new CmsReadChangedProjectResourceMode();
 
+    /** The in-memory index of the aliases and rewrite aliases. */
+    private CmsAliasIndex m_aliasIndex;
+
     /** The list of initialized JDBC pools. */
     private List<PoolingDriver> m_connectionPools;
 
@@ -552,6 +559,7 @@ public final class CmsDriverManager implements I_CmsEventListener {
 
         I_CmsVfsDriver vfsDriver = getVfsDriver(dbc);
         vfsDriver.insertAlias(dbc, project, alias);
+        m_aliasIndex.addAlias(alias);
     }
 
     /**
@@ -975,12 +983,13 @@ public final class CmsDriverManager implements I_CmsEventListener {
                 CmsUUID publishHistoryId = new CmsUUID((String)event.getData().get(I_CmsEventListener.KEY_PUBLISHID));
                 report = (I_CmsReport)event.getData().get(I_CmsEventListener.KEY_REPORT);
                 dbc = (CmsDbContext)event.getData().get(I_CmsEventListener.KEY_DBCONTEXT);
-                m_monitor.clearCache();
+                clearPublishedResourcesCache(dbc, publishHistoryId);
                 writeExportPoints(dbc, report, publishHistoryId);
                 break;
 
             case I_CmsEventListener.EVENT_CLEAR_CACHES:
                 m_monitor.clearCache();
+                m_aliasIndex.clear();
                 break;
             case I_CmsEventListener.EVENT_CLEAR_PRINCIPAL_CACHES:
             case I_CmsEventListener.EVENT_USER_MODIFIED:
@@ -1045,7 +1054,7 @@ public final class CmsDriverManager implements I_CmsEventListener {
         }
 
         // clear the cache
-        m_monitor.clearAccessControlListCache();
+        m_monitor.clearAccessControlListCache(destination);
 
         // fire a resource modification event
         Map<String, Object> data = new HashMap<String, Object>(2);
@@ -2179,6 +2188,7 @@ public final class CmsDriverManager implements I_CmsEventListener {
 
         I_CmsVfsDriver vfsDriver = getVfsDriver(dbc);
         vfsDriver.deleteAliases(dbc, project, filter);
+        m_aliasIndex.removeAliases(filter);
     }
 
     /**
@@ -2952,10 +2962,9 @@ public final class CmsDriverManager implements I_CmsEventListener {
                         dbc,
                         false,
                         CmsUrlNameMappingFilter.ALL.filterStructureId(currentResource.getStructureId()));
-                    getVfsDriver(dbc).deleteAliases(
-                        dbc,
-                        dbc.currentProject(),
-                        new CmsAliasFilter(null, null, currentResource.getStructureId()));
+                    CmsAliasFilter aliasFilter = new CmsAliasFilter(null, null, currentResource.getStructureId());
+                    getVfsDriver(dbc).deleteAliases(dbc, dbc.currentProject(), aliasFilter);
+                    m_aliasIndex.removeAliases(aliasFilter);
                 } else {
                     // the resource exists online => mark the resource as deleted
                     // structure record is removed during next publish
@@ -4524,6 +4533,30 @@ public final class CmsDriverManager implements I_CmsEventListener {
         return getVfsDriver(dbc).readRewriteAliases(dbc, filter);
     }
 
+    /**
+     * Gets the rewrite alias matcher for the given site.<p>
+     * 
+     * The matcher is kept in the alias index, so the rewrite aliases are only read from the database
+     * if they are not indexed yet or have been changed.<p>
+     * 
+     * @param dbc the current database context 
+     * @param siteRoot the site root 
+     * 
+     * @return the rewrite alias matcher for the site 
+     * 
+     * @throws CmsException if something goes wrong 
+     */
+    public CmsRewriteAliasMatcher getRewriteAliasMatcher(CmsDbContext dbc, String siteRoot) throws CmsException {
+
+        CmsRewriteAliasMatcher matcher = m_aliasIndex.getRewriteAliasMatcher(siteRoot);
+        if (matcher == null) {
+            long version = m_aliasIndex.getVersion();
+            List<CmsRewriteAlias> aliases = getRewriteAliases(dbc, new CmsRewriteAliasFilter().setSiteRoot(siteRoot));
+            matcher = m_aliasIndex.setRewriteAliases(siteRoot, aliases, version);
+        }
+        return matcher;
+    }
+
     /**
      * Collects the groups which constitute a given role.<p>
      *
@@ -4916,7 +4949,7 @@ public final class CmsDriverManager implements I_CmsEventListener {
         while (i.hasNext()) {
             userDriver.writeAccessControlEntry(dbc, dbc.currentProject(), i.next());
         }
-        m_monitor.clearAccessControlListCache();
+        m_monitor.clearAccessControlListCache(resource);
     }
 
     /**
@@ -4956,6 +4989,7 @@ public final class CmsDriverManager implements I_CmsEventListener {
         List<CmsRewriteAlias> aliases = new ArrayList<CmsRewriteAlias>();
         aliases.add(alias);
         getVfsDriver(dbc).insertRewriteAliases(dbc, aliases);
+        m_aliasIndex.removeRewriteAliases(siteRoot);
         CmsAliasImportResult result = new CmsAliasImportResult(
             CmsAliasImportStatus.aliasNew,
             "OK",
@@ -5058,6 +5092,7 @@ public final class CmsDriverManager implements I_CmsEventListener {
         }
         // store local reference to the memory monitor to avoid multiple lookups through the OpenCms singelton
         m_monitor = OpenCms.getMemoryMonitor();
+        m_aliasIndex = new CmsAliasIndex();
 
         CmsSystemConfiguration systemConfiguation = (CmsSystemConfiguration)configurationManager.getConfiguration(CmsSystemConfiguration.class);
         CmsCacheSettings settings = systemConfiguation.getCacheSettings();
@@ -5325,9 +5360,6 @@ public final class CmsDriverManager implements I_CmsEventListener {
             changedProjectLastModified = true;
         }
 
-        // we must also clear the permission cache
-        m_monitor.flushCache(CmsMemoryMonitor.CacheType.PERMISSION);
-
         // fire resource modification event
         Map<String, Object> data = new HashMap<String, Object>(2);
         data.put(I_CmsEventListener.KEY_RESOURCE, resource);
@@ -5952,7 +5984,7 @@ public final class CmsDriverManager implements I_CmsEventListener {
             CmsProject onlineProject = readProject(dbc, CmsProject.ONLINE_PROJECT_ID);
 
             // clear the cache
-            m_monitor.clearCache();
+            clearPublishedResourcesCache(publishList);
 
             int publishTag = getNextPublishTag(dbc);
             getProjectDriver(dbc).publishProject(dbc, report, onlineProject, publishList, publishTag);
@@ -5982,7 +6014,7 @@ public final class CmsDriverManager implements I_CmsEventListener {
             }
         } finally {
             // clear the cache again
-            m_monitor.clearCache();
+            clearPublishedResourcesCache(publishList);
         }
     }
 
@@ -6199,12 +6231,13 @@ public final class CmsDriverManager implements I_CmsEventListener {
     public CmsAlias readAliasByPath(CmsDbContext dbc, CmsProject project, String siteRoot, String path)
     throws CmsException {
 
-        List<CmsAlias> aliases = getVfsDriver(dbc).readAliases(dbc, project, new CmsAliasFilter(siteRoot, path, null));
-        if (aliases.isEmpty()) {
-            return null;
-        } else {
-            return aliases.get(0);
+        Map<String, CmsAlias> aliases = m_aliasIndex.getAliases(siteRoot);
+        if (aliases == null) {
+            // load all aliases of the site into the index, later lookups will not hit the database
+            long version = m_aliasIndex.getVersion();
+            aliases = m_aliasIndex.setAliases(siteRoot, readAliasesBySite(dbc, project, siteRoot), version);
         }
+        return aliases.get(path);
     }
 
     /**
@@ -6426,7 +6459,7 @@ public final class CmsDriverManager implements I_CmsEventListener {
             }
             // cache the sub resources
             if (dbc.getProjectId().isNullUUID()) {
-                m_monitor.cacheResourceList(cacheKey, resourceList);
+                m_monitor.cacheResourceList(cacheKey, resource.getRootPath(), false, resourceList);
             }
         }
 
@@ -6434,6 +6467,36 @@ public final class CmsDriverManager implements I_CmsEventListener {
         return updateContextDates(dbc, resourceList, filter);
     }
 
+    /**
+     * Reads the binary content of a file resource as a stream.<p>
+     *
+     * The returned stream may hold database resources, so it must always be closed by the caller.
+     * Historical versions are always read completely.<p>
+     *
+     * @param dbc the current database context
+     * @param resource the file resource to read the content for
+     *
+     * @return the content of the file as a stream
+     *
+     * @throws CmsException if operation was not successful
+     */
+    public InputStream readContentStream(CmsDbContext dbc, CmsResource resource) throws CmsException {
+
+        if (resource.isFolder()) {
+            throw new CmsVfsResourceNotFoundException(Messages.get().container(
+                Messages.ERR_ACCESS_FOLDER_AS_FILE_1,
+                dbc.removeSiteRoot(resource.getRootPath())));
+        }
+
+        if (resource instanceof I_CmsHistoryResource) {
+            return new ByteArrayInputStream(getHistoryDriver(dbc).readContent(
+                dbc,
+                resource.getResourceId(),
+                ((I_CmsHistoryResource)resource).getPublishTag()));
+        }
+        return getVfsDriver(dbc).readContentStream(dbc, dbc.currentProject().getUuid(), resource.getResourceId());
+    }
+
     /**
      * Returns the default file for the given folder.<p>
      *
@@ -7200,6 +7263,117 @@ public final class CmsDriverManager implements I_CmsEventListener {
         return updateContextDates(dbc, result);
     }
 
+    /**
+     * Reads all property objects mapped to the given resources.<p>
+     *
+     * This has the same result as calling {@link #readPropertyObjects(CmsDbContext, CmsResource, boolean)} 
+     * for each of the resources, but the properties not already cached are read with as few 
+     * database queries as possible.<p>
+     *
+     * @param dbc the current database context
+     * @param resources the resources where the properties are read from
+     * @param search true, if the properties should be searched on all parent folders  if not found on the resource
+     *
+     * @return the lists of CmsProperty objects, by structure id of the resource
+     *
+     * @throws CmsException if something goes wrong
+     *
+     * @see CmsObject#readPropertiesForResources(List, boolean)
+     */
+    public Map<CmsUUID, List<CmsProperty>> readPropertiesForResources(
+        CmsDbContext dbc,
+        List<CmsResource> resources,
+        boolean search) throws CmsException {
+
+        CmsUUID projectId = getProjectIdForContext(dbc);
+        boolean useCache = dbc.getProjectId().isNullUUID();
+        Map<CmsUUID, List<CmsProperty>> result = new HashMap<CmsUUID, List<CmsProperty>>(resources.size());
+
+        // collect the resources whose properties are not cached yet
+        List<CmsResource> uncached = new ArrayList<CmsResource>();
+        // the properties directly attached to the uncached resources
+        Map<CmsUUID, List<CmsProperty>> ownProperties = new HashMap<CmsUUID, List<CmsProperty>>();
+        List<CmsResource> toRead = new ArrayList<CmsResource>();
+        for (CmsResource resource : resources) {
+            List<CmsProperty> properties = null;
+            if (useCache) {
+                properties = m_monitor.getCachedPropertyList(getCacheKey(
+                    CACHE_ALL_PROPERTIES,
+                    search,
+                    projectId,
+                    resource.getRootPath()));
+            }
+            if (properties != null) {
+                result.put(resource.getStructureId(), new ArrayList<CmsProperty>(properties));
+                continue;
+            }
+            uncached.add(resource);
+            if (search && useCache) {
+                properties = m_monitor.getCachedPropertyList(getCacheKey(
+                    CACHE_ALL_PROPERTIES,
+                    false,
+                    projectId,
+                    resource.getRootPath()));
+            }
+            if (properties != null) {
+                ownProperties.put(resource.getStructureId(), properties);
+            } else {
+                toRead.add(resource);
+            }
+        }
+        if (uncached.isEmpty()) {
+            return result;
+        }
+
+        // read the properties directly attached to the resources in one go
+        if (!toRead.isEmpty()) {
+            Map<CmsUUID, List<CmsProperty>> readProperties = getVfsDriver(dbc).readPropertyObjects(
+                dbc,
+                dbc.currentProject(),
+                toRead);
+            for (CmsResource resource : toRead) {
+                List<CmsProperty> properties = readProperties.get(resource.getStructureId());
+                CmsProperty.setFrozen(properties);
+                if (useCache) {
+                    String rootPath = resource.getRootPath();
+                    m_monitor.cachePropertyList(
+                        getCacheKey(CACHE_ALL_PROPERTIES, false, projectId, rootPath),
+                        rootPath,
+                        properties);
+                }
+                ownProperties.put(resource.getStructureId(), properties);
+            }
+        }
+
+        // the searched properties of a parent folder are shared by all resources in the folder
+        Map<String, List<CmsProperty>> parentProperties = new HashMap<String, List<CmsProperty>>();
+        for (CmsResource resource : uncached) {
+            List<CmsProperty> properties = ownProperties.get(resource.getStructureId());
+            String parentFolder = CmsResource.getParentFolder(resource.getRootPath());
+            if (search && (parentFolder != null)) {
+                List<CmsProperty> inherited = parentProperties.get(parentFolder);
+                if (inherited == null) {
+                    inherited = readPropertyObjects(dbc, readResource(dbc, parentFolder, CmsResourceFilter.ALL), true);
+                    parentProperties.put(parentFolder, inherited);
+                }
+                // make sure properties from lower folders "overwrite" properties from upper folders
+                List<CmsProperty> merged = new ArrayList<CmsProperty>(inherited);
+                merged.removeAll(properties);
+                merged.addAll(properties);
+                properties = merged;
+                if (useCache) {
+                    String rootPath = resource.getRootPath();
+                    m_monitor.cachePropertyList(
+                        getCacheKey(CACHE_ALL_PROPERTIES, true, projectId, rootPath),
+                        rootPath,
+                        properties);
+                }
+            }
+            result.put(resource.getStructureId(), new ArrayList<CmsProperty>(properties));
+        }
+        return result;
+    }
+
     /**
      * Reads a property definition.<p>
      *
@@ -7274,7 +7448,8 @@ public final class CmsDriverManager implements I_CmsEventListener {
 
         // check if we have the result already cached
         CmsUUID projectId = getProjectIdForContext(dbc);
-        String cacheKey = getCacheKey(CACHE_ALL_PROPERTIES, search, projectId, resource.getRootPath());
+        String rootPath = resource.getRootPath();
+        String cacheKey = getCacheKey(CACHE_ALL_PROPERTIES, search, projectId, rootPath);
 
         List<CmsProperty> properties = m_monitor.getCachedPropertyList(cacheKey);
 
@@ -7311,7 +7486,9 @@ public final class CmsDriverManager implements I_CmsEventListener {
                     }
                 } while (cont);
             } else {
+                long start = CmsMetrics.startTimer();
                 properties = getVfsDriver(dbc).readPropertyObjects(dbc, dbc.currentProject(), resource);
+                CmsMetrics.addTime(CmsMetrics.TIMER_READ_PROPERTIES, start);
                 //                for (CmsProperty prop : properties) {
                 //                    prop.setOrigin(resource.getRootPath());
                 //                }
@@ -7321,7 +7498,7 @@ public final class CmsDriverManager implements I_CmsEventListener {
             CmsProperty.setFrozen(properties);
             if (dbc.getProjectId().isNullUUID()) {
                 // store the result in the cache if needed
-                m_monitor.cachePropertyList(cacheKey, properties);
+                m_monitor.cachePropertyList(cacheKey, rootPath, properties);
             }
         }
 
@@ -7456,9 +7633,11 @@ public final class CmsDriverManager implements I_CmsEventListener {
     public CmsResource readResource(CmsDbContext dbc, CmsUUID structureID, CmsResourceFilter filter)
     throws CmsDataAccessException {
 
+        long start = CmsMetrics.startTimer();
         CmsUUID projectId = getProjectIdForContext(dbc);
         // please note: the filter will be applied in the security manager later
         CmsResource resource = getVfsDriver(dbc).readResource(dbc, projectId, structureID, filter.includeDeleted());
+        CmsMetrics.addTime(CmsMetrics.TIMER_READ_RESOURCE, start);
 
         // context dates need to be updated
         updateContextDates(dbc, resource);
@@ -7485,9 +7664,11 @@ public final class CmsDriverManager implements I_CmsEventListener {
     public CmsResource readResource(CmsDbContext dbc, String resourcePath, CmsResourceFilter filter)
     throws CmsDataAccessException {
 
+        long start = CmsMetrics.startTimer();
         CmsUUID projectId = getProjectIdForContext(dbc);
         // please note: the filter will be applied in the security manager later
         CmsResource resource = getVfsDriver(dbc).readResource(dbc, projectId, resourcePath, filter.includeDeleted());
+        CmsMetrics.addTime(CmsMetrics.TIMER_READ_RESOURCE, start);
 
         // context dates need to be updated
         updateContextDates(dbc, resource);
@@ -7496,6 +7677,68 @@ public final class CmsDriverManager implements I_CmsEventListener {
         return resource;
     }
 
+    /**
+     * Reads the resources with the given structure ids, using the specified resource filter.<p>
+     *
+     * The resources are read with as few database queries as possible, and cached by structure id. 
+     * Resources that do not exist, that do not match the filter or that the current user 
+     * is not allowed to read are skipped. The order of the given ids is kept.<p>
+     *
+     * @param dbc the current database context
+     * @param structureIds the structure ids of the resources to read
+     * @param filter the resource filter to use while reading
+     *
+     * @return the resources that were read
+     *
+     * @throws CmsException if something goes wrong
+     *
+     * @see CmsObject#readResources(Collection, CmsResourceFilter)
+     */
+    public List<CmsResource> readResources(
+        CmsDbContext dbc,
+        Collection<CmsUUID> structureIds,
+        CmsResourceFilter filter) throws CmsException {
+
+        CmsUUID projectId = getProjectIdForContext(dbc);
+        boolean useCache = dbc.getProjectId().isNullUUID();
+        Map<CmsUUID, CmsResource> resources = new HashMap<CmsUUID, CmsResource>(structureIds.size());
+        List<CmsUUID> uncached = new ArrayList<CmsUUID>();
+        for (CmsUUID structureId : structureIds) {
+            CmsResource resource = null;
+            if (useCache) {
+                resource = m_monitor.getCachedResource(getCacheKey(null, false, projectId, structureId.toString()));
+            }
+            if (resource != null) {
+                resources.put(structureId, resource);
+            } else {
+                uncached.add(structureId);
+            }
+        }
+        if (!uncached.isEmpty()) {
+            // deleted resources are also read and cached, the filter is applied below
+            for (CmsResource resource : getVfsDriver(dbc).readResources(dbc, projectId, uncached, true)) {
+                resources.put(resource.getStructureId(), resource);
+                if (useCache) {
+                    m_monitor.cacheResource(
+                        getCacheKey(null, false, projectId, resource.getStructureId().toString()),
+                        resource);
+                }
+            }
+        }
+
+        List<CmsResource> result = new ArrayList<CmsResource>(resources.size());
+        for (CmsUUID structureId : new LinkedHashSet<CmsUUID>(structureIds)) {
+            CmsResource resource = resources.get(structureId);
+            if ((resource != null) && (filter.includeDeleted() || !resource.getState().isDeleted())) {
+                result.add(resource);
+            }
+        }
+        // check the permissions of all resources, skipping the ones that can not be read
+        result = filterPermissions(dbc, result, filter);
+        // we must always apply the result filter and update the context dates
+        return updateContextDates(dbc, result, filter);
+    }
+
     /**
      * Reads all resources below the given path matching the filter criteria,
      * including the full tree below the path only in case the <code>readTree</code>
@@ -7553,7 +7796,7 @@ public final class CmsDriverManager implements I_CmsEventListener {
             }
             // store the result in the resourceList cache
             if (dbc.getProjectId().isNullUUID()) {
-                m_monitor.cacheResourceList(cacheKey, resourceList);
+                m_monitor.cacheResourceList(cacheKey, parent.getRootPath(), readTree, resourceList);
             }
         }
         // we must always apply the result filter and update the context dates
@@ -7636,7 +7879,7 @@ public final class CmsDriverManager implements I_CmsEventListener {
             resourceList = filterPermissions(dbc, resourceList, filter);
             // store the result in the resourceList cache
             if (dbc.getProjectId().isNullUUID()) {
-                m_monitor.cacheResourceList(cacheKey, resourceList);
+                m_monitor.cacheResourceList(cacheKey, folder.getRootPath(), true, resourceList);
             }
         }
         // we must always apply the result filter and update the context dates
@@ -7976,7 +8219,7 @@ public final class CmsDriverManager implements I_CmsEventListener {
         setDateLastModified(dbc, resource, resource.getDateLastModified());
 
         // clear the cache
-        m_monitor.clearAccessControlListCache();
+        m_monitor.clearAccessControlListCache(resource);
 
         // fire a resource modification event
         Map<String, Object> data = new HashMap<String, Object>(2);
@@ -8551,11 +8794,14 @@ public final class CmsDriverManager implements I_CmsEventListener {
             }
         }
         I_CmsVfsDriver vfsDriver = getVfsDriver(dbc);
-        vfsDriver.deleteAliases(dbc, project, new CmsAliasFilter(null, null, structureId));
+        CmsAliasFilter filter = new CmsAliasFilter(null, null, structureId);
+        vfsDriver.deleteAliases(dbc, project, filter);
+        m_aliasIndex.removeAliases(filter);
         for (CmsAlias alias : aliases) {
             String aliasPath = alias.getAliasPath();
             if (CmsAlias.ALIAS_PATTERN.matcher(aliasPath).matches()) {
                 vfsDriver.insertAlias(dbc, project, alias);
+                m_aliasIndex.addAlias(alias);
             } else {
                 LOG.error("Invalid alias path: " + aliasPath);
             }
@@ -8576,6 +8822,7 @@ public final class CmsDriverManager implements I_CmsEventListener {
         CmsRewriteAliasFilter filter = new CmsRewriteAliasFilter().setSiteRoot(siteRoot);
         getVfsDriver(dbc).deleteRewriteAliases(dbc, filter);
         getVfsDriver(dbc).insertRewriteAliases(dbc, newAliases);
+        m_aliasIndex.removeRewriteAliases(siteRoot);
     }
 
     /**
@@ -8960,7 +9207,7 @@ public final class CmsDriverManager implements I_CmsEventListener {
         // unlock all resources in the project
         m_lockManager.removeResourcesInProject(project.getUuid(), false);
         m_monitor.clearResourceCache();
-        m_monitor.flushCache(CmsMemoryMonitor.CacheType.PROJECT, CmsMemoryMonitor.CacheType.PERMISSION);
+        m_monitor.flushCache(CmsMemoryMonitor.CacheType.PROJECT);
     }
 
     /**
@@ -8980,14 +9227,11 @@ public final class CmsDriverManager implements I_CmsEventListener {
     throws CmsException {
 
         // update the resource cache
-        m_monitor.clearResourceCache();
+        m_monitor.clearResourceCache(Collections.singletonList(new CmsPublishedResource(resource)));
 
         // now update lock status
         m_lockManager.removeResource(dbc, resource, force, removeSystemLock);
 
-        // we must also clear the permission cache
-        m_monitor.flushCache(CmsMemoryMonitor.CacheType.PERMISSION);
-
         // fire resource modification event
         Map<String, Object> data = new HashMap<String, Object>(2);
         data.put(I_CmsEventListener.KEY_RESOURCE, resource);
@@ -9343,7 +9587,7 @@ public final class CmsDriverManager implements I_CmsEventListener {
         setDateLastModified(dbc, resource, resource.getDateLastModified());
 
         // clear the cache
-        m_monitor.clearAccessControlListCache();
+        m_monitor.clearAccessControlListCache(resource);
 
         // fire a resource modification event
         Map<String, Object> data = new HashMap<String, Object>(2);
@@ -10433,6 +10677,64 @@ public final class CmsDriverManager implements I_CmsEventListener {
         return false;
     }
 
+    /**
+     * Removes the cache entries depending on the resources of the given publish history entry.<p>
+     * 
+     * If the published resources can not be read, all caches are cleared.<p>
+     * 
+     * @param dbc the current database context
+     * @param publishHistoryId the id of the publish history entry
+     */
+    private void clearPublishedResourcesCache(CmsDbContext dbc, CmsUUID publishHistoryId) {
+
+        List<CmsPublishedResource> publishedResources;
+        try {
+            publishedResources = readPublishedResources(dbc, publishHistoryId);
+        } catch (CmsException e) {
+            LOG.error(e.getLocalizedMessage(), e);
+            m_monitor.clearCache();
+            return;
+        }
+        clearPublishedResourcesCache(publishedResources);
+    }
+
+    /**
+     * Removes the cache entries depending on the given published resources.<p>
+     * 
+     * @param publishedResources the published resources
+     */
+    private void clearPublishedResourcesCache(List<CmsPublishedResource> publishedResources) {
+
+        m_monitor.clearResourceCache(publishedResources);
+        for (CmsPublishedResource resource : publishedResources) {
+            if (resource.getState().isDeleted()) {
+                // the aliases of deleted resources have been removed by the project driver
+                m_aliasIndex.removeAliases(new CmsAliasFilter(null, null, resource.getStructureId()));
+            }
+        }
+        m_monitor.flushCache(
+            CmsMemoryMonitor.CacheType.PROJECT,
+            CmsMemoryMonitor.CacheType.PROJECT_RESOURCES,
+            CmsMemoryMonitor.CacheType.PUBLISHED_RESOURCES,
+            CmsMemoryMonitor.CacheType.ORG_UNIT);
+        m_monitor.clearAccessControlListCache(publishedResources);
+    }
+
+    /**
+     * Removes the cache entries depending on the resources of the given publish list.<p>
+     * 
+     * @param publishList the publish list
+     */
+    private void clearPublishedResourcesCache(CmsPublishList publishList) {
+
+        List<CmsResource> resources = publishList.getAllResources();
+        List<CmsPublishedResource> publishedResources = new ArrayList<CmsPublishedResource>(resources.size());
+        for (CmsResource resource : resources) {
+            publishedResources.add(new CmsPublishedResource(resource));
+        }
+        clearPublishedResourcesCache(publishedResources);
+    }
+
     /**
      * Checks that no one of the resources to be published has a 'new' parent (that has not been published yet).<p>
      *
@@ -10725,6 +11027,12 @@ public final class CmsDriverManager implements I_CmsEventListener {
     /**
      * Returns the access control list of a given resource.<p>
      *
+     * For <code>depth &gt; 0</code>, the resource is a parent folder and the result is the access control list 
+     * inherited from it. This does not depend on the depth and on the <code>inheritedOnly</code> flag, 
+     * but only on whether it is inherited by a file directly contained in the folder (which inherits all 
+     * entries of the folder) or by any other resource below the folder. The inherited access control lists 
+     * are cached by folder, so they are shared by all resources below the folder.<p>
+     *
      * @param dbc the current database context
      * @param resource the resource
      * @param forFolder should be true if resource is a folder
@@ -10742,13 +11050,20 @@ public final class CmsDriverManager implements I_CmsEventListener {
         boolean forFolder,
         int depth) throws CmsException {
 
-        String cacheKey = getCacheKey(
-            new String[] {
-                inheritedOnly ? "+" : "-",
-                forFolder ? "+" : "-",
-                Integer.toString(depth),
-                resource.getStructureId().toString()},
-            dbc);
+        String cacheKey;
+        if (depth == 0) {
+            cacheKey = getCacheKey(
+                new String[] {
+                    inheritedOnly ? "+" : "-",
+                    forFolder ? "+" : "-",
+                    "0",
+                    resource.getStructureId().toString()},
+                dbc);
+        } else {
+            cacheKey = getCacheKey(new String[] {
+                ((depth == 1) && !forFolder) ? "F" : "I",
+                resource.getStructureId().toString()}, dbc);
+        }
 
         CmsAccessControlList acl = m_monitor.getCachedACL(cacheKey);
 
@@ -10814,7 +11129,7 @@ public final class CmsDriverManager implements I_CmsEventListener {
             }
         }
         if (dbc.getProjectId().isNullUUID()) {
-            m_monitor.cacheACL(cacheKey, acl);
+            m_monitor.cacheACL(cacheKey, resource, acl);
         }
         return acl;
     }
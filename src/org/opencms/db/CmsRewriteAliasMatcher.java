@@ -95,14 +95,28 @@ public class CmsRewriteAliasMatcher {
     /** The list of rewrite aliases to use for matching. */
     private List<CmsRewriteAlias> m_aliases;
 
+    /** The compiled patterns of the rewrite aliases, in the same order as the aliases. */
+    private List<Pattern> m_patterns;
+
     /**
      * Creates a new matcher instance for the given list of rewrite aliases.<p>
      * 
+     * The patterns of the aliases are compiled once here, aliases with invalid patterns are ignored.<p>
+     * 
      * @param aliases the list of rewrite aliases to be used for matching 
      */
     public CmsRewriteAliasMatcher(Collection<CmsRewriteAlias> aliases) {
 
-        m_aliases = new ArrayList<CmsRewriteAlias>(aliases);
+        m_aliases = new ArrayList<CmsRewriteAlias>(aliases.size());
+        m_patterns = new ArrayList<Pattern>(aliases.size());
+        for (CmsRewriteAlias alias : aliases) {
+            try {
+                m_patterns.add(Pattern.compile(alias.getPatternString()));
+                m_aliases.add(alias);
+            } catch (PatternSyntaxException e) {
+                LOG.warn(e.getLocalizedMessage(), e);
+            }
+        }
     }
 
     /**
@@ -114,16 +128,14 @@ public class CmsRewriteAliasMatcher {
      */
     public RewriteResult match(String path) {
 
-        for (CmsRewriteAlias alias : m_aliases) {
+        for (int i = 0; i < m_aliases.size(); i++) {
+            CmsRewriteAlias alias = m_aliases.get(i);
             try {
-                Pattern pattern = Pattern.compile(alias.getPatternString());
-                Matcher matcher = pattern.matcher(path);
+                Matcher matcher = m_patterns.get(i).matcher(path);
                 if (matcher.matches()) {
                     String newPath = matcher.replaceFirst(alias.getReplacementString());
                     return new RewriteResult(newPath, alias);
                 }
-            } catch (PatternSyntaxException e) {
-                LOG.warn(e.getLocalizedMessage(), e);
             } catch (IndexOutOfBoundsException e) {
                 LOG.warn(e.getLocalizedMessage(), e);
             }
@@ -69,6 +69,7 @@ import org.opencms.main.CmsLog;
 import org.opencms.main.CmsMultiException;
 import org.opencms.main.I_CmsEventListener;
 import org.opencms.main.OpenCms;
+import org.opencms.monitor.CmsMetrics;
 import org.opencms.publish.CmsPublishEngine;
 import org.opencms.relations.CmsLink;
 import org.opencms.relations.CmsRelation;
@@ -92,6 +93,7 @@ import org.opencms.util.CmsFileUtil;
 import org.opencms.util.CmsStringUtil;
 import org.opencms.util.CmsUUID;
 
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -2637,6 +2639,30 @@ public final class CmsSecurityManager {
         return dependencies;
     }
 
+    /**
+     * Gets the rewrite alias matcher for the given site.<p>
+     * 
+     * @param requestContext the current request context 
+     * @param siteRoot the site root 
+     * 
+     * @return the rewrite alias matcher for the site 
+     * 
+     * @throws CmsException if something goes wrong 
+     */
+    public CmsRewriteAliasMatcher getRewriteAliasMatcher(CmsRequestContext requestContext, String siteRoot)
+    throws CmsException {
+
+        CmsDbContext dbc = m_dbContextFactory.getDbContext(requestContext);
+        try {
+            return m_driverManager.getRewriteAliasMatcher(dbc, siteRoot);
+        } catch (Exception e) {
+            dbc.report(null, Messages.get().container(Messages.ERR_DB_OPERATION_0), e);
+            return null; // will never be executed
+        } finally {
+            dbc.clear();
+        }
+    }
+
     /**
      * Gets the rewrite aliases matching a given filter.<p>
      *  
@@ -4066,6 +4092,34 @@ public final class CmsSecurityManager {
         return result;
     }
 
+    /**
+     * Reads the binary content of a file resource as a stream.<p>
+     *
+     * The returned stream may hold database resources, so it must always be closed by the caller.<p>
+     *
+     * @param context the current request context
+     * @param resource the file resource to read the content for
+     *
+     * @return the content of the file as a stream
+     *
+     * @throws CmsException if something goes wrong
+     *
+     * @see CmsObject#readContentStream(CmsResource)
+     */
+    public InputStream readContentStream(CmsRequestContext context, CmsResource resource) throws CmsException {
+
+        InputStream result = null;
+        CmsDbContext dbc = m_dbContextFactory.getDbContext(context);
+        try {
+            result = m_driverManager.readContentStream(dbc, resource);
+        } catch (Exception e) {
+            dbc.report(null, Messages.get().container(Messages.ERR_READ_FILE_1, context.getSitePath(resource)), e);
+        } finally {
+            dbc.clear();
+        }
+        return result;
+    }
+
     /**
      * Returns the default file for the given folder.<p>
      *
@@ -4689,6 +4743,40 @@ public final class CmsSecurityManager {
         return result;
     }
 
+    /**
+     * Reads all property objects mapped to the given resources.<p>
+     *
+     * This has the same result as calling {@link #readPropertyObjects(CmsRequestContext, CmsResource, boolean)} 
+     * for each of the resources, but reads the properties with as few database queries as possible.<p>
+     *
+     * @param context the context of the current request
+     * @param resources the resources where the properties are mapped to
+     * @param search <code>true</code>, if the properties should be searched on all parent folders  if not found on the resource
+     *
+     * @return the lists of <code>{@link CmsProperty}</code> objects, by structure id of the resource
+     *
+     * @throws CmsException if something goes wrong
+     */
+    public Map<CmsUUID, List<CmsProperty>> readPropertiesForResources(
+        CmsRequestContext context,
+        List<CmsResource> resources,
+        boolean search) throws CmsException {
+
+        Map<CmsUUID, List<CmsProperty>> result = null;
+        CmsDbContext dbc = m_dbContextFactory.getDbContext(context);
+        try {
+            result = m_driverManager.readPropertiesForResources(dbc, resources, search);
+        } catch (Exception e) {
+            dbc.report(
+                null,
+                Messages.get().container(Messages.ERR_READ_PROPS_FOR_RESOURCES_1, new Integer(resources.size())),
+                e);
+        } finally {
+            dbc.clear();
+        }
+        return result;
+    }
+
     /**
      * Reads a property definition.<p>
      *
@@ -4945,6 +5033,40 @@ public final class CmsSecurityManager {
         return result;
     }
 
+    /**
+     * Reads the resources with the given structure ids, using the specified resource filter.<p>
+     *
+     * Resources that do not exist, that do not match the filter or that the current user 
+     * is not allowed to read are skipped.<p>
+     *
+     * @param context the current request context
+     * @param structureIds the structure ids of the resources to read
+     * @param filter the resource filter to use while reading
+     *
+     * @return the resources that were read, in the order of the given ids
+     *
+     * @throws CmsException if something goes wrong
+     */
+    public List<CmsResource> readResources(
+        CmsRequestContext context,
+        Collection<CmsUUID> structureIds,
+        CmsResourceFilter filter) throws CmsException {
+
+        List<CmsResource> result = null;
+        CmsDbContext dbc = m_dbContextFactory.getDbContext(context);
+        try {
+            result = m_driverManager.readResources(dbc, structureIds, filter);
+        } catch (Exception e) {
+            dbc.report(
+                null,
+                Messages.get().container(Messages.ERR_READ_RESOURCES_FOR_IDS_1, new Integer(structureIds.size())),
+                e);
+        } finally {
+            dbc.clear();
+        }
+        return result;
+    }
+
     /**
      * Reads all resources below the given path matching the filter criteria,
      * including the full tree below the path only in case the <code>readTree</code>
@@ -7108,7 +7230,12 @@ public final class CmsSecurityManager {
         boolean checkLock,
         CmsResourceFilter filter) throws CmsException {
 
-        return m_permissionHandler.hasPermissions(dbc, resource, requiredPermissions, checkLock, filter);
+        long start = CmsMetrics.startTimer();
+        try {
+            return m_permissionHandler.hasPermissions(dbc, resource, requiredPermissions, checkLock, filter);
+        } finally {
+            CmsMetrics.addTime(CmsMetrics.TIMER_PERMISSION_CHECK, start);
+        }
     }
 
     /**
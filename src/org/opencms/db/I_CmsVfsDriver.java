@@ -41,6 +41,7 @@ import org.opencms.relations.CmsRelationFilter;
 import org.opencms.security.CmsOrganizationalUnit;
 import org.opencms.util.CmsUUID;
 
+import java.io.InputStream;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.Collection;
@@ -464,6 +465,22 @@ public interface I_CmsVfsDriver {
      */
     byte[] readContent(CmsDbContext dbc, CmsUUID projectId, CmsUUID resourceId) throws CmsDataAccessException;
 
+    /**
+     * Reads the content of a file specified by it's resource ID as a stream.<p>
+     * 
+     * The returned stream may hold database resources, so it must always be closed by the caller.<p>
+     *
+     * @param dbc the current database context
+     * @param projectId the ID of the current project
+     * @param resourceId the id of the resource
+     *
+     * @return the file content as a stream
+     *
+     * @throws CmsDataAccessException if something goes wrong
+     */
+    InputStream readContentStream(CmsDbContext dbc, CmsUUID projectId, CmsUUID resourceId)
+    throws CmsDataAccessException;
+
     /**
      * Reads a folder specified by it's structure ID.<p>
      *
@@ -570,6 +587,27 @@ public interface I_CmsVfsDriver {
     List<CmsProperty> readPropertyObjects(CmsDbContext dbc, CmsProject project, CmsResource resource)
     throws CmsDataAccessException;
 
+    /**
+     * Reads all property objects mapped to the given resources from the database.<p>
+     *
+     * Implementations should read the properties of many resources with as few queries as possible.
+     * The result contains an entry for each of the given resources, with an empty list 
+     * if no properties are found for the resource.<p>
+     *
+     * @param dbc the current database context
+     * @param project the current project
+     * @param resources the resources where the properties are attached to
+     *
+     * @return the lists of CmsProperty objects containing both the structure and resource value of the property, 
+     *      by structure id of the resource
+     *
+     * @throws CmsDataAccessException if something goes wrong
+     */
+    Map<CmsUUID, List<CmsProperty>> readPropertyObjects(
+        CmsDbContext dbc,
+        CmsProject project,
+        List<CmsResource> resources) throws CmsDataAccessException;
+
     /**
      * Reads all relations with the given filter for the given resource.<p>
      *
@@ -613,6 +651,27 @@ public interface I_CmsVfsDriver {
     CmsResource readResource(CmsDbContext dbc, CmsUUID projectId, String filename, boolean includeDeleted)
     throws CmsDataAccessException;
 
+    /**
+     * Reads the resources with the given structure ids.<p>
+     *
+     * Implementations should read many resources with as few queries as possible. 
+     * Resources that do not exist are skipped, and the resources are returned in no particular order.<p>
+     *
+     * @param dbc the current database context
+     * @param projectId the id of the project
+     * @param structureIds the structure ids of the resources to read
+     * @param includeDeleted true if already deleted files are included
+     *
+     * @return the resources that were read
+     *
+     * @throws CmsDataAccessException if something goes wrong
+     */
+    List<CmsResource> readResources(
+        CmsDbContext dbc,
+        CmsUUID projectId,
+        Collection<CmsUUID> structureIds,
+        boolean includeDeleted) throws CmsDataAccessException;
+
     /**
      * Reads all resources inside a given project and with a given state.<p>
      *
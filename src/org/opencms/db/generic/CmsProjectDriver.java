@@ -57,6 +57,7 @@ import org.opencms.file.CmsFolder;
 import org.opencms.file.CmsGroup;
 import org.opencms.file.CmsProject;
 import org.opencms.file.CmsProperty;
+import org.opencms.file.CmsRequestContext;
 import org.opencms.file.CmsResource;
 import org.opencms.file.CmsResourceFilter;
 import org.opencms.file.CmsUser;
@@ -74,6 +75,7 @@ import org.opencms.main.I_CmsEventListener;
 import org.opencms.main.OpenCms;
 import org.opencms.publish.CmsPublishJobInfoBean;
 import org.opencms.relations.CmsRelationFilter;
+import org.opencms.report.CmsBufferedReport;
 import org.opencms.report.I_CmsReport;
 import org.opencms.security.CmsOrganizationalUnit;
 import org.opencms.security.I_CmsPrincipal;
@@ -96,8 +98,13 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.logging.Log;
 
@@ -110,6 +117,421 @@ import com.google.common.collect.Sets;
  */
 public class CmsProjectDriver implements I_CmsDriver, I_CmsProjectDriver {
 
+    /**
+     * Runs a task for each item of a list with several worker threads, and processes the results 
+     * on the calling thread in the order of the list.<p>
+     * 
+     * Items with the same group key are run by the same worker in the order of the list. If an item 
+     * fails, the workers are stopped and the items they have already run successfully are still processed, 
+     * so that no item is left run but not processed.<p>
+     * 
+     * @param <C> the type of the context of a worker thread
+     */
+    abstract static class CmsOrderedParallelTask<C> implements Runnable {
+
+        /** Signals that the workers should stop. */
+        private AtomicBoolean m_cancelled = new AtomicBoolean();
+
+        /** The errors that occurred while running the items. */
+        private Throwable[] m_errors;
+
+        /** The latches that are released when an item has been run. */
+        private CountDownLatch[] m_finished;
+
+        /** The indexes of the items grouped by their group key. */
+        private List<List<Integer>> m_groups;
+
+        /** The index of the next group to run. */
+        private AtomicInteger m_nextGroup = new AtomicInteger();
+
+        /** The name prefix of the worker threads. */
+        private String m_threadName;
+
+        /**
+         * Creates a new ordered parallel task.<p>
+         * 
+         * @param size the number of items
+         * @param threadName the name prefix of the worker threads
+         */
+        CmsOrderedParallelTask(int size, String threadName) {
+
+            m_threadName = threadName;
+            m_errors = new Throwable[size];
+            m_finished = new CountDownLatch[size];
+            for (int i = 0; i < size; i++) {
+                m_finished[i] = new CountDownLatch(1);
+            }
+        }
+
+        /**
+         * Runs groups of items until all items have been run or the task is cancelled.<p>
+         * 
+         * @see java.lang.Runnable#run()
+         */
+        public void run() {
+
+            C context = startWorker();
+            try {
+                int group = m_nextGroup.getAndIncrement();
+                while (!m_cancelled.get() && (group < m_groups.size())) {
+                    for (Integer index : m_groups.get(group)) {
+                        int i = index.intValue();
+                        try {
+                            runItem(context, i);
+                        } catch (Throwable t) {
+                            m_errors[i] = t;
+                        } finally {
+                            m_finished[i].countDown();
+                        }
+                    }
+                    group = m_nextGroup.getAndIncrement();
+                }
+            } finally {
+                finishWorker(context);
+            }
+        }
+
+        /**
+         * Runs the items with the given number of threads and processes them in the order of the list.<p>
+         * 
+         * @param threads the number of threads
+         * 
+         * @throws CmsException the error of the first item that failed
+         */
+        void execute(int threads) throws CmsException {
+
+            Map<Object, List<Integer>> groups = new LinkedHashMap<Object, List<Integer>>();
+            for (int i = 0; i < m_finished.length; i++) {
+                Object key = getGroupKey(i);
+                List<Integer> group = groups.get(key);
+                if (group == null) {
+                    group = new ArrayList<Integer>();
+                    groups.put(key, group);
+                }
+                group.add(Integer.valueOf(i));
+            }
+            m_groups = new ArrayList<List<Integer>>(groups.values());
+            List<Thread> workers = new ArrayList<Thread>(threads);
+            try {
+                for (int i = 0; i < threads; i++) {
+                    Thread worker = new Thread(this, m_threadName + " " + (i + 1));
+                    workers.add(worker);
+                    worker.start();
+                }
+                for (int i = 0; i < m_finished.length; i++) {
+                    await(m_finished[i]);
+                    try {
+                        if (m_errors[i] != null) {
+                            handleError(i, m_errors[i]);
+                        }
+                        processItem(i);
+                    } catch (CmsException e) {
+                        // the workers may already have run items after the failed one, these must be processed too
+                        stopWorkers(workers);
+                        for (int j = i + 1; j < m_finished.length; j++) {
+                            if ((m_finished[j].getCount() == 0) && (m_errors[j] == null)) {
+                                try {
+                                    processItem(j);
+                                } catch (CmsException e2) {
+                                    LOG.error(e2.getLocalizedMessage(), e2);
+                                }
+                            }
+                        }
+                        throw e;
+                    }
+                }
+            } finally {
+                stopWorkers(workers);
+            }
+        }
+
+        /**
+         * Cleans up the context of a worker thread.<p>
+         * 
+         * @param context the context of the worker thread
+         */
+        abstract void finishWorker(C context);
+
+        /**
+         * Returns the group key of an item, items with the same key are run by the same worker.<p>
+         * 
+         * @param index the index of the item
+         * 
+         * @return the group key of the item
+         */
+        abstract Object getGroupKey(int index);
+
+        /**
+         * Handles the error of an item, called on the thread that executes the task.<p>
+         * 
+         * @param index the index of the item
+         * @param error the error that occurred while running the item
+         * 
+         * @throws CmsException the error to abort the task with
+         */
+        abstract void handleError(int index, Throwable error) throws CmsException;
+
+        /**
+         * Processes an item that has been run successfully, called on the thread that executes the task.<p>
+         * 
+         * @param index the index of the item
+         * 
+         * @throws CmsException if processing the item fails
+         */
+        abstract void processItem(int index) throws CmsException;
+
+        /**
+         * Runs an item, called by a worker thread.<p>
+         * 
+         * @param context the context of the worker thread
+         * @param index the index of the item
+         * 
+         * @throws Throwable if running the item fails
+         */
+        abstract void runItem(C context, int index) throws Throwable;
+
+        /**
+         * Creates the context of a worker thread.<p>
+         * 
+         * @return the context of the worker thread
+         */
+        abstract C startWorker();
+
+        /**
+         * Waits until the given latch is released.<p>
+         * 
+         * @param latch the latch
+         */
+        private void await(CountDownLatch latch) {
+
+            boolean finished = false;
+            while (!finished) {
+                try {
+                    latch.await();
+                    finished = true;
+                } catch (InterruptedException e) {
+                    // ignore, the item is run anyway
+                }
+            }
+        }
+
+        /**
+         * Stops the workers after their current group and waits until they are finished.<p>
+         * 
+         * @param workers the worker threads
+         */
+        private void stopWorkers(List<Thread> workers) {
+
+            m_cancelled.set(true);
+            for (Thread worker : workers) {
+                try {
+                    worker.join();
+                } catch (InterruptedException e) {
+                    // ignore
+                }
+            }
+        }
+    }
+
+    /**
+     * Publishes the files of a publish list with several threads in parallel.<p>
+     * 
+     * Siblings are always published by the same thread in the order of the publish list, 
+     * since they share their content. The results are processed by the publishing thread 
+     * in the order of the publish list, so that unlocking, logging and the report output 
+     * are the same as for sequential publishing.<p>
+     */
+    private class CmsParallelFilePublish extends CmsOrderedParallelTask<CmsDbContext> {
+
+        /** The ids of the resources which have been changed and deleted. */
+        private Object m_changedAndDeleted;
+
+        /** The database context of the publishing thread. */
+        private CmsDbContext m_dbc;
+
+        /** The files to publish. */
+        private List<CmsResource> m_files;
+
+        /** The online project. */
+        private CmsProject m_onlineProject;
+
+        /** The already published content ids. */
+        private Set<CmsUUID> m_publishedContentIds;
+
+        /** The set to add the structure ids of the published files to. */
+        private Set<CmsUUID> m_publishedIds;
+
+        /** The project id of the database context of the publishing thread. */
+        private CmsUUID m_projectId;
+
+        /** The publish list. */
+        private CmsPublishList m_publishList;
+
+        /** The publish tag. */
+        private int m_publishTag;
+
+        /** The report of the publishing thread. */
+        private I_CmsReport m_report;
+
+        /** The buffered reports of the published files. */
+        private CmsBufferedReport[] m_reports;
+
+        /** The request context of the publishing thread. */
+        private CmsRequestContext m_requestContext;
+
+        /**
+         * Creates a new parallel file publish.<p>
+         * 
+         * @param dbc the current database context
+         * @param report the report to write the output to
+         * @param onlineProject the online project
+         * @param publishList the publish list
+         * @param publishTag the publish tag
+         * @param publishedContentIds the already published content ids
+         * @param publishedIds the set to add the structure ids of the published files to
+         */
+        CmsParallelFilePublish(
+            CmsDbContext dbc,
+            I_CmsReport report,
+            CmsProject onlineProject,
+            CmsPublishList publishList,
+            int publishTag,
+            Set<CmsUUID> publishedContentIds,
+            Set<CmsUUID> publishedIds) {
+
+            super(publishList.getFileList().size(), "OpenCms: Publishing files");
+            m_dbc = dbc;
+            m_requestContext = dbc.getRequestContext();
+            m_projectId = dbc.getProjectId();
+            m_changedAndDeleted = dbc.getAttribute(CmsDriverManager.KEY_CHANGED_AND_DELETED);
+            m_report = report;
+            m_onlineProject = onlineProject;
+            m_publishList = publishList;
+            m_publishTag = publishTag;
+            m_publishedContentIds = Collections.synchronizedSet(publishedContentIds);
+            m_publishedIds = publishedIds;
+            m_files = publishList.getFileList();
+            m_reports = new CmsBufferedReport[m_files.size()];
+            for (int i = 0; i < m_files.size(); i++) {
+                m_reports[i] = new CmsBufferedReport(report);
+            }
+        }
+
+        /**
+         * @see org.opencms.db.generic.CmsProjectDriver.CmsOrderedParallelTask#finishWorker(java.lang.Object)
+         */
+        @Override
+        void finishWorker(CmsDbContext context) {
+
+            context.clear();
+        }
+
+        /**
+         * Groups siblings, since they share their content.<p>
+         * 
+         * @see org.opencms.db.generic.CmsProjectDriver.CmsOrderedParallelTask#getGroupKey(int)
+         */
+        @Override
+        Object getGroupKey(int index) {
+
+            return m_files.get(index).getResourceId();
+        }
+
+        /**
+         * @see org.opencms.db.generic.CmsProjectDriver.CmsOrderedParallelTask#handleError(int, java.lang.Throwable)
+         */
+        @Override
+        void handleError(int index, Throwable error) throws CmsException {
+
+            m_reports[index].flush();
+            m_dbc.report(
+                m_report,
+                Messages.get().container(Messages.ERR_ERROR_PUBLISHING_FILE_1, m_files.get(index).getRootPath()),
+                error);
+        }
+
+        /**
+         * Unlocks and logs a published file.<p>
+         * 
+         * @see org.opencms.db.generic.CmsProjectDriver.CmsOrderedParallelTask#processItem(int)
+         */
+        @Override
+        void processItem(int index) throws CmsException {
+
+            m_reports[index].flush();
+            CmsResource currentResource = m_files.get(index);
+            try {
+                CmsResourceState state = currentResource.getState();
+                // unlock it
+                m_driverManager.unlockResource(m_dbc, currentResource, true, true);
+                // log it
+                CmsLogEntryType type = state.isNew()
+                ? CmsLogEntryType.RESOURCE_PUBLISHED_NEW
+                : (state.isDeleted()
+                ? CmsLogEntryType.RESOURCE_PUBLISHED_DELETED
+                : CmsLogEntryType.RESOURCE_PUBLISHED_MODIFIED);
+                m_driverManager.log(m_dbc, new CmsLogEntry(
+                    m_dbc,
+                    currentResource.getStructureId(),
+                    type,
+                    new String[] {currentResource.getRootPath()}), true);
+
+                m_publishedIds.add(currentResource.getStructureId());
+                m_dbc.pop();
+            } catch (Throwable t) {
+                m_dbc.report(
+                    m_report,
+                    Messages.get().container(Messages.ERR_ERROR_PUBLISHING_FILE_1, currentResource.getRootPath()),
+                    t);
+            }
+        }
+
+        /**
+         * Publishes a file.<p>
+         * 
+         * @see org.opencms.db.generic.CmsProjectDriver.CmsOrderedParallelTask#runItem(java.lang.Object, int)
+         */
+        @Override
+        void runItem(CmsDbContext dbc, int index) throws Throwable {
+
+            CmsResource currentResource = m_files.get(index);
+            // bounce the current publish task through all project drivers
+            m_driverManager.getProjectDriver(dbc).publishFile(
+                dbc,
+                m_reports[index],
+                index + 1,
+                m_files.size(),
+                m_onlineProject,
+                currentResource,
+                m_publishedContentIds,
+                m_publishList.getPublishHistoryId(),
+                m_publishTag);
+
+            if (!currentResource.getState().isDeleted()) {
+                // reset the resource state to UNCHANGED and the last-modified-in-project-ID to 0
+                internalResetResourceState(dbc, currentResource);
+            }
+            dbc.pop();
+        }
+
+        /**
+         * Creates a database context for the worker thread.<p>
+         * 
+         * The JDBC drivers use a new pooled connection for each statement, 
+         * but the database context itself must not be shared between threads.<p>
+         * 
+         * @see org.opencms.db.generic.CmsProjectDriver.CmsOrderedParallelTask#startWorker()
+         */
+        @Override
+        CmsDbContext startWorker() {
+
+            CmsDbContext dbc = new CmsDbContext(m_requestContext);
+            dbc.setProjectId(m_projectId);
+            dbc.setAttribute(CmsDriverManager.KEY_CHANGED_AND_DELETED, m_changedAndDeleted);
+            return dbc;
+        }
+    }
+
     /**
      * This private class is a temporary storage for the method {@link CmsProjectDriver#readLocks(CmsDbContext)}.<p>
      */
@@ -1739,47 +2161,63 @@ public class CmsProjectDriver implements I_CmsDriver, I_CmsProjectDriver {
             Set<CmsUUID> changedAndDeletedResourceIds = Sets.intersection(deletedResourceIds, changedResourceIds);
             dbc.setAttribute(CmsDriverManager.KEY_CHANGED_AND_DELETED, changedAndDeletedResourceIds);
 
-            Iterator<CmsResource> itFiles = publishList.getFileList().iterator();
-            while (itFiles.hasNext()) {
-                CmsResource currentResource = itFiles.next();
-                try {
-                    // bounce the current publish task through all project drivers
-                    projectDriver.publishFile(
-                        dbc,
-                        report,
-                        ++publishedFileCount,
-                        filesSize,
-                        onlineProject,
-                        currentResource,
-                        publishedContentIds,
-                        publishList.getPublishHistoryId(),
-                        publishTag);
+            int publishThreads = (OpenCms.getPublishManager() != null)
+            ? OpenCms.getPublishManager().getPublishThreads()
+            : 1;
+            if ((publishThreads > 1) && (filesSize > 1) && (dbc.getClass() == CmsDbContext.class)) {
+                // publish the files in parallel, this requires a plain JDBC database context
+                new CmsParallelFilePublish(
+                    dbc,
+                    report,
+                    onlineProject,
+                    publishList,
+                    publishTag,
+                    publishedContentIds,
+                    publishedIds).execute(Math.min(publishThreads, filesSize));
+                publishedFileCount = filesSize;
+            } else {
+                Iterator<CmsResource> itFiles = publishList.getFileList().iterator();
+                while (itFiles.hasNext()) {
+                    CmsResource currentResource = itFiles.next();
+                    try {
+                        // bounce the current publish task through all project drivers
+                        projectDriver.publishFile(
+                            dbc,
+                            report,
+                            ++publishedFileCount,
+                            filesSize,
+                            onlineProject,
+                            currentResource,
+                            publishedContentIds,
+                            publishList.getPublishHistoryId(),
+                            publishTag);
 
-                    CmsResourceState state = currentResource.getState();
-                    if (!state.isDeleted()) {
-                        // reset the resource state to UNCHANGED and the last-modified-in-project-ID to 0
-                        internalResetResourceState(dbc, currentResource);
-                    }
+                        CmsResourceState state = currentResource.getState();
+                        if (!state.isDeleted()) {
+                            // reset the resource state to UNCHANGED and the last-modified-in-project-ID to 0
+                            internalResetResourceState(dbc, currentResource);
+                        }
 
-                    // unlock it
-                    m_driverManager.unlockResource(dbc, currentResource, true, true);
-                    // log it
-                    CmsLogEntryType type = state.isNew() ? CmsLogEntryType.RESOURCE_PUBLISHED_NEW : (state.isDeleted()
-                    ? CmsLogEntryType.RESOURCE_PUBLISHED_DELETED
-                    : CmsLogEntryType.RESOURCE_PUBLISHED_MODIFIED);
-                    m_driverManager.log(dbc, new CmsLogEntry(
-                        dbc,
-                        currentResource.getStructureId(),
-                        type,
-                        new String[] {currentResource.getRootPath()}), true);
+                        // unlock it
+                        m_driverManager.unlockResource(dbc, currentResource, true, true);
+                        // log it
+                        CmsLogEntryType type = state.isNew() ? CmsLogEntryType.RESOURCE_PUBLISHED_NEW : (state.isDeleted()
+                        ? CmsLogEntryType.RESOURCE_PUBLISHED_DELETED
+                        : CmsLogEntryType.RESOURCE_PUBLISHED_MODIFIED);
+                        m_driverManager.log(dbc, new CmsLogEntry(
+                            dbc,
+                            currentResource.getStructureId(),
+                            type,
+                            new String[] {currentResource.getRootPath()}), true);
 
-                    publishedIds.add(currentResource.getStructureId());
-                    dbc.pop();
-                } catch (Throwable t) {
-                    dbc.report(
-                        report,
-                        Messages.get().container(Messages.ERR_ERROR_PUBLISHING_FILE_1, currentResource.getRootPath()),
-                        t);
+                        publishedIds.add(currentResource.getStructureId());
+                        dbc.pop();
+                    } catch (Throwable t) {
+                        dbc.report(
+                            report,
+                            Messages.get().container(Messages.ERR_ERROR_PUBLISHING_FILE_1, currentResource.getRootPath()),
+                            t);
+                    }
                 }
             }
 
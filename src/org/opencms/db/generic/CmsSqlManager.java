@@ -32,11 +32,13 @@ import org.opencms.db.CmsDbPool;
 import org.opencms.file.CmsProject;
 import org.opencms.main.CmsLog;
 import org.opencms.main.CmsRuntimeException;
+import org.opencms.monitor.CmsMetrics;
 import org.opencms.util.CmsCollectionsGenericWrapper;
 import org.opencms.util.CmsStringUtil;
 import org.opencms.util.CmsUUID;
 
 import java.io.ByteArrayInputStream;
+import java.io.InputStream;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -164,6 +166,7 @@ public class CmsSqlManager extends org.opencms.db.CmsSqlManager {
         try {
             // close the statement
             if (stmnt != null) {
+                CmsMetrics.endQuery(stmnt);
                 stmnt.close();
             }
         } catch (SQLException e) {
@@ -185,6 +188,25 @@ public class CmsSqlManager extends org.opencms.db.CmsSqlManager {
 
     }
 
+    /**
+     * Retrieves the value of the designated column in the current row of this ResultSet object as 
+     * a stream of bytes.<p>
+     * 
+     * The stream must be read before the result set is closed. Overwrite this method if another 
+     * database server requires a different handling of byte attributes in tables.<p>
+     * 
+     * @param res the result set
+     * @param attributeName the name of the table attribute
+     * 
+     * @return the column value as a stream; if the value is SQL NULL, the value returned is null 
+     * 
+     * @throws SQLException if a database access error occurs
+     */
+    public InputStream getBinaryStream(ResultSet res, String attributeName) throws SQLException {
+
+        return res.getBinaryStream(attributeName);
+    }
+
     /**
      * Retrieves the value of the designated column in the current row of this ResultSet object as 
      * a byte array in the Java programming language.<p>
@@ -287,7 +309,9 @@ public class CmsSqlManager extends org.opencms.db.CmsSqlManager {
 
         // unfortunately, this wrapper is essential, because some JDBC driver 
         // implementations don't accept the delegated objects of DBCP's connection pool. 
-        return con.prepareStatement(query);
+        PreparedStatement stmt = con.prepareStatement(query);
+        CmsMetrics.startQuery(stmt);
+        return stmt;
     }
 
     /**
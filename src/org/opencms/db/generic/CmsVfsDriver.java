@@ -80,6 +80,7 @@ import org.opencms.util.CmsStringUtil;
 import org.opencms.util.CmsUUID;
 
 import java.io.ByteArrayInputStream;
+import java.io.InputStream;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -109,6 +110,9 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
     /** Contains the macro replacement value for the online project. */
     protected static final String ONLINE = "ONLINE";
 
+    /** The maximum number of ids used as parameters of a single query when reading in batches. */
+    protected static final int READ_BATCH_SIZE = 500;
+
     /** The log object for this class. */
     private static final Log LOG = CmsLog.getLog(org.opencms.db.generic.CmsVfsDriver.class);
 
@@ -1844,6 +1848,55 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
         return byteRes;
     }
 
+    /**
+     * @see org.opencms.db.I_CmsVfsDriver#readContentStream(org.opencms.db.CmsDbContext, org.opencms.util.CmsUUID, org.opencms.util.CmsUUID)
+     */
+    public InputStream readContentStream(CmsDbContext dbc, CmsUUID projectId, CmsUUID resourceId)
+    throws CmsDataAccessException {
+
+        PreparedStatement stmt = null;
+        ResultSet res = null;
+        Connection conn = null;
+        InputStream result = null;
+
+        try {
+            conn = m_sqlManager.getConnection(dbc);
+            if (projectId.equals(CmsProject.ONLINE_PROJECT_ID)) {
+                stmt = m_sqlManager.getPreparedStatement(conn, projectId, "C_ONLINE_FILES_CONTENT");
+            } else {
+                stmt = m_sqlManager.getPreparedStatement(conn, projectId, "C_OFFLINE_FILES_CONTENT");
+            }
+            stmt.setString(1, resourceId.toString());
+            res = stmt.executeQuery();
+
+            if (res.next()) {
+                InputStream content = m_sqlManager.getBinaryStream(
+                    res,
+                    m_sqlManager.readQuery("C_RESOURCES_FILE_CONTENT"));
+                if (content != null) {
+                    // the JDBC resources are released when the stream is closed
+                    result = new CmsContentInputStream(content, m_sqlManager, dbc, conn, stmt, res);
+                } else {
+                    result = new ByteArrayInputStream(new byte[0]);
+                }
+            } else {
+                throw new CmsVfsResourceNotFoundException(Messages.get().container(
+                    Messages.ERR_READ_CONTENT_WITH_RESOURCE_ID_2,
+                    resourceId,
+                    Boolean.valueOf(projectId.equals(CmsProject.ONLINE_PROJECT_ID))));
+            }
+        } catch (SQLException e) {
+            throw new CmsDbSqlException(Messages.get().container(
+                Messages.ERR_GENERIC_SQL_1,
+                CmsDbSqlException.getErrorQuery(stmt)), e);
+        } finally {
+            if (!(result instanceof CmsContentInputStream)) {
+                m_sqlManager.closeAll(dbc, conn, stmt, res);
+            }
+        }
+        return result;
+    }
+
     /**
      * @see org.opencms.db.I_CmsVfsDriver#readFolder(org.opencms.db.CmsDbContext, CmsUUID, org.opencms.util.CmsUUID)
      */
@@ -2166,6 +2219,100 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
         return new ArrayList<CmsProperty>(propertyMap.values());
     }
 
+    /**
+     * @see org.opencms.db.I_CmsVfsDriver#readPropertyObjects(org.opencms.db.CmsDbContext, org.opencms.file.CmsProject, java.util.List)
+     */
+    public Map<CmsUUID, List<CmsProperty>> readPropertyObjects(
+        CmsDbContext dbc,
+        CmsProject project,
+        List<CmsResource> resources) throws CmsDataAccessException {
+
+        CmsUUID projectId = ((dbc.getProjectId() == null) || dbc.getProjectId().isNullUUID())
+        ? project.getUuid()
+        : dbc.getProjectId();
+
+        // structure values are mapped by structure id, resource values are shared by all siblings
+        Map<String, CmsResource> resourcesByStructureId = new HashMap<String, CmsResource>();
+        Map<String, List<CmsResource>> resourcesByResourceId = new HashMap<String, List<CmsResource>>();
+        for (CmsResource resource : resources) {
+            resourcesByStructureId.put(resource.getStructureId().toString(), resource);
+            List<CmsResource> siblings = resourcesByResourceId.get(resource.getResourceId().toString());
+            if (siblings == null) {
+                siblings = new ArrayList<CmsResource>(1);
+                resourcesByResourceId.put(resource.getResourceId().toString(), siblings);
+            }
+            siblings.add(resource);
+        }
+        List<String> ids = new ArrayList<String>(resourcesByStructureId.keySet());
+        ids.addAll(resourcesByResourceId.keySet());
+
+        Map<CmsUUID, Map<String, CmsProperty>> propertyMaps = new HashMap<CmsUUID, Map<String, CmsProperty>>();
+        ResultSet res = null;
+        PreparedStatement stmt = null;
+        Connection conn = null;
+
+        try {
+            conn = m_sqlManager.getConnection(dbc);
+            for (int start = 0; start < ids.size(); start += READ_BATCH_SIZE) {
+                List<String> batch = ids.subList(start, Math.min(start + READ_BATCH_SIZE, ids.size()));
+                String query = m_sqlManager.readQuery(projectId, "C_PROPERTIES_READALL_FOR_IDS")
+                    + prepareIdListCondition(batch.size());
+                stmt = m_sqlManager.getPreparedStatementForSql(conn, query);
+                for (int i = 0; i < batch.size(); i++) {
+                    stmt.setString(i + 1, batch.get(i));
+                }
+                res = stmt.executeQuery();
+                while (res.next()) {
+                    String propertyKey = res.getString(1);
+                    String propertyValue = res.getString(2);
+                    int mappingType = res.getInt(3);
+                    String mappingId = res.getString(4);
+
+                    if (mappingType == CmsProperty.STRUCTURE_RECORD_MAPPING) {
+                        // this property value is mapped to a structure record
+                        CmsResource resource = resourcesByStructureId.get(mappingId);
+                        if (resource != null) {
+                            internalGetProperty(propertyMaps, resource, propertyKey).setStructureValue(propertyValue);
+                        }
+                    } else if (mappingType == CmsProperty.RESOURCE_RECORD_MAPPING) {
+                        // this property value is mapped to a resource record
+                        List<CmsResource> siblings = resourcesByResourceId.get(mappingId);
+                        if (siblings != null) {
+                            for (CmsResource resource : siblings) {
+                                internalGetProperty(propertyMaps, resource, propertyKey).setResourceValue(
+                                    propertyValue);
+                            }
+                        }
+                    } else {
+                        throw new CmsDbConsistencyException(Messages.get().container(
+                            Messages.ERR_UNKNOWN_PROPERTY_VALUE_MAPPING_3,
+                            mappingId,
+                            new Integer(mappingType),
+                            propertyKey));
+                    }
+                }
+                m_sqlManager.closeAll(dbc, null, stmt, res);
+                stmt = null;
+                res = null;
+            }
+        } catch (SQLException e) {
+            throw new CmsDbSqlException(Messages.get().container(
+                Messages.ERR_GENERIC_SQL_1,
+                CmsDbSqlException.getErrorQuery(stmt)), e);
+        } finally {
+            m_sqlManager.closeAll(dbc, conn, stmt, res);
+        }
+
+        Map<CmsUUID, List<CmsProperty>> result = new HashMap<CmsUUID, List<CmsProperty>>();
+        for (CmsResource resource : resources) {
+            Map<String, CmsProperty> propertyMap = propertyMaps.get(resource.getStructureId());
+            result.put(resource.getStructureId(), (propertyMap == null)
+            ? new ArrayList<CmsProperty>()
+            : new ArrayList<CmsProperty>(propertyMap.values()));
+        }
+        return result;
+    }
+
     /**
      * @see org.opencms.db.I_CmsVfsDriver#readRelations(org.opencms.db.CmsDbContext, CmsUUID, CmsResource, org.opencms.relations.CmsRelationFilter)
      */
@@ -2350,6 +2497,55 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
         return resource;
     }
 
+    /**
+     * @see org.opencms.db.I_CmsVfsDriver#readResources(org.opencms.db.CmsDbContext, CmsUUID, java.util.Collection, boolean)
+     */
+    public List<CmsResource> readResources(
+        CmsDbContext dbc,
+        CmsUUID projectId,
+        Collection<CmsUUID> structureIds,
+        boolean includeDeleted) throws CmsDataAccessException {
+
+        List<CmsUUID> ids = new ArrayList<CmsUUID>(new HashSet<CmsUUID>(structureIds));
+        List<CmsResource> result = new ArrayList<CmsResource>(ids.size());
+
+        ResultSet res = null;
+        PreparedStatement stmt = null;
+        Connection conn = null;
+
+        try {
+            conn = m_sqlManager.getConnection(dbc);
+            for (int start = 0; start < ids.size(); start += READ_BATCH_SIZE) {
+                List<CmsUUID> batch = ids.subList(start, Math.min(start + READ_BATCH_SIZE, ids.size()));
+                String query = m_sqlManager.readQuery(projectId, "C_RESOURCES_READ_FOR_IDS")
+                    + prepareIdListCondition(batch.size());
+                stmt = m_sqlManager.getPreparedStatementForSql(conn, query);
+                for (int i = 0; i < batch.size(); i++) {
+                    stmt.setString(i + 1, batch.get(i).toString());
+                }
+                res = stmt.executeQuery();
+                while (res.next()) {
+                    CmsResource resource = createResource(res, projectId);
+                    // check if this resource is marked as deleted and if we are allowed to return a deleted resource
+                    if (includeDeleted || !resource.getState().isDeleted()) {
+                        result.add(resource);
+                    }
+                }
+                m_sqlManager.closeAll(dbc, null, stmt, res);
+                stmt = null;
+                res = null;
+            }
+        } catch (SQLException e) {
+            throw new CmsDbSqlException(Messages.get().container(
+                Messages.ERR_GENERIC_SQL_1,
+                CmsDbSqlException.getErrorQuery(stmt)), e);
+        } finally {
+            m_sqlManager.closeAll(dbc, conn, stmt, res);
+        }
+
+        return result;
+    }
+
     /**
      * @see org.opencms.db.I_CmsVfsDriver#readResources(org.opencms.db.CmsDbContext, CmsUUID, CmsResourceState, int)
      */
@@ -3676,6 +3872,37 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
         return new CmsUrlNameMappingEntry(name, structureId, state, dateChanged, locale);
     }
 
+    /**
+     * Returns the property with the given name for the given resource from the given property maps, 
+     * creating it if it does not exist yet.<p>
+     *
+     * @param propertyMaps the property maps, by structure id of the resource
+     * @param resource the resource the property belongs to
+     * @param propertyKey the name of the property
+     *
+     * @return the property
+     */
+    protected CmsProperty internalGetProperty(
+        Map<CmsUUID, Map<String, CmsProperty>> propertyMaps,
+        CmsResource resource,
+        String propertyKey) {
+
+        Map<String, CmsProperty> propertyMap = propertyMaps.get(resource.getStructureId());
+        if (propertyMap == null) {
+            propertyMap = new HashMap<String, CmsProperty>();
+            propertyMaps.put(resource.getStructureId(), propertyMap);
+        }
+        CmsProperty property = propertyMap.get(propertyKey);
+        if (property == null) {
+            // there doesn't exist a property object for this key yet
+            property = new CmsProperty();
+            property.setName(propertyKey);
+            property.setOrigin(resource.getRootPath());
+            propertyMap.put(propertyKey, property);
+        }
+        return property;
+    }
+
     /**
      * Increments a counter.<p>
      *
@@ -4099,6 +4326,27 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
         }
     }
 
+    /**
+     * Returns a parameter list for an <code>IN</code> condition with the given number of parameters.<p>
+     *
+     * @param count the number of parameters
+     *
+     * @return the parameter list, like <code> (?, ?, ?) </code>
+     */
+    protected String prepareIdListCondition(int count) {
+
+        StringBuffer conditions = new StringBuffer(BEGIN_CONDITION.length() + (count * 3) + END_CONDITION.length());
+        conditions.append(BEGIN_CONDITION);
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                conditions.append(", ");
+            }
+            conditions.append("?");
+        }
+        conditions.append(END_CONDITION);
+        return conditions.toString();
+    }
+
     /**
      * Appends the appropriate selection criteria related with the parentPath.<p>
      *
@@ -65,7 +65,9 @@ import org.opencms.util.CmsUUID;
 import org.opencms.workplace.CmsWorkplace;
 import org.opencms.xml.content.CmsNumberSuffixNameSequence;
 
+import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
@@ -2292,6 +2294,28 @@ public final class CmsObject {
         return m_securityManager.readBestUrlName(m_context, id, locale, defaultLocales);
     }
 
+    /**
+     * Reads the binary content of a file resource as a stream.<p>
+     *
+     * Use this instead of <code>{@link #readFile(CmsResource)}</code> in case the content 
+     * is only copied to another stream, e.g. to deliver large binary files, 
+     * so that the content does not have to be kept in memory completely.<p>
+     *
+     * The returned stream may hold database resources, so it must always be closed by the caller.<p>
+     *
+     * @param resource the file resource to read the content for
+     *
+     * @return the content of the file as a stream
+     *
+     * @throws CmsException if the content could not be read for any reason
+     *
+     * @see #readFile(CmsResource)
+     */
+    public InputStream readContentStream(CmsResource resource) throws CmsException {
+
+        return m_securityManager.readContentStream(m_context, resource);
+    }
+
     /**
      * Returns the default resource for the given folder.<p>
      * <ol>
@@ -2777,6 +2801,29 @@ public final class CmsObject {
         return m_securityManager.readProjectView(m_context, projectId, state);
     }
 
+    /**
+     * Reads all property objects of the given resources.<p>
+     *
+     * This has the same result as calling {@link #readPropertyObjects(CmsResource, boolean)} for each 
+     * of the resources, but reads the properties with as few database queries as possible. 
+     * Use this instead of reading the properties in a loop.<p>
+     *
+     * All properties in the result lists will be in frozen (read only) state, so you can't change the values.<p>
+     *
+     * @param resources the resources where the properties are mapped to
+     * @param search if <code>true</code>, the properties of all parent folders of the resources
+     *      are merged with the resource properties.
+     *
+     * @return the lists of <code>{@link CmsProperty}</code> objects, by structure id of the resource
+     *
+     * @throws CmsException if something goes wrong
+     */
+    public Map<CmsUUID, List<CmsProperty>> readPropertiesForResources(List<CmsResource> resources, boolean search)
+    throws CmsException {
+
+        return m_securityManager.readPropertiesForResources(m_context, resources, search);
+    }
+
     /**
      * Reads a property definition.<p>
      *
@@ -3078,6 +3125,28 @@ public final class CmsObject {
         return m_securityManager.readResource(m_context, addSiteRoot(resourcename), filter);
     }
 
+    /**
+     * Reads the resources with the given structure ids, using the specified resource filter.<p>
+     *
+     * The resources are read with as few database queries as possible, so use this instead 
+     * of calling {@link #readResource(CmsUUID, CmsResourceFilter)} in a loop.<p>
+     *
+     * In contrast to reading a single resource, resources that do not exist, that do not match the 
+     * filter or that the current user is not allowed to read are skipped instead of causing an exception.<p>
+     *
+     * @param structureIds the structure ids of the resources to read
+     * @param filter the resource filter to use while reading
+     *
+     * @return the resources that were read, in the order of the given ids
+     *
+     * @throws CmsException if something goes wrong
+     */
+    public List<CmsResource> readResources(Collection<CmsUUID> structureIds, CmsResourceFilter filter)
+    throws CmsException {
+
+        return m_securityManager.readResources(m_context, structureIds, filter);
+    }
+
     /**
      * Reads all resources below the given path matching the filter criteria,
      * including the full tree below the path.<p>
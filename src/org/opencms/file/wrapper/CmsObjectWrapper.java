@@ -52,6 +52,7 @@ import org.opencms.main.CmsLog;
 import org.opencms.main.OpenCms;
 import org.opencms.util.CmsUUID;
 
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
@@ -526,6 +527,44 @@ public class CmsObjectWrapper {
         }
     }
 
+    /**
+     * Reads the binary content of a file resource as a stream.<p>
+     * 
+     * The content can only be streamed if it is not changed by one of the configured resource 
+     * wrappers or by adding the UTF-8 byte order mark, otherwise <code>null</code> is returned 
+     * and the content has to be read with {@link #readFile(String, CmsResourceFilter)}.<p>
+     * 
+     * @see CmsObject#readContentStream(CmsResource)
+     * 
+     * @param resource the file resource to read the content for
+     * 
+     * @return the content of the file as a stream, or <code>null</code> if the content can not be streamed
+     * 
+     * @throws CmsException if the content could not be read for any reason
+     */
+    public InputStream readContentStream(CmsResource resource) throws CmsException {
+
+        if (!resource.isFile() || needUtf8Marker(resource)) {
+            return null;
+        }
+        Iterator<I_CmsResourceWrapper> iter = getWrappers().iterator();
+        while (iter.hasNext()) {
+            if (iter.next().isWrappedResource(m_cms, resource)) {
+                return null;
+            }
+        }
+        // make sure the resource really exists in the VFS and is not created by a wrapper
+        if (!m_cms.existsResource(resource.getStructureId(), CmsResourceFilter.IGNORE_EXPIRATION)) {
+            return null;
+        }
+        CmsResource vfsResource = m_cms.readResource(resource.getStructureId(), CmsResourceFilter.IGNORE_EXPIRATION);
+        if (!vfsResource.getRootPath().equals(resource.getRootPath())
+            || (vfsResource.getLength() != resource.getLength())) {
+            return null;
+        }
+        return m_cms.readContentStream(vfsResource);
+    }
+
     /**
      * Reads a file resource (including it's binary content) from the VFS,
      * using the specified resource filter.<p>
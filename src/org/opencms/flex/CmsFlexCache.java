@@ -40,6 +40,7 @@ import org.opencms.util.CmsFileUtil;
 import org.opencms.util.CmsStringUtil;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
@@ -91,6 +92,11 @@ import org.apache.commons.logging.Log;
  * The cache is fully flushed if an event {@link I_CmsEventListener#EVENT_PUBLISH_PROJECT} 
  * or {@link I_CmsEventListener#EVENT_CLEAR_CACHES} is caught.<p>
  * 
+ * Optionally, a {@link CmsFlexCacheOffHeapStore} can be configured as second level for the entries.
+ * Entries removed from the LRU cache because of its size limits, and entries too large for the LRU cache, 
+ * then keep their output outside of the heap, and are moved back to the LRU cache when they are requested again.
+ * Entries in the second level are invalidated together with the entries in the LRU cache.<p>
+ * 
  * @since 6.0.0 
  * 
  * @see org.opencms.flex.CmsFlexCacheKey
@@ -162,10 +168,11 @@ public class CmsFlexCache extends Object implements I_CmsEventListener {
             if ((m == null) || (m.size() == 0)) {
                 return true;
             }
-            Collection<I_CmsLruCacheObject> entries = m.values();
+            // copy the entries, since removing an entry also removes it from the variation map
+            Collection<I_CmsLruCacheObject> entries = new ArrayList<I_CmsLruCacheObject>(m.values());
             synchronized (m_variationCache) {
                 for (I_CmsLruCacheObject e : entries) {
-                    m_variationCache.remove(e);
+                    invalidateEntry(e);
                 }
                 v.m_map.clear();
                 v.m_map = null;
@@ -226,6 +233,12 @@ public class CmsFlexCache extends Object implements I_CmsEventListener {
     /** Map to store the entries for fast lookup. */
     private Map<String, CmsFlexCacheVariation> m_keyCache;
 
+    /** The second level store for entries removed from the LRU cache, or <code>null</code> if not used. */
+    private CmsFlexCacheOffHeapStore m_offHeapStore;
+
+    /** Indicates if a gzip compressed variant of top level cache entries should be stored. */
+    private boolean m_precompress;
+
     /** Counter for the size. */
     private int m_size;
 
@@ -244,6 +257,7 @@ public class CmsFlexCache extends Object implements I_CmsEventListener {
 
         m_enabled = configuration.isCacheEnabled();
         m_cacheOffline = configuration.isCacheOffline();
+        m_precompress = configuration.isPrecompress();
 
         long maxCacheBytes = configuration.getMaxCacheBytes();
         long avgCacheBytes = configuration.getAvgCacheBytes();
@@ -258,6 +272,15 @@ public class CmsFlexCache extends Object implements I_CmsEventListener {
             m_keyCache = Collections.synchronizedMap(CmsCollectionsGenericWrapper.<String, CmsFlexCacheVariation> map(flexKeyMap));
             OpenCms.getMemoryMonitor().register(getClass().getName() + ".m_resourceMap", flexKeyMap);
 
+            if (configuration.getMaxOffHeapBytes() > 0) {
+                m_offHeapStore = new CmsFlexCacheOffHeapStore(configuration.getMaxOffHeapBytes());
+                if (LOG.isInfoEnabled()) {
+                    LOG.info(Messages.get().getBundle().key(
+                        Messages.INIT_FLEXCACHE_OFFHEAP_STORE_1,
+                        new Long(configuration.getMaxOffHeapBytes())));
+                }
+            }
+
             OpenCms.addCmsEventListener(this, new int[] {
                 I_CmsEventListener.EVENT_PUBLISH_PROJECT,
                 I_CmsEventListener.EVENT_CLEAR_CACHES,
@@ -438,6 +461,16 @@ public class CmsFlexCache extends Object implements I_CmsEventListener {
         return m_variationCache;
     }
 
+    /**
+     * Returns the second level store for entries removed from the LRU cache.<p>
+     * 
+     * @return the second level store, or <code>null</code> if no second level store is used
+     */
+    public CmsFlexCacheOffHeapStore getOffHeapStore() {
+
+        return m_offHeapStore;
+    }
+
     /**
      * Indicates if the cache is enabled (i.e. actually
      * caching entries) or not.<p>
@@ -449,6 +482,18 @@ public class CmsFlexCache extends Object implements I_CmsEventListener {
         return m_enabled;
     }
 
+    /**
+     * Indicates if a gzip compressed variant of cache entries that make up a complete page is stored.<p>
+     *
+     * @return true if a compressed variant is stored, false if not
+     * 
+     * @see CmsFlexCacheEntry#compress()
+     */
+    public boolean isPrecompress() {
+
+        return m_precompress;
+    }
+
     /**
      * Returns the total number of cached resource keys.
      *
@@ -505,9 +550,17 @@ public class CmsFlexCache extends Object implements I_CmsEventListener {
             }
             if (entry.getDateExpires() < System.currentTimeMillis()) {
                 // cache entry avaiable but expired, remove entry
-                m_variationCache.remove(entry);
+                invalidateEntry(entry);
                 return null;
             }
+            if (entry.isOffHeap()) {
+                // cache entry found in the second level, move it back to the LRU cache if it fits there
+                int maxObjectCosts = m_variationCache.getMaxObjectCosts();
+                if (((maxObjectCosts == -1) || (entry.getLruCacheCosts() <= maxObjectCosts))
+                    && entry.moveToHeap()) {
+                    m_variationCache.add(entry);
+                }
+            }
             // return the found cache entry
             return entry;
         } else {
@@ -633,7 +686,7 @@ public class CmsFlexCache extends Object implements I_CmsEventListener {
         if (o != null) {
             I_CmsLruCacheObject old = o.m_map.get(key.getVariation());
             if (old != null) {
-                getEntryLruCache().remove(old);
+                invalidateEntry(old);
             }
         }
     }
@@ -646,6 +699,16 @@ public class CmsFlexCache extends Object implements I_CmsEventListener {
         if (!isEnabled()) {
             return;
         }
+        if (m_offHeapStore != null) {
+            // invalidate all entries, so that they are not moved to the second level when the LRU cache is cleared
+            for (CmsFlexCacheVariation v : new ArrayList<CmsFlexCacheVariation>(m_keyCache.values())) {
+                if (v.m_map != null) {
+                    for (I_CmsLruCacheObject entry : new ArrayList<I_CmsLruCacheObject>(v.m_map.values())) {
+                        ((CmsFlexCacheEntry)entry).invalidate();
+                    }
+                }
+            }
+        }
         m_keyCache.clear();
         m_size = 0;
 
@@ -683,7 +746,7 @@ public class CmsFlexCache extends Object implements I_CmsEventListener {
                     while (allEntries.hasNext()) {
                         I_CmsLruCacheObject nextObject = allEntries.next();
                         allEntries.remove();
-                        m_variationCache.remove(nextObject);
+                        invalidateEntry(nextObject);
                     }
                     v.m_map = new Hashtable<String, I_CmsLruCacheObject>(INITIAL_CAPACITY_VARIATIONS);
                 } else {
@@ -693,7 +756,7 @@ public class CmsFlexCache extends Object implements I_CmsEventListener {
                     while (allEntries.hasNext()) {
                         I_CmsLruCacheObject nextObject = allEntries.next();
                         allEntries.remove();
-                        m_variationCache.remove(nextObject);
+                        invalidateEntry(nextObject);
                     }
 
                     v.m_map = null;
@@ -735,7 +798,7 @@ public class CmsFlexCache extends Object implements I_CmsEventListener {
             while (allEntries.hasNext()) {
                 I_CmsLruCacheObject nextObject = allEntries.next();
                 allEntries.remove();
-                m_variationCache.remove(nextObject);
+                invalidateEntry(nextObject);
             }
             v.m_map = new Hashtable<String, I_CmsLruCacheObject>(INITIAL_CAPACITY_VARIATIONS);
         }
@@ -820,6 +883,21 @@ public class CmsFlexCache extends Object implements I_CmsEventListener {
         clearAccordingToSuffix(CACHE_ONLINESUFFIX, true);
     }
 
+    /**
+     * Invalidates an entry and removes it from the LRU cache, or from the second level if the entry has been moved there.<p>
+     * 
+     * @param entry the entry to invalidate
+     */
+    private void invalidateEntry(I_CmsLruCacheObject entry) {
+
+        if (((CmsFlexCacheEntry)entry).invalidate()) {
+            // the entry is not in the LRU cache, so it must be removed from the variation map here
+            entry.removeFromLruCache();
+        } else {
+            m_variationCache.remove(entry);
+        }
+    }
+
     /**
      * This method purges the JSP repository dirs,
      * i.e. it deletes all JSP files that OpenCms has written to the
@@ -863,12 +941,17 @@ public class CmsFlexCache extends Object implements I_CmsEventListener {
         if (key.getTimeout() > 0) {
             theCacheEntry.setDateExpiresToNextTimeout(key.getTimeout());
         }
+        theCacheEntry.setOffHeapStore(m_offHeapStore);
         if (o != null) {
             // We already have a variation map for this resource
             Map<String, I_CmsLruCacheObject> m = o.m_map;
             boolean wasAdded = true;
             if (!m.containsKey(key.getVariation())) {
                 wasAdded = m_variationCache.add(theCacheEntry);
+                if (!wasAdded) {
+                    // the entry is too large for the LRU cache, try to keep it in the second level
+                    wasAdded = theCacheEntry.moveToOffHeap();
+                }
             } else {
                 wasAdded = m_variationCache.touch(theCacheEntry);
             }
@@ -882,6 +965,10 @@ public class CmsFlexCache extends Object implements I_CmsEventListener {
             CmsFlexCacheVariation list = new CmsFlexCacheVariation(key);
 
             boolean wasAdded = m_variationCache.add(theCacheEntry);
+            if (!wasAdded) {
+                // the entry is too large for the LRU cache, try to keep it in the second level
+                wasAdded = theCacheEntry.moveToOffHeap();
+            }
 
             if (wasAdded) {
                 theCacheEntry.setVariationData(key.getVariation(), list.m_map);
@@ -899,4 +986,4 @@ public class CmsFlexCache extends Object implements I_CmsEventListener {
             LOG.debug(Messages.get().getBundle().key(Messages.LOG_FLEXCACHE_ADDED_ENTRY_1, theCacheEntry.toString()));
         }
     }
-}
\ No newline at end of file
+}
@@ -74,6 +74,12 @@ public class CmsFlexCacheConfiguration {
     /** The maximum key. */
     private int m_maxKeys;
 
+    /** The maximum bytes kept in the off-heap store, 0 if the off-heap store is disabled. */
+    private long m_maxOffHeapBytes;
+
+    /** Indicates if a gzip compressed variant of top level cache entries should be stored. */
+    private boolean m_precompress;
+
     /**
      * Empty public constructor for the digester.
      */
@@ -145,6 +151,16 @@ public class CmsFlexCacheConfiguration {
         return m_maxKeys;
     }
 
+    /**
+     * Returns the maximum bytes of evicted or large entries kept outside of the heap.<p>
+     *
+     * @return the maximum bytes kept in the off-heap store, 0 if the off-heap store is disabled
+     */
+    public long getMaxOffHeapBytes() {
+
+        return m_maxOffHeapBytes;
+    }
+
     /**
      * Initializes the flex cache configuration with required parameters.<p>
      * 
@@ -191,6 +207,16 @@ public class CmsFlexCacheConfiguration {
         return m_cacheOffline;
     }
 
+    /**
+     * Checks if a gzip compressed variant of top level cache entries should be stored.<p>
+     *
+     * @return true if a compressed variant should be stored; otherwise false
+     */
+    public boolean isPrecompress() {
+
+        return m_precompress;
+    }
+
     /**
      * Sets the avgCacheBytes.<p>
      *
@@ -285,4 +311,55 @@ public class CmsFlexCacheConfiguration {
 
         m_maxKeys = maxKeys;
     }
+
+    /**
+     * Sets the maximum bytes of evicted or large entries kept outside of the heap.<p>
+     *
+     * @param maxOffHeapBytes the maximum bytes kept in the off-heap store, 0 to disable the off-heap store
+     */
+    public void setMaxOffHeapBytes(long maxOffHeapBytes) {
+
+        m_maxOffHeapBytes = maxOffHeapBytes;
+    }
+
+    /**
+     * Sets the maximum bytes of evicted or large entries kept outside of the heap as a String.<p>
+     *
+     * @param maxOffHeapBytes the maximum bytes kept in the off-heap store, 0 to disable the off-heap store
+     */
+    public void setMaxOffHeapBytes(String maxOffHeapBytes) {
+
+        try {
+            setMaxOffHeapBytes(Long.parseLong(maxOffHeapBytes.trim()));
+        } catch (NumberFormatException e) {
+            LOG.error(
+                Messages.get().getBundle().key(Messages.LOG_PARSE_MAX_OFFHEAP_BYTES_FAILED_1, maxOffHeapBytes),
+                e);
+            setMaxOffHeapBytes(0);
+        }
+    }
+
+    /**
+     * Sets if a gzip compressed variant of top level cache entries should be stored.<p>
+     *
+     * @param precompress true if a compressed variant should be stored
+     */
+    public void setPrecompress(boolean precompress) {
+
+        m_precompress = precompress;
+    }
+
+    /**
+     * Sets if a gzip compressed variant of top level cache entries should be stored as a String.<p>
+     *
+     * @param precompress must be <code>true</code> or <code>false</code>
+     */
+    public void setPrecompress(String precompress) {
+
+        String value = precompress.trim();
+        if (!Boolean.TRUE.toString().equalsIgnoreCase(value) && !Boolean.FALSE.toString().equalsIgnoreCase(value)) {
+            LOG.error(Messages.get().getBundle().key(Messages.LOG_PARSE_PRECOMPRESS_FAILED_1, precompress));
+        }
+        setPrecompress(Boolean.valueOf(value).booleanValue());
+    }
 }
@@ -34,8 +34,10 @@ import org.opencms.main.CmsLog;
 import org.opencms.monitor.CmsMemoryMonitor;
 import org.opencms.monitor.I_CmsMemoryMonitorable;
 import org.opencms.util.CmsCollectionsGenericWrapper;
+import org.opencms.util.CmsFileUtil;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
@@ -65,6 +67,14 @@ import org.apache.commons.logging.Log;
  * The CmsFlexCacheEntry can also have an expire date value, which indicates the time 
  * that his entry will become invalid and should thus be cleared from the cache.<p>
  * 
+ * If the Flex cache uses a {@link CmsFlexCacheOffHeapStore}, the pre-generated output of an entry 
+ * is moved to the store instead of being discarded when the entry is removed from the LRU cache.
+ * The entry then stays in the variation map until it is requested again or invalidated.<p>
+ * 
+ * A cache entry without include calls can also store a gzip compressed variant of its output, 
+ * which is sent to clients that accept the gzip content encoding without compressing 
+ * the output again for every request.<p>
+ * 
  * @since 6.0.0 
  * 
  * @see org.opencms.cache.I_CmsLruCacheObject
@@ -74,6 +84,9 @@ public class CmsFlexCacheEntry implements I_CmsLruCacheObject, I_CmsMemoryMonito
     /** Initial size for lists. */
     public static final int INITIAL_CAPACITY_LISTS = 10;
 
+    /** The minimum size of the output for which a compressed variant is created. */
+    public static final int MIN_COMPRESS_BYTES = 512;
+
     /** The log object for this class. */
     private static final Log LOG = CmsLog.getLog(CmsFlexCacheEntry.class);
 
@@ -83,6 +96,9 @@ public class CmsFlexCacheEntry implements I_CmsLruCacheObject, I_CmsMemoryMonito
     /** Indicates if this cache entry is completed. */
     private boolean m_completed;
 
+    /** Indicates if a compressed variant of the output has been created for this cache entry. */
+    private boolean m_compressed;
+
     /** The "expires" date for this Flex cache entry. */
     private long m_dateExpires;
 
@@ -92,12 +108,24 @@ public class CmsFlexCacheEntry implements I_CmsLruCacheObject, I_CmsMemoryMonito
     /** The list of items for this resource. */
     private List<Object> m_elements;
 
+    /** The gzip compressed variant of the output, or <code>null</code> if there is none. */
+    private volatile byte[] m_gzipBytes;
+
     /** A Map of cached headers for this resource. */
     private Map<String, List<String>> m_headers;
 
+    /** Indicates if this cache entry has been invalidated. */
+    private volatile boolean m_invalidated;
+
     /** Pointer to the next cache entry in the LRU cache. */
     private I_CmsLruCacheObject m_next;
 
+    /** The buffer with the output of this entry, if the output has been moved to the off-heap store. */
+    private ByteBuffer m_offHeapData;
+
+    /** The off-heap store to move the output to when this entry is removed from the LRU cache. */
+    private CmsFlexCacheOffHeapStore m_offHeapStore;
+
     /** Pointer to the previous cache entry in the LRU cache. */
     private I_CmsLruCacheObject m_previous;
 
@@ -229,6 +257,29 @@ public class CmsFlexCacheEntry implements I_CmsLruCacheObject, I_CmsMemoryMonito
         }
     }
 
+    /**
+     * Creates a gzip compressed variant of the output of this cache entry.<p>
+     * 
+     * A compressed variant is only created for a completed entry without include calls,
+     * and only if the output is at least {@link #MIN_COMPRESS_BYTES} bytes large 
+     * and actually becomes smaller by compression.<p>
+     * 
+     * The size of the compressed variant is added to the costs of this entry, so this 
+     * must be called before the entry is put in the cache.<p>
+     */
+    public synchronized void compress() {
+
+        if (!m_completed || m_compressed || (m_redirectTarget != null) || (m_offHeapData != null)) {
+            return;
+        }
+        byte[] gzipBytes = gzipOutput(m_elements);
+        if (gzipBytes != null) {
+            m_gzipBytes = gzipBytes;
+            m_byteSize += CmsMemoryMonitor.getMemorySize(gzipBytes);
+            m_compressed = true;
+        }
+    }
+
     /**
      * Returns the list of data entries of this cache entry.<p>
      * 
@@ -237,8 +288,12 @@ public class CmsFlexCacheEntry implements I_CmsLruCacheObject, I_CmsMemoryMonito
      *
      * @return the list of data elements of this cache entry
      */
-    public List<Object> elements() {
+    public synchronized List<Object> elements() {
 
+        if (m_offHeapData != null) {
+            // the output has been moved to the off-heap store, read it without moving it back
+            return readOffHeapElements();
+        }
         return m_elements;
     }
 
@@ -263,6 +318,18 @@ public class CmsFlexCacheEntry implements I_CmsLruCacheObject, I_CmsMemoryMonito
         return m_dateLastModified;
     }
 
+    /**
+     * Returns the gzip compressed variant of the output of this cache entry.<p>
+     * 
+     * @return the gzip compressed variant of the output, or <code>null</code> if there is none
+     * 
+     * @see #compress()
+     */
+    public byte[] getGzipBytes() {
+
+        return m_gzipBytes;
+    }
+
     /**
      * @see org.opencms.cache.I_CmsLruCacheObject#getLruCacheCosts()
      */
@@ -300,7 +367,17 @@ public class CmsFlexCacheEntry implements I_CmsLruCacheObject, I_CmsMemoryMonito
      */
     public Object getValue() {
 
-        return m_elements;
+        return elements();
+    }
+
+    /**
+     * Returns if the output of this cache entry has been moved to the off-heap store.<p>
+     * 
+     * @return <code>true</code> if the output of this cache entry has been moved to the off-heap store
+     */
+    public synchronized boolean isOffHeap() {
+
+        return m_offHeapData != null;
     }
 
     /**
@@ -308,6 +385,20 @@ public class CmsFlexCacheEntry implements I_CmsLruCacheObject, I_CmsMemoryMonito
      */
     public void removeFromLruCache() {
 
+        if (!m_invalidated
+            && (m_offHeapStore != null)
+            && (m_variationMap != null)
+            && (m_variationMap.get(m_variationKey) == this)
+            && moveToOffHeap()) {
+            // the entry stays in the variation map, only the output has been moved out of the heap
+            if (LOG.isDebugEnabled()) {
+                LOG.debug(Messages.get().getBundle().key(
+                    Messages.LOG_FLEXCACHEENTRY_MOVED_OFF_HEAP_2,
+                    m_variationKey,
+                    new Integer(m_offHeapData.capacity())));
+            }
+            return;
+        }
         if ((m_variationMap != null) && (m_variationKey != null)) {
             m_variationMap.remove(m_variationKey);
         }
@@ -339,6 +430,8 @@ public class CmsFlexCacheEntry implements I_CmsLruCacheObject, I_CmsMemoryMonito
             return;
         }
 
+        // use a local reference, the output of the entry may be moved to the off-heap store concurrently
+        List<Object> elements = elements();
         if (m_redirectTarget != null) {
             res.setOnlyBuffering(false);
             // redirect the response, no further output required
@@ -347,14 +440,14 @@ public class CmsFlexCacheEntry implements I_CmsLruCacheObject, I_CmsMemoryMonito
             // process cached headers first
             CmsFlexResponse.processHeaders(m_headers, res);
             // check if this cache entry is a "leaf" (i.e. no further includes)            
-            boolean hasNoSubElements = (m_elements.size() == 1);
+            boolean hasNoSubElements = (elements.size() == 1);
             // write output to stream and process all included elements
-            for (int i = 0; i < m_elements.size(); i++) {
-                Object o = m_elements.get(i);
+            for (int i = 0; i < elements.size(); i++) {
+                Object o = elements.get(i);
                 if (o instanceof String) {
                     // handle cached parameters
                     i++;
-                    Map<String, String[]> paramMap = CmsCollectionsGenericWrapper.map(m_elements.get(i));
+                    Map<String, String[]> paramMap = CmsCollectionsGenericWrapper.map(elements.get(i));
                     Map<String, String[]> oldParamMap = null;
                     if (paramMap.size() > 0) {
                         oldParamMap = req.getParameterMap();
@@ -362,7 +455,7 @@ public class CmsFlexCacheEntry implements I_CmsLruCacheObject, I_CmsMemoryMonito
                     }
                     // handle cached attributes
                     i++;
-                    Map<String, Object> attrMap = CmsCollectionsGenericWrapper.map(m_elements.get(i));
+                    Map<String, Object> attrMap = CmsCollectionsGenericWrapper.map(elements.get(i));
                     Map<String, Object> oldAttrMap = null;
                     if (attrMap.size() > 0) {
                         oldAttrMap = req.getAttributeMap();
@@ -528,8 +621,9 @@ public class CmsFlexCacheEntry implements I_CmsLruCacheObject, I_CmsMemoryMonito
 
         String str = null;
         if (m_redirectTarget == null) {
-            str = "CmsFlexCacheEntry [" + m_elements.size() + " Elements/" + getLruCacheCosts() + " bytes]\n";
-            Iterator<Object> i = m_elements.iterator();
+            List<Object> elements = elements();
+            str = "CmsFlexCacheEntry [" + elements.size() + " Elements/" + getLruCacheCosts() + " bytes]\n";
+            Iterator<Object> i = elements.iterator();
             int count = 0;
             while (i.hasNext()) {
                 count++;
@@ -547,4 +641,154 @@ public class CmsFlexCacheEntry implements I_CmsLruCacheObject, I_CmsMemoryMonito
         }
         return str;
     }
+
+    /**
+     * Invalidates this cache entry, which means it is about to be removed from the Flex cache.<p>
+     * 
+     * An invalidated entry is never moved to the off-heap store, and if its output
+     * has already been moved there, the space in the store is released.
+     * The output stays readable for requests that still use this entry.<p>
+     * 
+     * @return <code>true</code> if the output of the entry was in the off-heap store
+     */
+    synchronized boolean invalidate() {
+
+        if (m_invalidated) {
+            return false;
+        }
+        m_invalidated = true;
+        if (m_offHeapData == null) {
+            return false;
+        }
+        m_offHeapStore.release(m_offHeapData);
+        return true;
+    }
+
+    /**
+     * Moves the output of this cache entry from the off-heap store back to the heap.<p>
+     * 
+     * @return <code>true</code> if the output has been moved back to the heap, 
+     *      <code>false</code> if the output was not in the off-heap store or the entry has been invalidated
+     */
+    synchronized boolean moveToHeap() {
+
+        if ((m_offHeapData == null) || m_invalidated) {
+            return false;
+        }
+        m_elements = readOffHeapElements();
+        m_offHeapStore.release(m_offHeapData);
+        m_offHeapData = null;
+        if (m_compressed) {
+            // the costs of the entry still include the compressed variant
+            m_gzipBytes = gzipOutput(m_elements);
+        }
+        return true;
+    }
+
+    /**
+     * Moves the output of this cache entry to the off-heap store.<p>
+     * 
+     * The list of elements is replaced with a new list where the output byte arrays 
+     * are replaced with their lengths, the existing list is not changed, since it
+     * might be in use by a concurrent request.<p>
+     * 
+     * @return <code>true</code> if the output has been moved to the off-heap store
+     */
+    synchronized boolean moveToOffHeap() {
+
+        if (!m_completed
+            || m_invalidated
+            || (m_offHeapStore == null)
+            || (m_offHeapData != null)
+            || (m_redirectTarget != null)) {
+            return false;
+        }
+        int size = 0;
+        for (Object o : m_elements) {
+            if (o instanceof byte[]) {
+                size += ((byte[])o).length;
+            }
+        }
+        ByteBuffer buffer = m_offHeapStore.allocate(size);
+        if (buffer == null) {
+            // no space left in the off-heap store
+            return false;
+        }
+        List<Object> elements = new ArrayList<Object>(m_elements.size());
+        for (Object o : m_elements) {
+            if (o instanceof byte[]) {
+                byte[] bytes = (byte[])o;
+                buffer.put(bytes);
+                elements.add(new Integer(bytes.length));
+            } else {
+                elements.add(o);
+            }
+        }
+        m_elements = Collections.unmodifiableList(elements);
+        m_offHeapData = buffer;
+        // the compressed variant is not kept in the off-heap store, it is created again when the entry is moved back
+        m_gzipBytes = null;
+        return true;
+    }
+
+    /**
+     * Sets the off-heap store to move the output to when this entry is removed from the LRU cache.<p>
+     * 
+     * @param offHeapStore the off-heap store to use
+     */
+    void setOffHeapStore(CmsFlexCacheOffHeapStore offHeapStore) {
+
+        m_offHeapStore = offHeapStore;
+    }
+
+    /**
+     * Compresses the output in the given list of elements with gzip.<p>
+     * 
+     * @param elements the elements of this cache entry
+     * 
+     * @return the gzip compressed output, or <code>null</code> if the output should not be compressed
+     */
+    private byte[] gzipOutput(List<Object> elements) {
+
+        if ((elements.size() != 1) || !(elements.get(0) instanceof byte[])) {
+            // only entries without include calls can be delivered compressed
+            return null;
+        }
+        byte[] bytes = (byte[])elements.get(0);
+        if (bytes.length < MIN_COMPRESS_BYTES) {
+            return null;
+        }
+        try {
+            byte[] gzipBytes = CmsFileUtil.gzip(bytes);
+            if (gzipBytes.length < bytes.length) {
+                return gzipBytes;
+            }
+        } catch (IOException e) {
+            // should not happen, since we only write to memory
+            LOG.error(e.getLocalizedMessage(), e);
+        }
+        return null;
+    }
+
+    /**
+     * Reads the elements of this cache entry with the output from the off-heap store.<p>
+     * 
+     * @return the elements of this cache entry with the output from the off-heap store
+     */
+    private List<Object> readOffHeapElements() {
+
+        ByteBuffer buffer = m_offHeapData.duplicate();
+        buffer.clear();
+        List<Object> elements = new ArrayList<Object>(m_elements.size());
+        for (Object o : m_elements) {
+            if (o instanceof Integer) {
+                byte[] bytes = new byte[((Integer)o).intValue()];
+                buffer.get(bytes);
+                elements.add(bytes);
+            } else {
+                elements.add(o);
+            }
+        }
+        return Collections.unmodifiableList(elements);
+    }
 }
@@ -153,6 +153,9 @@ public class CmsFlexCacheKey {
     /** Cache key variable: Determines if this resource can be cached alwys, never or under certain conditions. -1 = never, 0=check, 1=always. */
     private int m_always;
 
+    /** The attribute names of {@link #m_attrs}, precompiled for fast key matching. */
+    private String[] m_attrNames;
+
     /** Cache key variable: List of attributes. */
     private Set<String> m_attrs;
 
@@ -174,12 +177,21 @@ public class CmsFlexCacheKey {
     /** Cache key variable: The requested locale. */
     private String m_locale;
 
+    /** The attribute names of {@link #m_noattrs}, precompiled for fast key matching. */
+    private String[] m_noattrNames;
+
+    /** The parameter names of {@link #m_noparams}, precompiled for fast key matching. */
+    private String[] m_noparamNames;
+
     /** Cache key variable: List of "blocking" attributes. */
     private Set<String> m_noattrs;
 
     /** Cache key variable: List of "blocking" parameters. */
     private Set<String> m_noparams;
 
+    /** The parameter names of {@link #m_params}, precompiled for fast key matching. */
+    private String[] m_paramNames;
+
     /** Cache key variable: List of parameters. */
     private Set<String> m_params;
 
@@ -198,6 +210,9 @@ public class CmsFlexCacheKey {
     /** Cache key variable: List of session variables. */
     private Set<String> m_session;
 
+    /** The session attribute names of {@link #m_session}, precompiled for fast key matching. */
+    private String[] m_sessionNames;
+
     /** Cache key variable: The current site root. */
     private String m_site;
 
@@ -213,6 +228,9 @@ public class CmsFlexCacheKey {
     /** The cache behaviour description for the resource. */
     private String m_variation;
 
+    /** The size of the largest variation String matched so far, used to size the buffer for the next match. */
+    private int m_variationSizeHint = 64;
+
     /**
      * This constructor is used when building a cache key from set of cache directives.<p>
      * 
@@ -238,6 +256,12 @@ public class CmsFlexCacheKey {
         if (cacheDirectives != null) {
             parseFlexKey(cacheDirectives);
         }
+        // precompile the name lists so that matching a request does not need to iterate the sets
+        m_attrNames = toArray(m_attrs);
+        m_noattrNames = toArray(m_noattrs);
+        m_noparamNames = toArray(m_noparams);
+        m_paramNames = toArray(m_params);
+        m_sessionNames = toArray(m_session);
         if (LOG.isDebugEnabled()) {
             LOG.debug(Messages.get().getBundle().key(Messages.LOG_FLEXCACHEKEY_GENERATED_1, toString()));
         }
@@ -264,11 +288,11 @@ public class CmsFlexCacheKey {
      * @param key the key to append
      * @param value the value to append
      */
-    private static void appendKeyValue(StringBuffer str, String key, String value) {
+    private static void appendKeyValue(StringBuilder str, String key, String value) {
 
         str.append(key);
         if (value == IS_USED) {
-            str.append(";");
+            str.append(';');
         } else {
             str.append("=(");
             str.append(value);
@@ -276,6 +300,21 @@ public class CmsFlexCacheKey {
         }
     }
 
+    /**
+     * Converts the given set of names to an array, keeping the iteration order of the set.<p>
+     * 
+     * @param names the set of names to convert, may be <code>null</code>
+     * 
+     * @return the names as array, or <code>null</code> if the given set was <code>null</code>
+     */
+    private static String[] toArray(Set<String> names) {
+
+        if (names == null) {
+            return null;
+        }
+        return names.toArray(new String[names.size()]);
+    }
+
     /**
      * This flag is used to indicate that a parse error had
      * occurred, which can happen if the cache directives String
@@ -307,7 +346,6 @@ public class CmsFlexCacheKey {
      */
     public String matchRequestKey(CmsFlexRequestKey key) {
 
-        StringBuffer str = new StringBuffer(100);
         if (m_always < 0) {
             if (LOG.isDebugEnabled()) {
                 LOG.debug(Messages.get().getBundle().key(Messages.LOG_FLEXCACHEKEY_KEYMATCH_CACHE_NEVER_0));
@@ -315,16 +353,21 @@ public class CmsFlexCacheKey {
             return null;
         }
 
+        // read the request parameters only once, and only if they are required 
+        Map<String, String[]> keyParams = null;
+        if ((m_noparams != null) || (m_params != null)) {
+            keyParams = key.getParams();
+        }
+
         if (LOG.isDebugEnabled()) {
             LOG.debug(Messages.get().getBundle().key(Messages.LOG_FLEXCACHEKEY_KEYMATCH_CHECK_NO_PARAMS_0));
         }
-        if ((m_noparams != null) && (key.getParams() != null)) {
-            if ((m_noparams.size() == 0) && (key.getParams().size() > 0)) {
+        if ((m_noparams != null) && (keyParams != null)) {
+            if (m_noparams.size() == 0) {
                 return null;
             }
-            Iterator<String> i = key.getParams().keySet().iterator();
-            while (i.hasNext()) {
-                if (m_noparams.contains(i.next())) {
+            for (int j = 0; j < m_noparamNames.length; j++) {
+                if (keyParams.containsKey(m_noparamNames[j])) {
                     return null;
                 }
             }
@@ -333,15 +376,17 @@ public class CmsFlexCacheKey {
         if (LOG.isDebugEnabled()) {
             LOG.debug(Messages.get().getBundle().key(Messages.LOG_FLEXCACHEKEY_KEYMATCH_CHECK_NO_ATTRS_0));
         }
-        if ((m_noattrs != null) && (key.getAttributes() != null)) {
-            if ((m_noattrs.size() == 0) && (key.getAttributes().size() > 0)) {
-                return null;
-            }
-            Iterator<String> i = key.getAttributes().keySet().iterator();
-            while (i.hasNext()) {
-                if (m_noattrs.contains(i.next())) {
+        if (m_noattrs != null) {
+            if (m_noattrs.size() == 0) {
+                if (key.hasAttributes()) {
                     return null;
                 }
+            } else {
+                for (int j = 0; j < m_noattrNames.length; j++) {
+                    if (key.getAttribute(m_noattrNames[j]) != null) {
+                        return null;
+                    }
+                }
             }
         }
 
@@ -349,10 +394,27 @@ public class CmsFlexCacheKey {
             if (LOG.isDebugEnabled()) {
                 LOG.debug(Messages.get().getBundle().key(Messages.LOG_FLEXCACHEKEY_KEYMATCH_CACHE_ALWAYS_0));
             }
-            str.append(CACHE_00_ALWAYS);
-            return str.toString();
+            return CACHE_00_ALWAYS;
         }
 
+        // the schemes and ports may reject the request, so check them before building the variation
+        String scheme = null;
+        if (m_schemes != null) {
+            scheme = key.getScheme();
+            if ((m_schemes.size() > 0) && (!m_schemes.contains(scheme))) {
+                return null;
+            }
+        }
+        Integer port = null;
+        if (m_ports != null) {
+            port = key.getPort();
+            if ((m_ports.size() > 0) && (!m_ports.contains(port))) {
+                return null;
+            }
+        }
+
+        StringBuilder str = new StringBuilder(m_variationSizeHint);
+
         if (m_uri != null) {
             appendKeyValue(str, CACHE_02_URI, key.getUri());
         }
@@ -392,21 +454,18 @@ public class CmsFlexCacheKey {
         if (m_params != null) {
             str.append(CACHE_04_PARAMS);
             str.append("=(");
-            Map<String, String[]> keyParams = key.getParams();
             if (keyParams != null) {
-                if (m_params.size() > 0) {
+                if (m_paramNames.length > 0) {
                     // match only params listed in cache directives
-                    Iterator<String> i = m_params.iterator();
-                    while (i.hasNext()) {
-                        Object o = i.next();
-                        if (keyParams.containsKey(o)) {
-                            str.append(o);
-                            str.append("=");
-                            // TODO: handle multiple occurrences of the same parameter value
-                            String[] values = keyParams.get(o);
+                    for (int j = 0; j < m_paramNames.length; j++) {
+                        // TODO: handle multiple occurrences of the same parameter value
+                        String[] values = keyParams.get(m_paramNames[j]);
+                        if (values != null) {
+                            str.append(m_paramNames[j]);
+                            str.append('=');
                             str.append(values[0]);
-                            if (i.hasNext()) {
-                                str.append(",");
+                            if (j < (m_paramNames.length - 1)) {
+                                str.append(',');
                             }
                         }
                     }
@@ -416,12 +475,12 @@ public class CmsFlexCacheKey {
                     while (i.hasNext()) {
                         Map.Entry<String, String[]> entry = i.next();
                         str.append(entry.getKey());
-                        str.append("=");
+                        str.append('=');
                         // TODO: handle multiple occurrences of the same parameter value
                         String[] values = entry.getValue();
                         str.append(values[0]);
                         if (i.hasNext()) {
-                            str.append(",");
+                            str.append(',');
                         }
                     }
                 }
@@ -432,34 +491,32 @@ public class CmsFlexCacheKey {
         if (m_attrs != null) {
             str.append(CACHE_18_ATTRS);
             str.append("=(");
-            Map<String, Object> keyAttrs = key.getAttributes();
-            if (keyAttrs != null) {
-                if (m_attrs.size() > 0) {
-                    // match only attributes listed in cache directives
-                    Iterator<String> i = m_attrs.iterator();
-                    while (i.hasNext()) {
-                        String s = i.next();
-                        if (keyAttrs.containsKey(s)) {
-                            str.append(s);
-                            str.append("=");
-                            Object value = keyAttrs.get(s);
-                            str.append(value);
-                            if (i.hasNext()) {
-                                str.append(",");
-                            }
+            if (m_attrNames.length > 0) {
+                // match only attributes listed in cache directives
+                for (int j = 0; j < m_attrNames.length; j++) {
+                    Object value = key.getAttribute(m_attrNames[j]);
+                    if (value != null) {
+                        str.append(m_attrNames[j]);
+                        str.append('=');
+                        str.append(value);
+                        if (j < (m_attrNames.length - 1)) {
+                            str.append(',');
                         }
                     }
-                } else {
-                    // match all request attributes
+                }
+            } else {
+                // match all request attributes
+                Map<String, Object> keyAttrs = key.getAttributes();
+                if (keyAttrs != null) {
                     Iterator<Map.Entry<String, Object>> i = keyAttrs.entrySet().iterator();
                     while (i.hasNext()) {
                         Map.Entry<String, Object> entry = i.next();
                         str.append(entry.getKey());
-                        str.append("=");
+                        str.append('=');
                         Object value = entry.getValue();
                         str.append(value);
                         if (i.hasNext()) {
-                            str.append(",");
+                            str.append(',');
                         }
                     }
                 }
@@ -468,50 +525,42 @@ public class CmsFlexCacheKey {
         }
 
         if (m_session != null) {
-            StringBuffer buf = new StringBuffer(32);
-            boolean found = false;
-            buf.append(CACHE_07_SESSION);
-            buf.append("=(");
             HttpSession keySession = key.getSession();
             if (keySession != null) {
+                // append directly to the variation and roll back if no session attribute was found
+                int mark = str.length();
+                boolean found = false;
+                str.append(CACHE_07_SESSION);
+                str.append("=(");
                 // match only session attributes listed in cache directives
-                Iterator<String> i = m_session.iterator();
-                while (i.hasNext()) {
-                    String name = i.next();
-                    Object val = keySession.getAttribute(name);
+                for (int j = 0; j < m_sessionNames.length; j++) {
+                    Object val = keySession.getAttribute(m_sessionNames[j]);
                     if (val != null) {
                         found = true;
-                        buf.append(name);
-                        buf.append("=");
-                        buf.append(val);
-                        if (i.hasNext()) {
-                            buf.append(",");
+                        str.append(m_sessionNames[j]);
+                        str.append('=');
+                        str.append(val);
+                        if (j < (m_sessionNames.length - 1)) {
+                            str.append(',');
                         }
                     }
                 }
-            }
-            if (found) {
-                buf.append(");");
-                str.append(buf);
+                if (found) {
+                    str.append(");");
+                } else {
+                    str.setLength(mark);
+                }
             }
         }
 
         if (m_schemes != null) {
-            String s = key.getScheme();
-            if ((m_schemes.size() > 0) && (!m_schemes.contains(s))) {
-                return null;
-            }
-            appendKeyValue(str, CACHE_08_SCHEMES, s);
+            appendKeyValue(str, CACHE_08_SCHEMES, scheme);
         }
 
         if (m_ports != null) {
-            Integer i = key.getPort();
-            if ((m_ports.size() > 0) && (!m_ports.contains(i))) {
-                return null;
-            }
             str.append(CACHE_09_PORTS);
             str.append("=(");
-            str.append(i);
+            str.append(port);
             str.append(");");
         }
 
@@ -522,7 +571,12 @@ public class CmsFlexCacheKey {
             str.append(");");
         }
 
-        if (str.length() > 0) {
+        int length = str.length();
+        if (length > 0) {
+            if (length > m_variationSizeHint) {
+                // racy update is fine, this is only a hint for the initial buffer size 
+                m_variationSizeHint = length;
+            }
             return str.toString();
         } else {
             return null;
@@ -537,7 +591,7 @@ public class CmsFlexCacheKey {
     @Override
     public String toString() {
 
-        StringBuffer str = new StringBuffer(100);
+        StringBuilder str = new StringBuilder(100);
 
         if (m_always < 0) {
             str.append(CACHE_01_NEVER);
@@ -0,0 +1,126 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.flex;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Second level store for the output of Flex cache entries, which keeps the data outside of the Java heap.<p>
+ * 
+ * Cache entries that are removed from the LRU cache of the {@link CmsFlexCache} because of its size limits,
+ * or that are too large to be kept in the LRU cache at all, move their output into direct byte buffers 
+ * allocated from this store, so that only the keys and the meta data of these entries remain on the heap.
+ * Entries found in this store are moved back to the heap when they are requested again.<p>
+ * 
+ * The total size of all buffers is limited, if there is no more space left in the store, 
+ * the cache entries are discarded like without a second level store.<p>
+ * 
+ * @since 9.5.0
+ * 
+ * @see org.opencms.flex.CmsFlexCacheEntry
+ */
+public class CmsFlexCacheOffHeapStore {
+
+    /** The maximum number of bytes kept in this store. */
+    private long m_maxBytes;
+
+    /** The number of bytes currently used in this store. */
+    private AtomicLong m_usedBytes;
+
+    /**
+     * Creates a new off-heap store.<p>
+     * 
+     * @param maxBytes the maximum number of bytes kept in the store
+     */
+    public CmsFlexCacheOffHeapStore(long maxBytes) {
+
+        m_maxBytes = maxBytes;
+        m_usedBytes = new AtomicLong();
+    }
+
+    /**
+     * Allocates a new buffer with the given size from this store.<p>
+     * 
+     * @param size the size of the buffer
+     * 
+     * @return the allocated buffer, or <code>null</code> if there is not enough space left in the store 
+     */
+    public ByteBuffer allocate(int size) {
+
+        while (true) {
+            long used = m_usedBytes.get();
+            if ((used + size) > m_maxBytes) {
+                return null;
+            }
+            if (m_usedBytes.compareAndSet(used, used + size)) {
+                break;
+            }
+        }
+        try {
+            return ByteBuffer.allocateDirect(size);
+        } catch (OutOfMemoryError e) {
+            // the direct memory limit of the JVM has been reached
+            m_usedBytes.addAndGet(-size);
+            return null;
+        }
+    }
+
+    /**
+     * Returns the maximum number of bytes kept in this store.<p>
+     * 
+     * @return the maximum number of bytes kept in this store
+     */
+    public long getMaxBytes() {
+
+        return m_maxBytes;
+    }
+
+    /**
+     * Returns the number of bytes currently used in this store.<p>
+     * 
+     * @return the number of bytes currently used in this store
+     */
+    public long getUsedBytes() {
+
+        return m_usedBytes.get();
+    }
+
+    /**
+     * Releases a buffer that was allocated from this store.<p>
+     * 
+     * The buffer must not be used any more after it has been released.
+     * The memory of the buffer itself is freed once the buffer is garbage collected.<p>
+     * 
+     * @param buffer the buffer to release
+     */
+    public void release(ByteBuffer buffer) {
+
+        m_usedBytes.addAndGet(-buffer.capacity());
+    }
+}
@@ -35,6 +35,7 @@ import org.opencms.loader.I_CmsResourceLoader;
 import org.opencms.main.CmsException;
 import org.opencms.main.CmsLog;
 import org.opencms.main.OpenCms;
+import org.opencms.monitor.CmsMetrics;
 
 import java.io.IOException;
 import java.util.List;
@@ -142,6 +143,7 @@ public class CmsFlexRequestDispatcher implements RequestDispatcher {
                 m_extTarget));
         }
 
+        long start = CmsMetrics.startTimer();
         CmsFlexController controller = CmsFlexController.getController(req);
         CmsResource resource = null;
 
@@ -159,12 +161,16 @@ public class CmsFlexRequestDispatcher implements RequestDispatcher {
             }
         }
 
-        if ((m_extTarget != null) || (controller == null)) {
-            includeExternal(req, res);
-        } else if (controller.isForwardMode()) {
-            includeInternalNoCache(req, res, controller, controller.getCmsObject(), resource);
-        } else {
-            includeInternalWithCache(req, res, controller, controller.getCmsObject(), resource);
+        try {
+            if ((m_extTarget != null) || (controller == null)) {
+                includeExternal(req, res);
+            } else if (controller.isForwardMode()) {
+                includeInternalNoCache(req, res, controller, controller.getCmsObject(), resource);
+            } else {
+                includeInternalWithCache(req, res, controller, controller.getCmsObject(), resource);
+            }
+        } finally {
+            CmsMetrics.addTime(CmsMetrics.TIMER_FLEX_INCLUDE, start);
         }
     }
 
@@ -434,6 +440,10 @@ public class CmsFlexRequestDispatcher implements RequestDispatcher {
                         entry.setDateLastModified(controller.getDateLastModified());
                         entry.setDateExpires(controller.getDateExpires());
                     }
+                    if (cache.isPrecompress() && isTopElement(controller)) {
+                        // the entry makes up the complete page, store a compressed variant with it
+                        entry.compress();
+                    }
                     cache.put(w_res.getCmsCacheKey(), entry, variation);
                 } else {
                     // result can not be cached, do not use "last modified" optimization
@@ -441,6 +451,14 @@ public class CmsFlexRequestDispatcher implements RequestDispatcher {
                 }
             }
 
+            if ((entry != null) && isTopElement(controller)) {
+                byte[] gzipBytes = entry.getGzipBytes();
+                if (gzipBytes != null) {
+                    // the compressed variant can be delivered if the page consists only of this entry
+                    f_res.setGzipVariant((byte[])entry.elements().get(0), gzipBytes);
+                }
+            }
+
             if (f_res.hasIncludeList()) {
                 // special case: this indicates that the output was not yet displayed
                 Map<String, List<String>> headers = w_res.getHeaders();
@@ -463,4 +481,17 @@ public class CmsFlexRequestDispatcher implements RequestDispatcher {
             controller.pop();
         }
     }
+
+    /**
+     * Checks if the current include generates the complete output of the top level response.<p>
+     * 
+     * @param controller the Flex controller
+     * 
+     * @return <code>true</code> if the current include generates the complete output of the top level response
+     */
+    private boolean isTopElement(CmsFlexController controller) {
+
+        // the stack contains the top level request / response and the current include
+        return controller.isTop() && (controller.getResponseStackSize() == 2);
+    }
 }
\ No newline at end of file
@@ -120,6 +120,23 @@ public class CmsFlexRequestKey {
         }
     }
 
+    /**
+     * Returns the value of the request attribute with the given name.<p>
+     * 
+     * Unlike {@link #getAttributes()}, this does not create a map of all request attributes.<p>
+     * 
+     * @param name the name of the attribute
+     * 
+     * @return the value of the request attribute, or <code>null</code> if the attribute is not set
+     */
+    public Object getAttribute(String name) {
+
+        if (m_request instanceof CmsFlexRequest) {
+            return ((CmsFlexRequest)m_request).getAttributeMap().get(name);
+        }
+        return m_request.getAttribute(name);
+    }
+
     /**
      * Returns the request attributes.<p>
      * 
@@ -216,7 +233,7 @@ public class CmsFlexRequestKey {
      */
     public Integer getPort() {
 
-        return new Integer(m_request.getServerPort());
+        return Integer.valueOf(m_request.getServerPort());
     }
 
     /**
@@ -283,4 +300,19 @@ public class CmsFlexRequestKey {
 
         return m_context.getCurrentUser().getName();
     }
+
+    /**
+     * Returns <code>true</code> if the request has any attributes set.<p>
+     * 
+     * Unlike {@link #getAttributes()}, this does not create a map of all request attributes.<p>
+     * 
+     * @return <code>true</code> if the request has any attributes set
+     */
+    public boolean hasAttributes() {
+
+        if (m_request instanceof CmsFlexRequest) {
+            return !((CmsFlexRequest)m_request).getAttributeMap().isEmpty();
+        }
+        return m_request.getAttributeNames().hasMoreElements();
+    }
 }
\ No newline at end of file
@@ -42,6 +42,7 @@ import java.io.PrintWriter;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -49,6 +50,7 @@ import java.util.Map;
 
 import javax.servlet.ServletOutputStream;
 import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.servlet.http.HttpServletResponseWrapper;
 
@@ -204,6 +206,12 @@ public class CmsFlexResponse extends HttpServletResponseWrapper {
     /** The encoding to use for the response. */
     private String m_encoding;
 
+    /** The gzip compressed variant of the output of this response, if the output was generated by a single cache entry. */
+    private byte[] m_gzipBytes;
+
+    /** The uncompressed output that {@link #m_gzipBytes} is the compressed variant of. */
+    private byte[] m_gzipSource;
+
     /** Map to save all response headers (including sub-elements) in. */
     private Map<String, List<String>> m_headers;
 
@@ -295,6 +303,41 @@ public class CmsFlexResponse extends HttpServletResponseWrapper {
         m_bufferHeaders = new HashMap<String, List<String>>(8);
     }
 
+    /**
+     * Checks if the client accepts the gzip content encoding, 
+     * based on the "Accept-Encoding" header of the given request.<p>
+     * 
+     * @param req the request to check
+     * 
+     * @return <code>true</code> if the client accepts the gzip content encoding
+     */
+    public static boolean isGzipAccepted(HttpServletRequest req) {
+
+        String acceptEncoding = req.getHeader(CmsRequestUtil.HEADER_ACCEPT_ENCODING);
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim();
+            if (CmsRequestUtil.HEADER_VALUE_GZIP.equalsIgnoreCase(name)) {
+                for (int i = 1; i < parts.length; i++) {
+                    String param = parts[i].trim();
+                    if (param.startsWith("q=")) {
+                        try {
+                            // a quality value of 0 means "not acceptable"
+                            return Double.parseDouble(param.substring(2)) > 0;
+                        } catch (NumberFormatException e) {
+                            return false;
+                        }
+                    }
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Process the headers stored in the provided map and add them to the response.<p>
      * 
@@ -513,6 +556,26 @@ public class CmsFlexResponse extends HttpServletResponseWrapper {
         return m_encoding;
     }
 
+    /**
+     * Returns the gzip compressed variant of the given output of this response.<p>
+     * 
+     * A compressed variant is only available if the complete output of this response 
+     * was generated by a single Flex cache entry that stores a compressed variant.<p>
+     * 
+     * @param output the output of this response, as returned by {@link #getWriterBytes()}
+     * 
+     * @return the gzip compressed variant of the given output, or <code>null</code> if not available
+     * 
+     * @see CmsFlexCacheEntry#compress()
+     */
+    public byte[] getGzipBytes(byte[] output) {
+
+        if ((m_gzipBytes == null) || ((output != m_gzipSource) && !Arrays.equals(output, m_gzipSource))) {
+            return null;
+        }
+        return m_gzipBytes;
+    }
+
     /**
      * Provides access to the header cache of the top wrapper.<p>
      *
@@ -961,6 +1024,18 @@ public class CmsFlexResponse extends HttpServletResponseWrapper {
         m_includeMode = value;
     }
 
+    /**
+     * Sets the gzip compressed variant of the output generated by a cache entry for this response.<p>
+     * 
+     * @param source the uncompressed output of the cache entry
+     * @param gzipBytes the gzip compressed variant of the output
+     */
+    void setGzipVariant(byte[] source, byte[] gzipBytes) {
+
+        m_gzipSource = source;
+        m_gzipBytes = gzipBytes;
+    }
+
     /**
      * Sets the suspended status of the response, and also sets
      * the suspend status of all responses wrapping this response.<p>
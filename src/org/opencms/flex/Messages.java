@@ -73,6 +73,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String INIT_FLEXCACHE_DEVICE_SELECTOR_SUCCESS_1 = "INIT_FLEXCACHE_DEVICE_SELECTOR_SUCCESS_1";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String INIT_FLEXCACHE_OFFHEAP_STORE_1 = "INIT_FLEXCACHE_OFFHEAP_STORE_1";
+
     /** Message constant for key in the resource bundle. */
     public static final String LOG_CLASS_INIT_FAILURE_1 = "LOG_CLASS_INIT_FAILURE_1";
 
@@ -139,6 +142,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String LOG_FLEXCACHEENTRY_ENTRY_COMPLETED_1 = "LOG_FLEXCACHEENTRY_ENTRY_COMPLETED_1";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_FLEXCACHEENTRY_MOVED_OFF_HEAP_2 = "LOG_FLEXCACHEENTRY_MOVED_OFF_HEAP_2";
+
     /** Message constant for key in the resource bundle. */
     public static final String LOG_FLEXCACHEENTRY_REMOVED_ENTRY_FOR_VARIATION_1 = "LOG_FLEXCACHEENTRY_REMOVED_ENTRY_FOR_VARIATION_1";
 
@@ -259,6 +265,12 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String LOG_FLEXRESPONSE_TOPRESPONSE_SENDREDIRECT_1 = "LOG_FLEXRESPONSE_TOPRESPONSE_SENDREDIRECT_1";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_PARSE_MAX_OFFHEAP_BYTES_FAILED_1 = "LOG_PARSE_MAX_OFFHEAP_BYTES_FAILED_1";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_PARSE_PRECOMPRESS_FAILED_1 = "LOG_PARSE_PRECOMPRESS_FAILED_1";
+
     /** Name of the used resource bundle. */
     private static final String BUNDLE_NAME = "org.opencms.flex.messages";
 
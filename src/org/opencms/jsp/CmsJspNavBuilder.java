@@ -35,6 +35,7 @@ import org.opencms.file.CmsResourceFilter;
 import org.opencms.main.CmsException;
 import org.opencms.main.CmsLog;
 import org.opencms.util.CmsFileUtil;
+import org.opencms.util.CmsUUID;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -423,20 +424,28 @@ public class CmsJspNavBuilder {
         List<CmsJspNavElement> result = new ArrayList<CmsJspNavElement>();
 
         List<CmsResource> resources = null;
+        Map<CmsUUID, List<CmsProperty>> properties = null;
         try {
 
             resources = m_cms.getResourcesInFolder(folder, resourceFilter);
+            // read the properties of all resources at once
+            properties = m_cms.readPropertiesForResources(resources, false);
         } catch (Exception e) {
             // should never happen
             LOG.error(e.getLocalizedMessage(), e);
         }
-        if (resources == null) {
+        if ((resources == null) || (properties == null)) {
             return Collections.<CmsJspNavElement> emptyList();
         }
         boolean includeAll = visibility == Visibility.all;
         boolean includeHidden = visibility == Visibility.includeHidden;
         for (CmsResource r : resources) {
-            CmsJspNavElement element = getNavigationForResource(m_cms.getSitePath(r), resourceFilter);
+            CmsJspNavElement element = getNavigationForResource(
+                m_cms.getSitePath(r),
+                r,
+                properties.get(r.getStructureId()),
+                resourceFilter,
+                false);
             if ((element != null)
                 && (includeAll || (element.isInNavigation() && (includeHidden || !element.isHiddenNavigationEntry())))) {
                 result.add(element);
@@ -634,8 +643,11 @@ public class CmsJspNavBuilder {
         List<CmsJspNavElement> result = new ArrayList<CmsJspNavElement>();
 
         List<CmsResource> resources;
+        Map<CmsUUID, List<CmsProperty>> properties;
         try {
             resources = m_cms.getResourcesInFolder(folder, resourceFilter);
+            // read the properties of all resources at once
+            properties = m_cms.readPropertiesForResources(resources, false);
         } catch (Exception e) {
             // should never happen
             LOG.error(e.getLocalizedMessage(), e);
@@ -643,7 +655,12 @@ public class CmsJspNavBuilder {
         }
 
         for (CmsResource r : resources) {
-            CmsJspNavElement element = getNavigationForResource(m_cms.getSitePath(r), resourceFilter, shallow);
+            CmsJspNavElement element = getNavigationForResource(
+                m_cms.getSitePath(r),
+                r,
+                properties.get(r.getStructureId()),
+                resourceFilter,
+                shallow);
             if ((element != null) && (includeInvisible || element.isInNavigation())) {
                 result.add(element);
             }
@@ -665,15 +682,43 @@ public class CmsJspNavBuilder {
     private CmsJspNavElement getNavigationForResource(String sitePath, CmsResourceFilter resourceFilter, boolean shallow) {
 
         CmsResource resource;
-        Map<String, String> propertiesMap;
+        List<CmsProperty> properties;
+        try {
+            resource = m_cms.readResource(sitePath, resourceFilter);
+            properties = m_cms.readPropertyObjects(resource, false);
+        } catch (Exception e) {
+            // may happen if permissions are not sufficient
+            LOG.warn(e.getLocalizedMessage(), e);
+            return null;
+        }
+        return getNavigationForResource(sitePath, resource, properties, resourceFilter, shallow);
+    }
+
+    /**
+     * Returns a navigation element for the given resource, with the given properties already read.<p>
+     * 
+     * @param sitePath the resource name to get the navigation information for, 
+     *              must be a full path name, e.g. "/docs/index.html"
+     * @param resource the resource
+     * @param properties the properties of the resource
+     * @param resourceFilter the filter to use reading the resources
+     * @param shallow <code>true</code> for a shallow look up, not regarding next level resources
+     *              
+     * @return a navigation element for the given resource
+     */
+    private CmsJspNavElement getNavigationForResource(
+        String sitePath,
+        CmsResource resource,
+        List<CmsProperty> properties,
+        CmsResourceFilter resourceFilter,
+        boolean shallow) {
+
+        Map<String, String> propertiesMap = CmsProperty.toMap(properties);
         int level = CmsResource.getPathLevel(sitePath);
         if (sitePath.endsWith("/")) {
             level--;
         }
         try {
-            resource = m_cms.readResource(sitePath, resourceFilter);
-            List<CmsProperty> properties = m_cms.readPropertyObjects(resource, false);
-            propertiesMap = CmsProperty.toMap(properties);
             if (resource.isFolder()) {
                 if (resourceFilter.equals(CmsResourceFilter.DEFAULT)
                     && !NAVIGATION_LEVEL_FOLDER.equals(propertiesMap.get(CmsPropertyDefinition.PROPERTY_DEFAULT_FILE))) {
@@ -40,6 +40,8 @@ import org.opencms.util.CmsStringUtil;
 import org.opencms.workplace.CmsWorkplaceManager;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.Iterator;
 import java.util.Locale;
 
@@ -58,15 +60,27 @@ import javax.servlet.http.HttpServletResponse;
  */
 public class CmsDumpLoader implements I_CmsResourceLoader {
 
+    /** The configuration parameter for the size in bytes above which files are streamed. */
+    public static final String CONFIGURATION_STREAM_THRESHOLD = "stream.threshold";
+
+    /** The default size in bytes above which files are streamed. */
+    public static final long DEFAULT_STREAM_THRESHOLD = 1024 * 1024;
+
     /** The id of this loader. */
     public static final int RESOURCE_LOADER_ID = 1;
 
+    /** The size of the buffer used to stream file contents. */
+    private static final int BUFFER_SIZE = 8192;
+
     /** The maximum age for dumped contents in the clients cache. */
     private static long m_clientCacheMaxAge;
 
     /** The resource loader configuration. */
     private CmsParameterConfiguration m_configuration;
 
+    /** The size in bytes above which files are streamed, or -1 to never stream files. */
+    private long m_streamThreshold = DEFAULT_STREAM_THRESHOLD;
+
     /**
      * The constructor of the class is empty and does nothing.<p>
      */
@@ -164,6 +178,17 @@ public class CmsDumpLoader implements I_CmsResourceLoader {
         return Messages.get().getBundle().key(Messages.GUI_LOADER_DUMB_DEFAULT_DESC_0);
     }
 
+    /**
+     * Returns the size in bytes above which the file contents are streamed 
+     * from the database instead of being read into memory completely.<p>
+     * 
+     * @return the size in bytes above which files are streamed, or <code>-1</code> if files are never streamed
+     */
+    public long getStreamThreshold() {
+
+        return m_streamThreshold;
+    }
+
     /**
      * @see org.opencms.configuration.I_CmsConfigurationParameterHandler#initConfiguration()
      */
@@ -175,11 +200,20 @@ public class CmsDumpLoader implements I_CmsResourceLoader {
         } else {
             m_clientCacheMaxAge = Long.parseLong(String.valueOf(maxAge));
         }
+        Object streamThreshold = m_configuration.get(CONFIGURATION_STREAM_THRESHOLD);
+        if (streamThreshold != null) {
+            m_streamThreshold = Long.parseLong(String.valueOf(streamThreshold).trim());
+        }
 
         if (CmsLog.INIT.isInfoEnabled()) {
             if (maxAge != null) {
                 CmsLog.INIT.info(Messages.get().getBundle().key(Messages.INIT_CLIENT_CACHE_MAX_AGE_1, maxAge));
             }
+            if (m_streamThreshold >= 0) {
+                CmsLog.INIT.info(Messages.get().getBundle().key(
+                    Messages.INIT_STREAM_THRESHOLD_1,
+                    String.valueOf(m_streamThreshold)));
+            }
             CmsLog.INIT.info(Messages.get().getBundle().key(
                 Messages.INIT_LOADER_INITIALIZED_1,
                 this.getClass().getName()));
@@ -229,13 +263,37 @@ public class CmsDumpLoader implements I_CmsResourceLoader {
             return;
         }
 
-        // make sure we have the file contents available
-        CmsFile file = cms.readFile(resource);
+        CmsFile file = null;
+        long length;
+        if (isStreamed(resource)) {
+            // large files are streamed from the database
+            length = resource.getLength();
+        } else {
+            // make sure we have the file contents available
+            file = cms.readFile(resource);
+            length = file.getContents().length;
+        }
 
-        // set response status to "200 - OK" (required for static export "on-demand")
-        res.setStatus(HttpServletResponse.SC_OK);
+        long[] range = getRequestedRange(resource, length, req);
+        res.setHeader(CmsRequestUtil.HEADER_ACCEPT_RANGES, "bytes");
+        if (range == null) {
+            // set response status to "200 - OK" (required for static export "on-demand")
+            res.setStatus(HttpServletResponse.SC_OK);
+        } else if (range[0] >= length) {
+            res.setHeader(CmsRequestUtil.HEADER_CONTENT_RANGE, "bytes */" + length);
+            res.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            return;
+        } else {
+            res.setHeader(CmsRequestUtil.HEADER_CONTENT_RANGE, "bytes " + range[0] + "-" + range[1] + "/" + length);
+            res.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+        }
         // set content length header
-        res.setContentLength(file.getContents().length);
+        long contentLength = (range == null) ? length : ((range[1] - range[0]) + 1);
+        if (contentLength <= Integer.MAX_VALUE) {
+            res.setContentLength((int)contentLength);
+        } else {
+            res.setHeader(CmsRequestUtil.HEADER_CONTENT_LENGTH, String.valueOf(contentLength));
+        }
 
         if (CmsWorkplaceManager.isWorkplaceUser(req)) {
             // prevent caching for Workplace users
@@ -243,7 +301,7 @@ public class CmsDumpLoader implements I_CmsResourceLoader {
             CmsRequestUtil.setNoCacheHeaders(res);
         } else {
             // set date last modified header
-            res.setDateHeader(CmsRequestUtil.HEADER_LAST_MODIFIED, file.getDateLastModified());
+            res.setDateHeader(CmsRequestUtil.HEADER_LAST_MODIFIED, resource.getDateLastModified());
 
             // set "Expires" only if cache control is not already set
             if (!res.containsHeader(CmsRequestUtil.HEADER_CACHE_CONTROL)) {
@@ -257,7 +315,22 @@ public class CmsDumpLoader implements I_CmsResourceLoader {
             }
         }
 
-        service(cms, file, req, res);
+        if (file == null) {
+            InputStream content = cms.readContentStream(resource);
+            try {
+                if (range == null) {
+                    writeContent(content, res.getOutputStream(), 0, length);
+                } else {
+                    writeContent(content, res.getOutputStream(), range[0], contentLength);
+                }
+            } finally {
+                content.close();
+            }
+        } else if (range != null) {
+            res.getOutputStream().write(file.getContents(), (int)range[0], (int)contentLength);
+        } else {
+            service(cms, file, req, res);
+        }
     }
 
     /**
@@ -301,4 +374,115 @@ public class CmsDumpLoader implements I_CmsResourceLoader {
         }
         return false;
     }
+
+    /**
+     * Returns the byte range requested with the "Range" http header.<p>
+     * 
+     * Only a single byte range is supported. If no range, multiple ranges or an invalid range is requested, 
+     * or if the "If-Range" header does not match the resource, <code>null</code> is returned and 
+     * the complete file is delivered.<p>
+     * 
+     * @param resource the requested resource
+     * @param length the length of the file content
+     * @param req the current request
+     * 
+     * @return the first and the last byte of the requested range, or <code>null</code> if the complete file 
+     *      is delivered; if the first byte is not smaller than the content length, the range is not satisfiable
+     */
+    protected long[] getRequestedRange(CmsResource resource, long length, HttpServletRequest req) {
+
+        String range = req.getHeader(CmsRequestUtil.HEADER_RANGE);
+        if ((range == null) || !range.startsWith("bytes=")) {
+            return null;
+        }
+        if (req.getHeader(CmsRequestUtil.HEADER_IF_RANGE) != null) {
+            try {
+                // only the last modification date is supported as validator
+                long ifRange = req.getDateHeader(CmsRequestUtil.HEADER_IF_RANGE);
+                if ((ifRange / 1000) != (resource.getDateLastModified() / 1000)) {
+                    return null;
+                }
+            } catch (IllegalArgumentException e) {
+                // the header contains an entity tag
+                return null;
+            }
+        }
+        String spec = range.substring(6).trim();
+        int dash = spec.indexOf('-');
+        if ((dash < 0) || (spec.indexOf(',') >= 0)) {
+            return null;
+        }
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            if (first.length() == 0) {
+                // suffix range, the last n bytes are requested
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0) {
+                    return new long[] {length, length - 1};
+                }
+                return new long[] {Math.max(0, length - suffix), length - 1};
+            }
+            long start = Long.parseLong(first);
+            long end = (last.length() == 0) ? (length - 1) : Long.parseLong(last);
+            if ((start < 0) || (end < start)) {
+                return null;
+            }
+            return new long[] {start, Math.min(end, length - 1)};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Checks if the content of the given resource is streamed from the database 
+     * instead of being read into memory completely.<p>
+     * 
+     * @param resource the resource to check
+     * 
+     * @return <code>true</code> if the content of the given resource is streamed
+     */
+    protected boolean isStreamed(CmsResource resource) {
+
+        if ((resource instanceof CmsFile) && (((CmsFile)resource).getContents() != null)) {
+            // the content has already been read
+            return false;
+        }
+        return (m_streamThreshold >= 0) && (resource.getLength() > m_streamThreshold);
+    }
+
+    /**
+     * Writes a part of the content from the given input stream to the given output stream.<p>
+     * 
+     * @param in the content to write
+     * @param out the output stream to write to
+     * @param start the index of the first byte to write
+     * @param length the number of bytes to write
+     * 
+     * @throws IOException if something goes wrong
+     */
+    protected void writeContent(InputStream in, OutputStream out, long start, long length) throws IOException {
+
+        long skipped = 0;
+        while (skipped < start) {
+            long count = in.skip(start - skipped);
+            if (count <= 0) {
+                if (in.read() == -1) {
+                    return;
+                }
+                count = 1;
+            }
+            skipped += count;
+        }
+        byte[] buffer = new byte[BUFFER_SIZE];
+        long remaining = length;
+        while (remaining > 0) {
+            int count = in.read(buffer, 0, (int)Math.min(buffer.length, remaining));
+            if (count == -1) {
+                break;
+            }
+            out.write(buffer, 0, count);
+            remaining -= count;
+        }
+    }
 }
\ No newline at end of file
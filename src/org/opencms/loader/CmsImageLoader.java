@@ -29,19 +29,33 @@ package org.opencms.loader;
 
 import org.opencms.cache.CmsVfsNameBasedDiskCache;
 import org.opencms.configuration.CmsParameterConfiguration;
+import org.opencms.db.CmsPublishedResource;
 import org.opencms.file.CmsFile;
 import org.opencms.file.CmsObject;
 import org.opencms.file.CmsResource;
+import org.opencms.file.CmsResourceFilter;
+import org.opencms.flex.CmsFlexController;
 import org.opencms.main.CmsEvent;
 import org.opencms.main.CmsException;
 import org.opencms.main.CmsLog;
+import org.opencms.main.I_CmsAsyncEventListener;
 import org.opencms.main.I_CmsEventListener;
 import org.opencms.main.OpenCms;
 import org.opencms.scheduler.jobs.CmsImageCacheCleanupJob;
+import org.opencms.staticexport.CmsStaticExportResponseWrapper;
 import org.opencms.util.CmsStringUtil;
+import org.opencms.util.CmsUUID;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -60,7 +74,7 @@ import org.apache.commons.logging.Log;
  * 
  * @since 6.2.0 
  */
-public class CmsImageLoader extends CmsDumpLoader implements I_CmsEventListener {
+public class CmsImageLoader extends CmsDumpLoader implements I_CmsAsyncEventListener {
 
     /** The configuration parameter for the OpenCms XML configuration to set the image down scale operation. */
     public static final String CONFIGURATION_DOWNSCALE = "image.scaling.downscale";
@@ -71,9 +85,18 @@ public class CmsImageLoader extends CmsDumpLoader implements I_CmsEventListener
     /** The configuration parameter for the OpenCms XML configuration to set the maximum image blur size. */
     public static final String CONFIGURATION_MAX_BLUR_SIZE = "image.scaling.maxblursize";
 
+    /** The configuration parameter for the OpenCms XML configuration to set the maximum number of image scale operations waiting to be executed. */
+    public static final String CONFIGURATION_MAX_QUEUE = "image.scaling.maxqueue";
+
     /** The configuration parameter for the OpenCms XML configuration to set the maximum image scale size. */
     public static final String CONFIGURATION_MAX_SCALE_SIZE = "image.scaling.maxsize";
 
+    /** The configuration parameter for the OpenCms XML configuration to set the maximum number of parallel image scale operations. */
+    public static final String CONFIGURATION_MAX_THREADS = "image.scaling.maxthreads";
+
+    /** The configuration parameter for the OpenCms XML configuration to add an image variant that is scaled when images are published. */
+    public static final String CONFIGURATION_PREWARM = "image.scaling.prewarm";
+
     /** The configuration parameter for the OpenCms XML configuration to enable the image scaling. */
     public static final String CONFIGURATION_SCALING_ENABLED = "image.scaling.enabled";
 
@@ -89,6 +112,9 @@ public class CmsImageLoader extends CmsDumpLoader implements I_CmsEventListener
     /** The log object for this class. */
     protected static final Log LOG = CmsLog.getLog(CmsImageLoader.class);
 
+    /** The request attribute set by the servlet container for included requests. */
+    private static final String ATTRIBUTE_INCLUDE_REQUEST_URI = "javax.servlet.include.request_uri";
+
     /** The (optional) image down scale parameters for image write operations. */
     protected static String m_downScaleParams;
 
@@ -104,9 +130,24 @@ public class CmsImageLoader extends CmsDumpLoader implements I_CmsEventListener
     /** The name of the configured image cache repository. */
     protected String m_imageRepositoryFolder;
 
+    /** The maximum number of image scale operations waiting to be executed. */
+    protected int m_maxScaleQueue = -1;
+
     /** The maximum image size (width or height) to allow when up scaling an image using request parameters. */
     protected int m_maxScaleSize = CmsImageScaler.SCALE_DEFAULT_MAX_SIZE;
 
+    /** The maximum number of parallel image scale operations, if not positive the number of available processors is used. */
+    protected int m_maxScaleThreads;
+
+    /** The executor scaling the published images to the configured image variants. */
+    protected ExecutorService m_prewarmExecutor;
+
+    /** The scale parameters of the image variants that are scaled when images are published. */
+    protected List<String> m_prewarmVariants = new ArrayList<String>();
+
+    /** The pool which limits and coalesces the image scale operations. */
+    protected CmsImageScalingPool m_scalingPool;
+
     /**
      * Creates a new image loader.<p>
      */
@@ -197,6 +238,16 @@ public class CmsImageLoader extends CmsDumpLoader implements I_CmsEventListener
             if (CONFIGURATION_DOWNSCALE.equals(paramName)) {
                 m_downScaleParams = paramValue.trim();
             }
+            if (CONFIGURATION_MAX_THREADS.equals(paramName)) {
+                m_maxScaleThreads = CmsStringUtil.getIntValue(paramValue, 0, paramName);
+            }
+            if (CONFIGURATION_MAX_QUEUE.equals(paramName)) {
+                m_maxScaleQueue = CmsStringUtil.getIntValue(paramValue, -1, paramName);
+            }
+            if (CONFIGURATION_PREWARM.equals(paramName)) {
+                // this parameter can be used more than once
+                m_prewarmVariants.add(paramValue.trim());
+            }
         }
         super.addConfigurationParameter(paramName, paramValue);
     }
@@ -209,13 +260,20 @@ public class CmsImageLoader extends CmsDumpLoader implements I_CmsEventListener
         if (event == null) {
             return;
         }
-        // only react on the clear caches event
+        // only react on the clear caches event and on the publish event
         int type = event.getType();
+        Map<String, ?> data = event.getData();
+        if ((type == I_CmsEventListener.EVENT_PUBLISH_PROJECT) && (data != null)) {
+            Object publishHistoryId = data.get(I_CmsEventListener.KEY_PUBLISHID);
+            if (m_enabled && !m_prewarmVariants.isEmpty() && (publishHistoryId != null)) {
+                scalePublishedImages(new CmsUUID(String.valueOf(publishHistoryId)));
+            }
+            return;
+        }
         if (type != I_CmsEventListener.EVENT_CLEAR_CACHES) {
             return;
         }
         // only react if the clear images cache parameter is set
-        Map<String, ?> data = event.getData();
         if (data == null) {
             return;
         }
@@ -241,6 +299,10 @@ public class CmsImageLoader extends CmsDumpLoader implements I_CmsEventListener
         m_enabled = false;
         m_imageRepositoryFolder = null;
         m_vfsDiskCache = null;
+        if (m_prewarmExecutor != null) {
+            m_prewarmExecutor.shutdownNow();
+            m_prewarmExecutor = null;
+        }
     }
 
     /**
@@ -256,6 +318,10 @@ public class CmsImageLoader extends CmsDumpLoader implements I_CmsEventListener
         }
         result.put(CONFIGURATION_SCALING_ENABLED, String.valueOf(m_enabled));
         result.put(CONFIGURATION_IMAGE_FOLDER, m_imageRepositoryFolder);
+        result.remove(CONFIGURATION_PREWARM);
+        for (String variant : m_prewarmVariants) {
+            result.add(CONFIGURATION_PREWARM, variant);
+        }
         return result;
     }
 
@@ -283,6 +349,19 @@ public class CmsImageLoader extends CmsDumpLoader implements I_CmsEventListener
                 OpenCms.getSystemInfo().getWebApplicationRfsPath(),
                 m_imageRepositoryFolder);
         }
+        m_scalingPool = new CmsImageScalingPool(m_maxScaleThreads, m_maxScaleQueue);
+        if (!m_prewarmVariants.isEmpty()) {
+            // one thread scales the images of all publish jobs one after the other
+            m_prewarmExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+
+                public Thread newThread(Runnable r) {
+
+                    Thread thread = new Thread(r, "OpenCms: Scaling published images");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
         OpenCms.addCmsEventListener(this);
         // output setup information
         if (CmsLog.INIT.isInfoEnabled()) {
@@ -292,6 +371,15 @@ public class CmsImageLoader extends CmsDumpLoader implements I_CmsEventListener
             CmsLog.INIT.info(Messages.get().getBundle().key(
                 Messages.INIT_IMAGE_SCALING_ENABLED_1,
                 Boolean.valueOf(m_enabled)));
+            CmsLog.INIT.info(Messages.get().getBundle().key(
+                Messages.INIT_IMAGE_SCALING_THREADS_2,
+                Integer.valueOf(m_scalingPool.getMaxThreads()),
+                Integer.valueOf(m_scalingPool.getMaxQueue())));
+            if (!m_prewarmVariants.isEmpty()) {
+                CmsLog.INIT.info(Messages.get().getBundle().key(
+                    Messages.INIT_IMAGE_SCALING_PREWARM_1,
+                    m_prewarmVariants));
+            }
         }
     }
 
@@ -309,8 +397,14 @@ public class CmsImageLoader extends CmsDumpLoader implements I_CmsEventListener
             }
             // get the scale information from the request
             CmsImageScaler scaler = new CmsImageScaler(req, m_maxScaleSize, m_maxBlurSize);
-            // load the file from the cache
-            CmsFile file = getScaledImage(cms, resource, scaler);
+            // load the file from the cache, only external requests can be asked to try again later
+            CmsFile file = getScaledImage(cms, resource, scaler, !isExternalRequest(req, res));
+            if (file == null) {
+                // too many images are currently scaled, let the client try again later
+                res.setHeader("Retry-After", "1");
+                res.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+                return;
+            }
             // now perform standard load operation inherited from dump loader
             super.load(cms, file, req, res);
         } else {
@@ -326,11 +420,15 @@ public class CmsImageLoader extends CmsDumpLoader implements I_CmsEventListener
      * If the scaled version does not exist in the cache, it is created. 
      * Unscaled versions of the images are also stored in the cache.<p>
      * 
+     * Concurrent requests for the same scaled version are coalesced, so that the image is 
+     * only scaled once. If too many images are currently scaled, <code>null</code> is returned.<p>
+     * 
      * @param cms the current users OpenCms context
      * @param resource the base VFS resource for the image
      * @param scaler the configured image scaler
      * 
-     * @return a scaled version of the given OpenCms VFS image resource
+     * @return a scaled version of the given OpenCms VFS image resource, 
+     *      or <code>null</code> if too many images are currently scaled
      * 
      * @throws IOException in case of errors accessing the disk based cache
      * @throws CmsException in case of errors accessing the OpenCms VFS
@@ -338,8 +436,36 @@ public class CmsImageLoader extends CmsDumpLoader implements I_CmsEventListener
     protected CmsFile getScaledImage(CmsObject cms, CmsResource resource, CmsImageScaler scaler)
     throws IOException, CmsException {
 
+        return getScaledImage(cms, resource, scaler, false);
+    }
+
+    /**
+     * Returns a scaled version of the given OpenCms VFS image resource.<p>
+     * 
+     * If <code>wait</code> is <code>true</code>, this waits until the image can be scaled 
+     * even if too many images are currently scaled.<p>
+     * 
+     * @param cms the current users OpenCms context
+     * @param resource the base VFS resource for the image
+     * @param scaler the configured image scaler
+     * @param wait if <code>true</code>, waits until the image can be scaled instead of returning <code>null</code>
+     * 
+     * @return a scaled version of the given OpenCms VFS image resource, 
+     *      or <code>null</code> if too many images are currently scaled and <code>wait</code> is <code>false</code>
+     * 
+     * @throws IOException in case of errors accessing the disk based cache
+     * @throws CmsException in case of errors accessing the OpenCms VFS
+     * 
+     * @see #getScaledImage(CmsObject, CmsResource, CmsImageScaler)
+     */
+    protected CmsFile getScaledImage(
+        final CmsObject cms,
+        final CmsResource resource,
+        final CmsImageScaler scaler,
+        boolean wait) throws IOException, CmsException {
+
         String cacheParam = scaler.isValid() ? scaler.toString() : null;
-        String cacheName = m_vfsDiskCache.getCacheName(resource, cacheParam);
+        final String cacheName = m_vfsDiskCache.getCacheName(resource, cacheParam);
         byte[] content = m_vfsDiskCache.getCacheContent(cacheName);
 
         CmsFile file;
@@ -353,19 +479,145 @@ public class CmsImageLoader extends CmsDumpLoader implements I_CmsEventListener
             }
             // save the content in the file
             file.setContents(content);
+        } else if (scaler.isValid()) {
+            // scale the image only once, even if it is requested several times at the same time
+            content = m_scalingPool.execute(cacheName, new Callable<byte[]>() {
+
+                public byte[] call() throws Exception {
+
+                    return scaleImage(cms, resource, scaler, cacheName);
+                }
+            }, wait);
+            if (content == null) {
+                LOG.warn(Messages.get().getBundle().key(Messages.LOG_IMAGE_SCALING_REJECTED_1, resource.getRootPath()));
+                return null;
+            }
+            // the original file content must be modified (required e.g. for static export)
+            file = (resource instanceof CmsFile) ? (CmsFile)resource : new CmsFile(resource);
+            file.setContents(content);
         } else {
             // we must read the content from the VFS (if this has not been done yet)
             file = cms.readFile(resource);
-            // upgrade the file (load the content)
-            if (scaler.isValid()) {
-                // valid scaling parameters found, scale the content
-                content = scaler.scaleImage(file);
-                // exchange the content of the file with the scaled version
-                file.setContents(content);
-            }
             // save the file content in the cache
             m_vfsDiskCache.saveCacheFile(cacheName, file.getContents());
         }
         return file;
     }
-}
\ No newline at end of file
+
+    /**
+     * Checks if the given request is an external HTTP request.<p>
+     * 
+     * Requests of the static export and internal includes are no external requests, 
+     * since these can not be answered with "503 - Service unavailable" and tried again later.<p>
+     * 
+     * @param req the current request
+     * @param res the current response
+     * 
+     * @return <code>true</code> if the given request is an external HTTP request
+     */
+    protected boolean isExternalRequest(HttpServletRequest req, HttpServletResponse res) {
+
+        if (res instanceof CmsStaticExportResponseWrapper) {
+            // the static export writes the response to the export folder
+            return false;
+        }
+        if (req.getAttribute(ATTRIBUTE_INCLUDE_REQUEST_URI) != null) {
+            // the request is included by the servlet container
+            return false;
+        }
+        // the request is included while processing another OpenCms resource
+        return CmsFlexController.getController(req) == null;
+    }
+
+    /**
+     * Scales the given image and stores the result in the disk cache.<p>
+     * 
+     * @param cms the current users OpenCms context
+     * @param resource the base VFS resource for the image
+     * @param scaler the configured image scaler
+     * @param cacheName the name of the scaled image in the disk cache
+     * 
+     * @return the content of the scaled image
+     * 
+     * @throws IOException in case of errors accessing the disk based cache
+     * @throws CmsException in case of errors accessing the OpenCms VFS
+     */
+    protected byte[] scaleImage(CmsObject cms, CmsResource resource, CmsImageScaler scaler, String cacheName)
+    throws IOException, CmsException {
+
+        // the image may have been scaled while waiting for the scale operation to start
+        byte[] content = m_vfsDiskCache.getCacheContent(cacheName);
+        if (content == null) {
+            // we must read the content from the VFS (if this has not been done yet)
+            CmsFile file = cms.readFile(resource);
+            content = scaler.scaleImage(file);
+            m_vfsDiskCache.saveCacheFile(cacheName, content);
+        }
+        return content;
+    }
+
+    /**
+     * Scales the images published with the given publish job to the configured image variants.<p>
+     * 
+     * The images are scaled by the single background thread of the prewarm executor one after the other, 
+     * so that at most one of the parallel image scale operations is used.<p>
+     * 
+     * @param publishHistoryId the publish history id of the publish job
+     */
+    protected void scalePublishedImages(final CmsUUID publishHistoryId) {
+
+        ExecutorService executor = m_prewarmExecutor;
+        if (executor == null) {
+            return;
+        }
+        final List<String> variants = Collections.unmodifiableList(new ArrayList<String>(m_prewarmVariants));
+        try {
+            executor.execute(new Runnable() {
+
+                public void run() {
+
+                    CmsObject cms;
+                    List<CmsPublishedResource> publishedResources;
+                    try {
+                        // this will always use the root site and the online project
+                        cms = OpenCms.initCmsObject(OpenCms.getDefaultUsers().getUserExport());
+                        publishedResources = cms.readPublishedResources(publishHistoryId);
+                    } catch (CmsException e) {
+                        LOG.error(e.getLocalizedMessage(), e);
+                        return;
+                    }
+                    for (CmsPublishedResource publishedResource : publishedResources) {
+                        if (publishedResource.getState().isDeleted() || publishedResource.isFolder()) {
+                            continue;
+                        }
+                        try {
+                            int loaderId = OpenCms.getResourceManager().getResourceType(
+                                publishedResource.getType()).getLoaderId();
+                            if (loaderId != RESOURCE_LOADER_ID_IMAGE_LOADER) {
+                                continue;
+                            }
+                            CmsResource resource = cms.readResource(
+                                publishedResource.getStructureId(),
+                                CmsResourceFilter.IGNORE_EXPIRATION);
+                            for (String variant : variants) {
+                                CmsImageScaler scaler = new CmsImageScaler(variant);
+                                scaler.setMaxBlurSize(m_maxBlurSize);
+                                if (scaler.isValid() && (getScaledImage(cms, resource, scaler) == null)) {
+                                    // too many images are currently scaled, requests have priority
+                                    break;
+                                }
+                            }
+                        } catch (Exception e) {
+                            LOG.warn(Messages.get().getBundle().key(
+                                Messages.LOG_IMAGE_SCALING_PREWARM_FAILED_1,
+                                publishedResource.getRootPath()), e);
+                        }
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // the loader has been destroyed
+            LOG.debug(e.getLocalizedMessage(), e);
+        }
+    }
+}
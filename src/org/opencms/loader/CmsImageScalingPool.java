@@ -0,0 +1,276 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.loader;
+
+import org.opencms.main.CmsException;
+
+import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Limits and coalesces the image scaling operations of the image loader.<p>
+ * 
+ * Only one scaling operation is executed for each variant of an image at a time, 
+ * other requests for the same variant wait for the result of the running operation.
+ * The number of operations executed in parallel is limited, as well as the number of 
+ * operations waiting to be executed. If too many operations are waiting, 
+ * new operations are rejected, unless the caller asks to wait in any case.<p>
+ * 
+ * The operations are executed in the requesting threads, since these have to wait 
+ * for the result anyway.<p>
+ * 
+ * @since 9.5.0
+ */
+public class CmsImageScalingPool {
+
+    /**
+     * A running scaling operation.<p>
+     */
+    private static class CmsScalingTask {
+
+        /** Released when the operation is finished. */
+        private CountDownLatch m_done = new CountDownLatch(1);
+
+        /** The error of the operation. */
+        private Exception m_error;
+
+        /** The result of the operation. */
+        private byte[] m_result;
+
+        /**
+         * Waits for the operation to finish and returns the result.<p>
+         * 
+         * @return the result of the operation, or <code>null</code> if the operation was rejected
+         * 
+         * @throws IOException in case of disk access errors
+         * @throws CmsException in case of errors accessing the OpenCms VFS
+         */
+        byte[] getResult() throws IOException, CmsException {
+
+            boolean interrupted = false;
+            while (m_done.getCount() > 0) {
+                try {
+                    m_done.await();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            if (m_error instanceof IOException) {
+                throw (IOException)m_error;
+            }
+            if (m_error instanceof CmsException) {
+                throw (CmsException)m_error;
+            }
+            if (m_error instanceof RuntimeException) {
+                throw (RuntimeException)m_error;
+            }
+            if (m_error != null) {
+                throw new CmsLoaderException(Messages.get().container(
+                    Messages.ERR_IMAGE_SCALING_FAILED_1,
+                    m_error.getLocalizedMessage()), m_error);
+            }
+            return m_result;
+        }
+
+        /**
+         * Executes the operation.<p>
+         * 
+         * @param operation the operation to execute
+         */
+        void run(Callable<byte[]> operation) {
+
+            try {
+                m_result = operation.call();
+            } catch (Exception e) {
+                m_error = e;
+            }
+        }
+
+        /**
+         * Marks the operation as finished.<p>
+         */
+        void setDone() {
+
+            m_done.countDown();
+        }
+    }
+
+    /** The default maximum number of operations waiting to be executed. */
+    public static final int DEFAULT_MAX_QUEUE = 100;
+
+    /** The maximum number of operations waiting to be executed. */
+    private int m_maxQueue;
+
+    /** The maximum number of operations executed in parallel. */
+    private int m_maxThreads;
+
+    /** The number of operations waiting to be executed. */
+    private AtomicInteger m_queued = new AtomicInteger();
+
+    /** The currently running operations by key. */
+    private ConcurrentHashMap<String, CmsScalingTask> m_running = new ConcurrentHashMap<String, CmsScalingTask>();
+
+    /** The permits for executing an operation. */
+    private Semaphore m_slots;
+
+    /**
+     * Creates a new image scaling pool.<p>
+     * 
+     * @param maxThreads the maximum number of operations executed in parallel, 
+     *      if not positive the number of available processors is used
+     * @param maxQueue the maximum number of operations waiting to be executed, 
+     *      if negative {@link #DEFAULT_MAX_QUEUE} is used
+     */
+    public CmsImageScalingPool(int maxThreads, int maxQueue) {
+
+        m_maxThreads = (maxThreads > 0) ? maxThreads : Runtime.getRuntime().availableProcessors();
+        m_maxQueue = (maxQueue >= 0) ? maxQueue : DEFAULT_MAX_QUEUE;
+        m_slots = new Semaphore(m_maxThreads, true);
+    }
+
+    /**
+     * Executes the given operation, or waits for the result if an operation 
+     * with the same key is already running.<p>
+     * 
+     * @param key the key of the operation, e.g. the disk cache name of the scaled image
+     * @param operation the operation to execute
+     * 
+     * @return the result of the operation, or <code>null</code> if the operation was rejected 
+     *      because too many operations are waiting to be executed
+     * 
+     * @throws IOException in case of disk access errors
+     * @throws CmsException in case of errors accessing the OpenCms VFS
+     */
+    public byte[] execute(String key, Callable<byte[]> operation) throws IOException, CmsException {
+
+        return execute(key, operation, false);
+    }
+
+    /**
+     * Executes the given operation, or waits for the result if an operation 
+     * with the same key is already running.<p>
+     * 
+     * If <code>wait</code> is <code>true</code>, the operation is not rejected if too many operations 
+     * are waiting to be executed, instead the caller waits until the operation can be executed.<p>
+     * 
+     * @param key the key of the operation, e.g. the disk cache name of the scaled image
+     * @param operation the operation to execute
+     * @param wait if <code>true</code>, the operation is not rejected if too many operations are waiting
+     * 
+     * @return the result of the operation, or <code>null</code> if the operation was rejected 
+     *      or the current thread was interrupted
+     * 
+     * @throws IOException in case of disk access errors
+     * @throws CmsException in case of errors accessing the OpenCms VFS
+     */
+    public byte[] execute(String key, Callable<byte[]> operation, boolean wait) throws IOException, CmsException {
+
+        while (true) {
+            CmsScalingTask task = new CmsScalingTask();
+            CmsScalingTask running = m_running.putIfAbsent(key, task);
+            if (running != null) {
+                // the same operation is already running, wait for the result 
+                byte[] result = running.getResult();
+                if ((result == null) && wait && !Thread.currentThread().isInterrupted()) {
+                    // the running operation was rejected, but this caller has to wait for a result
+                    continue;
+                }
+                return result;
+            }
+            try {
+                if (acquireSlot(wait)) {
+                    try {
+                        task.run(operation);
+                    } finally {
+                        m_slots.release();
+                    }
+                }
+            } finally {
+                m_running.remove(key, task);
+                task.setDone();
+            }
+            return task.getResult();
+        }
+    }
+
+    /**
+     * Returns the maximum number of operations waiting to be executed.<p>
+     * 
+     * @return the maximum number of operations waiting to be executed
+     */
+    public int getMaxQueue() {
+
+        return m_maxQueue;
+    }
+
+    /**
+     * Returns the maximum number of operations executed in parallel.<p>
+     * 
+     * @return the maximum number of operations executed in parallel
+     */
+    public int getMaxThreads() {
+
+        return m_maxThreads;
+    }
+
+    /**
+     * Acquires a permit for executing an operation, waiting if necessary.<p>
+     * 
+     * @param wait if <code>true</code>, waits even if too many operations are already waiting
+     * 
+     * @return <code>true</code> if a permit was acquired, <code>false</code> if too many 
+     *      operations are already waiting or the current thread was interrupted
+     */
+    private boolean acquireSlot(boolean wait) {
+
+        if (m_slots.tryAcquire()) {
+            return true;
+        }
+        if ((m_queued.incrementAndGet() > m_maxQueue) && !wait) {
+            m_queued.decrementAndGet();
+            return false;
+        }
+        try {
+            m_slots.acquire();
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            m_queued.decrementAndGet();
+        }
+    }
+}
@@ -49,6 +49,7 @@ import org.opencms.main.CmsException;
 import org.opencms.main.CmsLog;
 import org.opencms.main.I_CmsEventListener;
 import org.opencms.main.OpenCms;
+import org.opencms.monitor.CmsMetrics;
 import org.opencms.relations.CmsRelation;
 import org.opencms.relations.CmsRelationFilter;
 import org.opencms.relations.CmsRelationType;
@@ -493,41 +494,11 @@ public class CmsJspLoader implements I_CmsResourceLoader, I_CmsFlexCacheEnabledL
             && (context.getUri().equals(context.removeSiteRoot(file.getRootPath())))) {
             showSource(cms, file, req, res);
         } else {
-            // load and process the JSP         
-            boolean streaming = false;
-            boolean bypass = false;
-
-            // read "cache" property for requested VFS resource to check for special "stream" and "bypass" values                                    
-            String cacheProperty = cms.readPropertyObject(file, CmsPropertyDefinition.PROPERTY_CACHE, true).getValue();
-            if (cacheProperty != null) {
-                cacheProperty = cacheProperty.trim();
-                if (CACHE_PROPERTY_STREAM.equals(cacheProperty)) {
-                    streaming = true;
-                } else if (CACHE_PROPERTY_BYPASS.equals(cacheProperty)) {
-                    streaming = true;
-                    bypass = true;
-                }
-            }
-
-            // get the Flex controller
-            CmsFlexController controller = getController(cms, file, req, res, streaming, true);
-            if (bypass || controller.isForwardMode()) {
-                // initialize the standard contex bean to be available for all requests
-                CmsJspStandardContextBean.getInstance(controller.getCurrentRequest());
-                // once in forward mode, always in forward mode (for this request)
-                controller.setForwardMode(true);
-                // bypass Flex cache for this page, update the JSP first if necessary            
-                String target = updateJsp(file, controller, new HashSet<String>());
-                // dispatch to external JSP
-                req.getRequestDispatcher(target).forward(controller.getCurrentRequest(), res);
-            } else {
-                // Flex cache not bypassed, dispatch to internal JSP  
-                dispatchJsp(controller);
-            }
-
-            // remove the controller from the request if not forwarding
-            if (!controller.isForwardMode()) {
-                CmsFlexController.removeController(req);
+            long start = CmsMetrics.startTimer();
+            try {
+                loadJsp(cms, file, req, res);
+            } finally {
+                CmsMetrics.addTime(CmsMetrics.TIMER_JSP_LOAD, start);
             }
         }
     }
@@ -978,8 +949,18 @@ public class CmsJspLoader implements I_CmsResourceLoader, I_CmsFlexCacheEnabledL
                             CmsRequestUtil.HEADER_OPENCMS_EXPORT,
                             new Long(controller.getDateLastModified()));
                     } else if (controller.isTop()) {
-                        // process headers and write output if this is the "top" request/response                                  
-                        res.setContentLength(result.length);
+                        // process headers and write output if this is the "top" request/response
+                        byte[] output = result;
+                        byte[] gzipOutput = f_res.getGzipBytes(result);
+                        if (gzipOutput != null) {
+                            // a compressed variant of the output is stored in the Flex cache
+                            res.addHeader(CmsRequestUtil.HEADER_VARY, CmsRequestUtil.HEADER_ACCEPT_ENCODING);
+                            if (CmsFlexResponse.isGzipAccepted(req)) {
+                                res.setHeader(CmsRequestUtil.HEADER_CONTENT_ENCODING, CmsRequestUtil.HEADER_VALUE_GZIP);
+                                output = gzipOutput;
+                            }
+                        }
+                        res.setContentLength(output.length);
                         // check for preset error code
                         Integer errorCode = (Integer)req.getAttribute(CmsRequestUtil.ATTRIBUTE_ERRORCODE);
                         if (errorCode == null) {
@@ -1009,7 +990,8 @@ public class CmsJspLoader implements I_CmsResourceLoader, I_CmsFlexCacheEnabledL
                         }
                         // process the headers
                         CmsFlexResponse.processHeaders(f_res.getHeaders(), res);
-                        res.getOutputStream().write(result);
+                        CmsMetrics.addTraceHeader(res);
+                        res.getOutputStream().write(output);
                         res.getOutputStream().flush();
                     }
                 }
@@ -1694,4 +1676,57 @@ public class CmsJspLoader implements I_CmsResourceLoader, I_CmsFlexCacheEnabledL
         String jspPath = CmsFileUtil.getRepositoryName(m_jspRepository, jspVfsName + extension, online);
         return jspPath;
     }
+
+    /**
+     * Loads and processes a JSP, using the Flex cache unless it is bypassed.<p>
+     * 
+     * @param cms the current users OpenCms context
+     * @param file the JSP resource
+     * @param req the current request
+     * @param res the current response
+     * 
+     * @throws ServletException might be thrown by the servlet environment
+     * @throws IOException might be thrown by the servlet environment
+     * @throws CmsException in case of errors accessing OpenCms functions
+     */
+    private void loadJsp(CmsObject cms, CmsResource file, HttpServletRequest req, HttpServletResponse res)
+    throws ServletException, IOException, CmsException {
+
+        // load and process the JSP         
+        boolean streaming = false;
+        boolean bypass = false;
+
+        // read "cache" property for requested VFS resource to check for special "stream" and "bypass" values                                    
+        String cacheProperty = cms.readPropertyObject(file, CmsPropertyDefinition.PROPERTY_CACHE, true).getValue();
+        if (cacheProperty != null) {
+            cacheProperty = cacheProperty.trim();
+            if (CACHE_PROPERTY_STREAM.equals(cacheProperty)) {
+                streaming = true;
+            } else if (CACHE_PROPERTY_BYPASS.equals(cacheProperty)) {
+                streaming = true;
+                bypass = true;
+            }
+        }
+
+        // get the Flex controller
+        CmsFlexController controller = getController(cms, file, req, res, streaming, true);
+        if (bypass || controller.isForwardMode()) {
+            // initialize the standard contex bean to be available for all requests
+            CmsJspStandardContextBean.getInstance(controller.getCurrentRequest());
+            // once in forward mode, always in forward mode (for this request)
+            controller.setForwardMode(true);
+            // bypass Flex cache for this page, update the JSP first if necessary            
+            String target = updateJsp(file, controller, new HashSet<String>());
+            // dispatch to external JSP
+            req.getRequestDispatcher(target).forward(controller.getCurrentRequest(), res);
+        } else {
+            // Flex cache not bypassed, dispatch to internal JSP  
+            dispatchJsp(controller);
+        }
+
+        // remove the controller from the request if not forwarding
+        if (!controller.isForwardMode()) {
+            CmsFlexController.removeController(req);
+        }
+    }
 }
@@ -0,0 +1,220 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.main;
+
+import java.util.AbstractCollection;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.collections.Buffer;
+import org.apache.commons.collections.BufferUnderflowException;
+
+/**
+ * A bounded, lock free first in first out queue for the broadcasts of a session.<p>
+ * 
+ * If the queue is full, adding a broadcast removes the oldest one.
+ * The size of the queue may exceed the maximum size for a short moment 
+ * while several threads add broadcasts at the same time.<p>
+ * 
+ * @since 9.5.0
+ */
+@SuppressWarnings("rawtypes")
+public class CmsBroadcastQueue extends AbstractCollection implements Buffer {
+
+    /** The maximum number of broadcasts in the queue. */
+    private int m_maxSize;
+
+    /** The broadcasts. */
+    private ConcurrentLinkedQueue<Object> m_queue;
+
+    /** The number of broadcasts in the queue, maintained separately since counting the queue is not constant time. */
+    private AtomicInteger m_size;
+
+    /**
+     * Creates a new broadcast queue.<p>
+     * 
+     * @param maxSize the maximum number of broadcasts in the queue
+     */
+    public CmsBroadcastQueue(int maxSize) {
+
+        m_maxSize = maxSize;
+        m_queue = new ConcurrentLinkedQueue<Object>();
+        m_size = new AtomicInteger();
+    }
+
+    /**
+     * Adds a broadcast to the end of the queue, removing the oldest broadcast if the queue is full.<p>
+     * 
+     * @see java.util.AbstractCollection#add(java.lang.Object)
+     */
+    @Override
+    public boolean add(Object broadcast) {
+
+        if (broadcast == null) {
+            throw new NullPointerException();
+        }
+        m_queue.add(broadcast);
+        if (m_size.incrementAndGet() > m_maxSize) {
+            // drop the oldest broadcast
+            if (m_queue.poll() != null) {
+                m_size.decrementAndGet();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @see java.util.AbstractCollection#clear()
+     */
+    @Override
+    public void clear() {
+
+        while (poll() != null) {
+            // continue until the queue is empty
+        }
+    }
+
+    /**
+     * @see org.apache.commons.collections.Buffer#get()
+     */
+    public Object get() {
+
+        Object result = m_queue.peek();
+        if (result == null) {
+            throw new BufferUnderflowException();
+        }
+        return result;
+    }
+
+    /**
+     * Returns the maximum number of broadcasts in this queue.<p>
+     * 
+     * @return the maximum number of broadcasts in this queue
+     */
+    public int getMaxSize() {
+
+        return m_maxSize;
+    }
+
+    /**
+     * @see java.util.AbstractCollection#isEmpty()
+     */
+    @Override
+    public boolean isEmpty() {
+
+        return m_queue.isEmpty();
+    }
+
+    /**
+     * Returns an iterator over the queued broadcasts, from the oldest to the newest one.<p>
+     * 
+     * The iterator is weakly consistent and does not support removal.<p>
+     * 
+     * @see java.util.AbstractCollection#iterator()
+     */
+    @Override
+    public Iterator<Object> iterator() {
+
+        final Iterator<Object> i = m_queue.iterator();
+        return new Iterator<Object>() {
+
+            /**
+             * @see java.util.Iterator#hasNext()
+             */
+            public boolean hasNext() {
+
+                return i.hasNext();
+            }
+
+            /**
+             * @see java.util.Iterator#next()
+             */
+            public Object next() {
+
+                return i.next();
+            }
+
+            /**
+             * @see java.util.Iterator#remove()
+             */
+            public void remove() {
+
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    /**
+     * Removes and returns the oldest broadcast, or returns <code>null</code> if the queue is empty.<p>
+     * 
+     * @return the oldest broadcast, or <code>null</code> if the queue is empty
+     */
+    public Object poll() {
+
+        Object result = m_queue.poll();
+        if (result != null) {
+            m_size.decrementAndGet();
+        }
+        return result;
+    }
+
+    /**
+     * @see org.apache.commons.collections.Buffer#remove()
+     */
+    public Object remove() {
+
+        Object result = poll();
+        if (result == null) {
+            throw new BufferUnderflowException();
+        }
+        return result;
+    }
+
+    /**
+     * @see java.util.AbstractCollection#remove(java.lang.Object)
+     */
+    @Override
+    public boolean remove(Object broadcast) {
+
+        if (m_queue.remove(broadcast)) {
+            m_size.decrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @see java.util.AbstractCollection#size()
+     */
+    @Override
+    public int size() {
+
+        return Math.max(0, Math.min(m_size.get(), m_maxSize));
+    }
+}
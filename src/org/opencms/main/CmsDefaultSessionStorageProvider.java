@@ -27,35 +27,44 @@
 
 package org.opencms.main;
 
-import org.opencms.util.CmsCollectionsGenericWrapper;
 import org.opencms.util.CmsUUID;
 
 import java.util.ArrayList;
-import java.util.ConcurrentModificationException;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
-
-import org.apache.commons.collections.FastHashMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * The default session storage provider implementation.<p>
  * 
- * Implementation based on a {@link FastHashMap}.<p> 
+ * The session info objects are stored in a {@link ConcurrentHashMap}, 
+ * with a secondary index from user ids to the session ids of the user,
+ * so reading the sessions of a user does not scan all sessions.<p>
+ * 
+ * Subclasses can store the session info objects somewhere else by overriding 
+ * {@link #readSessionInfo(CmsUUID)}, {@link #writeSessionInfo(CmsSessionInfo)}, 
+ * {@link #removeSessionInfo(CmsUUID)}, {@link #getSessionIds()} and {@link #getSessionCount()}.
+ * The user index is always kept in memory.<p>
  * 
  * @since 6.5.5 
  */
 public class CmsDefaultSessionStorageProvider implements I_CmsSessionStorageProvider {
 
     /** Stores the session info objects mapped to the session id. */
-    private FastHashMap m_sessions;
+    private ConcurrentHashMap<CmsUUID, CmsSessionInfo> m_sessions;
+
+    /** The ids of the sessions of each user, mapped to the user id. */
+    private ConcurrentHashMap<CmsUUID, Set<CmsUUID>> m_userSessions;
 
     /**
      * @see org.opencms.main.I_CmsSessionStorageProvider#get(org.opencms.util.CmsUUID)
      */
     public CmsSessionInfo get(CmsUUID sessionId) {
 
-        return (CmsSessionInfo)m_sessions.get(sessionId);
+        return readSessionInfo(sessionId);
     }
 
     /**
@@ -63,7 +72,7 @@ public class CmsDefaultSessionStorageProvider implements I_CmsSessionStorageProv
      */
     public List<CmsSessionInfo> getAll() {
 
-        return getAllOfUser(null);
+        return getAllSelected(getSessionIds(), null);
     }
 
     /**
@@ -71,14 +80,14 @@ public class CmsDefaultSessionStorageProvider implements I_CmsSessionStorageProv
      */
     public List<CmsSessionInfo> getAllOfUser(CmsUUID userId) {
 
-        try {
-            return getAllSelected(CmsCollectionsGenericWrapper.<CmsUUID, CmsSessionInfo> map(m_sessions), userId);
-        } catch (ConcurrentModificationException e) {
-            // try again with a clone this time
-            return getAllSelected(
-                CmsCollectionsGenericWrapper.<CmsUUID, CmsSessionInfo> map(m_sessions.clone()),
-                userId);
+        if (userId == null) {
+            return getAll();
+        }
+        Set<CmsUUID> sessionIds = m_userSessions.get(userId);
+        if (sessionIds == null) {
+            return new ArrayList<CmsSessionInfo>();
         }
+        return getAllSelected(sessionIds, userId);
     }
 
     /**
@@ -86,7 +95,7 @@ public class CmsDefaultSessionStorageProvider implements I_CmsSessionStorageProv
      */
     public int getSize() {
 
-        return m_sessions.size();
+        return getSessionCount();
     }
 
     /**
@@ -95,9 +104,8 @@ public class CmsDefaultSessionStorageProvider implements I_CmsSessionStorageProv
     public void initialize() {
 
         // create a map for all sessions, these will be mapped using their session id
-        m_sessions = new FastHashMap();
-        // set to "fast" mode (will be reset for write access)
-        m_sessions.setFast(true);
+        m_sessions = new ConcurrentHashMap<CmsUUID, CmsSessionInfo>();
+        m_userSessions = new ConcurrentHashMap<CmsUUID, Set<CmsUUID>>();
     }
 
     /**
@@ -105,7 +113,15 @@ public class CmsDefaultSessionStorageProvider implements I_CmsSessionStorageProv
      */
     public CmsSessionInfo put(CmsSessionInfo sessionInfo) {
 
-        return (CmsSessionInfo)m_sessions.put(sessionInfo.getSessionId(), sessionInfo);
+        CmsSessionInfo previous = writeSessionInfo(sessionInfo);
+        if ((previous == null) || !previous.getUserId().equals(sessionInfo.getUserId())) {
+            // new session, or the user of the session has been switched
+            if (previous != null) {
+                removeFromUserIndex(previous.getUserId(), previous.getSessionId());
+            }
+            addToUserIndex(sessionInfo.getUserId(), sessionInfo.getSessionId());
+        }
+        return previous;
     }
 
     /**
@@ -113,7 +129,11 @@ public class CmsDefaultSessionStorageProvider implements I_CmsSessionStorageProv
      */
     public CmsSessionInfo remove(CmsUUID sessionId) {
 
-        return (CmsSessionInfo)m_sessions.remove(sessionId);
+        CmsSessionInfo removed = removeSessionInfo(sessionId);
+        if (removed != null) {
+            removeFromUserIndex(removed.getUserId(), sessionId);
+        }
+        return removed;
     }
 
     /**
@@ -122,7 +142,7 @@ public class CmsDefaultSessionStorageProvider implements I_CmsSessionStorageProv
     public void shutdown() {
 
         m_sessions.clear();
-        m_sessions = null;
+        m_userSessions.clear();
     }
 
     /**
@@ -130,59 +150,139 @@ public class CmsDefaultSessionStorageProvider implements I_CmsSessionStorageProv
      */
     public void validate() {
 
-        try {
-            // change session map to full synchronization or "slow" mode
-            m_sessions.setFast(false);
-            Iterator<Map.Entry<CmsUUID, CmsSessionInfo>> sessions = CmsCollectionsGenericWrapper.<CmsUUID, CmsSessionInfo> map(
-                m_sessions).entrySet().iterator();
-            while (sessions.hasNext()) {
-                Map.Entry<CmsUUID, CmsSessionInfo> entry = sessions.next();
-                CmsUUID sessionId = entry.getKey();
-                CmsSessionInfo sessionInfo = entry.getValue();
-                if ((sessionInfo != null) && (m_sessions.get(sessionId) != null)) {
-                    // may be the case in case of concurrent modification
-                    if (sessionInfo.isExpired()) {
-                        // session is invalid, try to remove it
-                        try {
-                            sessions.remove();
-                        } catch (ConcurrentModificationException ex) {
-                            // ignore, better luck next time...
-                        }
-                    }
+        Iterator<CmsUUID> i = getSessionIds().iterator();
+        while (i.hasNext()) {
+            CmsUUID sessionId = i.next();
+            CmsSessionInfo sessionInfo = readSessionInfo(sessionId);
+            if ((sessionInfo != null) && sessionInfo.isExpired()) {
+                // session is invalid, remove it
+                remove(sessionId);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of stored session info objects.<p>
+     * 
+     * @return the number of stored session info objects
+     */
+    protected int getSessionCount() {
+
+        return m_sessions.size();
+    }
+
+    /**
+     * Returns the ids of all stored session info objects.<p>
+     * 
+     * The returned collection must support iterating it while session info objects are added or removed.<p>
+     * 
+     * @return the ids of all stored session info objects
+     */
+    protected Collection<CmsUUID> getSessionIds() {
+
+        return m_sessions.keySet();
+    }
+
+    /**
+     * Reads the session info object with the given id from the storage.<p>
+     * 
+     * @param sessionId the session id
+     * 
+     * @return the session info object, or <code>null</code> if not found
+     */
+    protected CmsSessionInfo readSessionInfo(CmsUUID sessionId) {
+
+        return m_sessions.get(sessionId);
+    }
+
+    /**
+     * Removes the session info object with the given id from the storage.<p>
+     * 
+     * @param sessionId the session id
+     * 
+     * @return the removed session info object, or <code>null</code> if none
+     */
+    protected CmsSessionInfo removeSessionInfo(CmsUUID sessionId) {
+
+        return m_sessions.remove(sessionId);
+    }
+
+    /**
+     * Writes the session info object to the storage.<p>
+     * 
+     * @param sessionInfo the session info object
+     * 
+     * @return the session info object previously stored with the same session id, or <code>null</code> if none
+     */
+    protected CmsSessionInfo writeSessionInfo(CmsSessionInfo sessionInfo) {
+
+        return m_sessions.put(sessionInfo.getSessionId(), sessionInfo);
+    }
+
+    /**
+     * Adds a session to the user index.<p>
+     * 
+     * @param userId the id of the user
+     * @param sessionId the id of the session
+     */
+    private void addToUserIndex(CmsUUID userId, CmsUUID sessionId) {
+
+        while (true) {
+            Set<CmsUUID> sessionIds = m_userSessions.get(userId);
+            if (sessionIds == null) {
+                Set<CmsUUID> newSessionIds = Collections.newSetFromMap(new ConcurrentHashMap<CmsUUID, Boolean>(4));
+                sessionIds = m_userSessions.putIfAbsent(userId, newSessionIds);
+                if (sessionIds == null) {
+                    sessionIds = newSessionIds;
                 }
             }
-        } catch (ConcurrentModificationException ex) {
-            // CME can also be triggered from the Iterator#next() method.
-            // ignore, better luck next time...
-        } finally {
-            // it may be null during shutdown
-            if (m_sessions != null) {
-                // reset session map to "fast" mode
-                m_sessions.setFast(true);
+            synchronized (sessionIds) {
+                // the set may have been removed from the index after it became empty
+                if (m_userSessions.get(userId) == sessionIds) {
+                    sessionIds.add(sessionId);
+                    return;
+                }
             }
         }
     }
 
     /**
-     * Returns all sessions or all sessions matching the user id from the provided Map.<p>
+     * Returns the stored session info objects with the given ids.<p>
      * 
-     * @param allSessions the Map of existing sessions 
-     * @param userId the id of the user, if null all sessions will be returned
+     * @param sessionIds the session ids
+     * @param userId the id of the user the sessions must belong to, or <code>null</code> for all users
      * 
-     * @return all sessions or all sessions matching the user id from the provided Map
+     * @return the stored session info objects with the given ids
      */
-    private List<CmsSessionInfo> getAllSelected(Map<CmsUUID, CmsSessionInfo> allSessions, CmsUUID userId) {
+    private List<CmsSessionInfo> getAllSelected(Collection<CmsUUID> sessionIds, CmsUUID userId) {
 
-        List<CmsSessionInfo> userSessions = new ArrayList<CmsSessionInfo>();
-        Iterator<Map.Entry<CmsUUID, CmsSessionInfo>> i = allSessions.entrySet().iterator();
-        while (i.hasNext()) {
-            Map.Entry<CmsUUID, CmsSessionInfo> entry = i.next();
-            CmsSessionInfo sessionInfo = entry.getValue();
+        List<CmsSessionInfo> result = new ArrayList<CmsSessionInfo>(sessionIds.size());
+        for (CmsUUID sessionId : sessionIds) {
+            CmsSessionInfo sessionInfo = readSessionInfo(sessionId);
+            // the session may have been removed or switched to another user in the meantime
             if ((sessionInfo != null) && ((userId == null) || userId.equals(sessionInfo.getUserId()))) {
-                // sessionInfo == null may be the case in case of concurrent modification
-                userSessions.add(sessionInfo);
+                result.add(sessionInfo);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Removes a session from the user index.<p>
+     * 
+     * @param userId the id of the user
+     * @param sessionId the id of the session
+     */
+    private void removeFromUserIndex(CmsUUID userId, CmsUUID sessionId) {
+
+        Set<CmsUUID> sessionIds = m_userSessions.get(userId);
+        if (sessionIds != null) {
+            synchronized (sessionIds) {
+                sessionIds.remove(sessionId);
+                if (sessionIds.isEmpty()) {
+                    m_userSessions.remove(userId, sessionIds);
+                }
             }
         }
-        return userSessions;
     }
 }
@@ -0,0 +1,146 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.main;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Collects the processing times of a single event listener.<p>
+ * 
+ * @since 9.5.0
+ * 
+ * @see CmsEventManager#getListenerStatistics()
+ */
+public class CmsEventListenerStatistics {
+
+    /** The number of events dropped because the same event was already queued. */
+    private AtomicLong m_coalesced = new AtomicLong();
+
+    /** The number of processed events. */
+    private AtomicLong m_count = new AtomicLong();
+
+    /** The longest processing time in nanoseconds. */
+    private AtomicLong m_maxTime = new AtomicLong();
+
+    /** The total processing time in nanoseconds. */
+    private AtomicLong m_totalTime = new AtomicLong();
+
+    /**
+     * Returns the average processing time of an event in milliseconds.<p>
+     * 
+     * @return the average processing time in milliseconds
+     */
+    public long getAverageTime() {
+
+        long count = m_count.get();
+        return count == 0 ? 0 : (m_totalTime.get() / count) / 1000000L;
+    }
+
+    /**
+     * Returns the number of events dropped because the same event was already queued.<p>
+     * 
+     * @return the number of dropped events
+     */
+    public long getCoalescedCount() {
+
+        return m_coalesced.get();
+    }
+
+    /**
+     * Returns the number of processed events.<p>
+     * 
+     * @return the number of processed events
+     */
+    public long getCount() {
+
+        return m_count.get();
+    }
+
+    /**
+     * Returns the longest processing time of an event in milliseconds.<p>
+     * 
+     * @return the longest processing time in milliseconds
+     */
+    public long getMaxTime() {
+
+        return m_maxTime.get() / 1000000L;
+    }
+
+    /**
+     * Returns the total processing time of all events in milliseconds.<p>
+     * 
+     * @return the total processing time in milliseconds
+     */
+    public long getTotalTime() {
+
+        return m_totalTime.get() / 1000000L;
+    }
+
+    /**
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+
+        return "[count="
+            + getCount()
+            + ", total="
+            + getTotalTime()
+            + "ms, average="
+            + getAverageTime()
+            + "ms, max="
+            + getMaxTime()
+            + "ms, coalesced="
+            + getCoalescedCount()
+            + "]";
+    }
+
+    /**
+     * Records an event that was dropped because the same event was already queued.<p>
+     */
+    protected void addCoalesced() {
+
+        m_coalesced.incrementAndGet();
+    }
+
+    /**
+     * Records the processing time of an event.<p>
+     * 
+     * @param nanos the processing time in nanoseconds
+     */
+    protected void addTime(long nanos) {
+
+        m_count.incrementAndGet();
+        m_totalTime.addAndGet(nanos);
+        long max = m_maxTime.get();
+        while ((nanos > max) && !m_maxTime.compareAndSet(max, nanos)) {
+            max = m_maxTime.get();
+        }
+    }
+}
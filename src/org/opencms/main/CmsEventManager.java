@@ -28,10 +28,19 @@
 package org.opencms.main;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.logging.Log;
 
@@ -44,6 +53,11 @@ import org.apache.commons.logging.Log;
  * Events can be used in OpenCms to notify custom event listeners that certain system events have happened.
  * Event listeners have to implement the interface {@link org.opencms.main.I_CmsEventListener}.<p>
  * 
+ * Events are delivered on the thread that fires the event, except for listeners implementing 
+ * {@link org.opencms.main.I_CmsAsyncEventListener}, which receive their events in order from a 
+ * queue processed by a small pool of background threads. The processing times of all registered listeners 
+ * are available from {@link #getListenerStatistics()}.<p>
+ * 
  * @since 7.0.0
  * 
  * @see org.opencms.main.CmsEvent
@@ -51,21 +65,180 @@ import org.apache.commons.logging.Log;
  */
 public class CmsEventManager {
 
+    /**
+     * The queue of events waiting to be delivered to an asynchronous event listener.<p>
+     */
+    private class CmsAsyncEventQueue implements Runnable {
+
+        /** Signals that the listener has been removed. */
+        private boolean m_closed;
+
+        /** The events waiting to be delivered. */
+        private LinkedList<CmsEvent> m_events;
+
+        /** The listener to deliver the events to. */
+        private I_CmsEventListener m_listener;
+
+        /** Signals that the queue is scheduled for execution. */
+        private boolean m_scheduled;
+
+        /**
+         * Creates a new event queue.<p>
+         * 
+         * @param listener the listener to deliver the events to
+         */
+        CmsAsyncEventQueue(I_CmsEventListener listener) {
+
+            m_listener = listener;
+            m_events = new LinkedList<CmsEvent>();
+        }
+
+        /**
+         * Delivers the next waiting event to the listener.<p>
+         * 
+         * The queue is scheduled again as long as there are events waiting, so that 
+         * the listeners take turns on the threads of the executor.<p>
+         * 
+         * @see java.lang.Runnable#run()
+         */
+        public void run() {
+
+            if (deliverNext()) {
+                schedule();
+            }
+        }
+
+        /**
+         * Adds an event to the queue.<p>
+         * 
+         * A cache flush event is dropped if the same event is the last one waiting in the queue.
+         * If too many events are waiting, the calling thread is blocked until there is room in the queue.<p>
+         * 
+         * @param event the event to add
+         */
+        void add(CmsEvent event) {
+
+            synchronized (this) {
+                if (m_closed) {
+                    return;
+                }
+                if (!m_events.isEmpty() && isCoalescable(m_events.getLast(), event)) {
+                    CmsEventListenerStatistics statistics = m_statistics.get(m_listener);
+                    if (statistics != null) {
+                        statistics.addCoalesced();
+                    }
+                    return;
+                }
+                while (m_events.size() >= MAX_QUEUED_EVENTS) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                    if (m_closed) {
+                        return;
+                    }
+                }
+                m_events.add(event);
+                if (m_scheduled) {
+                    return;
+                }
+                m_scheduled = true;
+            }
+            schedule();
+        }
+
+        /**
+         * Discards the waiting events and stops accepting new events, after the listener has been removed.<p>
+         */
+        synchronized void close() {
+
+            m_closed = true;
+            m_events.clear();
+            // wake up the threads waiting for room in the queue
+            notifyAll();
+        }
+
+        /**
+         * Delivers the next waiting event to the listener.<p>
+         * 
+         * @return <code>true</code> if there are more events waiting
+         */
+        private boolean deliverNext() {
+
+            CmsEvent event;
+            synchronized (this) {
+                event = m_closed ? null : m_events.poll();
+                if (event == null) {
+                    m_scheduled = false;
+                    return false;
+                }
+                notifyAll();
+            }
+            try {
+                deliverEvent(m_listener, event);
+            } catch (Throwable t) {
+                LOG.error(Messages.get().getBundle().key(Messages.LOG_ERROR_ASYNC_EVENT_2, m_listener, event), t);
+            }
+            synchronized (this) {
+                if (m_events.isEmpty()) {
+                    m_scheduled = false;
+                    return false;
+                }
+                return true;
+            }
+        }
+
+        /**
+         * Schedules this queue for execution.<p>
+         * 
+         * If the executor has already been shut down, the waiting events are delivered on the current thread.<p>
+         */
+        private void schedule() {
+
+            try {
+                getAsyncExecutor().execute(this);
+            } catch (RejectedExecutionException e) {
+                while (deliverNext()) {
+                    // deliver all waiting events
+                }
+            }
+        }
+    }
+
+    /** The number of threads delivering events to asynchronous event listeners. */
+    public static final int ASYNC_THREADS = 2;
+
+    /** The maximum number of events waiting for a single asynchronous event listener. */
+    public static final int MAX_QUEUED_EVENTS = 1000;
+
     /** Required as template for event list generation. */
     protected static final I_CmsEventListener[] EVENT_LIST = new I_CmsEventListener[0];
 
     /** The static log object for this class. */
     private static final Log LOG = CmsLog.getLog(CmsEventManager.class);
 
+    /** The executor delivering events to asynchronous event listeners, created on first use. */
+    private ExecutorService m_asyncExecutor;
+
+    /** The event queues of the registered asynchronous event listeners. */
+    private Map<I_CmsEventListener, CmsAsyncEventQueue> m_asyncQueues;
+
     /** Stores the active event listeners. */
     private Map<Integer, List<I_CmsEventListener>> m_eventListeners;
 
+    /** The processing time statistics of the registered event listeners. */
+    private Map<I_CmsEventListener, CmsEventListenerStatistics> m_statistics;
+
     /**
      * Create a new instance of an OpenCms event manager.<p>
      */
     public CmsEventManager() {
 
         m_eventListeners = new HashMap<Integer, List<I_CmsEventListener>>();
+        m_asyncQueues = new ConcurrentHashMap<I_CmsEventListener, CmsAsyncEventQueue>();
+        m_statistics = new ConcurrentHashMap<I_CmsEventListener, CmsEventListenerStatistics>();
     }
 
     /**
@@ -104,6 +277,7 @@ public class CmsEventManager {
                     listeners.add(listener);
                 }
             }
+            register(listener);
         }
     }
 
@@ -140,7 +314,19 @@ public class CmsEventManager {
     }
 
     /**
-     * Removes a cms event listener.<p>
+     * Returns the processing time statistics of all registered event listeners.<p>
+     * 
+     * @return the processing time statistics by event listener
+     */
+    public Map<I_CmsEventListener, CmsEventListenerStatistics> getListenerStatistics() {
+
+        return Collections.unmodifiableMap(new HashMap<I_CmsEventListener, CmsEventListenerStatistics>(m_statistics));
+    }
+
+    /**
+     * Removes a cms event listener, together with its processing time statistics.<p>
+     * 
+     * Events still waiting for an asynchronous listener are discarded.<p>
      *
      * @param listener the listener to remove
      */
@@ -152,6 +338,96 @@ public class CmsEventManager {
                 List<I_CmsEventListener> listeners = m_eventListeners.get(it.next());
                 listeners.remove(listener);
             }
+            m_statistics.remove(listener);
+            CmsAsyncEventQueue queue = m_asyncQueues.remove(listener);
+            if (queue != null) {
+                queue.close();
+            }
+        }
+    }
+
+    /**
+     * Shuts down the threads delivering events to asynchronous event listeners.<p>
+     * 
+     * Events already waiting are still delivered, events fired later are delivered on the firing thread.<p>
+     */
+    public void shutDown() {
+
+        ExecutorService executor;
+        synchronized (m_asyncQueues) {
+            executor = m_asyncExecutor;
+            if (executor == null) {
+                return;
+            }
+        }
+        executor.shutdown();
+        try {
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Delivers an event to a listener and records the processing time.<p>
+     * 
+     * @param listener the listener
+     * @param event the event
+     */
+    protected void deliverEvent(I_CmsEventListener listener, CmsEvent event) {
+
+        long start = System.nanoTime();
+        try {
+            listener.cmsEvent(event);
+        } finally {
+            CmsEventListenerStatistics statistics = m_statistics.get(listener);
+            if (statistics != null) {
+                // no statistics are recorded for listeners removed in the meantime
+                statistics.addTime(System.nanoTime() - start);
+            }
+        }
+    }
+
+    /**
+     * Delivers an event to a listener, either directly or through the event queue of an asynchronous listener.<p>
+     * 
+     * @param listener the listener
+     * @param event the event
+     */
+    protected void dispatchEvent(I_CmsEventListener listener, CmsEvent event) {
+
+        if (listener instanceof I_CmsAsyncEventListener) {
+            CmsAsyncEventQueue queue = m_asyncQueues.get(listener);
+            if (queue != null) {
+                // the queue is missing if the listener has been removed in the meantime
+                queue.add(event);
+            }
+        } else {
+            deliverEvent(listener, event);
+        }
+    }
+
+    /**
+     * Returns the executor delivering events to asynchronous event listeners.<p>
+     * 
+     * @return the executor for asynchronous events
+     */
+    protected ExecutorService getAsyncExecutor() {
+
+        synchronized (m_asyncQueues) {
+            if (m_asyncExecutor == null) {
+                final AtomicInteger threadCount = new AtomicInteger();
+                m_asyncExecutor = Executors.newFixedThreadPool(ASYNC_THREADS, new ThreadFactory() {
+
+                    public Thread newThread(Runnable r) {
+
+                        Thread thread = new Thread(r, "OpenCms: Event dispatcher " + threadCount.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+            }
+            return m_asyncExecutor;
         }
     }
 
@@ -173,6 +449,13 @@ public class CmsEventManager {
     protected void initialize(CmsEventManager base) {
 
         m_eventListeners = new HashMap<Integer, List<I_CmsEventListener>>(base.getEventListeners());
+        synchronized (m_eventListeners) {
+            for (List<I_CmsEventListener> listeners : m_eventListeners.values()) {
+                for (I_CmsEventListener listener : listeners) {
+                    register(listener);
+                }
+            }
+        }
     }
 
     /**
@@ -191,7 +474,7 @@ public class CmsEventManager {
                 // loop through all registered event listeners
                 for (int i = 0; i < list.length; i++) {
                     // fire the event
-                    list[i].cmsEvent(event);
+                    dispatchEvent(list[i], event);
                 }
             }
         } else {
@@ -232,7 +515,7 @@ public class CmsEventManager {
                         new Integer(i),
                         event.toString()));
                     // fire the event
-                    list[i].cmsEvent(event);
+                    dispatchEvent(list[i], event);
                     LOG.debug(Messages.get().getBundle().key(
                         Messages.LOG_DEBUG_EVENT_END_LISTENER_3,
                         list[i],
@@ -245,4 +528,51 @@ public class CmsEventManager {
             LOG.debug(Messages.get().getBundle().key(Messages.LOG_DEBUG_EVENT_COMPLETE_1, event.toString()));
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Checks if an event can be dropped because the same cache flush event is already waiting.<p>
+     * 
+     * @param queued the last event waiting in the queue
+     * @param event the new event
+     * 
+     * @return <code>true</code> if the new event can be dropped
+     */
+    private boolean isCoalescable(CmsEvent queued, CmsEvent event) {
+
+        if (queued.getType() != event.getType()) {
+            return false;
+        }
+        switch (event.getType()) {
+            case I_CmsEventListener.EVENT_CLEAR_CACHES:
+            case I_CmsEventListener.EVENT_CLEAR_OFFLINE_CACHES:
+            case I_CmsEventListener.EVENT_CLEAR_ONLINE_CACHES:
+            case I_CmsEventListener.EVENT_CLEAR_PRINCIPAL_CACHES:
+            case I_CmsEventListener.EVENT_FLEX_CACHE_CLEAR:
+            case I_CmsEventListener.EVENT_FLEX_PURGE_JSP_REPOSITORY:
+                if (queued.getData() == null) {
+                    return event.getData() == null;
+                }
+                return queued.getData().equals(event.getData());
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Creates the processing time statistics and, for asynchronous listeners, the event queue 
+     * of a registered event listener, if they do not exist yet.<p>
+     * 
+     * Must be called while holding the lock on the event listeners.<p>
+     * 
+     * @param listener the registered listener
+     */
+    private void register(I_CmsEventListener listener) {
+
+        if (!m_statistics.containsKey(listener)) {
+            m_statistics.put(listener, new CmsEventListenerStatistics());
+        }
+        if ((listener instanceof I_CmsAsyncEventListener) && !m_asyncQueues.containsKey(listener)) {
+            m_asyncQueues.put(listener, new CmsAsyncEventQueue(listener));
+        }
+    }
+}
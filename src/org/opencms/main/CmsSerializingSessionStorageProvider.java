@@ -0,0 +1,211 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.main;
+
+import org.opencms.util.CmsUUID;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Session storage provider that keeps the session info objects only in serialized form.<p>
+ * 
+ * This is a stand-in for a storage outside of the Java VM, like a distributed cache.
+ * Every read returns a new copy of the session info, so changes to a session info are only 
+ * stored when it is written back with {@link #put(CmsSessionInfo)}, just as with an external storage.
+ * It can be used to test that OpenCms works with such a storage, and it is the base class 
+ * for an external storage, which only has to override the methods that read and write the serialized data.<p>
+ * 
+ * @since 9.5.0
+ */
+public class CmsSerializingSessionStorageProvider extends CmsDefaultSessionStorageProvider {
+
+    /** The serialized session info objects mapped to the session id. */
+    private ConcurrentHashMap<CmsUUID, byte[]> m_data;
+
+    /**
+     * @see org.opencms.main.CmsDefaultSessionStorageProvider#initialize()
+     */
+    @Override
+    public void initialize() {
+
+        super.initialize();
+        m_data = new ConcurrentHashMap<CmsUUID, byte[]>();
+    }
+
+    /**
+     * @see org.opencms.main.CmsDefaultSessionStorageProvider#shutdown()
+     */
+    @Override
+    public void shutdown() {
+
+        super.shutdown();
+        m_data.clear();
+    }
+
+    /**
+     * Deserializes a session info object.<p>
+     * 
+     * @param sessionId the id of the session
+     * @param data the serialized session info, may be <code>null</code>
+     * 
+     * @return the session info, or <code>null</code> if the data was <code>null</code>
+     */
+    protected CmsSessionInfo deserialize(CmsUUID sessionId, byte[] data) {
+
+        if (data == null) {
+            return null;
+        }
+        try {
+            ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(data));
+            try {
+                return (CmsSessionInfo)in.readObject();
+            } finally {
+                in.close();
+            }
+        } catch (IOException e) {
+            throw new CmsRuntimeException(Messages.get().container(
+                Messages.ERR_SESSION_INFO_SERIALIZATION_1,
+                sessionId), e);
+        } catch (ClassNotFoundException e) {
+            throw new CmsRuntimeException(Messages.get().container(
+                Messages.ERR_SESSION_INFO_SERIALIZATION_1,
+                sessionId), e);
+        }
+    }
+
+    /**
+     * @see org.opencms.main.CmsDefaultSessionStorageProvider#getSessionCount()
+     */
+    @Override
+    protected int getSessionCount() {
+
+        return m_data.size();
+    }
+
+    /**
+     * @see org.opencms.main.CmsDefaultSessionStorageProvider#getSessionIds()
+     */
+    @Override
+    protected Collection<CmsUUID> getSessionIds() {
+
+        return m_data.keySet();
+    }
+
+    /**
+     * Reads the serialized session info with the given id.<p>
+     * 
+     * @param sessionId the id of the session
+     * 
+     * @return the serialized session info, or <code>null</code> if not found
+     */
+    protected byte[] readData(CmsUUID sessionId) {
+
+        return m_data.get(sessionId);
+    }
+
+    /**
+     * @see org.opencms.main.CmsDefaultSessionStorageProvider#readSessionInfo(org.opencms.util.CmsUUID)
+     */
+    @Override
+    protected CmsSessionInfo readSessionInfo(CmsUUID sessionId) {
+
+        return deserialize(sessionId, readData(sessionId));
+    }
+
+    /**
+     * Removes the serialized session info with the given id.<p>
+     * 
+     * @param sessionId the id of the session
+     * 
+     * @return the removed serialized session info, or <code>null</code> if none
+     */
+    protected byte[] removeData(CmsUUID sessionId) {
+
+        return m_data.remove(sessionId);
+    }
+
+    /**
+     * @see org.opencms.main.CmsDefaultSessionStorageProvider#removeSessionInfo(org.opencms.util.CmsUUID)
+     */
+    @Override
+    protected CmsSessionInfo removeSessionInfo(CmsUUID sessionId) {
+
+        return deserialize(sessionId, removeData(sessionId));
+    }
+
+    /**
+     * Serializes a session info object.<p>
+     * 
+     * @param sessionInfo the session info
+     * 
+     * @return the serialized session info
+     */
+    protected byte[] serialize(CmsSessionInfo sessionInfo) {
+
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(512);
+            ObjectOutputStream out = new ObjectOutputStream(bytes);
+            out.writeObject(sessionInfo);
+            out.close();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new CmsRuntimeException(Messages.get().container(
+                Messages.ERR_SESSION_INFO_SERIALIZATION_1,
+                sessionInfo.getSessionId()), e);
+        }
+    }
+
+    /**
+     * Writes the serialized session info with the given id.<p>
+     * 
+     * @param sessionId the id of the session
+     * @param data the serialized session info
+     * 
+     * @return the serialized session info previously stored for the id, or <code>null</code> if none
+     */
+    protected byte[] writeData(CmsUUID sessionId, byte[] data) {
+
+        return m_data.put(sessionId, data);
+    }
+
+    /**
+     * @see org.opencms.main.CmsDefaultSessionStorageProvider#writeSessionInfo(org.opencms.main.CmsSessionInfo)
+     */
+    @Override
+    protected CmsSessionInfo writeSessionInfo(CmsSessionInfo sessionInfo) {
+
+        CmsUUID sessionId = sessionInfo.getSessionId();
+        return deserialize(sessionId, writeData(sessionId, serialize(sessionInfo)));
+    }
+}
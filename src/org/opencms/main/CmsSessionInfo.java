@@ -33,8 +33,6 @@ import org.opencms.util.CmsUUID;
 import java.io.Serializable;
 
 import org.apache.commons.collections.Buffer;
-import org.apache.commons.collections.BufferUtils;
-import org.apache.commons.collections.buffer.UnboundedFifoBuffer;
 
 /**
  * Stores information about a user that has authenticated himself the OpenCms security system.<p>
@@ -60,9 +58,6 @@ public class CmsSessionInfo implements Comparable<CmsSessionInfo>, Serializable
     /** Serial version UID required for safe serialization. */
     private static final long serialVersionUID = 927301527031117920L;
 
-    /** The broadcast queue buffer for the user of this session info. */
-    private transient Buffer m_broadcastQueue;
-
     /** The maximum time, in seconds, this session info is allowed to be inactive. */
     private int m_maxInactiveInterval;
 
@@ -134,14 +129,17 @@ public class CmsSessionInfo implements Comparable<CmsSessionInfo>, Serializable
     /**
      * Returns the broadcast queue of the user to which this session info belongs.<p>
      * 
+     * The broadcast queues are kept by the session manager, since the session info 
+     * may be a copy read from a session storage outside of the Java VM.<p>
+     * 
      * @return the broadcast queue of the user to which this session info belongs
+     * 
+     * @deprecated use {@link CmsSessionManager#getBroadcastQueue(String)} 
      */
+    @Deprecated
     public Buffer getBroadcastQueue() {
 
-        if (m_broadcastQueue == null) {
-            m_broadcastQueue = BufferUtils.synchronizedBuffer(new UnboundedFifoBuffer(QUEUE_SIZE));
-        }
-        return m_broadcastQueue;
+        return OpenCms.getSessionManager().getBroadcastQueue(m_sessionId.toString());
     }
 
     /**
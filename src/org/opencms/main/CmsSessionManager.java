@@ -44,16 +44,18 @@ import org.opencms.workplace.tools.CmsToolManager;
 
 import java.util.Collections;
 import java.util.Enumeration;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpSession;
 import javax.servlet.http.HttpSessionEvent;
 
 import org.apache.commons.collections.Buffer;
-import org.apache.commons.collections.BufferUtils;
-import org.apache.commons.collections.buffer.CircularFifoBuffer;
 import org.apache.commons.logging.Log;
 
 /**
@@ -78,14 +80,14 @@ public class CmsSessionManager {
     /** The log object for this class. */
     private static final Log LOG = CmsLog.getLog(CmsSessionManager.class);
 
-    /** Lock object for synchronized session count updates. */
-    private Object m_lockSessionCount;
+    /** The broadcast queues of the sessions, mapped to the session id. */
+    private ConcurrentHashMap<CmsUUID, CmsBroadcastQueue> m_broadcastQueues;
 
     /** Counter for the currently active sessions. */
-    private int m_sessionCountCurrent;
+    private AtomicInteger m_sessionCountCurrent;
 
     /** Counter for all sessions created so far. */
-    private int m_sessionCountTotal;
+    private AtomicInteger m_sessionCountTotal;
 
     /** Session storage provider instance. */
     private I_CmsSessionStorageProvider m_sessionStorageProvider;
@@ -98,8 +100,9 @@ public class CmsSessionManager {
      */
     protected CmsSessionManager() {
 
-        // create a lock object for the session counter
-        m_lockSessionCount = new Object();
+        m_broadcastQueues = new ConcurrentHashMap<CmsUUID, CmsBroadcastQueue>();
+        m_sessionCountCurrent = new AtomicInteger();
+        m_sessionCountTotal = new AtomicInteger();
     }
 
     /**
@@ -123,18 +126,25 @@ public class CmsSessionManager {
     /**
      * Returns the broadcast queue for the given OpenCms session id.<p>
      * 
+     * The queue holds at most {@link CmsSessionInfo#QUEUE_SIZE} broadcasts, 
+     * and can be used without synchronization.<p>
+     * 
      * @param sessionId the OpenCms session id to get the broadcast queue for
      * 
      * @return the broadcast queue for the given OpenCms session id
      */
     public Buffer getBroadcastQueue(String sessionId) {
 
-        CmsSessionInfo sessionInfo = getSessionInfo(getSessionUUID(sessionId));
-        if (sessionInfo == null) {
+        CmsUUID sessionUUID = getSessionUUID(sessionId);
+        CmsBroadcastQueue queue = m_broadcastQueues.get(sessionUUID);
+        if (queue != null) {
+            return queue;
+        }
+        if (getSessionInfo(sessionUUID) == null) {
             // return empty message buffer if the session is gone or not available
-            return BufferUtils.synchronizedBuffer(new CircularFifoBuffer(CmsSessionInfo.QUEUE_SIZE));
+            return new CmsBroadcastQueue(CmsSessionInfo.QUEUE_SIZE);
         }
-        return sessionInfo.getBroadcastQueue();
+        return getBroadcastQueue(sessionUUID);
     }
 
     /**
@@ -159,7 +169,7 @@ public class CmsSessionManager {
      */
     public int getSessionCountCurrent() {
 
-        return m_sessionCountCurrent;
+        return m_sessionCountCurrent.get();
     }
 
     /**
@@ -169,7 +179,7 @@ public class CmsSessionManager {
      */
     public int getSessionCountTotal() {
 
-        return m_sessionCountTotal;
+        return m_sessionCountTotal.get();
     }
 
     /**
@@ -302,7 +312,7 @@ public class CmsSessionManager {
         OpenCms.getRoleManager().checkRole(cms, CmsRole.ACCOUNT_MANAGER);
         List<CmsSessionInfo> infos = getSessionInfos(user.getId());
         for (CmsSessionInfo info : infos) {
-            m_sessionStorageProvider.remove(info.getSessionId());
+            removeSessionInfo(info.getSessionId());
         }
     }
 
@@ -317,7 +327,7 @@ public class CmsSessionManager {
     public void killSession(CmsObject cms, CmsUUID sessionid) throws CmsException {
 
         OpenCms.getRoleManager().checkRole(cms, CmsRole.ACCOUNT_MANAGER);
-        m_sessionStorageProvider.remove(sessionid);
+        removeSessionInfo(sessionid);
 
     }
 
@@ -328,7 +338,6 @@ public class CmsSessionManager {
      * 
      * @param message the message to broadcast
      */
-    @SuppressWarnings("unchecked")
     public void sendBroadcast(CmsObject cms, String message) {
 
         if (CmsStringUtil.isEmptyOrWhitespaceOnly(message)) {
@@ -341,10 +350,7 @@ public class CmsSessionManager {
         Iterator<CmsSessionInfo> i = m_sessionStorageProvider.getAll().iterator();
         while (i.hasNext()) {
             CmsSessionInfo sessionInfo = i.next();
-            if (m_sessionStorageProvider.get(sessionInfo.getSessionId()) != null) {
-                // double check for concurrent modification
-                sessionInfo.getBroadcastQueue().add(broadcast);
-            }
+            getBroadcastQueue(sessionInfo.getSessionId()).add(broadcast);
         }
     }
 
@@ -356,7 +362,6 @@ public class CmsSessionManager {
      * @param message the message to broadcast
      * @param sessionId the OpenCms session uuid target (receiver) of the broadcast
      */
-    @SuppressWarnings("unchecked")
     public void sendBroadcast(CmsObject cms, String message, String sessionId) {
 
         if (CmsStringUtil.isEmptyOrWhitespaceOnly(message)) {
@@ -366,8 +371,8 @@ public class CmsSessionManager {
         // send the broadcast only to the selected session
         CmsSessionInfo sessionInfo = m_sessionStorageProvider.get(new CmsUUID(sessionId));
         if (sessionInfo != null) {
-            // double check for concurrent modification
-            sessionInfo.getBroadcastQueue().add(new CmsBroadcast(cms.getRequestContext().getCurrentUser(), message));
+            getBroadcastQueue(sessionInfo.getSessionId()).add(
+                new CmsBroadcast(cms.getRequestContext().getCurrentUser(), message));
         }
     }
 
@@ -382,7 +387,6 @@ public class CmsSessionManager {
      * @param message the message to broadcast
      * @param toUser the target (receiver) of the broadcast
      */
-    @SuppressWarnings("unchecked")
     public void sendBroadcast(CmsUser fromUser, String message, CmsUser toUser) {
 
         if (CmsStringUtil.isEmptyOrWhitespaceOnly(message)) {
@@ -396,10 +400,7 @@ public class CmsSessionManager {
         // send the broadcast to all sessions of the selected user
         while (i.hasNext()) {
             CmsSessionInfo sessionInfo = i.next();
-            if (m_sessionStorageProvider.get(sessionInfo.getSessionId()) != null) {
-                // double check for concurrent modification
-                sessionInfo.getBroadcastQueue().add(broadcast);
-            }
+            getBroadcastQueue(sessionInfo.getSessionId()).add(broadcast);
         }
     }
 
@@ -492,15 +493,25 @@ public class CmsSessionManager {
 
         // get all sessions
         List<CmsSessionInfo> userSessions = getSessionInfos();
+        // many sessions share the same project, so check each project only once
+        Map<CmsUUID, Boolean> projectExists = new HashMap<CmsUUID, Boolean>();
         Iterator<CmsSessionInfo> i = userSessions.iterator();
         while (i.hasNext()) {
             CmsSessionInfo sessionInfo = i.next();
             // check is the project stored in this session is not existing anymore
             // if so, set it to the online project
             CmsUUID projectId = sessionInfo.getProject();
-            try {
-                cms.readProject(projectId);
-            } catch (CmsException e) {
+            Boolean exists = projectExists.get(projectId);
+            if (exists == null) {
+                try {
+                    cms.readProject(projectId);
+                    exists = Boolean.TRUE;
+                } catch (CmsException e) {
+                    exists = Boolean.FALSE;
+                }
+                projectExists.put(projectId, exists);
+            }
+            if (!exists.booleanValue()) {
                 // the project does not longer exist, update the project information with the online project
                 sessionInfo.setProject(CmsProject.ONLINE_PROJECT_ID);
                 addSessionInfo(sessionInfo);
@@ -562,15 +573,13 @@ public class CmsSessionManager {
      */
     protected void sessionCreated(HttpSessionEvent event) {
 
-        synchronized (m_lockSessionCount) {
-            m_sessionCountCurrent = (m_sessionCountCurrent <= 0) ? 1 : (m_sessionCountCurrent + 1);
-            m_sessionCountTotal++;
-            if (LOG.isInfoEnabled()) {
-                LOG.info(Messages.get().getBundle().key(
-                    Messages.LOG_SESSION_CREATED_2,
-                    new Integer(m_sessionCountTotal),
-                    new Integer(m_sessionCountCurrent)));
-            }
+        int current = m_sessionCountCurrent.incrementAndGet();
+        int total = m_sessionCountTotal.incrementAndGet();
+        if (LOG.isInfoEnabled()) {
+            LOG.info(Messages.get().getBundle().key(
+                Messages.LOG_SESSION_CREATED_2,
+                new Integer(total),
+                new Integer(current)));
         }
 
         if (LOG.isDebugEnabled()) {
@@ -588,21 +597,23 @@ public class CmsSessionManager {
      */
     protected void sessionDestroyed(HttpSessionEvent event) {
 
-        synchronized (m_lockSessionCount) {
-            m_sessionCountCurrent = (m_sessionCountCurrent <= 0) ? 0 : (m_sessionCountCurrent - 1);
-            if (LOG.isInfoEnabled()) {
-                LOG.info(Messages.get().getBundle().key(
-                    Messages.LOG_SESSION_DESTROYED_2,
-                    new Integer(m_sessionCountTotal),
-                    new Integer(m_sessionCountCurrent)));
-            }
+        int current;
+        do {
+            // the counter must not become negative, e.g. for sessions created before a restart
+            current = m_sessionCountCurrent.get();
+        } while ((current > 0) && !m_sessionCountCurrent.compareAndSet(current, current - 1));
+        if (LOG.isInfoEnabled()) {
+            LOG.info(Messages.get().getBundle().key(
+                Messages.LOG_SESSION_DESTROYED_2,
+                new Integer(m_sessionCountTotal.get()),
+                new Integer(Math.max(current - 1, 0))));
         }
 
         CmsSessionInfo sessionInfo = getSessionInfo(event.getSession());
         CmsUUID userId = null;
         if (sessionInfo != null) {
             userId = sessionInfo.getUserId();
-            m_sessionStorageProvider.remove(sessionInfo.getSessionId());
+            removeSessionInfo(sessionInfo.getSessionId());
         }
 
         if ((userId != null) && (getSessionInfos(userId).size() == 0)) {
@@ -649,6 +660,7 @@ public class CmsSessionManager {
         if (m_sessionStorageProvider != null) {
             m_sessionStorageProvider.shutdown();
         }
+        m_broadcastQueues.clear();
     }
 
     /**
@@ -715,5 +727,43 @@ public class CmsSessionManager {
             return;
         }
         m_sessionStorageProvider.validate();
+        // remove the broadcast queues of the sessions removed during validation
+        Iterator<CmsUUID> i = m_broadcastQueues.keySet().iterator();
+        while (i.hasNext()) {
+            if (m_sessionStorageProvider.get(i.next()) == null) {
+                i.remove();
+            }
+        }
+    }
+
+    /**
+     * Returns the broadcast queue for the given session id, creating it if required.<p>
+     * 
+     * @param sessionId the session id
+     * 
+     * @return the broadcast queue for the given session id
+     */
+    private CmsBroadcastQueue getBroadcastQueue(CmsUUID sessionId) {
+
+        CmsBroadcastQueue queue = m_broadcastQueues.get(sessionId);
+        if (queue == null) {
+            CmsBroadcastQueue newQueue = new CmsBroadcastQueue(CmsSessionInfo.QUEUE_SIZE);
+            queue = m_broadcastQueues.putIfAbsent(sessionId, newQueue);
+            if (queue == null) {
+                queue = newQueue;
+            }
+        }
+        return queue;
+    }
+
+    /**
+     * Removes a session info from the session storage, together with its broadcast queue.<p>
+     * 
+     * @param sessionId the id of the session to remove
+     */
+    private void removeSessionInfo(CmsUUID sessionId) {
+
+        m_sessionStorageProvider.remove(sessionId);
+        m_broadcastQueues.remove(sessionId);
     }
 }
\ No newline at end of file
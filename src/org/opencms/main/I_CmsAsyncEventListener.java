@@ -0,0 +1,47 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.main;
+
+/**
+ * Event listener that receives its events asynchronously.<p>
+ * 
+ * Events for listeners implementing this interface are not delivered on the thread that fires 
+ * the event, but queued and delivered by a background thread of the {@link CmsEventManager}.
+ * The events are delivered one after the other in the order they were fired.
+ * A cache flush event is dropped if the same event is already waiting in the queue of the listener.<p>
+ * 
+ * Only implement this interface if the caller of {@link CmsEventManager#fireEvent(CmsEvent)} does not 
+ * depend on the listener having processed the event, e.g. for cleaning up disk caches.<p>
+ * 
+ * @since 9.5.0
+ */
+public interface I_CmsAsyncEventListener extends I_CmsEventListener {
+
+    // marker interface, events are delivered through I_CmsEventListener#cmsEvent(CmsEvent)
+}
@@ -74,6 +74,8 @@ import org.opencms.lock.CmsLockManager;
 import org.opencms.module.CmsModuleManager;
 import org.opencms.monitor.CmsMemoryMonitor;
 import org.opencms.monitor.CmsMemoryMonitorConfiguration;
+import org.opencms.monitor.CmsMetrics;
+import org.opencms.monitor.CmsRequestTrace;
 import org.opencms.publish.CmsPublishEngine;
 import org.opencms.publish.CmsPublishManager;
 import org.opencms.repository.CmsRepositoryManager;
@@ -1692,6 +1694,7 @@ public final class OpenCmsCore {
      */
     protected void showResource(HttpServletRequest req, HttpServletResponse res) {
 
+        CmsRequestTrace trace = CmsMetrics.startRequest(req.getRequestURI());
         CmsObject cms = null;
         try {
             cms = initCmsObject(req, res);
@@ -1722,6 +1725,8 @@ public final class OpenCmsCore {
 
         } catch (Throwable t) {
             errorHandling(cms, req, res, t);
+        } finally {
+            CmsMetrics.endRequest(trace, res);
         }
     }
 
@@ -1806,6 +1811,16 @@ public final class OpenCmsCore {
                         e);
                 }
 
+                try {
+                    if (m_eventManager != null) {
+                        m_eventManager.shutDown();
+                    }
+                } catch (Throwable e) {
+                    CmsLog.INIT.error(
+                        Messages.get().getBundle().key(Messages.LOG_ERROR_EVENT_MANAGER_SHUTDOWN_1, e.getMessage()),
+                        e);
+                }
+
                 try {
                     if (m_executor != null) {
                         m_executor.shutdownNow();
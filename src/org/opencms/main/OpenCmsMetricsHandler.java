@@ -0,0 +1,102 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.main;
+
+import org.opencms.file.CmsObject;
+import org.opencms.i18n.CmsEncoder;
+import org.opencms.json.JSONException;
+import org.opencms.monitor.CmsMetrics;
+import org.opencms.security.CmsRole;
+import org.opencms.util.CmsRequestUtil;
+
+import java.io.IOException;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.commons.logging.Log;
+
+/**
+ * Writes the collected metrics as JSON.<p>
+ * 
+ * The handler is available at <code>/handleMetrics</code> for users with the root administrator role.
+ * With the parameter <code>reset=true</code>, the timers are reset after they have been written.<p>
+ * 
+ * @since 9.5.0
+ * 
+ * @see CmsMetrics
+ */
+public class OpenCmsMetricsHandler implements I_CmsRequestHandler {
+
+    /** The name of the parameter to reset the timers. */
+    public static final String PARAM_RESET = "reset";
+
+    /** The metrics handler name. */
+    private static final String HANDLER_NAME = "Metrics";
+
+    /** The handler names used by this request handler. */
+    private static final String[] HANDLER_NAMES = new String[] {HANDLER_NAME};
+
+    /** The log object for this class. */
+    private static final Log LOG = CmsLog.getLog(OpenCmsMetricsHandler.class);
+
+    /**
+     * @see org.opencms.main.I_CmsRequestHandler#getHandlerNames()
+     */
+    public String[] getHandlerNames() {
+
+        return HANDLER_NAMES;
+    }
+
+    /**
+     * @see org.opencms.main.I_CmsRequestHandler#handle(javax.servlet.http.HttpServletRequest, javax.servlet.http.HttpServletResponse, java.lang.String)
+     */
+    public void handle(HttpServletRequest req, HttpServletResponse res, String name) throws IOException {
+
+        try {
+            CmsObject cms = OpenCmsCore.getInstance().initCmsObjectFromSession(req);
+            if ((cms == null) || !OpenCms.getRoleManager().hasRole(cms, CmsRole.ROOT_ADMIN)) {
+                res.sendError(HttpServletResponse.SC_FORBIDDEN);
+                return;
+            }
+            String json = CmsMetrics.toJson().toString(4);
+            if (Boolean.valueOf(req.getParameter(PARAM_RESET)).booleanValue()) {
+                CmsMetrics.reset();
+            }
+            CmsRequestUtil.setNoCacheHeaders(res);
+            res.setContentType("application/json; charset=" + CmsEncoder.ENCODING_UTF_8);
+            res.getOutputStream().write(json.getBytes(CmsEncoder.ENCODING_UTF_8));
+        } catch (CmsException e) {
+            LOG.error(e.getLocalizedMessage(), e);
+            res.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+        } catch (JSONException e) {
+            LOG.error(e.getLocalizedMessage(), e);
+            res.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+        }
+    }
+}
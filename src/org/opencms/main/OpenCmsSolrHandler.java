@@ -94,7 +94,13 @@ public class OpenCmsSolrHandler extends HttpServlet implements I_CmsRequestHandl
          * A constant for the '/spell' request handler of the embedded Solr server.
          * This handler is reachable under "/opencms/opencms/handleSolrSpell".<p>
          */
-        SolrSpell
+        SolrSpell,
+
+        /** 
+         * A constant for streaming all found documents as JSON, without the row limit of the '/select' handler.
+         * This handler is reachable under "/opencms/opencms/handleSolrStream".<p>
+         */
+        SolrStream
     }
 
     /** A constant for the optional 'baseUri' parameter. */
@@ -160,6 +166,9 @@ public class OpenCmsSolrHandler extends HttpServlet implements I_CmsRequestHandl
                         case SolrSpell:
                             context.m_index.spellCheck(res, context.m_cms, context.m_query);
                             break;
+                        case SolrStream:
+                            context.m_index.stream(res, context.m_cms, context.m_query);
+                            break;
                         default:
                             break;
                     }
@@ -0,0 +1,264 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.monitor;
+
+import org.opencms.file.CmsResource;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Registry of the keys of a cache, indexed by the root paths (or ids) of the resources the cached values depend on.<p>
+ * 
+ * The index allows to remove only the cache entries affected by a change of a resource, 
+ * instead of flushing the whole cache.<p>
+ * 
+ * The index does not get notified if the cache evicts entries on its own. To keep the memory 
+ * used by the index bounded, keys no longer contained in the cache are pruned from the index 
+ * whenever the number of registered keys exceeds the given limit.<p>
+ * 
+ * If values are written to the cache without registering them in the index, the index must be 
+ * marked as incomplete with {@link #setIncomplete()}, since selective removal can not be used then.<p>
+ * 
+ * @since 9.5.0
+ */
+public class CmsCacheKeyIndex {
+
+    /** The indexed cache. */
+    private final Map<String, ?> m_cache;
+
+    /** Flag indicating that values were cached without registering them in this index. */
+    private volatile boolean m_incomplete;
+
+    /** The registered keys, by path. */
+    private final ConcurrentNavigableMap<String, Set<String>> m_keys = new ConcurrentSkipListMap<String, Set<String>>();
+
+    /** The number of registered keys after which the index is pruned. */
+    private final int m_maxSize;
+
+    /** Flag to make sure only one thread prunes the index at a time. */
+    private final AtomicBoolean m_pruning = new AtomicBoolean();
+
+    /** The approximate number of registered keys. */
+    private final AtomicInteger m_size = new AtomicInteger();
+
+    /**
+     * Creates a new index for the given cache.<p>
+     * 
+     * @param cache the indexed cache
+     * @param maxSize the number of registered keys after which keys no longer in the cache are pruned
+     */
+    public CmsCacheKeyIndex(Map<String, ?> cache, int maxSize) {
+
+        m_cache = cache;
+        m_maxSize = Math.max(maxSize, 64);
+    }
+
+    /**
+     * Registers a cache key for the given path.<p>
+     * 
+     * @param path the root path (or id) the cached value depends on
+     * @param key the cache key
+     */
+    public void add(String path, String key) {
+
+        if ((path == null) || (key == null)) {
+            return;
+        }
+        boolean added;
+        Set<String> keys;
+        do {
+            keys = m_keys.get(path);
+            if (keys == null) {
+                Set<String> newKeys = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+                keys = m_keys.putIfAbsent(path, newKeys);
+                if (keys == null) {
+                    keys = newKeys;
+                }
+            }
+            added = keys.add(key);
+            // retry if the key set was removed concurrently, otherwise the key would get lost
+        } while (m_keys.get(path) != keys);
+        if (added && (m_size.incrementAndGet() > m_maxSize)) {
+            prune();
+        }
+    }
+
+    /**
+     * Removes all registered keys and marks the index as complete again.<p>
+     * 
+     * This must be called whenever the indexed cache is flushed.<p>
+     */
+    public void clear() {
+
+        m_incomplete = false;
+        m_keys.clear();
+        m_size.set(0);
+    }
+
+    /**
+     * Checks if values were cached without registering them in this index.<p>
+     * 
+     * @return <code>true</code> if values were cached without registering them in this index
+     */
+    public boolean isIncomplete() {
+
+        return m_incomplete;
+    }
+
+    /**
+     * Removes and returns the keys registered for the given path.<p>
+     * 
+     * @param path the root path (or id)
+     * 
+     * @return the keys registered for the given path
+     */
+    public Set<String> removeKeys(String path) {
+
+        Set<String> result = new HashSet<String>();
+        collect(m_keys.remove(path), result);
+        return result;
+    }
+
+    /**
+     * Removes and returns the keys registered for all parent folders of the given path.<p>
+     * 
+     * @param path the root path
+     * 
+     * @return the keys registered for the parent folders of the given path
+     */
+    public Set<String> removeKeysForParentFolders(String path) {
+
+        Set<String> result = new HashSet<String>();
+        String parent = CmsResource.getParentFolder(path);
+        while (parent != null) {
+            collect(m_keys.remove(parent), result);
+            parent = CmsResource.getParentFolder(parent);
+        }
+        return result;
+    }
+
+    /**
+     * Removes and returns the keys registered for the given path and, 
+     * if the path is a folder path ending with a <code>/</code>, for all paths below it.<p>
+     * 
+     * @param path the root path
+     * 
+     * @return the keys registered for the given path and the paths below it
+     */
+    public Set<String> removeKeysForTree(String path) {
+
+        if (!path.endsWith("/")) {
+            return removeKeys(path);
+        }
+        Set<String> result = new HashSet<String>();
+        // all paths starting with the folder path are sorted directly after it
+        Iterator<Map.Entry<String, Set<String>>> it = m_keys.tailMap(path, true).entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, Set<String>> entry = it.next();
+            if (!entry.getKey().startsWith(path)) {
+                break;
+            }
+            it.remove();
+            collect(entry.getValue(), result);
+        }
+        return result;
+    }
+
+    /**
+     * Marks the index as incomplete, because a value was cached without registering its key.<p>
+     */
+    public void setIncomplete() {
+
+        m_incomplete = true;
+    }
+
+    /**
+     * Returns the number of registered keys.<p>
+     * 
+     * @return the number of registered keys
+     */
+    public int size() {
+
+        return m_size.get();
+    }
+
+    /**
+     * Adds the given removed keys to the result and updates the key counter.<p>
+     * 
+     * @param keys the removed keys, may be <code>null</code>
+     * @param result the result set to add the keys to
+     */
+    private void collect(Set<String> keys, Set<String> result) {
+
+        if (keys != null) {
+            m_size.addAndGet(-keys.size());
+            result.addAll(keys);
+        }
+    }
+
+    /**
+     * Removes all keys from the index that are no longer contained in the cache.<p>
+     */
+    private void prune() {
+
+        if (!m_pruning.compareAndSet(false, true)) {
+            // another thread is already pruning
+            return;
+        }
+        try {
+            int size = 0;
+            Iterator<Set<String>> itSets = m_keys.values().iterator();
+            while (itSets.hasNext()) {
+                Set<String> keys = itSets.next();
+                Iterator<String> itKeys = keys.iterator();
+                while (itKeys.hasNext()) {
+                    if (!m_cache.containsKey(itKeys.next())) {
+                        itKeys.remove();
+                    }
+                }
+                if (keys.isEmpty()) {
+                    itSets.remove();
+                } else {
+                    size += keys.size();
+                }
+            }
+            m_size.set(size);
+        } finally {
+            m_pruning.set(false);
+        }
+    }
+}
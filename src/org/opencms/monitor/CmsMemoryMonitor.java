@@ -27,9 +27,11 @@
 
 package org.opencms.monitor;
 
+import org.opencms.cache.CmsConcurrentLruMap;
 import org.opencms.cache.CmsLruCache;
 import org.opencms.cache.CmsMemoryObjectCache;
 import org.opencms.cache.CmsVfsMemoryObjectCache;
+import org.opencms.cache.I_CmsCacheStatistics;
 import org.opencms.configuration.CmsSystemConfiguration;
 import org.opencms.db.CmsCacheSettings;
 import org.opencms.db.CmsDriverManager;
@@ -70,16 +72,21 @@ import org.opencms.util.CmsUUID;
 import org.opencms.util.PrintfFormat;
 import org.opencms.xml.CmsXmlContentDefinition;
 import org.opencms.xml.CmsXmlEntityResolver;
+import org.opencms.xml.content.CmsXmlContent;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.ConcurrentModificationException;
 import java.util.Date;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 
 import javax.mail.internet.InternetAddress;
 
@@ -214,6 +221,13 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
     /** Cache for role lists. */
     private Map<String, List<CmsRole>> m_cacheRoleLists;
 
+    /** The settings used to create the caches. */
+    private CmsCacheSettings m_cacheSettings;
+
+    /** The usage statistics of the caches that provide them. */
+    private Map<CacheType, I_CmsCacheStatistics> m_cacheStatistics = Collections.synchronizedMap(
+        new EnumMap<CacheType, I_CmsCacheStatistics>(CacheType.class));
+
     /** Cache for user data. */
     private Map<String, CmsUser> m_cacheUser;
 
@@ -238,6 +252,33 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
     /** Map to keep track of disabled caches. */
     private Map<CacheType, Boolean> m_disabled = new HashMap<CacheType, Boolean>();
 
+    /** Index of the access control list cache keys by resource path. */
+    private CmsCacheKeyIndex m_indexACL;
+
+    /** Index of the access control list cache keys by structure id and resource id. */
+    private CmsCacheKeyIndex m_indexACLIds;
+
+    /** Index of the permission cache keys by resource path. */
+    private CmsCacheKeyIndex m_indexPermission;
+
+    /** Index of the permission cache keys by resource id. */
+    private CmsCacheKeyIndex m_indexPermissionIds;
+
+    /** Index of the property list cache keys by resource path. */
+    private CmsCacheKeyIndex m_indexPropertyList;
+
+    /** Index of the resource cache keys by resource path. */
+    private CmsCacheKeyIndex m_indexResource;
+
+    /** Index of the resource cache keys by structure id and resource id. */
+    private CmsCacheKeyIndex m_indexResourceIds;
+
+    /** Index of the resource list cache keys by the path of the folder containing the listed resources. */
+    private CmsCacheKeyIndex m_indexResourceList;
+
+    /** Index of the resource list cache keys by the path of the folder the listed subtree starts at. */
+    private CmsCacheKeyIndex m_indexResourceTreeList;
+
     /** Interval in which emails are send. */
     private int m_intervalEmail;
 
@@ -283,6 +324,9 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
     /** Buffer for publish jobs. */
     private Buffer m_publishQueue;
 
+    /** The number of times the user groups cache was flushed. */
+    private volatile int m_userGroupsVersion;
+
     /** Flag for memory warning mail send. */
     private boolean m_warningLoggedSinceLastStatus;
 
@@ -299,7 +343,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
 
     /**
      * Returns the size of objects that are instances of
-     * <code>byte[]</code>, <code>String</code>, <code>CmsFile</code>,<code>I_CmsLruCacheObject</code>.<p>
+     * <code>byte[]</code>, <code>String</code>, <code>CmsFile</code>, <code>CmsXmlContent</code>,<code>I_CmsLruCacheObject</code>.<p>
      * For other objects, a size of 0 is returned.
      * 
      * @param obj the object
@@ -330,6 +374,16 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
             }
         }
 
+        if (obj instanceof CmsXmlContent) {
+            // the file contents plus the parsed document, which is estimated to take four times the size of the file contents
+            CmsFile f = ((CmsXmlContent)obj).getFile();
+            if ((f != null) && (f.getContents() != null)) {
+                return (f.getContents().length * 5) + 2048;
+            } else {
+                return 2048;
+            }
+        }
+
         if (obj instanceof CmsUUID) {
             return 184; // worst case if UUID String has been generated
         }
@@ -530,10 +584,34 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      */
     public void cacheACL(String key, CmsAccessControlList acl) {
 
+        if (m_disabled.get(CacheType.ACL) != null) {
+            return;
+        }
+        // the resource is unknown, so the entry can not be removed selectively
+        m_indexACL.setIncomplete();
+        m_cacheAccessControlList.put(key, acl);
+    }
+
+    /**
+     * Caches the given acl of the given resource under the given cache key.<p>
+     * 
+     * The key is registered for the path, the structure id and the resource id of the resource, 
+     * so that the entry can be removed selectively if the access control entries of the resource 
+     * or of one of its parent folders change.<p>
+     * 
+     * @param key the cache key
+     * @param resource the resource the acl belongs to, or the folder the acl is inherited from
+     * @param acl the acl to cache
+     */
+    public void cacheACL(String key, CmsResource resource, CmsAccessControlList acl) {
+
         if (m_disabled.get(CacheType.ACL) != null) {
             return;
         }
         m_cacheAccessControlList.put(key, acl);
+        m_indexACL.add(resource.getRootPath(), key);
+        m_indexACLIds.add(resource.getStructureId().toString(), key);
+        m_indexACLIds.add(resource.getResourceId().toString(), key);
     }
 
     /**
@@ -635,9 +713,37 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
         if (m_disabled.get(CacheType.PERMISSION) != null) {
             return;
         }
+        // the resource is unknown, so the entry can not be removed selectively
+        m_indexPermission.setIncomplete();
         m_cachePermission.put(key, permission);
     }
 
+    /**
+     * Caches the given permission check result for the given resource under the given cache key.<p>
+     * 
+     * The key is registered for the path and the resource id of the resource, so that the entry 
+     * can be removed selectively if the access control entries of the resource or of one of its 
+     * parent folders change.<p>
+     * 
+     * @param key the cache key
+     * @param resource the resource the permissions were checked for
+     * @param permission the permission check result to cache
+     * 
+     * @see #uncachePermissions(CmsResource)
+     */
+    public void cachePermission(
+        String key,
+        CmsResource resource,
+        I_CmsPermissionHandler.CmsPermissionCheckResult permission) {
+
+        if (m_disabled.get(CacheType.PERMISSION) != null) {
+            return;
+        }
+        m_cachePermission.put(key, permission);
+        m_indexPermission.add(resource.getRootPath(), key);
+        m_indexPermissionIds.add(resource.getResourceId().toString(), key);
+    }
+
     /**
      * Caches the given project under its id AND the fully qualified name.<p>
      * 
@@ -691,6 +797,27 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
         if (m_disabled.get(CacheType.PROPERTY_LIST) != null) {
             return;
         }
+        // without the resource path the entry can not be removed selectively
+        m_indexPropertyList.setIncomplete();
+        m_cachePropertyList.put(key, propertyList);
+    }
+
+    /**
+     * Caches the given property list of a resource under the given cache key.<p>
+     * 
+     * The key is registered for the root path of the resource, so that it can be removed selectively 
+     * by {@link #clearResourceCache(Collection)}.<p>
+     * 
+     * @param key the cache key
+     * @param rootPath the root path of the resource the properties belong to
+     * @param propertyList the property list to cache
+     */
+    public void cachePropertyList(String key, String rootPath, List<CmsProperty> propertyList) {
+
+        if (m_disabled.get(CacheType.PROPERTY_LIST) != null) {
+            return;
+        }
+        m_indexPropertyList.add(rootPath, key);
         m_cachePropertyList.put(key, propertyList);
     }
 
@@ -747,6 +874,9 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
         if (m_disabled.get(CacheType.RESOURCE) != null) {
             return;
         }
+        m_indexResource.add(resource.getRootPath(), key);
+        m_indexResourceIds.add(resource.getStructureId().toString(), key);
+        m_indexResourceIds.add(resource.getResourceId().toString(), key);
         m_cacheResource.put(key, resource);
     }
 
@@ -761,6 +891,33 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
         if (m_disabled.get(CacheType.RESOURCE_LIST) != null) {
             return;
         }
+        // without the folder path the entry can not be removed selectively
+        m_indexResourceList.setIncomplete();
+        m_cacheResourceList.put(key, resourceList);
+    }
+
+    /**
+     * Caches the given list of resources read from a folder under the given cache key.<p>
+     * 
+     * The key is registered for the root path of the folder, so that it can be removed selectively 
+     * by {@link #clearResourceCache(Collection)}.<p>
+     * 
+     * @param key the cache key
+     * @param folderPath the root path of the folder the resources were read from
+     * @param readTree <code>true</code> if the list contains resources from the whole subtree, 
+     *      <code>false</code> if it only contains direct sub-resources of the folder
+     * @param resourceList the resource list to cache
+     */
+    public void cacheResourceList(String key, String folderPath, boolean readTree, List<CmsResource> resourceList) {
+
+        if (m_disabled.get(CacheType.RESOURCE_LIST) != null) {
+            return;
+        }
+        if (readTree) {
+            m_indexResourceTreeList.add(folderPath, key);
+        } else {
+            m_indexResourceList.add(folderPath, key);
+        }
         m_cacheResourceList.put(key, resourceList);
     }
 
@@ -886,6 +1043,50 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
         clearResourceCache();
     }
 
+    /**
+     * Clears the access control list cache when the access control entries of the given resource are changed.<p>
+     * 
+     * In contrast to {@link #clearAccessControlListCache()}, only the cached access control lists and 
+     * permission check results for the resource, its siblings and, for folders, its subtree are removed.<p>
+     * 
+     * @param resource the resource whose access control entries were changed
+     */
+    public void clearAccessControlListCache(CmsResource resource) {
+
+        uncacheACLs(resource.getRootPath(), resource.isFolder(), resource.getStructureId(), resource.getResourceId());
+        uncachePermissions(resource);
+        clearResourceCache();
+    }
+
+    /**
+     * Removes the cached access control lists and permission check results depending on the given resources, 
+     * e.g. after these resources have been published.<p>
+     * 
+     * If more resources than the configured threshold are given, or if some entries were cached without 
+     * registering their dependencies, the access control list and permission caches are flushed instead.<p>
+     * 
+     * @param resources the changed resources
+     * 
+     * @see CmsCacheSettings#getCacheFlushThreshold()
+     */
+    public void clearAccessControlListCache(Collection<CmsPublishedResource> resources) {
+
+        if ((resources.size() > m_cacheSettings.getCacheFlushThreshold())
+            || m_indexACL.isIncomplete()
+            || m_indexPermission.isIncomplete()) {
+            flushCache(CacheType.ACL, CacheType.PERMISSION);
+            return;
+        }
+        for (CmsPublishedResource resource : resources) {
+            uncacheACLs(
+                resource.getRootPath(),
+                resource.isFolder(),
+                resource.getStructureId(),
+                resource.getResourceId());
+            uncachePermissions(resource.getRootPath(), resource.isFolder(), resource.getResourceId());
+        }
+    }
+
     /**
      * Clears almost all internal caches.<p>
      */
@@ -929,6 +1130,58 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
         flushCache(CacheType.ROLE_LIST);
     }
 
+    /**
+     * Removes the cache entries depending on the given resources, e.g. after these resources have been published.<p>
+     * 
+     * This removes the cached resources with the same path, structure id or resource id (i.e. siblings and 
+     * the old locations of moved resources), the cached resource lists of their parent folders and of 
+     * the folders themselves, and the cached property lists of the resources and, for folders, of their subtree, 
+     * since these may contain inherited properties.<p>
+     * 
+     * If more resources than the configured threshold are given, or if some entries were cached without 
+     * registering their dependencies, all resource and property related caches are flushed instead.<p>
+     * 
+     * @param resources the changed resources
+     * 
+     * @see CmsCacheSettings#getCacheFlushThreshold()
+     */
+    public void clearResourceCache(Collection<CmsPublishedResource> resources) {
+
+        if ((resources.size() > m_cacheSettings.getCacheFlushThreshold())
+            || m_indexResource.isIncomplete()
+            || m_indexResourceList.isIncomplete()
+            || m_indexPropertyList.isIncomplete()) {
+            clearResourceCache();
+            flushCache(CacheType.PROPERTY, CacheType.PROPERTY_LIST);
+            return;
+        }
+        Set<String> paths = new HashSet<String>();
+        for (CmsPublishedResource resource : resources) {
+            paths.add(resource.getRootPath());
+            // cached siblings and cached resources at the former location of a moved resource
+            Set<String> keys = m_indexResourceIds.removeKeys(resource.getStructureId().toString());
+            keys.addAll(m_indexResourceIds.removeKeys(resource.getResourceId().toString()));
+            for (String key : keys) {
+                CmsResource cached = m_cacheResource.remove(key);
+                if (cached != null) {
+                    paths.add(cached.getRootPath());
+                }
+            }
+        }
+        for (String path : paths) {
+            uncacheKeys(m_cacheResource, m_indexResource.removeKeysForTree(path));
+            uncacheKeys(m_cacheResourceList, m_indexResourceList.removeKeysForTree(path));
+            String parentFolder = CmsResource.getParentFolder(path);
+            if (parentFolder != null) {
+                uncacheKeys(m_cacheResourceList, m_indexResourceList.removeKeys(parentFolder));
+            }
+            uncacheKeys(m_cacheResourceList, m_indexResourceTreeList.removeKeysForTree(path));
+            uncacheKeys(m_cacheResourceList, m_indexResourceTreeList.removeKeysForParentFolders(path));
+            uncacheKeys(m_cachePropertyList, m_indexPropertyList.removeKeysForTree(path));
+        }
+        flushCache(CacheType.PROPERTY, CacheType.HAS_ROLE, CacheType.ROLE_LIST);
+    }
+
     /**
      * Clears the user cache for the given user.<p>
      * 
@@ -997,6 +1250,8 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
             switch (type) {
                 case ACL:
                     m_cacheAccessControlList.clear();
+                    m_indexACL.clear();
+                    m_indexACLIds.clear();
                     break;
                 case CONTENT_DEFINITION:
                     m_cacheContentDefinitions.clear();
@@ -1021,6 +1276,8 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
                     break;
                 case PERMISSION:
                     m_cachePermission.clear();
+                    m_indexPermission.clear();
+                    m_indexPermissionIds.clear();
                     break;
                 case PROJECT:
                     m_cacheProject.clear();
@@ -1033,6 +1290,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
                     break;
                 case PROPERTY_LIST:
                     m_cachePropertyList.clear();
+                    m_indexPropertyList.clear();
                     break;
                 case PUBLISHED_RESOURCES:
                     m_cachePublishedResources.clear();
@@ -1045,9 +1303,13 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
                     break;
                 case RESOURCE:
                     m_cacheResource.clear();
+                    m_indexResource.clear();
+                    m_indexResourceIds.clear();
                     break;
                 case RESOURCE_LIST:
                     m_cacheResourceList.clear();
+                    m_indexResourceList.clear();
+                    m_indexResourceTreeList.clear();
                     break;
                 case ROLE_LIST:
                     m_cacheRoleLists.clear();
@@ -1057,6 +1319,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
                     break;
                 case USERGROUPS:
                     m_cacheUserGroups.clear();
+                    m_userGroupsVersion++;
                     break;
                 case USER_LIST:
                     m_cacheUserList.clear();
@@ -1384,6 +1647,22 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
         return new ArrayList<CmsPublishJobInfoBean>(m_publishHistory);
     }
 
+    /**
+     * Returns the usage statistics of the caches.<p>
+     * 
+     * Statistics are only available for caches created with the 
+     * {@link CmsCacheSettings#CACHE_IMPLEMENTATION_CONCURRENT} implementation, 
+     * so the returned map is empty for the default configuration.<p>
+     * 
+     * @return the usage statistics of the caches, by cache type
+     */
+    public Map<CacheType, I_CmsCacheStatistics> getCacheStatistics() {
+
+        synchronized (m_cacheStatistics) {
+            return Collections.unmodifiableMap(new EnumMap<CacheType, I_CmsCacheStatistics>(m_cacheStatistics));
+        }
+    }
+
     /**
      * Returns the ACL cached with the given cache key or <code>null</code> if not found.<p>
      * 
@@ -1393,7 +1672,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      */
     public CmsAccessControlList getCachedACL(String key) {
 
-        return m_cacheAccessControlList.get(key);
+        return countLookup(CacheType.ACL, m_cacheAccessControlList.get(key));
     }
 
     /**
@@ -1405,7 +1684,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      */
     public CmsXmlContentDefinition getCachedContentDefinition(String key) {
 
-        return m_cacheContentDefinitions.get(key);
+        return countLookup(CacheType.CONTENT_DEFINITION, m_cacheContentDefinitions.get(key));
     }
 
     /**
@@ -1417,7 +1696,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      */
     public CmsGroup getCachedGroup(String key) {
 
-        return m_cacheGroup.get(key);
+        return countLookup(CacheType.GROUP, m_cacheGroup.get(key));
     }
 
     /**
@@ -1433,7 +1712,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
             // this may be accessed before initialization
             return null;
         }
-        return m_cacheLocale.get(key);
+        return countLookup(CacheType.LOCALE, m_cacheLocale.get(key));
     }
 
     /**
@@ -1445,7 +1724,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      */
     public CmsLock getCachedLock(String rootPath) {
 
-        return m_cacheLock.get(rootPath);
+        return countLookup(CacheType.LOCK, m_cacheLock.get(rootPath));
     }
 
     /**
@@ -1457,7 +1736,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      */
     public Object getCachedMemObject(String key) {
 
-        return m_cacheMemObject.get(key);
+        return countLookup(CacheType.MEMORY_OBJECT, m_cacheMemObject.get(key));
     }
 
     /**
@@ -1469,7 +1748,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      */
     public CmsOrganizationalUnit getCachedOrgUnit(String key) {
 
-        return m_cacheOrgUnit.get(key);
+        return countLookup(CacheType.ORG_UNIT, m_cacheOrgUnit.get(key));
     }
 
     /**
@@ -1481,7 +1760,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      */
     public I_CmsPermissionHandler.CmsPermissionCheckResult getCachedPermission(String key) {
 
-        return m_cachePermission.get(key);
+        return countLookup(CacheType.PERMISSION, m_cachePermission.get(key));
     }
 
     /**
@@ -1493,7 +1772,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      */
     public CmsProject getCachedProject(String key) {
 
-        return m_cacheProject.get(key);
+        return countLookup(CacheType.PROJECT, m_cacheProject.get(key));
     }
 
     /**
@@ -1505,7 +1784,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      */
     public List<CmsResource> getCachedProjectResources(String key) {
 
-        return m_cacheProjectResources.get(key);
+        return countLookup(CacheType.PROJECT_RESOURCES, m_cacheProjectResources.get(key));
     }
 
     /**
@@ -1517,7 +1796,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      */
     public CmsProperty getCachedProperty(String key) {
 
-        return m_cacheProperty.get(key);
+        return countLookup(CacheType.PROPERTY, m_cacheProperty.get(key));
     }
 
     /**
@@ -1529,7 +1808,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      */
     public List<CmsProperty> getCachedPropertyList(String key) {
 
-        return m_cachePropertyList.get(key);
+        return countLookup(CacheType.PROPERTY_LIST, m_cachePropertyList.get(key));
     }
 
     /**
@@ -1541,7 +1820,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      */
     public List<CmsPublishedResource> getCachedPublishedResources(String cacheKey) {
 
-        return m_cachePublishedResources.get(cacheKey);
+        return countLookup(CacheType.PUBLISHED_RESOURCES, m_cachePublishedResources.get(cacheKey));
     }
 
     /**
@@ -1594,7 +1873,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      */
     public CmsResource getCachedResource(String key) {
 
-        return m_cacheResource.get(key);
+        return countLookup(CacheType.RESOURCE, m_cacheResource.get(key));
     }
 
     /**
@@ -1606,7 +1885,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      */
     public List<CmsResource> getCachedResourceList(String key) {
 
-        return m_cacheResourceList.get(key);
+        return countLookup(CacheType.RESOURCE_LIST, m_cacheResourceList.get(key));
     }
 
     /**
@@ -1618,7 +1897,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      */
     public Boolean getCachedRole(String key) {
 
-        return m_cacheHasRoles.get(key);
+        return countLookup(CacheType.HAS_ROLE, m_cacheHasRoles.get(key));
     }
 
     /**
@@ -1630,7 +1909,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      */
     public List<CmsRole> getCachedRoleList(String key) {
 
-        return m_cacheRoleLists.get(key);
+        return countLookup(CacheType.ROLE_LIST, m_cacheRoleLists.get(key));
     }
 
     /**
@@ -1642,7 +1921,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      */
     public CmsUser getCachedUser(String key) {
 
-        return m_cacheUser.get(key);
+        return countLookup(CacheType.USER, m_cacheUser.get(key));
     }
 
     /**
@@ -1654,7 +1933,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      */
     public List<CmsGroup> getCachedUserGroups(String key) {
 
-        return m_cacheUserGroups.get(key);
+        return countLookup(CacheType.USERGROUPS, m_cacheUserGroups.get(key));
     }
 
     /**
@@ -1666,7 +1945,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      */
     public List<CmsUser> getCachedUserList(String key) {
 
-        return m_cacheUserList.get(key);
+        return countLookup(CacheType.USER_LIST, m_cacheUserList.get(key));
     }
 
     /**
@@ -1678,7 +1957,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      */
     public Object getCachedVfsObject(String key) {
 
-        return m_cacheVfsObject.get(key);
+        return countLookup(CacheType.VFS_OBJECT, m_cacheVfsObject.get(key));
     }
 
     /**
@@ -1690,7 +1969,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      */
     public byte[] getCachedXmlPermanentEntity(String systemId) {
 
-        return m_cacheXmlPermanentEntity.get(systemId);
+        return countLookup(CacheType.XML_ENTITY_PERM, m_cacheXmlPermanentEntity.get(systemId));
     }
 
     /**
@@ -1702,7 +1981,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      */
     public byte[] getCachedXmlTemporaryEntity(String key) {
 
-        return m_cacheXmlTemporaryEntity.get(key);
+        return countLookup(CacheType.XML_ENTITY_TEMP, m_cacheXmlTemporaryEntity.get(key));
     }
 
     /**
@@ -1749,9 +2028,23 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
     public CmsMemoryStatus getMemoryStatus() {
 
         m_memoryCurrent.update();
+        m_memoryCurrent.setCacheStatistics(getCacheStatistics());
         return m_memoryCurrent;
     }
 
+    /**
+     * Returns the version of the user groups cache.<p>
+     * 
+     * The version is increased every time the user groups cache is flushed, which happens 
+     * whenever the group or role memberships of a user change.<p>
+     * 
+     * @return the version of the user groups cache
+     */
+    public int getUserGroupsVersion() {
+
+        return m_userGroupsVersion;
+    }
+
     /**
      * Initializes the monitor with the provided configuration.<p>
      * 
@@ -1820,12 +2113,24 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
             }
         }
 
+        // initialize the metrics of the hot paths
+        CmsMetrics.initialize(m_configuration);
+        if (CmsLog.INIT.isInfoEnabled()) {
+            CmsLog.INIT.info(Messages.get().getBundle().key(
+                Messages.LOG_MM_METRICS_2,
+                Boolean.valueOf(CmsMetrics.isEnabled()),
+                Boolean.valueOf(CmsMetrics.isTraceHeaderEnabled())));
+        }
+
         // create and register all system caches
+        m_cacheSettings = cacheSettings;
+        m_cacheStatistics.clear();
 
         // temporary xml entities cache
-        Map<String, byte[]> xmlTemporaryCache = CmsCollectionsGenericWrapper.createLRUMap(128);
-        m_cacheXmlTemporaryEntity = Collections.synchronizedMap(xmlTemporaryCache);
-        register(CmsXmlEntityResolver.class.getName() + ".xmlEntityTemporaryCache", m_cacheXmlTemporaryEntity);
+        m_cacheXmlTemporaryEntity = createLruCache(
+            CacheType.XML_ENTITY_TEMP,
+            CmsXmlEntityResolver.class.getName() + ".xmlEntityTemporaryCache",
+            128);
 
         // permanent xml entities cache
         Map<String, byte[]> xmlPermanentCache = new HashMap<String, byte[]>(32);
@@ -1833,9 +2138,10 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
         register(CmsXmlEntityResolver.class.getName() + ".xmlEntityPermanentCache", m_cacheXmlPermanentEntity);
 
         // xml content definitions cache
-        Map<String, CmsXmlContentDefinition> contentDefinitionsCache = CmsCollectionsGenericWrapper.createLRUMap(64);
-        m_cacheContentDefinitions = Collections.synchronizedMap(contentDefinitionsCache);
-        register(CmsXmlEntityResolver.class.getName() + ".contentDefinitionsCache", m_cacheContentDefinitions);
+        m_cacheContentDefinitions = createLruCache(
+            CacheType.CONTENT_DEFINITION,
+            CmsXmlEntityResolver.class.getName() + ".contentDefinitionsCache",
+            64);
 
         // lock cache
         Map<String, CmsLock> lockCache = new HashMap<String, CmsLock>();
@@ -1848,44 +2154,52 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
         register(CmsLocaleManager.class.getName(), map);
 
         // permissions cache
-        Map<String, I_CmsPermissionHandler.CmsPermissionCheckResult> lruPermissions = CmsCollectionsGenericWrapper.createLRUMap(cacheSettings.getPermissionCacheSize());
-        m_cachePermission = Collections.synchronizedMap(lruPermissions);
-        register(CmsSecurityManager.class.getName(), lruPermissions);
+        m_cachePermission = createLruCache(
+            CacheType.PERMISSION,
+            CmsSecurityManager.class.getName(),
+            cacheSettings.getPermissionCacheSize());
 
         // user cache
-        Map<String, CmsUser> lruUsers = CmsCollectionsGenericWrapper.createLRUMap(cacheSettings.getUserCacheSize());
-        m_cacheUser = Collections.synchronizedMap(lruUsers);
-        register(CmsDriverManager.class.getName() + ".userCache", lruUsers);
+        m_cacheUser = createLruCache(
+            CacheType.USER,
+            CmsDriverManager.class.getName() + ".userCache",
+            cacheSettings.getUserCacheSize());
 
         // user list cache
-        Map<String, List<CmsUser>> lruUserList = CmsCollectionsGenericWrapper.createLRUMap(cacheSettings.getUserCacheSize());
-        m_cacheUserList = Collections.synchronizedMap(lruUserList);
-        register(CmsDriverManager.class.getName() + ".userListCache", lruUserList);
+        m_cacheUserList = createLruCache(
+            CacheType.USER_LIST,
+            CmsDriverManager.class.getName() + ".userListCache",
+            cacheSettings.getUserCacheSize());
 
         // group cache
-        Map<String, CmsGroup> lruGroup = CmsCollectionsGenericWrapper.createLRUMap(cacheSettings.getGroupCacheSize());
-        m_cacheGroup = Collections.synchronizedMap(lruGroup);
-        register(CmsDriverManager.class.getName() + ".groupCache", lruGroup);
+        m_cacheGroup = createLruCache(
+            CacheType.GROUP,
+            CmsDriverManager.class.getName() + ".groupCache",
+            cacheSettings.getGroupCacheSize());
 
         // organizational unit cache
-        Map<String, CmsOrganizationalUnit> lruOrgUnit = CmsCollectionsGenericWrapper.createLRUMap(cacheSettings.getOrgUnitCacheSize());
-        m_cacheOrgUnit = Collections.synchronizedMap(lruOrgUnit);
-        register(CmsDriverManager.class.getName() + ".orgUnitCache", lruOrgUnit);
+        m_cacheOrgUnit = createLruCache(
+            CacheType.ORG_UNIT,
+            CmsDriverManager.class.getName() + ".orgUnitCache",
+            cacheSettings.getOrgUnitCacheSize());
 
         // user groups list cache
-        Map<String, List<CmsGroup>> lruUserGroups = CmsCollectionsGenericWrapper.createLRUMap(cacheSettings.getUserGroupsCacheSize());
-        m_cacheUserGroups = Collections.synchronizedMap(lruUserGroups);
-        register(CmsDriverManager.class.getName() + ".userGroupsCache", lruUserGroups);
+        m_cacheUserGroups = createLruCache(
+            CacheType.USERGROUPS,
+            CmsDriverManager.class.getName() + ".userGroupsCache",
+            cacheSettings.getUserGroupsCacheSize());
 
         // project cache
-        Map<String, CmsProject> lruProjects = CmsCollectionsGenericWrapper.createLRUMap(cacheSettings.getProjectCacheSize());
-        m_cacheProject = Collections.synchronizedMap(lruProjects);
-        register(CmsDriverManager.class.getName() + ".projectCache", lruProjects);
+        m_cacheProject = createLruCache(
+            CacheType.PROJECT,
+            CmsDriverManager.class.getName() + ".projectCache",
+            cacheSettings.getProjectCacheSize());
 
         // project resources cache cache
-        Map<String, List<CmsResource>> lruProjectResources = CmsCollectionsGenericWrapper.createLRUMap(cacheSettings.getProjectResourcesCacheSize());
-        m_cacheProjectResources = Collections.synchronizedMap(lruProjectResources);
-        register(CmsDriverManager.class.getName() + ".projectResourcesCache", lruProjectResources);
+        m_cacheProjectResources = createLruCache(
+            CacheType.PROJECT_RESOURCES,
+            CmsDriverManager.class.getName() + ".projectResourcesCache",
+            cacheSettings.getProjectResourcesCacheSize());
 
         // publish history
         int size = configuration.getPublishManager().getPublishHistorySize();
@@ -1899,44 +2213,65 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
         register(CmsPublishQueue.class.getName() + ".publishQueue", buffer);
 
         // resource cache
-        Map<String, CmsResource> lruResources = CmsCollectionsGenericWrapper.createLRUMap(cacheSettings.getResourceCacheSize());
-        m_cacheResource = Collections.synchronizedMap(lruResources);
-        register(CmsDriverManager.class.getName() + ".resourceCache", lruResources);
+        m_cacheResource = createLruCache(
+            CacheType.RESOURCE,
+            CmsDriverManager.class.getName() + ".resourceCache",
+            cacheSettings.getResourceCacheSize());
 
         // roles cache
-        Map<String, Boolean> lruHasRoles = CmsCollectionsGenericWrapper.createLRUMap(cacheSettings.getRolesCacheSize());
-        m_cacheHasRoles = Collections.synchronizedMap(lruHasRoles);
-        register(CmsDriverManager.class.getName() + ".rolesCache", lruHasRoles);
+        m_cacheHasRoles = createLruCache(
+            CacheType.HAS_ROLE,
+            CmsDriverManager.class.getName() + ".rolesCache",
+            cacheSettings.getRolesCacheSize());
 
         // role lists cache
-        Map<String, List<CmsRole>> lruRoleLists = CmsCollectionsGenericWrapper.createLRUMap(cacheSettings.getRolesCacheSize());
-        m_cacheRoleLists = Collections.synchronizedMap(lruRoleLists);
-        register(CmsDriverManager.class.getName() + ".roleListsCache", lruRoleLists);
+        m_cacheRoleLists = createLruCache(
+            CacheType.ROLE_LIST,
+            CmsDriverManager.class.getName() + ".roleListsCache",
+            cacheSettings.getRolesCacheSize());
 
         // resource list cache
-        Map<String, List<CmsResource>> lruResourceList = CmsCollectionsGenericWrapper.createLRUMap(cacheSettings.getResourcelistCacheSize());
-        m_cacheResourceList = Collections.synchronizedMap(lruResourceList);
-        register(CmsDriverManager.class.getName() + ".resourceListCache", lruResourceList);
+        m_cacheResourceList = createLruCache(
+            CacheType.RESOURCE_LIST,
+            CmsDriverManager.class.getName() + ".resourceListCache",
+            cacheSettings.getResourcelistCacheSize());
 
         // property cache
-        Map<String, CmsProperty> lruProperty = CmsCollectionsGenericWrapper.createLRUMap(cacheSettings.getPropertyCacheSize());
-        m_cacheProperty = Collections.synchronizedMap(lruProperty);
-        register(CmsDriverManager.class.getName() + ".propertyCache", lruProperty);
+        m_cacheProperty = createLruCache(
+            CacheType.PROPERTY,
+            CmsDriverManager.class.getName() + ".propertyCache",
+            cacheSettings.getPropertyCacheSize());
 
         // property list cache
-        Map<String, List<CmsProperty>> lruPropertyList = CmsCollectionsGenericWrapper.createLRUMap(cacheSettings.getPropertyListsCacheSize());
-        m_cachePropertyList = Collections.synchronizedMap(lruPropertyList);
-        register(CmsDriverManager.class.getName() + ".propertyListCache", lruPropertyList);
+        m_cachePropertyList = createLruCache(
+            CacheType.PROPERTY_LIST,
+            CmsDriverManager.class.getName() + ".propertyListCache",
+            cacheSettings.getPropertyListsCacheSize());
 
         // published resources list cache
-        Map<String, List<CmsPublishedResource>> lruPublishedResources = CmsCollectionsGenericWrapper.createLRUMap(5);
-        m_cachePublishedResources = Collections.synchronizedMap(lruPublishedResources);
-        register(CmsDriverManager.class.getName() + ".publishedResourcesCache", lruPublishedResources);
+        m_cachePublishedResources = createLruCache(
+            CacheType.PUBLISHED_RESOURCES,
+            CmsDriverManager.class.getName() + ".publishedResourcesCache",
+            5);
+
+        // indexes for selective removal of resource related cache entries
+        m_indexResource = new CmsCacheKeyIndex(m_cacheResource, 2 * cacheSettings.getResourceCacheSize());
+        m_indexResourceIds = new CmsCacheKeyIndex(m_cacheResource, 4 * cacheSettings.getResourceCacheSize());
+        m_indexResourceList = new CmsCacheKeyIndex(m_cacheResourceList, 2 * cacheSettings.getResourcelistCacheSize());
+        m_indexResourceTreeList = new CmsCacheKeyIndex(
+            m_cacheResourceList,
+            2 * cacheSettings.getResourcelistCacheSize());
+        m_indexPropertyList = new CmsCacheKeyIndex(m_cachePropertyList, 2 * cacheSettings.getPropertyListsCacheSize());
+        m_indexPermission = new CmsCacheKeyIndex(m_cachePermission, 2 * cacheSettings.getPermissionCacheSize());
+        m_indexPermissionIds = new CmsCacheKeyIndex(m_cachePermission, 2 * cacheSettings.getPermissionCacheSize());
 
         // acl cache
-        Map<String, CmsAccessControlList> lruAcl = CmsCollectionsGenericWrapper.createLRUMap(cacheSettings.getAclCacheSize());
-        m_cacheAccessControlList = Collections.synchronizedMap(lruAcl);
-        register(CmsDriverManager.class.getName() + ".accessControlListCache", lruAcl);
+        m_cacheAccessControlList = createLruCache(
+            CacheType.ACL,
+            CmsDriverManager.class.getName() + ".accessControlListCache",
+            cacheSettings.getAclCacheSize());
+        m_indexACL = new CmsCacheKeyIndex(m_cacheAccessControlList, 2 * cacheSettings.getAclCacheSize());
+        m_indexACLIds = new CmsCacheKeyIndex(m_cacheAccessControlList, 4 * cacheSettings.getAclCacheSize());
 
         // vfs object cache
         Map<String, Object> vfsObjectCache = new HashMap<String, Object>();
@@ -2189,6 +2524,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
         for (CacheType type : CacheType.values()) {
             flushCache(type);
         }
+        CmsMetrics.shutdown();
     }
 
     /**
@@ -2237,6 +2573,22 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
         m_cacheOrgUnit.remove(orgUnit.getName());
     }
 
+    /**
+     * Removes the cached permission check results depending on the access control entries of the given resource.<p>
+     * 
+     * These are the results for the resource itself, for its siblings and, if the resource is a folder, 
+     * for all resources below it, since these inherit the access control entries.<p>
+     * 
+     * If some results were cached without registering the resource they depend on, 
+     * the whole permission cache is flushed instead.<p>
+     * 
+     * @param resource the resource whose access control entries were changed
+     */
+    public void uncachePermissions(CmsResource resource) {
+
+        uncachePermissions(resource.getRootPath(), resource.isFolder(), resource.getResourceId());
+    }
+
     /**
      * Removes the given project from the cache.<p>
      * 
@@ -2435,7 +2787,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
     /**
      * Returns the max costs for all items within a monitored object.<p>
      * 
-     * <code>obj</code> must be of type {@link CmsLruCache} or {@link LRUMap}.<p>
+     * <code>obj</code> must be of type {@link CmsLruCache}, {@link LRUMap} or {@link I_CmsCacheStatistics}.<p>
      * 
      * @param obj the object
      * 
@@ -2449,6 +2801,9 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
         if (obj instanceof LRUMap) {
             return Integer.toString(((LRUMap)obj).maxSize());
         }
+        if (obj instanceof I_CmsCacheStatistics) {
+            return Integer.toString(((I_CmsCacheStatistics)obj).getMaxSize());
+        }
 
         return "-";
     }
@@ -2562,6 +2917,27 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
         }
         content += "\nTotal size of cache memory monitored: " + totalSize + " (" + (totalSize / 1048576) + ")\n\n";
 
+        Map<CacheType, I_CmsCacheStatistics> statistics = getCacheStatistics();
+        if (!statistics.isEmpty()) {
+            content += "Cache statistics:\n\n";
+            PrintfFormat form = new PrintfFormat("%12s");
+            for (Map.Entry<CacheType, I_CmsCacheStatistics> entry : statistics.entrySet()) {
+                I_CmsCacheStatistics stats = entry.getValue();
+                content += new PrintfFormat("%-20.20s").sprintf(entry.getKey().name())
+                    + "  "
+                    + "Hits: "
+                    + form.sprintf(Long.toString(stats.getHitCount()))
+                    + "   "
+                    + "Misses: "
+                    + form.sprintf(Long.toString(stats.getMissCount()))
+                    + "   "
+                    + "Evictions: "
+                    + form.sprintf(Long.toString(stats.getEvictionCount()))
+                    + "\n";
+            }
+            content += "\n";
+        }
+
         String from = m_configuration.getEmailSender();
         List<InternetAddress> receivers = new ArrayList<InternetAddress>();
         List<String> receiverEmails = m_configuration.getEmailReceiver();
@@ -2678,6 +3054,18 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
                     new Long(totalSize / 1048576)})
 
             );
+            for (Map.Entry<CacheType, I_CmsCacheStatistics> entry : getCacheStatistics().entrySet()) {
+                I_CmsCacheStatistics stats = entry.getValue();
+                LOG.info(Messages.get().getBundle().key(
+                    Messages.LOG_MM_CACHE_STATISTICS_5,
+                    new Object[] {
+                        entry.getKey().name(),
+                        new Integer(stats.size()),
+                        new Long(stats.getHitCount()),
+                        new Long(stats.getMissCount()),
+                        new Long(stats.getEvictionCount())}));
+            }
+
             LOG.info(Messages.get().getBundle().key(
                 Messages.LOG_MM_WARNING_MEM_STATUS_AVG_6,
                 new Object[] {
@@ -2729,6 +3117,110 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
     protected void updateStatus() {
 
         m_memoryCurrent.update();
+        m_memoryCurrent.setCacheStatistics(getCacheStatistics());
         m_memoryAverage.calculateAverage(m_memoryCurrent);
     }
+
+    /**
+     * Records a cache lookup for the metrics of the current request and returns the looked up value.<p>
+     * 
+     * @param <V> the type of the cached value
+     * @param type the type of the cache
+     * @param value the looked up value, <code>null</code> if not found
+     * 
+     * @return the looked up value
+     */
+    private <V> V countLookup(CacheType type, V value) {
+
+        if (CmsMetrics.isEnabled()) {
+            CmsMetrics.addCacheLookup(type, value != null);
+        }
+        return value;
+    }
+
+    /**
+     * Creates a size limited cache according to the configured cache implementation and registers it for monitoring.<p>
+     * 
+     * @param <V> the type of the cached values
+     * @param type the type of the cache 
+     * @param name the name to register the cache with 
+     * @param size the maximum number of cached entries
+     * 
+     * @return the thread safe cache map
+     */
+    private <V> Map<String, V> createLruCache(CacheType type, String name, int size) {
+
+        if (m_cacheSettings.isConcurrentCacheImplementation()) {
+            CmsConcurrentLruMap<String, V> cache = new CmsConcurrentLruMap<String, V>(
+                size,
+                m_cacheSettings.getCacheConcurrencyLevel());
+            m_cacheStatistics.put(type, cache);
+            register(name, cache);
+            return cache;
+        }
+        Map<String, V> lruMap = CmsCollectionsGenericWrapper.createLRUMap(size);
+        register(name, lruMap);
+        return Collections.synchronizedMap(lruMap);
+    }
+
+    /**
+     * Removes the cached access control lists depending on the access control entries of the given resource.<p>
+     * 
+     * These are the access control lists of the resource itself, of its siblings and, if the resource is a folder, 
+     * of all resources below it, together with the access control lists inherited from the folder.<p>
+     * 
+     * @param rootPath the root path of the resource
+     * @param isFolder if the resource is a folder
+     * @param structureId the structure id of the resource
+     * @param resourceId the resource id of the resource
+     */
+    private void uncacheACLs(String rootPath, boolean isFolder, CmsUUID structureId, CmsUUID resourceId) {
+
+        if (m_indexACL.isIncomplete()) {
+            flushCache(CacheType.ACL);
+            return;
+        }
+        if (isFolder && !rootPath.endsWith("/")) {
+            rootPath += "/";
+        }
+        uncacheKeys(m_cacheAccessControlList, m_indexACL.removeKeysForTree(rootPath));
+        // moved resources are found by their structure id, siblings by their resource id
+        uncacheKeys(m_cacheAccessControlList, m_indexACLIds.removeKeys(structureId.toString()));
+        uncacheKeys(m_cacheAccessControlList, m_indexACLIds.removeKeys(resourceId.toString()));
+    }
+
+    /**
+     * Removes the given keys from the given cache.<p>
+     * 
+     * @param cache the cache
+     * @param keys the keys to remove
+     */
+    private void uncacheKeys(Map<String, ?> cache, Set<String> keys) {
+
+        for (String key : keys) {
+            cache.remove(key);
+        }
+    }
+
+    /**
+     * Removes the cached permission check results depending on the access control entries of the given resource.<p>
+     * 
+     * @param rootPath the root path of the resource
+     * @param isFolder if the resource is a folder
+     * @param resourceId the resource id of the resource
+     * 
+     * @see #uncachePermissions(CmsResource)
+     */
+    private void uncachePermissions(String rootPath, boolean isFolder, CmsUUID resourceId) {
+
+        if (m_indexPermission.isIncomplete()) {
+            flushCache(CacheType.PERMISSION);
+            return;
+        }
+        if (isFolder && !rootPath.endsWith("/")) {
+            rootPath += "/";
+        }
+        uncacheKeys(m_cachePermission, m_indexPermission.removeKeysForTree(rootPath));
+        uncacheKeys(m_cachePermission, m_indexPermissionIds.removeKeys(resourceId.toString()));
+    }
 }
@@ -58,6 +58,12 @@ public class CmsMemoryMonitorConfiguration {
     /** Memory limit that triggers a warning. */
     private int m_maxUsagePercent;
 
+    /** Flag indicating if metrics are collected. */
+    private boolean m_metricsEnabled;
+
+    /** Flag indicating if the request trace is added to the response as a header. */
+    private boolean m_metricsTraceHeaderEnabled;
+
     /** The interval to use for warnings if status is disabled. */
     private int m_warningInterval;
 
@@ -180,6 +186,28 @@ public class CmsMemoryMonitorConfiguration {
         m_warningInterval = Integer.parseInt(warningInterval);
     }
 
+    /**
+     * Returns if metrics are collected.<p>
+     *
+     * @return <code>true</code> if metrics are collected
+     * 
+     * @see CmsMetrics
+     */
+    public boolean isMetricsEnabled() {
+
+        return m_metricsEnabled;
+    }
+
+    /**
+     * Returns if the trace of a request is added to its response as a header.<p>
+     *
+     * @return <code>true</code> if the trace header is added
+     */
+    public boolean isMetricsTraceHeaderEnabled() {
+
+        return m_metricsTraceHeaderEnabled;
+    }
+
     /**
      * Sets the emailSender.<p>
      *
@@ -189,4 +217,16 @@ public class CmsMemoryMonitorConfiguration {
 
         m_emailSender = emailSender;
     }
+
+    /**
+     * Sets the metrics options.<p>
+     *
+     * @param enabled <code>"true"</code> if metrics are collected
+     * @param traceHeader <code>"true"</code> if the trace of a request is added to its response as a header
+     */
+    public void setMetrics(String enabled, String traceHeader) {
+
+        m_metricsEnabled = Boolean.valueOf(enabled).booleanValue();
+        m_metricsTraceHeaderEnabled = Boolean.valueOf(traceHeader).booleanValue();
+    }
 }
@@ -27,6 +27,12 @@
 
 package org.opencms.monitor;
 
+import org.opencms.cache.I_CmsCacheStatistics;
+import org.opencms.monitor.CmsMemoryMonitor.CacheType;
+
+import java.util.Collections;
+import java.util.Map;
+
 /**
  * Data structure for dealing with memory status information.<p>
  * 
@@ -34,6 +40,9 @@ package org.opencms.monitor;
  */
 public class CmsMemoryStatus {
 
+    /** The usage statistics of the memory monitor's caches. */
+    private Map<CacheType, I_CmsCacheStatistics> m_cacheStatistics = Collections.emptyMap();
+
     /** The count used to calculate the average. */
     private int m_count;
 
@@ -77,6 +86,18 @@ public class CmsMemoryStatus {
         m_count = newCount;
     }
 
+    /**
+     * Returns the usage statistics of the memory monitor's caches.<p>
+     * 
+     * Only caches that provide statistics are contained in the map.<p>
+     *
+     * @return the usage statistics of the memory monitor's caches, by cache type
+     */
+    public Map<CacheType, I_CmsCacheStatistics> getCacheStatistics() {
+
+        return m_cacheStatistics;
+    }
+
     /**
      * Returns the count used to calculate the average.<p>
      *
@@ -137,6 +158,16 @@ public class CmsMemoryStatus {
         return m_usedMemory;
     }
 
+    /**
+     * Sets the usage statistics of the memory monitor's caches.<p>
+     *
+     * @param cacheStatistics the usage statistics of the memory monitor's caches, by cache type
+     */
+    public void setCacheStatistics(Map<CacheType, I_CmsCacheStatistics> cacheStatistics) {
+
+        m_cacheStatistics = cacheStatistics;
+    }
+
     /**
      * Updates this memory status with the current memory information.<p> 
      */
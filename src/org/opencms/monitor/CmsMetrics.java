@@ -0,0 +1,558 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.monitor;
+
+import org.opencms.cache.I_CmsCacheStatistics;
+import org.opencms.json.JSONException;
+import org.opencms.json.JSONObject;
+import org.opencms.main.CmsLog;
+import org.opencms.main.OpenCms;
+import org.opencms.monitor.CmsMemoryMonitor.CacheType;
+import org.opencms.search.CmsSearchIndexingQueue;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.commons.logging.Log;
+
+/**
+ * Collects timings and counters of the OpenCms hot paths.<p>
+ * 
+ * Timers are started with {@link #startTimer()} and stopped with {@link #addTime(String, long)}.
+ * If metrics are disabled, starting a timer returns 0 and stopping it does nothing, so the instrumented
+ * code only pays for a read of a volatile field.<p>
+ * 
+ * Besides the global timers, the metrics of the request processed by the current thread are collected
+ * in a {@link CmsRequestTrace}, which is logged at debug level and can be added to the response 
+ * as the {@link #HEADER_TRACE} header.<p>
+ * 
+ * The metrics are available with JMX through {@link I_CmsMetricsMBean} and as JSON through the
+ * <code>/handleMetrics</code> request handler.<p>
+ * 
+ * @since 9.5.0
+ */
+public final class CmsMetrics {
+
+    /** The name of the response header the request trace is written to. */
+    public static final String HEADER_TRACE = "X-OpenCms-Trace";
+
+    /** The name of the MBean the metrics are registered with. */
+    public static final String MBEAN_NAME = "org.opencms:type=Metrics";
+
+    /** Timer for the executed SQL statements. */
+    public static final String TIMER_DB_QUERY = "db.query";
+
+    /** Timer for Flex includes. */
+    public static final String TIMER_FLEX_INCLUDE = "flex.include";
+
+    /** Timer for loading JSPs. */
+    public static final String TIMER_JSP_LOAD = "jsp.load";
+
+    /** Timer for permission checks. */
+    public static final String TIMER_PERMISSION_CHECK = "security.permissions";
+
+    /** Timer for reading the properties of a resource through the VFS driver. */
+    public static final String TIMER_READ_PROPERTIES = "vfs.readProperties";
+
+    /** Timer for reading a single resource through the VFS driver. */
+    public static final String TIMER_READ_RESOURCE = "vfs.readResource";
+
+    /** Timer for the requests to VFS resources. */
+    public static final String TIMER_REQUEST = "request";
+
+    /** Timer for the updates of the offline search indexes. */
+    public static final String TIMER_SEARCH_OFFLINE_UPDATE = "search.offlineUpdate";
+
+    /** The log object for this class. */
+    private static final Log LOG = CmsLog.getLog(CmsMetrics.class);
+
+    /** The maximum number of statements that are remembered as open by a single thread. */
+    private static final int MAX_OPEN_STATEMENTS = 100;
+
+    /** The start times of the statements opened by the current thread, weakly referenced by statement. */
+    private static final ThreadLocal<Map<Object, Long>> OPEN_STATEMENTS = new ThreadLocal<Map<Object, Long>>();
+
+    /** The timers by name. */
+    private static final ConcurrentMap<String, CmsMetricsTimer> TIMERS =
+        new ConcurrentHashMap<String, CmsMetricsTimer>();
+
+    /** The trace of the request processed by the current thread. */
+    private static final ThreadLocal<CmsRequestTrace> TRACES = new ThreadLocal<CmsRequestTrace>();
+
+    /** Flag indicating if metrics are collected. */
+    private static volatile boolean metricsEnabled;
+
+    /** Flag indicating if the request trace is added to the response. */
+    private static volatile boolean traceHeaderEnabled;
+
+    /**
+     * Management bean exposing the metrics with JMX.<p>
+     */
+    private static class CmsMetricsBean implements I_CmsMetricsMBean {
+
+        /**
+         * @see org.opencms.monitor.I_CmsMetricsMBean#getCacheStatistics()
+         */
+        public String[] getCacheStatistics() {
+
+            List<String> result = new ArrayList<String>();
+            for (Map.Entry<CacheType, I_CmsCacheStatistics> entry : getCacheStatisticsMap().entrySet()) {
+                I_CmsCacheStatistics stats = entry.getValue();
+                result.add(entry.getKey()
+                    + " [hits="
+                    + stats.getHitCount()
+                    + ", misses="
+                    + stats.getMissCount()
+                    + ", evictions="
+                    + stats.getEvictionCount()
+                    + ", size="
+                    + stats.size()
+                    + "]");
+            }
+            return result.toArray(new String[result.size()]);
+        }
+
+        /**
+         * @see org.opencms.monitor.I_CmsMetricsMBean#getJson()
+         */
+        public String getJson() {
+
+            try {
+                return toJson().toString();
+            } catch (JSONException e) {
+                return e.getLocalizedMessage();
+            }
+        }
+
+        /**
+         * @see org.opencms.monitor.I_CmsMetricsMBean#getTimers()
+         */
+        public String[] getTimers() {
+
+            List<String> result = new ArrayList<String>();
+            for (Map.Entry<String, CmsMetricsTimer> entry : CmsMetrics.getTimers().entrySet()) {
+                result.add(entry.getKey() + " " + entry.getValue());
+            }
+            return result.toArray(new String[result.size()]);
+        }
+
+        /**
+         * @see org.opencms.monitor.I_CmsMetricsMBean#isEnabled()
+         */
+        public boolean isEnabled() {
+
+            return CmsMetrics.isEnabled();
+        }
+
+        /**
+         * @see org.opencms.monitor.I_CmsMetricsMBean#isTraceHeaderEnabled()
+         */
+        public boolean isTraceHeaderEnabled() {
+
+            return CmsMetrics.isTraceHeaderEnabled();
+        }
+
+        /**
+         * @see org.opencms.monitor.I_CmsMetricsMBean#reset()
+         */
+        public void reset() {
+
+            CmsMetrics.reset();
+        }
+
+        /**
+         * @see org.opencms.monitor.I_CmsMetricsMBean#setEnabled(boolean)
+         */
+        public void setEnabled(boolean enabled) {
+
+            CmsMetrics.setEnabled(enabled);
+        }
+
+        /**
+         * @see org.opencms.monitor.I_CmsMetricsMBean#setTraceHeaderEnabled(boolean)
+         */
+        public void setTraceHeaderEnabled(boolean enabled) {
+
+            CmsMetrics.setTraceHeaderEnabled(enabled);
+        }
+    }
+
+    /**
+     * Hides the public constructor.<p> 
+     */
+    private CmsMetrics() {
+
+        // empty
+    }
+
+    /**
+     * Records a lookup in one of the memory monitor caches for the current request.<p>
+     * 
+     * The global hits and misses are counted by the caches themselves.<p>
+     * 
+     * @param type the cache type
+     * @param hit <code>true</code> if the lookup found a cached value
+     */
+    public static void addCacheLookup(CacheType type, boolean hit) {
+
+        CmsRequestTrace trace = TRACES.get();
+        if (trace != null) {
+            trace.addCacheLookup(type, hit);
+        }
+    }
+
+    /**
+     * Stops a timer started with {@link #startTimer()} and records the time.<p>
+     * 
+     * @param name the timer name
+     * @param start the value returned by {@link #startTimer()}
+     */
+    public static void addTime(String name, long start) {
+
+        if (start == 0) {
+            // metrics were disabled when the timer was started
+            return;
+        }
+        long nanos = System.nanoTime() - start;
+        getTimer(name).addTime(nanos);
+        CmsRequestTrace trace = TRACES.get();
+        if (trace != null) {
+            trace.addTime(name, nanos);
+        }
+    }
+
+    /**
+     * Adds the trace of the current request to the given response, if the trace header is enabled
+     * and the response is not committed yet.<p>
+     * 
+     * @param res the response
+     */
+    public static void addTraceHeader(HttpServletResponse res) {
+
+        if (!traceHeaderEnabled) {
+            return;
+        }
+        CmsRequestTrace trace = TRACES.get();
+        if ((trace != null) && !res.isCommitted() && !res.containsHeader(HEADER_TRACE)) {
+            res.setHeader(HEADER_TRACE, trace.toString());
+        }
+    }
+
+    /**
+     * Records the end of an SQL statement started with {@link #startQuery(Object)}.<p>
+     * 
+     * @param statement the statement
+     */
+    public static void endQuery(Object statement) {
+
+        if (!metricsEnabled) {
+            return;
+        }
+        Map<Object, Long> openStatements = OPEN_STATEMENTS.get();
+        if (openStatements != null) {
+            Long start = openStatements.remove(statement);
+            if (openStatements.isEmpty()) {
+                // threads outside of requests, e.g. scheduled jobs, must not keep the map
+                OPEN_STATEMENTS.remove();
+            }
+            if (start != null) {
+                addTime(TIMER_DB_QUERY, start.longValue());
+            }
+        }
+    }
+
+    /**
+     * Finishes the trace of a request started with {@link #startRequest(String)}.<p>
+     * 
+     * @param trace the trace returned by {@link #startRequest(String)}, may be <code>null</code>
+     * @param res the response, the trace header is added to it if possible
+     */
+    public static void endRequest(CmsRequestTrace trace, HttpServletResponse res) {
+
+        if (trace == null) {
+            return;
+        }
+        addTime(TIMER_REQUEST, trace.getStartTime());
+        addTraceHeader(res);
+        TRACES.remove();
+        OPEN_STATEMENTS.remove();
+        if (LOG.isDebugEnabled()) {
+            LOG.debug(Messages.get().getBundle().key(Messages.LOG_METRICS_TRACE_2, trace.getUri(), trace));
+        }
+    }
+
+    /**
+     * Returns the trace of the request processed by the current thread.<p>
+     * 
+     * @return the trace of the current request, or <code>null</code> if there is none
+     */
+    public static CmsRequestTrace getCurrentTrace() {
+
+        return TRACES.get();
+    }
+
+    /**
+     * Returns all timers sorted by name.<p>
+     * 
+     * @return all timers sorted by name
+     */
+    public static SortedMap<String, CmsMetricsTimer> getTimers() {
+
+        return Collections.unmodifiableSortedMap(new TreeMap<String, CmsMetricsTimer>(TIMERS));
+    }
+
+    /**
+     * Initializes the metrics from the memory monitor configuration and registers the MBean.<p>
+     * 
+     * @param configuration the memory monitor configuration
+     */
+    public static void initialize(CmsMemoryMonitorConfiguration configuration) {
+
+        setEnabled(configuration.isMetricsEnabled());
+        setTraceHeaderEnabled(configuration.isMetricsTraceHeaderEnabled());
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(MBEAN_NAME);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(new StandardMBean(new CmsMetricsBean(), I_CmsMetricsMBean.class), name);
+        } catch (JMException e) {
+            LOG.warn(Messages.get().getBundle().key(Messages.LOG_METRICS_MBEAN_FAILED_1, MBEAN_NAME), e);
+        }
+    }
+
+    /**
+     * Returns if metrics are collected.<p>
+     * 
+     * @return <code>true</code> if metrics are collected
+     */
+    public static boolean isEnabled() {
+
+        return metricsEnabled;
+    }
+
+    /**
+     * Returns if the trace of a request is added to its response as a header.<p>
+     * 
+     * @return <code>true</code> if the trace header is added
+     */
+    public static boolean isTraceHeaderEnabled() {
+
+        return traceHeaderEnabled;
+    }
+
+    /**
+     * Resets all timers.<p>
+     */
+    public static void reset() {
+
+        TIMERS.clear();
+    }
+
+    /**
+     * Enables or disables the collection of metrics.<p>
+     * 
+     * @param enabled <code>true</code> to collect metrics
+     */
+    public static void setEnabled(boolean enabled) {
+
+        metricsEnabled = enabled;
+    }
+
+    /**
+     * Enables or disables the trace header.<p>
+     * 
+     * @param enabled <code>true</code> to add the trace of a request to its response as a header
+     */
+    public static void setTraceHeaderEnabled(boolean enabled) {
+
+        traceHeaderEnabled = enabled;
+    }
+
+    /**
+     * Unregisters the MBean.<p>
+     */
+    public static void shutdown() {
+
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(MBEAN_NAME);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+        } catch (JMException e) {
+            LOG.warn(Messages.get().getBundle().key(Messages.LOG_METRICS_MBEAN_FAILED_1, MBEAN_NAME), e);
+        }
+    }
+
+    /**
+     * Records the start of an SQL statement, to be finished with {@link #endQuery(Object)}.<p>
+     * 
+     * @param statement the statement
+     */
+    public static void startQuery(Object statement) {
+
+        if (!metricsEnabled) {
+            return;
+        }
+        Map<Object, Long> openStatements = OPEN_STATEMENTS.get();
+        if (openStatements == null) {
+            openStatements = new WeakHashMap<Object, Long>();
+            OPEN_STATEMENTS.set(openStatements);
+        } else if (openStatements.size() >= MAX_OPEN_STATEMENTS) {
+            // statements that are not closed through the SQL manager must not pile up here
+            openStatements.clear();
+        }
+        openStatements.put(statement, Long.valueOf(System.nanoTime()));
+    }
+
+    /**
+     * Starts the trace of a request, to be finished with {@link #endRequest(CmsRequestTrace, HttpServletResponse)}.<p>
+     * 
+     * @param uri the requested URI
+     * 
+     * @return the new trace, or <code>null</code> if metrics are disabled
+     */
+    public static CmsRequestTrace startRequest(String uri) {
+
+        if (!metricsEnabled) {
+            return null;
+        }
+        CmsRequestTrace trace = new CmsRequestTrace(uri);
+        TRACES.set(trace);
+        return trace;
+    }
+
+    /**
+     * Starts a timer, to be stopped with {@link #addTime(String, long)}.<p>
+     * 
+     * @return the start time in nanoseconds, or 0 if metrics are disabled
+     */
+    public static long startTimer() {
+
+        return metricsEnabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Returns all timers, the statistics of the memory monitor caches and of the offline indexing queue as JSON.<p>
+     * 
+     * All times are given in microseconds, except the lag of the offline indexing queue in milliseconds.<p>
+     * 
+     * @return the metrics as JSON
+     * 
+     * @throws JSONException if something goes wrong
+     */
+    public static JSONObject toJson() throws JSONException {
+
+        JSONObject result = new JSONObject();
+        result.put("enabled", metricsEnabled);
+        JSONObject timers = new JSONObject();
+        for (Map.Entry<String, CmsMetricsTimer> entry : getTimers().entrySet()) {
+            CmsMetricsTimer timer = entry.getValue();
+            JSONObject json = new JSONObject();
+            json.put("count", timer.getCount());
+            json.put("totalTime", timer.getTotalTime());
+            json.put("averageTime", timer.getAverageTime());
+            json.put("maxTime", timer.getMaxTime());
+            timers.put(entry.getKey(), json);
+        }
+        result.put("timers", timers);
+        JSONObject caches = new JSONObject();
+        for (Map.Entry<CacheType, I_CmsCacheStatistics> entry : getCacheStatisticsMap().entrySet()) {
+            I_CmsCacheStatistics stats = entry.getValue();
+            JSONObject json = new JSONObject();
+            json.put("hits", stats.getHitCount());
+            json.put("misses", stats.getMissCount());
+            json.put("evictions", stats.getEvictionCount());
+            json.put("size", stats.size());
+            json.put("maxSize", stats.getMaxSize());
+            caches.put(entry.getKey().name(), json);
+        }
+        result.put("caches", caches);
+        if (OpenCms.getSearchManager() != null) {
+            CmsSearchIndexingQueue queue = OpenCms.getSearchManager().getOfflineIndexingQueue();
+            JSONObject json = new JSONObject();
+            json.put("size", queue.size());
+            json.put("lag", queue.getLag());
+            json.put("coalesced", queue.getCoalescedCount());
+            json.put("processed", queue.getProcessedCount());
+            json.put("batches", queue.getBatchCount());
+            result.put("offlineIndexingQueue", json);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the statistics of the memory monitor caches.<p>
+     * 
+     * @return the cache statistics, empty if the memory monitor is not initialized
+     */
+    private static Map<CacheType, I_CmsCacheStatistics> getCacheStatisticsMap() {
+
+        CmsMemoryMonitor monitor = OpenCms.getMemoryMonitor();
+        if (monitor == null) {
+            return Collections.emptyMap();
+        }
+        return monitor.getCacheStatistics();
+    }
+
+    /**
+     * Returns the timer with the given name, creating it if required.<p>
+     * 
+     * @param name the timer name
+     * 
+     * @return the timer
+     */
+    private static CmsMetricsTimer getTimer(String name) {
+
+        CmsMetricsTimer timer = TIMERS.get(name);
+        if (timer == null) {
+            timer = new CmsMetricsTimer();
+            CmsMetricsTimer existing = TIMERS.putIfAbsent(name, timer);
+            if (existing != null) {
+                timer = existing;
+            }
+        }
+        return timer;
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.monitor;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Collects the number of calls and the time spent in a monitored code section.<p>
+ * 
+ * Times are measured inclusive, so a timer for a nested section also counts the time
+ * spent in the same section further down the call stack.<p>
+ * 
+ * @since 9.5.0
+ * 
+ * @see CmsMetrics#getTimers()
+ */
+public class CmsMetricsTimer {
+
+    /** The number of recorded calls. */
+    private AtomicLong m_count = new AtomicLong();
+
+    /** The longest time of a call in nanoseconds. */
+    private AtomicLong m_maxTime = new AtomicLong();
+
+    /** The total time of all calls in nanoseconds. */
+    private AtomicLong m_totalTime = new AtomicLong();
+
+    /**
+     * Returns the average time of a call in microseconds.<p>
+     * 
+     * @return the average time of a call in microseconds
+     */
+    public long getAverageTime() {
+
+        long count = m_count.get();
+        return count == 0 ? 0 : (m_totalTime.get() / count) / 1000L;
+    }
+
+    /**
+     * Returns the number of recorded calls.<p>
+     * 
+     * @return the number of recorded calls
+     */
+    public long getCount() {
+
+        return m_count.get();
+    }
+
+    /**
+     * Returns the longest time of a call in microseconds.<p>
+     * 
+     * @return the longest time of a call in microseconds
+     */
+    public long getMaxTime() {
+
+        return m_maxTime.get() / 1000L;
+    }
+
+    /**
+     * Returns the total time of all calls in microseconds.<p>
+     * 
+     * @return the total time of all calls in microseconds
+     */
+    public long getTotalTime() {
+
+        return m_totalTime.get() / 1000L;
+    }
+
+    /**
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+
+        return "[count="
+            + getCount()
+            + ", total="
+            + getTotalTime()
+            + "us, average="
+            + getAverageTime()
+            + "us, max="
+            + getMaxTime()
+            + "us]";
+    }
+
+    /**
+     * Records the time of a call.<p>
+     * 
+     * @param nanos the time of the call in nanoseconds
+     */
+    protected void addTime(long nanos) {
+
+        m_count.incrementAndGet();
+        m_totalTime.addAndGet(nanos);
+        long max = m_maxTime.get();
+        while ((nanos > max) && !m_maxTime.compareAndSet(max, nanos)) {
+            max = m_maxTime.get();
+        }
+    }
+}
@@ -0,0 +1,248 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.monitor;
+
+import org.opencms.monitor.CmsMemoryMonitor.CacheType;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Collects the metrics of a single request.<p>
+ * 
+ * A trace is only used by the thread processing the request, so it is not synchronized.<p>
+ * 
+ * @since 9.5.0
+ * 
+ * @see CmsMetrics#getCurrentTrace()
+ */
+public class CmsRequestTrace {
+
+    /** The number of cache hits by cache type. */
+    private int[] m_cacheHits;
+
+    /** The number of cache misses by cache type. */
+    private int[] m_cacheMisses;
+
+    /** The start time of the request in nanoseconds. */
+    private long m_startTime;
+
+    /** The number of calls and the time in nanoseconds by timer name. */
+    private Map<String, long[]> m_times;
+
+    /** The requested URI. */
+    private String m_uri;
+
+    /**
+     * Creates a new trace for the given URI.<p>
+     * 
+     * @param uri the requested URI
+     */
+    public CmsRequestTrace(String uri) {
+
+        m_uri = uri;
+        m_startTime = System.nanoTime();
+        m_cacheHits = new int[CacheType.values().length];
+        m_cacheMisses = new int[CacheType.values().length];
+        m_times = new LinkedHashMap<String, long[]>();
+    }
+
+    /**
+     * Returns the number of cache hits of this request.<p>
+     * 
+     * @return the number of cache hits
+     */
+    public int getCacheHits() {
+
+        int result = 0;
+        for (int hits : m_cacheHits) {
+            result += hits;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of cache hits of this request for the given cache type.<p>
+     * 
+     * @param type the cache type
+     * 
+     * @return the number of cache hits
+     */
+    public int getCacheHits(CacheType type) {
+
+        return m_cacheHits[type.ordinal()];
+    }
+
+    /**
+     * Returns the number of cache misses of this request.<p>
+     * 
+     * @return the number of cache misses
+     */
+    public int getCacheMisses() {
+
+        int result = 0;
+        for (int misses : m_cacheMisses) {
+            result += misses;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of cache misses of this request for the given cache type.<p>
+     * 
+     * @param type the cache type
+     * 
+     * @return the number of cache misses
+     */
+    public int getCacheMisses(CacheType type) {
+
+        return m_cacheMisses[type.ordinal()];
+    }
+
+    /**
+     * Returns the number of calls recorded for the given timer in this request.<p>
+     * 
+     * @param name the timer name
+     * 
+     * @return the number of calls
+     */
+    public long getCount(String name) {
+
+        long[] values = m_times.get(name);
+        return values == null ? 0 : values[0];
+    }
+
+    /**
+     * Returns the time since the start of the request in microseconds.<p>
+     * 
+     * @return the time since the start of the request in microseconds
+     */
+    public long getDuration() {
+
+        return (System.nanoTime() - m_startTime) / 1000L;
+    }
+
+    /**
+     * Returns the time recorded for the given timer in this request in microseconds.<p>
+     * 
+     * @param name the timer name
+     * 
+     * @return the time in microseconds
+     */
+    public long getTime(String name) {
+
+        long[] values = m_times.get(name);
+        return values == null ? 0 : values[1] / 1000L;
+    }
+
+    /**
+     * Returns the requested URI.<p>
+     * 
+     * @return the requested URI
+     */
+    public String getUri() {
+
+        return m_uri;
+    }
+
+    /**
+     * Returns the trace in the format used for the trace response header.<p>
+     * 
+     * The result looks like <code>total=12.5ms; cache=120/4; db.query=8/3.2ms</code>,
+     * where the cache entry lists the hits and misses and the other entries list the number of calls 
+     * and the time.<p>
+     * 
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+
+        StringBuffer result = new StringBuffer(128);
+        result.append("total=").append(formatTime(getDuration()));
+        result.append("; cache=").append(getCacheHits()).append('/').append(getCacheMisses());
+        for (Map.Entry<String, long[]> entry : m_times.entrySet()) {
+            result.append("; ").append(entry.getKey()).append('=').append(entry.getValue()[0]).append('/');
+            result.append(formatTime(entry.getValue()[1] / 1000L));
+        }
+        return result.toString();
+    }
+
+    /**
+     * Records a cache lookup.<p>
+     * 
+     * @param type the cache type
+     * @param hit <code>true</code> if the lookup found a cached value
+     */
+    protected void addCacheLookup(CacheType type, boolean hit) {
+
+        if (hit) {
+            m_cacheHits[type.ordinal()]++;
+        } else {
+            m_cacheMisses[type.ordinal()]++;
+        }
+    }
+
+    /**
+     * Records the time of a call for the given timer.<p>
+     * 
+     * @param name the timer name
+     * @param nanos the time of the call in nanoseconds
+     */
+    protected void addTime(String name, long nanos) {
+
+        long[] values = m_times.get(name);
+        if (values == null) {
+            values = new long[2];
+            m_times.put(name, values);
+        }
+        values[0]++;
+        values[1] += nanos;
+    }
+
+    /**
+     * Returns the start time of the request in nanoseconds.<p>
+     * 
+     * @return the start time of the request in nanoseconds
+     */
+    protected long getStartTime() {
+
+        return m_startTime;
+    }
+
+    /**
+     * Formats a time given in microseconds as milliseconds with one decimal.<p>
+     * 
+     * @param micros the time in microseconds
+     * 
+     * @return the formatted time
+     */
+    private String formatTime(long micros) {
+
+        return (micros / 1000L) + "." + ((micros % 1000L) / 100L) + "ms";
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.monitor;
+
+/**
+ * Management interface of the OpenCms metrics, registered with the platform MBean server
+ * under the name <code>org.opencms:type=Metrics</code>.<p>
+ * 
+ * All times are given in microseconds.<p>
+ * 
+ * @since 9.5.0
+ * 
+ * @see CmsMetrics
+ */
+public interface I_CmsMetricsMBean {
+
+    /**
+     * Returns the hits and misses of all memory monitor caches, one line per cache.<p>
+     * 
+     * @return the cache statistics
+     */
+    String[] getCacheStatistics();
+
+    /**
+     * Returns all metrics as JSON.<p>
+     * 
+     * @return all metrics as JSON
+     */
+    String getJson();
+
+    /**
+     * Returns the statistics of all timers, one line per timer.<p>
+     * 
+     * @return the timer statistics
+     */
+    String[] getTimers();
+
+    /**
+     * Returns if metrics are collected.<p>
+     * 
+     * @return <code>true</code> if metrics are collected
+     */
+    boolean isEnabled();
+
+    /**
+     * Returns if the trace of a request is added to its response as a header.<p>
+     * 
+     * @return <code>true</code> if the trace header is added
+     */
+    boolean isTraceHeaderEnabled();
+
+    /**
+     * Resets all timers.<p>
+     */
+    void reset();
+
+    /**
+     * Enables or disables the collection of metrics.<p>
+     * 
+     * @param enabled <code>true</code> to collect metrics
+     */
+    void setEnabled(boolean enabled);
+
+    /**
+     * Enables or disables the trace header.<p>
+     * 
+     * @param enabled <code>true</code> to add the trace of a request to its response as a header
+     */
+    void setTraceHeaderEnabled(boolean enabled);
+}
@@ -43,6 +43,15 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String LOG_CLEAR_CACHE_MEM_CONS_0 = "LOG_CLEAR_CACHE_MEM_CONS_0";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_METRICS_MBEAN_FAILED_1 = "LOG_METRICS_MBEAN_FAILED_1";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_METRICS_TRACE_2 = "LOG_METRICS_TRACE_2";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_MM_CACHE_STATISTICS_5 = "LOG_MM_CACHE_STATISTICS_5";
+
     /** Message constant for key in the resource bundle. */
     public static final String LOG_MM_CONNECTIONS_3 = "LOG_MM_CONNECTIONS_3";
 
@@ -73,6 +82,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String LOG_MM_LOG_INFO_2 = "LOG_MM_LOG_INFO_2";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_MM_METRICS_2 = "LOG_MM_METRICS_2";
+
     /** Message constant for key in the resource bundle. */
     public static final String LOG_MM_NOWARN_STATUS_5 = "LOG_MM_NOWARN_STATUS_5";
 
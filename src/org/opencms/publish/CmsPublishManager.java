@@ -97,6 +97,9 @@ public class CmsPublishManager {
     /** The amount of time to wait for a publish job during shutdown. */
     private int m_publishQueueShutdowntime;
 
+    /** The number of threads publishing files in parallel. */
+    private int m_publishThreads = 1;
+
     /** The security manager. */
     private CmsSecurityManager m_securityManager;
 
@@ -398,6 +401,18 @@ public class CmsPublishManager {
         return m_publishQueueShutdowntime;
     }
 
+    /**
+     * Returns the number of threads publishing the files of a publish list in parallel.<p>
+     * 
+     * The default is <code>1</code>, i.e. the files are published one after another.<p>
+     *
+     * @return the number of threads publishing files in parallel
+     */
+    public int getPublishThreads() {
+
+        return m_publishThreads;
+    }
+
     /**
      * Returns a new publish list that contains the unpublished resources related
      * to all resources in the given publish list, the related resources exclude
@@ -697,6 +712,19 @@ public class CmsPublishManager {
         m_publishQueueShutdowntime = Integer.parseInt(publishQueueShutdowntime);
     }
 
+    /**
+     * Sets the number of threads publishing the files of a publish list in parallel.<p>
+     *
+     * @param publishThreads the number of threads to set, parsed as <code>int</code>
+     */
+    public void setPublishThreads(String publishThreads) {
+
+        if (m_frozen) {
+            throw new CmsRuntimeException(Messages.get().container(Messages.ERR_CONFIG_FROZEN_0));
+        }
+        m_publishThreads = Math.max(1, Integer.parseInt(publishThreads.trim()));
+    }
+
     /**
      * Sets the security manager during initialization.<p>
      *
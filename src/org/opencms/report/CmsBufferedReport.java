@@ -0,0 +1,176 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.report;
+
+import org.opencms.i18n.CmsMessageContainer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Report that collects the output of one worker thread, so that it can be 
+ * written to the report of the main thread in one piece after the worker has finished.<p>
+ * 
+ * This prevents the output of worker threads running in parallel, e.g. indexing 
+ * or publishing threads, from being mixed up.<p>
+ * 
+ * @since 9.5.0 
+ */
+public class CmsBufferedReport extends A_CmsReport {
+
+    /**
+     * A single collected report entry.<p>
+     */
+    private static class Entry {
+
+        /** The message to print, <code>null</code> for a line break or an exception. */
+        CmsMessageContainer m_container;
+
+        /** The format of the message. */
+        int m_format;
+
+        /** Signals whether a line break follows the message. */
+        boolean m_newline;
+
+        /** The exception to print. */
+        Throwable m_throwable;
+    }
+
+    /** The collected report entries. */
+    private List<Entry> m_entries;
+
+    /** The report the collected entries are written to. */
+    private I_CmsReport m_report;
+
+    /**
+     * Creates a new buffered report.<p>
+     * 
+     * @param report the report the collected entries are written to
+     */
+    public CmsBufferedReport(I_CmsReport report) {
+
+        init(report.getLocale(), report.getSiteRoot());
+        m_report = report;
+        m_entries = new ArrayList<Entry>();
+    }
+
+    /**
+     * Writes all collected entries to the wrapped report.<p>
+     * 
+     * This must be called by the thread that owns the wrapped report.<p>
+     */
+    public synchronized void flush() {
+
+        for (Entry entry : m_entries) {
+            if (entry.m_throwable != null) {
+                m_report.println(entry.m_throwable);
+            } else if (entry.m_container == null) {
+                m_report.println();
+            } else if (entry.m_newline) {
+                m_report.println(entry.m_container, entry.m_format);
+            } else {
+                m_report.print(entry.m_container, entry.m_format);
+            }
+        }
+        m_entries.clear();
+    }
+
+    /**
+     * @see org.opencms.report.I_CmsReport#getReportUpdate()
+     */
+    public String getReportUpdate() {
+
+        return "";
+    }
+
+    /**
+     * @see org.opencms.report.A_CmsReport#print(org.opencms.i18n.CmsMessageContainer, int)
+     */
+    @Override
+    public void print(CmsMessageContainer container, int format) {
+
+        add(container, format, false, null);
+    }
+
+    /**
+     * @see org.opencms.report.I_CmsReport#println()
+     */
+    public void println() {
+
+        add(null, FORMAT_DEFAULT, true, null);
+    }
+
+    /**
+     * @see org.opencms.report.A_CmsReport#println(org.opencms.i18n.CmsMessageContainer, int)
+     */
+    @Override
+    public void println(CmsMessageContainer container, int format) {
+
+        add(container, format, true, null);
+    }
+
+    /**
+     * @see org.opencms.report.I_CmsReport#println(java.lang.Throwable)
+     */
+    public void println(Throwable t) {
+
+        add(null, FORMAT_DEFAULT, true, t);
+    }
+
+    /**
+     * @see org.opencms.report.A_CmsReport#print(java.lang.String, int)
+     */
+    @Override
+    protected void print(String value, int format) {
+
+        add(
+            Messages.get().container(Messages.RPT_ARGUMENT_1, value),
+            format,
+            false,
+            null);
+    }
+
+    /**
+     * Collects a report entry.<p>
+     * 
+     * @param container the message to print
+     * @param format the format of the message
+     * @param newline signals whether a line break follows the message
+     * @param t the exception to print
+     */
+    private synchronized void add(CmsMessageContainer container, int format, boolean newline, Throwable t) {
+
+        Entry entry = new Entry();
+        entry.m_container = container;
+        entry.m_format = format;
+        entry.m_newline = newline;
+        entry.m_throwable = t;
+        m_entries.add(entry);
+        setLastEntryTime(System.currentTimeMillis());
+    }
+}
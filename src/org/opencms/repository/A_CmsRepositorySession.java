@@ -29,6 +29,10 @@ package org.opencms.repository;
 
 import org.opencms.file.CmsResource;
 
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * Abstract implementation of the interface {@link I_CmsRepositorySession} to provide
  * the functionality of filtering items.<p>
@@ -50,6 +54,23 @@ public abstract class A_CmsRepositorySession implements I_CmsRepositorySession {
         return m_filter;
     }
 
+    /**
+     * Returns the locks by reading the lock of each item separately.<p>
+     * 
+     * @see org.opencms.repository.I_CmsRepositorySession#getLocks(java.util.List)
+     */
+    public Map<String, CmsRepositoryLockInfo> getLocks(List<I_CmsRepositoryItem> items) {
+
+        Map<String, CmsRepositoryLockInfo> result = new HashMap<String, CmsRepositoryLockInfo>();
+        for (I_CmsRepositoryItem item : items) {
+            CmsRepositoryLockInfo lock = getLock(item.getName());
+            if (lock != null) {
+                result.put(item.getName(), lock);
+            }
+        }
+        return result;
+    }
+
     /**
      * Sets the filter.<p>
      *
@@ -32,10 +32,15 @@ import org.opencms.file.CmsPropertyDefinition;
 import org.opencms.file.CmsResource;
 import org.opencms.file.CmsResourceFilter;
 import org.opencms.file.wrapper.CmsObjectWrapper;
+import org.opencms.loader.CmsDumpLoader;
 import org.opencms.loader.CmsResourceManager;
+import org.opencms.loader.I_CmsResourceLoader;
 import org.opencms.main.CmsException;
 import org.opencms.main.OpenCms;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+
 /**
  * Represents a single entry in the repository. In the context of OpenCms
  * this means a single {@link CmsResource}.<p>
@@ -102,6 +107,31 @@ public class CmsRepositoryItem implements I_CmsRepositoryItem {
         return m_resource.getLength();
     }
 
+    /**
+     * @see org.opencms.repository.I_CmsRepositoryItem#getContentStream()
+     */
+    public InputStream getContentStream() {
+
+        if (!m_resource.isFile()) {
+            return null;
+        }
+
+        if ((m_content == null) && (m_resource.getLength() > getStreamThreshold())) {
+            try {
+                // stream large contents, this returns null if the content is changed by a wrapper
+                InputStream stream = m_cms.readContentStream(m_resource);
+                if (stream != null) {
+                    return stream;
+                }
+            } catch (CmsException ex) {
+                // noop
+            }
+        }
+
+        byte[] content = getContent();
+        return (content != null) ? new ByteArrayInputStream(content) : null;
+    }
+
     /**
      * @see org.opencms.repository.I_CmsRepositoryItem#getCreationDate()
      */
@@ -155,6 +185,16 @@ public class CmsRepositoryItem implements I_CmsRepositoryItem {
         return m_cms.getRequestContext().removeSiteRoot(m_resource.getRootPath());
     }
 
+    /**
+     * Returns the resource this item is used for.<p>
+     * 
+     * @return the resource this item is used for
+     */
+    public CmsResource getResource() {
+
+        return m_resource;
+    }
+
     /**
      * @see org.opencms.repository.I_CmsRepositoryItem#isCollection()
      */
@@ -163,4 +203,22 @@ public class CmsRepositoryItem implements I_CmsRepositoryItem {
         return m_resource.isFolder();
     }
 
+    /**
+     * Returns the size in bytes above which the content is streamed.<p>
+     * 
+     * The stream threshold of the dump loader is used, so binary files are handled 
+     * the same way as when they are delivered by OpenCms directly.<p>
+     * 
+     * @return the size in bytes above which the content is streamed, or <code>-1</code> to never stream the content
+     */
+    private long getStreamThreshold() {
+
+        I_CmsResourceLoader loader = OpenCms.getResourceManager().getLoader(CmsDumpLoader.RESOURCE_LOADER_ID);
+        if (loader instanceof CmsDumpLoader) {
+            long threshold = ((CmsDumpLoader)loader).getStreamThreshold();
+            return (threshold >= 0) ? threshold : Long.MAX_VALUE;
+        }
+        return CmsDumpLoader.DEFAULT_STREAM_THRESHOLD;
+    }
+
 }
@@ -41,12 +41,15 @@ import org.opencms.main.CmsLog;
 import org.opencms.main.OpenCms;
 import org.opencms.security.CmsSecurityException;
 import org.opencms.util.CmsFileUtil;
+import org.opencms.util.CmsUUID;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.commons.logging.Log;
 
@@ -252,6 +255,47 @@ public class CmsRepositorySession extends A_CmsRepositorySession {
         }
     }
 
+    /**
+     * Reads the locks of the resources the listed items are based on, without reading the resources again,
+     * and reads each lock owner only once.<p>
+     * 
+     * @see org.opencms.repository.A_CmsRepositorySession#getLocks(java.util.List)
+     */
+    @Override
+    public Map<String, CmsRepositoryLockInfo> getLocks(List<I_CmsRepositoryItem> items) {
+
+        Map<String, CmsRepositoryLockInfo> result = new HashMap<String, CmsRepositoryLockInfo>();
+        Map<CmsUUID, CmsUser> owners = new HashMap<CmsUUID, CmsUser>();
+        for (I_CmsRepositoryItem item : items) {
+            if (!(item instanceof CmsRepositoryItem)) {
+                CmsRepositoryLockInfo lock = getLock(item.getName());
+                if (lock != null) {
+                    result.put(item.getName(), lock);
+                }
+                continue;
+            }
+            try {
+                CmsLock cmsLock = m_cms.getLock(((CmsRepositoryItem)item).getResource());
+                if (!cmsLock.isUnlocked()) {
+                    CmsRepositoryLockInfo lockInfo = new CmsRepositoryLockInfo();
+                    lockInfo.setPath(validatePath(item.getName()));
+                    if (!owners.containsKey(cmsLock.getUserId())) {
+                        owners.put(cmsLock.getUserId(), m_cms.readUser(cmsLock.getUserId()));
+                    }
+                    CmsUser owner = owners.get(cmsLock.getUserId());
+                    if (owner != null) {
+                        lockInfo.setUsername(owner.getName());
+                        lockInfo.setOwner(owner.getName() + "||" + owner.getEmail());
+                    }
+                    result.put(item.getName(), lockInfo);
+                }
+            } catch (CmsException ex) {
+                // error occurred while finding the lock, handle the item as not locked
+            }
+        }
+        return result;
+    }
+
     /**
      * @see org.opencms.repository.I_CmsRepositorySession#list(java.lang.String)
      */
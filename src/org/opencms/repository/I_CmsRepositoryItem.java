@@ -27,6 +27,8 @@
 
 package org.opencms.repository;
 
+import java.io.InputStream;
+
 /**
  * This class represents items in the repository interface. That can be
  * files or folders (collections). <p>
@@ -49,6 +51,16 @@ public interface I_CmsRepositoryItem {
      */
     long getContentLength();
 
+    /**
+     * Returns the content of this item as a stream.<p>
+     * 
+     * Large contents are streamed from the database if possible, so the returned 
+     * stream must always be closed by the caller.<p>
+     * 
+     * @return the content of this item as a stream
+     */
+    InputStream getContentStream();
+
     /**
      * Returns the date of the creation of this item.<p>
      * 
@@ -32,6 +32,7 @@ import org.opencms.main.CmsException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.List;
+import java.util.Map;
 
 /**
  * A repository session which provides basic file and folder operations
@@ -101,6 +102,17 @@ public interface I_CmsRepositorySession {
      */
     CmsRepositoryLockInfo getLock(String path);
 
+    /**
+     * Returns the locks for a list of items at once.<p>
+     * 
+     * This is used to prefetch the locks of many items, e.g. when listing a folder.<p>
+     * 
+     * @param items the items to return the locks for
+     * 
+     * @return the found locks keyed by the item name, items that are not locked are not contained
+     */
+    Map<String, CmsRepositoryLockInfo> getLocks(List<I_CmsRepositoryItem> items);
+
     /**
      * Returns a list with all items found directly in the given path.<p>
      * 
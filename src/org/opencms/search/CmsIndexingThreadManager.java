@@ -28,23 +28,56 @@
 package org.opencms.search;
 
 import org.opencms.db.CmsPublishedResource;
+import org.opencms.file.CmsObject;
 import org.opencms.file.CmsResource;
 import org.opencms.i18n.CmsMessageContainer;
+import org.opencms.main.CmsException;
 import org.opencms.main.CmsLog;
+import org.opencms.main.OpenCms;
+import org.opencms.report.CmsBufferedReport;
 import org.opencms.report.CmsLogReport;
 import org.opencms.report.I_CmsReport;
 
 import java.io.IOException;
+import java.util.LinkedList;
 
 import org.apache.commons.logging.Log;
 
 /**
  * Implements the management of indexing threads.<p>
  * 
+ * Up to the configured number of indexing threads extract the content of resources in parallel.
+ * The resulting documents are written to the index by the thread using this manager, 
+ * in the order the resources have been handed to the manager.<p>
+ * 
  * @since 6.0.0 
  */
 public class CmsIndexingThreadManager {
 
+    /**
+     * An indexing thread that has been started, but whose result has not yet been written to the index.<p>
+     */
+    private static class PendingThread {
+
+        /** The indexer the thread was started for. */
+        CmsVfsIndexer m_indexer;
+
+        /** The report collecting the output of the thread, or <code>null</code>. */
+        CmsBufferedReport m_report;
+
+        /** The resource indexed by the thread. */
+        CmsResource m_resource;
+
+        /** The time the thread was started. */
+        long m_startTime;
+
+        /** The indexing thread. */
+        CmsIndexingThread m_thread;
+
+        /** The index writer to write the result to. */
+        I_CmsIndexWriter m_writer;
+    }
+
     /** The log object for this class. */
     private static final Log LOG = CmsLog.getLog(CmsIndexingThreadManager.class);
 
@@ -60,15 +93,27 @@ public class CmsIndexingThreadManager {
     /** The maximum number of modifications before a commit in the search index is triggered. */
     private int m_maxModificationsBeforeCommit;
 
+    /** The maximum number of indexing threads running in parallel. */
+    private int m_maxThreads;
+
+    /** The started indexing threads whose results have not yet been written to the index, in start order. */
+    private LinkedList<PendingThread> m_pendingThreads;
+
     /** Number of thread returned. */
     private int m_returnedCounter;
 
+    /** The time this thread manager was created. */
+    private long m_startTime;
+
     /** Overall number of threads started. */
     private int m_startedCounter;
 
     /** Timeout for abandoning threads. */
     private long m_timeout;
 
+    /** Number of documents written to the index. */
+    private int m_writtenCounter;
+
     /**
      * Creates and starts a thread manager for indexing threads.<p>
      * 
@@ -77,17 +122,36 @@ public class CmsIndexingThreadManager {
      */
     public CmsIndexingThreadManager(long timeout, int maxModificationsBeforeCommit) {
 
+        this(timeout, maxModificationsBeforeCommit, 1);
+    }
+
+    /**
+     * Creates and starts a thread manager for indexing threads.<p>
+     * 
+     * @param timeout timeout after a thread is abandoned
+     * @param maxModificationsBeforeCommit the maximum number of modifications before a commit in the search index is triggered
+     * @param maxThreads the maximum number of indexing threads running in parallel
+     */
+    public CmsIndexingThreadManager(long timeout, int maxModificationsBeforeCommit, int maxThreads) {
+
         m_timeout = timeout;
         m_maxModificationsBeforeCommit = maxModificationsBeforeCommit;
+        m_maxThreads = Math.max(1, maxThreads);
+        m_pendingThreads = new LinkedList<PendingThread>();
+        m_startTime = System.currentTimeMillis();
     }
 
     /**
      * Creates and starts a new indexing thread for a resource.<p>
      * 
-     * After an indexing thread was started, the manager suspends itself 
-     * and waits for an amount of time specified by the <code>timeout</code>
-     * value. If the timeout value is reached, the indexing thread is
-     * aborted by an interrupt signal.<p>
+     * If the maximum number of indexing threads is already running, the manager waits 
+     * for the oldest indexing thread and writes its result to the index first.
+     * It waits for an amount of time specified by the <code>timeout</code>
+     * value after the thread was started. If the timeout value is reached, 
+     * the indexing thread is aborted by an interrupt signal.<p>
+     * 
+     * Use {@link #finishIndexingThreads()} (or {@link #isRunning()}) to write 
+     * the results of all remaining indexing threads to the index.<p>
      * 
      * @param indexer the VFS indexer to create the index thread for 
      * @param writer the index writer that can update the index
@@ -95,71 +159,76 @@ public class CmsIndexingThreadManager {
      */
     public void createIndexingThread(CmsVfsIndexer indexer, I_CmsIndexWriter writer, CmsResource res) {
 
-        I_CmsReport report = indexer.getReport();
-        m_startedCounter++;
-        CmsIndexingThread thread = new CmsIndexingThread(
-            indexer.getCms(),
-            res,
-            indexer.getIndex(),
-            m_startedCounter,
-            report);
-        thread.setPriority(Thread.MIN_PRIORITY);
-        thread.start();
-        try {
-            thread.join(m_timeout);
-        } catch (InterruptedException e) {
-            // ignore
+        while (m_pendingThreads.size() >= m_maxThreads) {
+            finishIndexingThread(m_pendingThreads.removeFirst());
         }
-        if (thread.isAlive()) {
-            // the thread has not finished - so it must be marked as an abandoned thread 
-            m_abandonedCounter++;
-            thread.interrupt();
-            if (LOG.isWarnEnabled()) {
-                LOG.warn(Messages.get().getBundle().key(Messages.LOG_INDEXING_TIMEOUT_1, res.getRootPath()));
-            }
+
+        PendingThread pending = new PendingThread();
+        pending.m_indexer = indexer;
+        pending.m_writer = writer;
+        pending.m_resource = res;
+
+        I_CmsReport report = indexer.getReport();
+        CmsObject cms = indexer.getCms();
+        if (m_maxThreads > 1) {
+            // threads running in parallel must not share the report and the request context
             if (report != null) {
-                report.println();
-                report.print(
-                    org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_FAILED_0),
-                    I_CmsReport.FORMAT_WARNING);
-                report.println(
-                    Messages.get().container(Messages.RPT_SEARCH_INDEXING_TIMEOUT_1, res.getRootPath()),
-                    I_CmsReport.FORMAT_WARNING);
+                pending.m_report = new CmsBufferedReport(report);
+                report = pending.m_report;
             }
-        } else {
-            // the thread finished normally
-            m_returnedCounter++;
-        }
-        I_CmsSearchDocument doc = thread.getResult();
-        if (doc != null) {
-            // write the document to the index
-            indexer.updateResource(writer, res.getRootPath(), doc);
-        } else {
-            indexer.deleteResource(writer, new CmsPublishedResource(res));
-        }
-        if ((m_startedCounter % m_maxModificationsBeforeCommit) == 0) {
             try {
-                writer.commit();
-            } catch (IOException e) {
-                if (LOG.isWarnEnabled()) {
-                    LOG.warn(
-                        Messages.get().getBundle().key(
-                            Messages.LOG_IO_INDEX_WRITER_COMMIT_2,
-                            indexer.getIndex().getName(),
-                            indexer.getIndex().getPath()),
-                        e);
-                }
+                cms = OpenCms.initCmsObject(cms);
+            } catch (CmsException e) {
+                // should not happen, use the context of the indexer 
+                LOG.error(e.getLocalizedMessage(), e);
             }
         }
+
+        m_startedCounter++;
+        pending.m_thread = new CmsIndexingThread(cms, res, indexer.getIndex(), m_startedCounter, report);
+        pending.m_thread.setPriority(Thread.MIN_PRIORITY);
+        pending.m_startTime = System.currentTimeMillis();
+        pending.m_thread.start();
+        m_pendingThreads.add(pending);
+
+        if (m_maxThreads == 1) {
+            // no parallel indexing, write the result immediately
+            finishIndexingThread(m_pendingThreads.removeFirst());
+        }
+    }
+
+    /**
+     * Waits for all started indexing threads and writes their results to the index.<p>
+     */
+    public void finishIndexingThreads() {
+
+        while (!m_pendingThreads.isEmpty()) {
+            finishIndexingThread(m_pendingThreads.removeFirst());
+        }
+    }
+
+    /**
+     * Returns the maximum number of indexing threads running in parallel.<p>
+     * 
+     * @return the maximum number of indexing threads running in parallel
+     */
+    public int getMaxThreads() {
+
+        return m_maxThreads;
     }
 
     /**
      * Returns if the indexing manager still have indexing threads.<p>
      * 
+     * Waits for all started indexing threads and writes their results to the index first.<p>
+     * 
      * @return true if the indexing manager still have indexing threads
      */
     public boolean isRunning() {
 
+        // make sure all results have been written to the index
+        finishIndexingThreads();
+
         if (m_lastLogErrorTime <= 0) {
             m_lastLogErrorTime = System.currentTimeMillis();
             m_lastLogWarnTime = m_lastLogErrorTime;
@@ -199,7 +268,8 @@ public class CmsIndexingThreadManager {
      * The method reports the total number of threads started
      * (equals to the number of indexed files), the number of returned
      * threads (equals to the number of successfully indexed files),
-     * and the number of abandoned threads (hanging threads reaching the timeout).
+     * and the number of abandoned threads (hanging threads reaching the timeout),
+     * as well as the number of documents written to the index per second.<p>
      * 
      * @param report the report to write the statistics to
      */
@@ -215,10 +285,86 @@ public class CmsIndexingThreadManager {
                     report.formatRuntime()});
 
             report.println(message);
+            long duration = Math.max(1, System.currentTimeMillis() - m_startTime);
+            CmsMessageContainer throughput = Messages.get().container(
+                Messages.RPT_SEARCH_INDEXING_THROUGHPUT_3,
+                new Integer(m_writtenCounter),
+                new Long((m_writtenCounter * 1000L) / duration),
+                new Integer(m_maxThreads));
+            report.println(throughput);
             if (!(report instanceof CmsLogReport) && LOG.isInfoEnabled()) {
                 // only write to the log if report is not already a log report
                 LOG.info(message.key());
+                LOG.info(throughput.key());
+            }
+        }
+    }
+
+    /**
+     * Waits for the given indexing thread and writes its result to the index.<p>
+     * 
+     * @param pending the indexing thread to finish
+     */
+    private void finishIndexingThread(PendingThread pending) {
+
+        CmsIndexingThread thread = pending.m_thread;
+        CmsResource res = pending.m_resource;
+        CmsVfsIndexer indexer = pending.m_indexer;
+        I_CmsIndexWriter writer = pending.m_writer;
+        long remaining = (pending.m_startTime + m_timeout) - System.currentTimeMillis();
+        if (remaining > 0) {
+            try {
+                thread.join(remaining);
+            } catch (InterruptedException e) {
+                // ignore
+            }
+        }
+        if (pending.m_report != null) {
+            // write the output of the thread to the report of the indexer
+            pending.m_report.flush();
+        }
+        I_CmsReport report = indexer.getReport();
+        if (thread.isAlive()) {
+            // the thread has not finished - so it must be marked as an abandoned thread 
+            m_abandonedCounter++;
+            thread.interrupt();
+            if (LOG.isWarnEnabled()) {
+                LOG.warn(Messages.get().getBundle().key(Messages.LOG_INDEXING_TIMEOUT_1, res.getRootPath()));
+            }
+            if (report != null) {
+                report.println();
+                report.print(
+                    org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_FAILED_0),
+                    I_CmsReport.FORMAT_WARNING);
+                report.println(
+                    Messages.get().container(Messages.RPT_SEARCH_INDEXING_TIMEOUT_1, res.getRootPath()),
+                    I_CmsReport.FORMAT_WARNING);
+            }
+        } else {
+            // the thread finished normally
+            m_returnedCounter++;
+        }
+        I_CmsSearchDocument doc = thread.getResult();
+        if (doc != null) {
+            // write the document to the index
+            indexer.updateResource(writer, res.getRootPath(), doc);
+        } else {
+            indexer.deleteResource(writer, new CmsPublishedResource(res));
+        }
+        m_writtenCounter++;
+        if ((m_writtenCounter % m_maxModificationsBeforeCommit) == 0) {
+            try {
+                writer.commit();
+            } catch (IOException e) {
+                if (LOG.isWarnEnabled()) {
+                    LOG.warn(
+                        Messages.get().getBundle().key(
+                            Messages.LOG_IO_INDEX_WRITER_COMMIT_2,
+                            indexer.getIndex().getName(),
+                            indexer.getIndex().getPath()),
+                        e);
+                }
             }
         }
     }
-}
\ No newline at end of file
+}
@@ -44,7 +44,7 @@ import org.apache.lucene.store.Directory;
  * 
  * @since 8.0.2
  */
-public class CmsLuceneIndexWriter implements I_CmsIndexWriter {
+public class CmsLuceneIndexWriter implements I_CmsSoftCommitIndexWriter {
 
     /** The log object for this class. */
     protected static final Log LOG = CmsLog.getLog(CmsLuceneIndexWriter.class);
@@ -121,6 +121,9 @@ public class CmsLuceneIndexWriter implements I_CmsIndexWriter {
                 m_index.getPath()));
         }
         m_indexWriter.commit();
+        if (m_index != null) {
+            m_index.indexSearcherInvalidate();
+        }
     }
 
     /**
@@ -138,6 +141,9 @@ public class CmsLuceneIndexWriter implements I_CmsIndexWriter {
                 m_index.getPath()));
         }
         m_indexWriter.deleteDocuments(term);
+        if (m_index != null) {
+            m_index.indexSearcherInvalidate();
+        }
     }
 
     /**
@@ -161,6 +167,17 @@ public class CmsLuceneIndexWriter implements I_CmsIndexWriter {
         Thread.currentThread().setPriority(oldPriority);
     }
 
+    /**
+     * Nothing is written here, the changes become visible because 
+     * {@link CmsSearchIndex#indexSearcherUpdate()} reopens the searcher from the open Lucene index writer.<p>
+     * 
+     * @see org.opencms.search.I_CmsSoftCommitIndexWriter#softCommit()
+     */
+    public void softCommit() {
+
+        // the index searcher is reopened near real-time from the Lucene index writer
+    }
+
     /**
      * @see org.opencms.search.I_CmsIndexWriter#updateDocument(java.lang.String, org.opencms.search.I_CmsSearchDocument)
      */
@@ -175,5 +192,18 @@ public class CmsLuceneIndexWriter implements I_CmsIndexWriter {
                 m_index.getPath()));
         }
         m_indexWriter.updateDocument(pathTerm, (Document)document.getDocument());
+        if (m_index != null) {
+            m_index.indexSearcherInvalidate();
+        }
+    }
+
+    /**
+     * Returns the Lucene index writer this writer delegates to.<p>
+     * 
+     * @return the Lucene index writer this writer delegates to
+     */
+    protected IndexWriter getWrappedIndexWriter() {
+
+        return m_indexWriter;
     }
 }
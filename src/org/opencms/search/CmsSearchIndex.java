@@ -66,6 +66,7 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.logging.Log;
 import org.apache.lucene.analysis.Analyzer;
@@ -268,8 +269,11 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
      */
     private boolean m_ignoreExpiration;
 
-    /** The Lucene index searcher to use. */
-    private IndexSearcher m_indexSearcher;
+    /** The Lucene index searcher to use, the searcher holds one reference on its index reader. */
+    private volatile IndexSearcher m_indexSearcher;
+
+    /** Indicates the index has been changed since the index searcher was opened or reopened. */
+    private volatile boolean m_indexSearcherOutdated;
 
     /** The index writer to use. */
     private I_CmsIndexWriter m_indexWriter;
@@ -678,11 +682,16 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
      */
     public I_CmsSearchDocument getDocument(int docId) {
 
+        IndexSearcher searcher = indexSearcherAcquire();
+        if (searcher == null) {
+            return null;
+        }
         try {
-            IndexSearcher searcher = getSearcher();
             return new CmsLuceneDocument(searcher.doc(docId));
         } catch (IOException e) {
             // ignore, return null and assume document was not found
+        } finally {
+            indexSearcherRelease(searcher);
         }
         return null;
     }
@@ -715,10 +724,10 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
      * 
      * @return the first document where the given term matches the selected index field
      */
-    public synchronized I_CmsSearchDocument getDocument(String field, String term) {
+    public I_CmsSearchDocument getDocument(String field, String term) {
 
         Document result = null;
-        IndexSearcher searcher = getSearcher();
+        IndexSearcher searcher = indexSearcherAcquire();
         if (searcher != null) {
             // search for an exact match on the selected field
             Term resultTerm = new Term(field, term);
@@ -729,6 +738,8 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
                 }
             } catch (IOException e) {
                 // ignore, return null and assume document was not found
+            } finally {
+                indexSearcherRelease(searcher);
             }
         }
         if (result != null) {
@@ -950,6 +961,10 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
 
     /**
      * Returns the Lucene index searcher used for this search index.<p>
+     * 
+     * The reader of the returned searcher may be closed at any time when the index is updated. 
+     * Use {@link #indexSearcherAcquire()} and {@link #indexSearcherRelease(IndexSearcher)} 
+     * to keep the searcher open while using it.<p>
      *
      * @return the Lucene index searcher used for this search index
      */
@@ -1242,7 +1257,7 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
      * 
      * @throws CmsSearchException if something goes wrong
      */
-    public synchronized CmsSearchResultList search(CmsObject cms, CmsSearchParameters params) throws CmsSearchException {
+    public CmsSearchResultList search(CmsObject cms, CmsSearchParameters params) throws CmsSearchException {
 
         long timeTotal = -System.currentTimeMillis();
         long timeLucene;
@@ -1258,6 +1273,9 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
         // storage for the results found
         CmsSearchResultList searchResults = new CmsSearchResultList();
 
+        // the index searcher, kept open until the search is finished
+        IndexSearcher searcher = null;
+
         int previousPriority = Thread.currentThread().getPriority();
 
         try {
@@ -1297,8 +1315,8 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
             Query fieldsQuery = null;
 
             // get an index searcher that is certainly up to date
-            indexSearcherUpdate();
-            IndexSearcher searcher = getSearcher();
+            indexSearcherUpdateIfOutdated();
+            searcher = indexSearcherAcquire();
 
             if (!params.isIgnoreQuery()) {
                 // since OpenCms 8 the query can be empty in which case only filters are used for the result
@@ -1471,6 +1489,8 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
 
             // re-set thread to previous priority
             Thread.currentThread().setPriority(previousPriority);
+            // allow the index reader to be closed if the index has been updated in the meantime
+            indexSearcherRelease(searcher);
         }
 
         if (LOG.isDebugEnabled()) {
@@ -2096,7 +2116,8 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
             }
             termsStr = buf.toString();
         }
-        Filter result = m_displayFilters.get((new StringBuffer(64)).append(field).append('|').append(termsStr).toString());
+        String key = (new StringBuffer(64)).append(field).append('|').append(termsStr).toString();
+        Filter result = m_displayFilters.get(key);
         if (result == null) {
             List<Term> terms = new ArrayList<Term>();
             if (termsList == null) {
@@ -2106,7 +2127,7 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
                 terms.add(new Term(field, termsList.get(i)));
             }
             result = new CachingWrapperFilter(new TermsFilter(terms));
-            m_displayFilters.put(field + termsStr, result);
+            m_displayFilters.put(key, result);
         }
         return result;
     }
@@ -2173,6 +2194,30 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
         return !needsPermissionCheck(doc) ? true : (null != getResource(cms, doc));
     }
 
+    /**
+     * Returns the current index searcher of this index and keeps its index reader open 
+     * until the searcher is handed back with {@link #indexSearcherRelease(IndexSearcher)}.<p>
+     * 
+     * This allows searches to run concurrently with {@link #indexSearcherUpdate()}: 
+     * a replaced index reader is only closed after all searches using it have released it.<p>
+     * 
+     * @return the current index searcher, or <code>null</code> if no index searcher is open
+     */
+    protected IndexSearcher indexSearcherAcquire() {
+
+        IndexSearcher searcher = m_indexSearcher;
+        while ((searcher != null) && !searcher.getIndexReader().tryIncRef()) {
+            // the reader has just been closed, use the searcher that replaced it
+            IndexSearcher current = m_indexSearcher;
+            if (current == searcher) {
+                // the searcher was closed without replacement
+                return null;
+            }
+            searcher = current;
+        }
+        return searcher;
+    }
+
     /**
      * Closes the index searcher for this index.<p>
      * 
@@ -2180,12 +2225,17 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
      */
     protected synchronized void indexSearcherClose() {
 
-        indexSearcherClose(m_indexSearcher);
+        IndexSearcher searcher = m_indexSearcher;
+        m_indexSearcher = null;
+        indexSearcherClose(searcher);
     }
 
     /**
      * Closes the given Lucene index searcher.<p>
      * 
+     * The index reader of the searcher is closed as soon as all searches that 
+     * have acquired it with {@link #indexSearcherAcquire()} have released it.<p>
+     * 
      * @param searcher the searcher to close
      */
     protected synchronized void indexSearcherClose(IndexSearcher searcher) {
@@ -2193,13 +2243,26 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
         // in case there is an index searcher available close it
         if ((searcher != null) && (searcher.getIndexReader() != null)) {
             try {
-                searcher.getIndexReader().close();
+                // release the reference held by this index
+                searcher.getIndexReader().decRef();
             } catch (Exception e) {
                 LOG.error(Messages.get().getBundle().key(Messages.ERR_INDEX_SEARCHER_CLOSE_1, getName()), e);
             }
         }
     }
 
+    /**
+     * Marks the index searcher as outdated, so that the next search reopens it.<p>
+     * 
+     * This is called whenever documents are written to the index.<p>
+     * 
+     * @see #indexSearcherUpdateIfOutdated()
+     */
+    protected void indexSearcherInvalidate() {
+
+        m_indexSearcherOutdated = true;
+    }
+
     /**
      * Initializes the index searcher for this index.<p>
      * 
@@ -2213,6 +2276,8 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
      */
     protected synchronized void indexSearcherOpen(String path) {
 
+        // changes written after this point mark the new searcher as outdated again
+        m_indexSearcherOutdated = false;
         IndexSearcher oldSearcher = null;
         try {
             Directory indexDirectory = FSDirectory.open(new File(path));
@@ -2222,9 +2287,10 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
                     // store old searcher instance to close it later
                     oldSearcher = m_indexSearcher;
                 }
-                m_indexSearcher = new IndexSearcher(reader);
-                m_indexSearcher.setSimilarity(m_sim);
-                m_displayFilters = new HashMap<String, Filter>();
+                IndexSearcher searcher = new IndexSearcher(reader);
+                searcher.setSimilarity(m_sim);
+                m_displayFilters = new ConcurrentHashMap<String, Filter>();
+                m_indexSearcher = searcher;
             }
         } catch (IOException e) {
             LOG.error(Messages.get().getBundle().key(Messages.ERR_INDEX_SEARCHER_1, getName()), e);
@@ -2235,22 +2301,51 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
         }
     }
 
+    /**
+     * Hands back an index searcher obtained by {@link #indexSearcherAcquire()}.<p>
+     * 
+     * @param searcher the searcher to release, may be <code>null</code>
+     */
+    protected void indexSearcherRelease(IndexSearcher searcher) {
+
+        if (searcher != null) {
+            try {
+                searcher.getIndexReader().decRef();
+            } catch (Exception e) {
+                LOG.error(Messages.get().getBundle().key(Messages.ERR_INDEX_SEARCHER_CLOSE_1, getName()), e);
+            }
+        }
+    }
+
     /**
      * Reopens the index search reader for this index, required after the index has been changed.<p>
      * 
+     * If the index writer for incremental updates is open, the reader is reopened near real-time from
+     * the writer, so it also finds the changes that are not committed yet.<p>
+     * 
      * @see #indexSearcherOpen(String)
      */
     protected synchronized void indexSearcherUpdate() {
 
+        // changes written after this point mark the reopened searcher as outdated again
+        m_indexSearcherOutdated = false;
         IndexSearcher oldSearcher = m_indexSearcher;
         if ((oldSearcher != null) && (oldSearcher.getIndexReader() != null)) {
             // in case there is an index searcher available close it
             try {
                 if (oldSearcher.getIndexReader() instanceof DirectoryReader) {
-                    IndexReader newReader = DirectoryReader.openIfChanged((DirectoryReader)oldSearcher.getIndexReader());
+                    DirectoryReader oldReader = (DirectoryReader)oldSearcher.getIndexReader();
+                    IndexReader newReader;
+                    if (m_indexWriter instanceof CmsLuceneIndexWriter) {
+                        IndexWriter writer = ((CmsLuceneIndexWriter)m_indexWriter).getWrappedIndexWriter();
+                        newReader = DirectoryReader.openIfChanged(oldReader, writer, true);
+                    } else {
+                        newReader = DirectoryReader.openIfChanged(oldReader);
+                    }
                     if (newReader != null) {
-                        m_indexSearcher = new IndexSearcher(newReader);
-                        m_indexSearcher.setSimilarity(m_sim);
+                        IndexSearcher searcher = new IndexSearcher(newReader);
+                        searcher.setSimilarity(m_sim);
+                        m_indexSearcher = searcher;
                         indexSearcherClose(oldSearcher);
                     }
                 }
@@ -2263,6 +2358,19 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
         }
     }
 
+    /**
+     * Reopens the index searcher only if the index has been changed since it was opened or reopened.<p>
+     * 
+     * Searches use this instead of {@link #indexSearcherUpdate()}, so as long as the index 
+     * is not changed, they do not have to wait for each other.<p>
+     */
+    protected void indexSearcherUpdateIfOutdated() {
+
+        if (m_indexSearcherOutdated || (m_indexSearcher == null)) {
+            indexSearcherUpdate();
+        }
+    }
+
     /**
      * Unlocks the Lucene index writer of this index if required.<p>
      * 
@@ -0,0 +1,576 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.search;
+
+import org.opencms.db.CmsPublishedResource;
+import org.opencms.db.CmsResourceState;
+import org.opencms.i18n.CmsEncoder;
+import org.opencms.main.CmsLog;
+import org.opencms.util.CmsUUID;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.commons.logging.Log;
+
+/**
+ * Queue of the resources waiting to be updated in the offline search indexes.<p>
+ * 
+ * The queue coalesces the entries by structure id and root path, so a resource that is changed several times
+ * before the indexer gets to it is indexed only once, with its latest state. A changed entry is moved to the
+ * end of the queue but keeps the time it was first added, so the order of moves is preserved and the
+ * entry is not delayed by further changes.<p>
+ * 
+ * The indexer waits with {@link #awaitBatch(long)} until either the batch size is reached or the oldest
+ * entry has waited for the given maximum latency. If the queue is full, producers wait a limited time for
+ * the indexer to catch up. After that, entries are added anyway, so no change is ever lost, and producers no 
+ * longer wait until the queue has dropped below its capacity again.<p>
+ * 
+ * The pending entries can be saved to a file on shutdown and loaded again on startup.<p>
+ * 
+ * @since 9.5.0
+ */
+public class CmsSearchIndexingQueue {
+
+    /**
+     * An entry of the queue.<p>
+     */
+    private static class CmsQueueEntry {
+
+        /** The resource to index. */
+        CmsPublishedResource m_resource;
+
+        /** The time the resource has first been added. */
+        long m_time;
+
+        /**
+         * Creates a new queue entry.<p>
+         * 
+         * @param resource the resource to index
+         * @param time the time the resource has first been added
+         */
+        CmsQueueEntry(CmsPublishedResource resource, long time) {
+
+            m_resource = resource;
+            m_time = time;
+        }
+    }
+
+    /** The default number of resources indexed in one batch. */
+    public static final int DEFAULT_BATCH_SIZE = 500;
+
+    /** The default number of resources in the queue before producers have to wait. */
+    public static final int DEFAULT_CAPACITY = 10000;
+
+    /** The log object for this class. */
+    private static final Log LOG = CmsLog.getLog(CmsSearchIndexingQueue.class);
+
+    /** The time in milliseconds a producer waits if the queue is full. */
+    private static final long FULL_QUEUE_WAIT = 5000;
+
+    /** The separator of the values in the queue file. */
+    private static final char SEPARATOR = '\t';
+
+    /** The number of batches taken from this queue. */
+    private long m_batchCount;
+
+    /** The number of resources indexed in one batch. */
+    private int m_batchSize;
+
+    /** The maximum number of resources in the queue before producers have to wait. */
+    private int m_capacity;
+
+    /** The number of changes that have been merged with an entry already in the queue. */
+    private long m_coalescedCount;
+
+    /** The queue entries, keyed by structure id and root path, in the order of their last change. */
+    private Map<String, CmsQueueEntry> m_entries;
+
+    /** The lock guarding all state of this queue. */
+    private final ReentrantLock m_lock;
+
+    /** Signalled if entries are added to the queue. */
+    private final Condition m_notEmpty;
+
+    /** Signalled if entries are taken from the queue. */
+    private final Condition m_notFull;
+
+    /** The time the oldest entry in the queue has been added. */
+    private long m_oldestTime;
+
+    /** Indicates a producer has already waited in vain for the queue to drop below its capacity. */
+    private boolean m_overflow;
+
+    /** The number of entries taken from this queue. */
+    private long m_processedCount;
+
+    /**
+     * Creates a new queue with the default batch size and capacity.<p>
+     */
+    public CmsSearchIndexingQueue() {
+
+        this(DEFAULT_BATCH_SIZE, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a new queue.<p>
+     * 
+     * @param batchSize the number of resources indexed in one batch
+     * @param capacity the maximum number of resources in the queue before producers have to wait
+     */
+    public CmsSearchIndexingQueue(int batchSize, int capacity) {
+
+        m_entries = new LinkedHashMap<String, CmsQueueEntry>();
+        m_lock = new ReentrantLock();
+        m_notEmpty = m_lock.newCondition();
+        m_notFull = m_lock.newCondition();
+        setBatchSize(batchSize);
+        setCapacity(capacity);
+    }
+
+    /**
+     * Adds the given resources to the queue.<p>
+     * 
+     * If the queue is full, this waits a limited time for the indexer to take entries from the queue.<p>
+     * 
+     * @param resources the resources to add
+     */
+    public void add(List<CmsPublishedResource> resources) {
+
+        if (resources.isEmpty()) {
+            return;
+        }
+        m_lock.lock();
+        try {
+            if (!m_overflow && (m_entries.size() >= m_capacity)) {
+                long nanos = TimeUnit.MILLISECONDS.toNanos(FULL_QUEUE_WAIT);
+                try {
+                    while ((m_entries.size() >= m_capacity) && (nanos > 0)) {
+                        nanos = m_notFull.awaitNanos(nanos);
+                    }
+                } catch (InterruptedException e) {
+                    // add the entries anyway and keep the interrupt status
+                    Thread.currentThread().interrupt();
+                }
+                if (m_entries.size() >= m_capacity) {
+                    m_overflow = true;
+                    LOG.warn(Messages.get().getBundle().key(
+                        Messages.LOG_OI_QUEUE_FULL_2,
+                        Integer.valueOf(m_entries.size()),
+                        Long.valueOf(FULL_QUEUE_WAIT)));
+                }
+            }
+            long now = System.currentTimeMillis();
+            for (CmsPublishedResource resource : resources) {
+                addEntry(resource, now);
+            }
+            m_notEmpty.signalAll();
+        } finally {
+            m_lock.unlock();
+        }
+    }
+
+    /**
+     * Waits until a batch of resources is ready to be indexed.<p>
+     * 
+     * A batch is ready if the queue contains at least the batch size of resources, 
+     * or if the oldest resource in the queue has waited for the given maximum latency.<p>
+     * 
+     * @param maxLatency the maximum time in milliseconds a resource waits in the queue
+     * 
+     * @throws InterruptedException if the current thread is interrupted while waiting
+     */
+    public void awaitBatch(long maxLatency) throws InterruptedException {
+
+        m_lock.lockInterruptibly();
+        try {
+            while (m_entries.size() < m_batchSize) {
+                if (m_entries.isEmpty()) {
+                    m_notEmpty.await();
+                } else {
+                    long age = System.currentTimeMillis() - m_oldestTime;
+                    if (age >= maxLatency) {
+                        return;
+                    }
+                    // wake up if more entries are added to check the batch size again
+                    m_notEmpty.await(maxLatency - age, TimeUnit.MILLISECONDS);
+                }
+            }
+        } finally {
+            m_lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of batches taken from this queue.<p>
+     * 
+     * @return the number of batches taken from this queue
+     */
+    public long getBatchCount() {
+
+        m_lock.lock();
+        try {
+            return m_batchCount;
+        } finally {
+            m_lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of resources indexed in one batch.<p>
+     * 
+     * @return the number of resources indexed in one batch
+     */
+    public int getBatchSize() {
+
+        return m_batchSize;
+    }
+
+    /**
+     * Returns the maximum number of resources in the queue before producers have to wait.<p>
+     * 
+     * @return the capacity of the queue
+     */
+    public int getCapacity() {
+
+        return m_capacity;
+    }
+
+    /**
+     * Returns the number of changes that have been merged with an entry already in the queue.<p>
+     * 
+     * @return the number of changes that have been merged with an entry already in the queue
+     */
+    public long getCoalescedCount() {
+
+        m_lock.lock();
+        try {
+            return m_coalescedCount;
+        } finally {
+            m_lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the time in milliseconds the oldest entry is already waiting in the queue.<p>
+     * 
+     * @return the time the oldest entry is waiting, or 0 if the queue is empty
+     */
+    public long getLag() {
+
+        m_lock.lock();
+        try {
+            return m_entries.isEmpty() ? 0 : System.currentTimeMillis() - m_oldestTime;
+        } finally {
+            m_lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of entries taken from this queue.<p>
+     * 
+     * @return the number of entries taken from this queue
+     */
+    public long getProcessedCount() {
+
+        m_lock.lock();
+        try {
+            return m_processedCount;
+        } finally {
+            m_lock.unlock();
+        }
+    }
+
+    /**
+     * Returns if the queue is empty.<p>
+     * 
+     * @return <code>true</code> if the queue is empty
+     */
+    public boolean isEmpty() {
+
+        return size() == 0;
+    }
+
+    /**
+     * Loads the entries saved with {@link #save(File)} from the given file, then deletes the file.<p>
+     * 
+     * Nothing is done if the file does not exist.<p>
+     * 
+     * @param file the file to load the entries from
+     * 
+     * @return the number of entries loaded
+     * 
+     * @throws IOException if reading the file fails
+     */
+    public int load(File file) throws IOException {
+
+        if (!file.exists()) {
+            return 0;
+        }
+        List<CmsPublishedResource> resources = new ArrayList<CmsPublishedResource>();
+        BufferedReader reader = null;
+        try {
+            Reader in = new InputStreamReader(new FileInputStream(file), CmsEncoder.ENCODING_UTF_8);
+            reader = new BufferedReader(in);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.length() == 0) {
+                    continue;
+                }
+                try {
+                    resources.add(parseEntry(line));
+                } catch (RuntimeException e) {
+                    LOG.warn(Messages.get().getBundle().key(Messages.LOG_OI_QUEUE_INVALID_ENTRY_1, line), e);
+                }
+            }
+        } finally {
+            if (reader != null) {
+                reader.close();
+            }
+        }
+        m_lock.lock();
+        try {
+            long now = System.currentTimeMillis();
+            for (CmsPublishedResource resource : resources) {
+                addEntry(resource, now);
+            }
+            m_notEmpty.signalAll();
+        } finally {
+            m_lock.unlock();
+        }
+        file.delete();
+        return resources.size();
+    }
+
+    /**
+     * Takes up to the given number of the oldest entries from the queue.<p>
+     * 
+     * @param maxSize the maximum number of entries to take
+     * 
+     * @return the resources to index, in the order of their last change
+     */
+    public List<CmsPublishedResource> poll(int maxSize) {
+
+        m_lock.lock();
+        try {
+            int size = Math.min(maxSize, m_entries.size());
+            List<CmsPublishedResource> result = new ArrayList<CmsPublishedResource>(size);
+            Iterator<CmsQueueEntry> i = m_entries.values().iterator();
+            while ((result.size() < size) && i.hasNext()) {
+                result.add(i.next().m_resource);
+                i.remove();
+            }
+            long oldestTime = Long.MAX_VALUE;
+            for (CmsQueueEntry entry : m_entries.values()) {
+                oldestTime = Math.min(oldestTime, entry.m_time);
+            }
+            m_oldestTime = oldestTime;
+            if (size > 0) {
+                m_processedCount += size;
+                m_batchCount++;
+            }
+            if (m_entries.size() < m_capacity) {
+                m_overflow = false;
+            }
+            m_notFull.signalAll();
+            return result;
+        } finally {
+            m_lock.unlock();
+        }
+    }
+
+    /**
+     * Saves the entries of the queue to the given file, so they can be loaded again with {@link #load(File)}.<p>
+     * 
+     * The entries stay in the queue. If the queue is empty, an existing file is deleted.<p>
+     * 
+     * @param file the file to save the entries to
+     * 
+     * @return the number of entries saved
+     * 
+     * @throws IOException if writing the file fails
+     */
+    public int save(File file) throws IOException {
+
+        List<CmsPublishedResource> resources = new ArrayList<CmsPublishedResource>();
+        m_lock.lock();
+        try {
+            for (CmsQueueEntry entry : m_entries.values()) {
+                resources.add(entry.m_resource);
+            }
+        } finally {
+            m_lock.unlock();
+        }
+        if (resources.isEmpty()) {
+            if (file.exists()) {
+                file.delete();
+            }
+            return 0;
+        }
+        File parent = file.getParentFile();
+        if ((parent != null) && !parent.exists()) {
+            parent.mkdirs();
+        }
+        Writer writer = null;
+        try {
+            writer = new BufferedWriter(new OutputStreamWriter(
+                new FileOutputStream(file),
+                CmsEncoder.ENCODING_UTF_8));
+            for (CmsPublishedResource resource : resources) {
+                writer.write(formatEntry(resource));
+                writer.write('\n');
+            }
+        } finally {
+            if (writer != null) {
+                writer.close();
+            }
+        }
+        return resources.size();
+    }
+
+    /**
+     * Sets the number of resources indexed in one batch.<p>
+     * 
+     * @param batchSize the number of resources indexed in one batch
+     */
+    public void setBatchSize(int batchSize) {
+
+        m_batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * Sets the maximum number of resources in the queue before producers have to wait.<p>
+     * 
+     * @param capacity the capacity of the queue
+     */
+    public void setCapacity(int capacity) {
+
+        m_capacity = Math.max(1, capacity);
+    }
+
+    /**
+     * Returns the number of entries in the queue.<p>
+     * 
+     * @return the number of entries in the queue
+     */
+    public int size() {
+
+        m_lock.lock();
+        try {
+            return m_entries.size();
+        } finally {
+            m_lock.unlock();
+        }
+    }
+
+    /**
+     * Adds a single resource to the queue, merging it with an existing entry for the same resource.<p>
+     * 
+     * Must be called while holding the lock.<p>
+     * 
+     * @param resource the resource to add
+     * @param now the current time
+     */
+    private void addEntry(CmsPublishedResource resource, long now) {
+
+        if (m_entries.isEmpty()) {
+            m_oldestTime = now;
+        }
+        String key = resource.getStructureId().toString() + resource.getRootPath();
+        CmsQueueEntry entry = m_entries.remove(key);
+        if (entry == null) {
+            entry = new CmsQueueEntry(resource, now);
+        } else {
+            // keep the time the resource has first been added, but move it to the end
+            entry.m_resource = resource;
+            m_coalescedCount++;
+        }
+        m_entries.put(key, entry);
+    }
+
+    /**
+     * Formats a resource as a line of the queue file.<p>
+     * 
+     * @param resource the resource to format
+     * 
+     * @return the line for the queue file
+     */
+    private String formatEntry(CmsPublishedResource resource) {
+
+        StringBuffer result = new StringBuffer(128);
+        result.append(resource.getStructureId()).append(SEPARATOR);
+        result.append(resource.getResourceId()).append(SEPARATOR);
+        result.append(resource.getType()).append(SEPARATOR);
+        result.append(resource.isFolder()).append(SEPARATOR);
+        result.append(resource.getState().getState()).append(SEPARATOR);
+        result.append(resource.getSiblingCount()).append(SEPARATOR);
+        result.append(resource.getRootPath());
+        return result.toString();
+    }
+
+    /**
+     * Parses a line of the queue file.<p>
+     * 
+     * @param line the line to parse
+     * 
+     * @return the resource
+     */
+    private CmsPublishedResource parseEntry(String line) {
+
+        String[] values = line.split(String.valueOf(SEPARATOR), 7);
+        if (values.length != 7) {
+            throw new IllegalArgumentException(line);
+        }
+        return new CmsPublishedResource(
+            new CmsUUID(values[0]),
+            new CmsUUID(values[1]),
+            -1,
+            values[6],
+            Integer.parseInt(values[2]),
+            Boolean.valueOf(values[3]).booleanValue(),
+            CmsResourceState.valueOf(Integer.parseInt(values[4])),
+            Integer.parseInt(values[5]));
+    }
+}
@@ -29,6 +29,7 @@ package org.opencms.search;
 
 import org.opencms.configuration.CmsConfigurationException;
 import org.opencms.db.CmsDriverManager;
+import org.opencms.db.CmsPublishList;
 import org.opencms.db.CmsPublishedResource;
 import org.opencms.db.CmsResourceState;
 import org.opencms.file.CmsObject;
@@ -48,6 +49,7 @@ import org.opencms.main.CmsLog;
 import org.opencms.main.I_CmsEventListener;
 import org.opencms.main.OpenCms;
 import org.opencms.main.OpenCmsSolrHandler;
+import org.opencms.monitor.CmsMetrics;
 import org.opencms.relations.CmsRelation;
 import org.opencms.relations.CmsRelationFilter;
 import org.opencms.report.CmsLogReport;
@@ -68,6 +70,7 @@ import org.opencms.search.solr.CmsSolrFieldConfiguration;
 import org.opencms.search.solr.CmsSolrIndex;
 import org.opencms.search.solr.CmsSolrIndexWriter;
 import org.opencms.search.solr.spellchecking.CmsSolrSpellchecker;
+import org.opencms.security.CmsAccessControlEntry;
 import org.opencms.security.CmsRole;
 import org.opencms.security.CmsRoleViolationException;
 import org.opencms.util.A_CmsModeStringEnumeration;
@@ -161,15 +164,12 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
         /** Indicates if the event handlers for the offline search have been already registered. */
         private boolean m_isEventRegistered;
 
-        /** The list of resources to index. */
-        private List<CmsPublishedResource> m_resourcesToIndex;
-
         /**
          * Initializes the offline index handler.<p>
          */
         protected CmsSearchOfflineHandler() {
 
-            m_resourcesToIndex = new ArrayList<CmsPublishedResource>();
+            // NOOP
         }
 
         /**
@@ -190,8 +190,20 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
                         return;
                     }
                     // a resource has been modified - offline indexes require (re)indexing
-                    List<CmsResource> resources = Collections.singletonList((CmsResource)event.getData().get(
-                        I_CmsEventListener.KEY_RESOURCE));
+                    CmsResource resource = (CmsResource)event.getData().get(I_CmsEventListener.KEY_RESOURCE);
+                    List<CmsResource> resources = Collections.singletonList(resource);
+                    if (resource.isFolder()
+                        && (change != null)
+                        && ((((Integer)change).intValue() & CmsDriverManager.CHANGED_ACCESSCONTROL) > 0)
+                        && containsSolrIndex(m_offlineIndexes)) {
+                        // the access control lists indexed for the files below the folder are outdated
+                        resources = new ArrayList<CmsResource>(resources);
+                        try {
+                            resources.addAll(readFilesInSubtree(getOfflineCmsObject(), resource.getRootPath()));
+                        } catch (CmsException e) {
+                            LOG.error(e.getLocalizedMessage(), e);
+                        }
+                    }
                     reIndexResources(resources);
                     break;
                 case I_CmsEventListener.EVENT_RESOURCE_DELETED:
@@ -222,34 +234,47 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
         /**
          * Adds a list of {@link CmsPublishedResource} objects to be indexed.<p>
          * 
+         * If the offline indexing queue is full, this waits a limited time for the indexer to catch up.<p>
+         * 
          * @param resourcesToIndex the list of {@link CmsPublishedResource} objects to be indexed
          */
-        protected synchronized void addResourcesToIndex(List<CmsPublishedResource> resourcesToIndex) {
+        protected void addResourcesToIndex(List<CmsPublishedResource> resourcesToIndex) {
+
+            m_offlineIndexingQueue.add(resourcesToIndex);
+        }
 
-            m_resourcesToIndex.addAll(resourcesToIndex);
+        /**
+         * Returns an OpenCms context for the offline index project.<p>
+         * 
+         * @return an OpenCms context for the offline index project, 
+         *      or the admin context if no offline project is available
+         * 
+         * @throws CmsException if something goes wrong
+         */
+        protected CmsObject getOfflineCmsObject() throws CmsException {
+
+            CmsObject cms = m_adminCms;
+            CmsProject offline = getOfflineIndexProject();
+            if (offline != null) {
+                // switch to the offline project if available
+                cms = OpenCms.initCmsObject(m_adminCms);
+                cms.getRequestContext().setCurrentProject(offline);
+            }
+            return cms;
         }
 
         /**
          * Returns the list of {@link CmsPublishedResource} objects to index.<p>
          *
+         * @param maxSize the maximum number of resources to take from the offline indexing queue
+         * 
          * @return the resources to index
          */
-        protected List<CmsPublishedResource> getResourcesToIndex() {
+        protected List<CmsPublishedResource> getResourcesToIndex(int maxSize) {
 
-            List<CmsPublishedResource> result;
-            synchronized (this) {
-                result = m_resourcesToIndex;
-                m_resourcesToIndex = new ArrayList<CmsPublishedResource>();
-            }
+            List<CmsPublishedResource> result = m_offlineIndexingQueue.poll(maxSize);
             try {
-                CmsObject cms = m_adminCms;
-                CmsProject offline = getOfflineIndexProject();
-                if (offline != null) {
-                    // switch to the offline project if available
-                    cms = OpenCms.initCmsObject(m_adminCms);
-                    cms.getRequestContext().setCurrentProject(offline);
-                }
-                findRelatedContainerPages(cms, result);
+                findRelatedContainerPages(getOfflineCmsObject(), result);
             } catch (CmsException e) {
                 LOG.error(e.getLocalizedMessage(), e);
             }
@@ -279,6 +304,8 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
             // do this only in case there are offline indexes configured
             if (!m_isEventRegistered && (m_offlineIndexes.size() > 0)) {
                 m_isEventRegistered = true;
+                // continue with the changes that were not indexed before the last shutdown
+                loadOfflineIndexingQueue();
                 // register this object as event listener
                 OpenCms.addCmsEventListener(this, new int[] {
                     I_CmsEventListener.EVENT_PROPERTY_MODIFIED,
@@ -298,7 +325,7 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
          * 
          * @param resources a list of {@link CmsResource} objects to update in the offline indexes
          */
-        protected synchronized void reIndexResources(List<CmsResource> resources) {
+        protected void reIndexResources(List<CmsResource> resources) {
 
             List<CmsPublishedResource> resourcesToIndex = new ArrayList<CmsPublishedResource>(resources.size());
             for (CmsResource res : resources) {
@@ -313,7 +340,10 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
     }
 
     /**
-     * The offline indexer thread runs periodically and indexes all resources added by the event handler.<p>
+     * The offline indexer thread indexes the resources added by the event handler in batches.<p>
+     * 
+     * A batch is started as soon as the offline indexing queue contains the configured batch size of resources, 
+     * or if the oldest resource in the queue has waited for the offline update frequency.<p>
      */
     protected class CmsSearchOfflineIndexThread extends Thread {
 
@@ -377,7 +407,11 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
                 while (m_isAlive) {
                     if (!m_updateTriggered) {
                         try {
-                            sleep(offlineUpdateFrequency);
+                            if (isOfflineIndexingPaused()) {
+                                sleep(offlineUpdateFrequency);
+                            } else {
+                                m_offlineIndexingQueue.awaitBatch(offlineUpdateFrequency);
+                            }
                         } catch (InterruptedException e) {
                             // continue the thread after interruption
                             if (!m_isAlive) {
@@ -391,10 +425,12 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
                         }
                     }
                     if (m_isAlive) {
+                        // a triggered update indexes all pending resources, otherwise index one batch
+                        int maxSize = m_updateTriggered ? Integer.MAX_VALUE : getOfflineUpdateBatchSize();
                         // set update trigger to false since we do the update now
                         m_updateTriggered = false;
                         // get list of resource to update
-                        List<CmsPublishedResource> resourcesToIndex = getResourcesToIndex();
+                        List<CmsPublishedResource> resourcesToIndex = getResourcesToIndex(maxSize);
                         if (resourcesToIndex.size() > 0) {
                             // only start indexing if there is at least one resource
                             startOfflineUpdateThread(report, resourcesToIndex);
@@ -426,11 +462,13 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
          * Obtains the list of resource to update in the offline index, 
          * then optimizes the list by removing duplicate entries.<p>
          * 
+         * @param maxSize the maximum number of resources to take from the offline indexing queue
+         * 
          * @return the list of resource to update in the offline index
          */
-        protected List<CmsPublishedResource> getResourcesToIndex() {
+        protected List<CmsPublishedResource> getResourcesToIndex(int maxSize) {
 
-            List<CmsPublishedResource> resourcesToIndex = m_handler.getResourcesToIndex();
+            List<CmsPublishedResource> resourcesToIndex = m_handler.getResourcesToIndex(maxSize);
             List<CmsPublishedResource> result = new ArrayList<CmsPublishedResource>(resourcesToIndex.size());
 
             for (CmsPublishedResource pubRes : resourcesToIndex) {
@@ -597,7 +635,9 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
         @Override
         public void run() {
 
+            long start = CmsMetrics.startTimer();
             updateIndexOffline(m_report, m_resourcesToIndex);
+            CmsMetrics.addTime(CmsMetrics.TIMER_SEARCH_OFFLINE_UPDATE, start);
             if (m_offlineIndexThread != null) {
                 m_offlineIndexThread.getWaitHandle().release();
             }
@@ -610,6 +650,12 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
     /** The default value used for keeping the extraction results in the cache (672 hours = 4 weeks). */
     public static final float DEFAULT_EXTRACTION_CACHE_MAX_AGE = 672.0f;
 
+    /** The default maximum size of the extraction result cache (1024 MB). */
+    public static final int DEFAULT_EXTRACTION_CACHE_MAX_SIZE = 1024;
+
+    /** Default for the maximum number of indexing threads running in parallel (1 = no parallel indexing). */
+    public static final int DEFAULT_MAX_INDEXING_THREADS = 1;
+
     /** Default for the maximum number of modifications before a commit in the search index is triggered (500). */
     public static final int DEFAULT_MAX_MODIFICATIONS_BEFORE_COMMIT = 500;
 
@@ -619,6 +665,9 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
     /** The default timeout value used for generating a document for the search index (60000 msec = 1 min). */
     public static final int DEFAULT_TIMEOUT = 60000;
 
+    /** The name of the file in the index directory the pending offline index updates are saved to on shutdown. */
+    public static final String OFFLINE_INDEXING_QUEUE_FILE = "offlineIndexingQueue.txt";
+
     /** Scheduler parameter: Update only a specified list of indexes. */
     public static final String JOB_PARAM_INDEXLIST = "indexList";
 
@@ -628,6 +677,12 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
     /** Prefix for Lucene default analyzers package (<code>org.apache.lucene.analysis.</code>). */
     public static final String LUCENE_ANALYZER = "org.apache.lucene.analysis.core.";
 
+    /** The maximum time in milliseconds the offline indexes are only soft committed, before a hard commit is forced. */
+    public static final long MAX_OFFLINE_SOFT_COMMIT_TIME = 60000;
+
+    /** The maximum number of offline index updates that are only soft committed, before a hard commit is forced. */
+    public static final int MAX_OFFLINE_SOFT_COMMITS = 10;
+
     /** The log object for this class. */
     protected static final Log LOG = CmsLog.getLog(CmsSearchManager.class);
 
@@ -640,6 +695,10 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
     /** The thread used of offline indexing. */
     protected CmsSearchOfflineIndexThread m_offlineIndexThread;
 
+    /** The folders with changed access control entries in the currently running publish job, by publish history id. */
+    private Map<CmsUUID, List<String>> m_accessControlChangedFolders = Collections.synchronizedMap(
+        new HashMap<CmsUUID, List<String>>());
+
     /** Configured analyzers for languages using &lt;analyzer&gt;. */
     private HashMap<Locale, CmsSearchAnalyzer> m_analyzers;
 
@@ -658,6 +717,9 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
     /** The max age for extraction results to remain in the cache. */
     private float m_extractionCacheMaxAge;
 
+    /** The max size of the extraction result cache in MB. */
+    private int m_extractionCacheMaxSize;
+
     /** The cache for the extraction results. */
     private CmsExtractionResultCache m_extractionResultCache;
 
@@ -682,12 +744,24 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
     /** The max. char. length of the excerpt in the search result. */
     private int m_maxExcerptLength;
 
+    /** The maximum number of indexing threads running in parallel, 0 to use the number of available processors. */
+    private int m_maxIndexingThreads;
+
     /** The maximum number of modifications before a commit in the search index is triggered. */
     private int m_maxModificationsBeforeCommit;
 
     /** The offline index search handler. */
     private CmsSearchOfflineHandler m_offlineHandler;
 
+    /** The queue of resources waiting to be updated in the offline indexes. */
+    private CmsSearchIndexingQueue m_offlineIndexingQueue;
+
+    /** The time of the last hard commit of the offline indexes. */
+    private long m_offlineLastHardCommit;
+
+    /** The number of offline index updates that were only soft committed since the last hard commit. */
+    private int m_offlineSoftCommits;
+
     /** The update frequency of the offline indexer in milliseconds. */
     private long m_offlineUpdateFrequency;
 
@@ -711,10 +785,13 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
         m_indexes = new ArrayList<CmsSearchIndex>();
         m_indexSources = new TreeMap<String, CmsSearchIndexSource>();
         m_offlineHandler = new CmsSearchOfflineHandler();
+        m_offlineIndexingQueue = new CmsSearchIndexingQueue();
         m_extractionCacheMaxAge = DEFAULT_EXTRACTION_CACHE_MAX_AGE;
+        m_extractionCacheMaxSize = DEFAULT_EXTRACTION_CACHE_MAX_SIZE;
         m_maxExcerptLength = DEFAULT_EXCERPT_LENGTH;
         m_offlineUpdateFrequency = DEFAULT_OFFLINE_UPDATE_FREQNENCY;
         m_maxModificationsBeforeCommit = DEFAULT_MAX_MODIFICATIONS_BEFORE_COMMIT;
+        m_maxIndexingThreads = DEFAULT_MAX_INDEXING_THREADS;
 
         m_fieldConfigurations = new HashMap<String, CmsSearchFieldConfiguration>();
         // make sure we have a "standard" field configuration
@@ -1027,6 +1104,21 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
                     LOG.debug(Messages.get().getBundle().key(Messages.LOG_EVENT_CLEAR_CACHES_0), new Exception());
                 }
                 break;
+            case I_CmsEventListener.EVENT_BEFORE_PUBLISH_PROJECT:
+                // only entries of the publish job that is about to start are kept
+                m_accessControlChangedFolders.clear();
+                if (containsSolrIndex(m_indexes)) {
+                    // the access control lists indexed for the files below these folders are updated after publishing
+                    CmsPublishList publishList = (CmsPublishList)event.getData().get(
+                        I_CmsEventListener.KEY_PUBLISHLIST);
+                    List<String> folders = getAccessControlChangedFolders(
+                        (CmsUUID)event.getData().get(I_CmsEventListener.KEY_PROJECTID),
+                        publishList);
+                    if (!folders.isEmpty()) {
+                        m_accessControlChangedFolders.put(publishList.getPublishHistoryId(), folders);
+                    }
+                }
+                break;
             case I_CmsEventListener.EVENT_PUBLISH_PROJECT:
                 // event data contains a list of the published resources
                 CmsUUID publishHistoryId = new CmsUUID((String)event.getData().get(I_CmsEventListener.KEY_PUBLISHID));
@@ -1224,6 +1316,16 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
         return m_extractionCacheMaxAge;
     }
 
+    /**
+     * Returns the maximum size of the text extraction result cache (in MB).<p>
+     *
+     * @return the maximum size of the text extraction result cache (in MB)
+     */
+    public int getExtractionCacheMaxSize() {
+
+        return m_extractionCacheMaxSize;
+    }
+
     /**
      * Returns the search field configuration with the given name.<p>
      * 
@@ -1385,6 +1487,19 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
         return m_maxExcerptLength;
     }
 
+    /**
+     * Returns the configured maximum number of indexing threads extracting the content of resources in parallel.<p>
+     * 
+     * The default is {@link #DEFAULT_MAX_INDEXING_THREADS}, so parallel indexing has to be enabled explicitly.
+     * A value of <code>0</code> means the number of processors available to the JVM is used.<p>
+     *
+     * @return the configured maximum number of indexing threads running in parallel
+     */
+    public int getMaxIndexingThreads() {
+
+        return m_maxIndexingThreads;
+    }
+
     /**
      * Returns the maximum number of modifications before a commit in the search index is triggered.<p>
      *
@@ -1395,8 +1510,32 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
         return m_maxModificationsBeforeCommit;
     }
 
+    /**
+     * Returns the queue of resources waiting to be updated in the offline indexes.<p>
+     * 
+     * The queue provides the number of waiting resources and the time the oldest resource is already waiting.<p>
+     *
+     * @return the queue of resources waiting to be updated in the offline indexes
+     */
+    public CmsSearchIndexingQueue getOfflineIndexingQueue() {
+
+        return m_offlineIndexingQueue;
+    }
+
+    /**
+     * Returns the number of resources the offline indexer updates in one batch.<p>
+     *
+     * @return the number of resources the offline indexer updates in one batch
+     */
+    public int getOfflineUpdateBatchSize() {
+
+        return m_offlineIndexingQueue.getBatchSize();
+    }
+
     /**
      * Returns the update frequency of the offline indexer in milliseconds.<p>
+     * 
+     * This is the maximum time a changed resource waits before it is updated in the offline indexes.<p>
      *
      * @return the update frequency of the offline indexer in milliseconds
      */
@@ -1405,6 +1544,16 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
         return m_offlineUpdateFrequency;
     }
 
+    /**
+     * Returns the maximum number of resources waiting for the offline indexer before changes have to wait.<p>
+     *
+     * @return the capacity of the offline indexing queue
+     */
+    public int getOfflineUpdateQueueCapacity() {
+
+        return m_offlineIndexingQueue.getCapacity();
+    }
+
     /**
      * Returns an unmodifiable list of all configured <code>{@link CmsSearchIndex}</code> instances.<p>
      * 
@@ -1518,12 +1667,14 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
         m_extractionResultCache = new CmsExtractionResultCache(
             OpenCms.getSystemInfo().getAbsoluteRfsPathRelativeToWebInf(getDirectory()),
             "/extractCache");
+        m_extractionResultCache.setMaxSize(m_extractionCacheMaxSize * 1024L * 1024L);
         initializeIndexes();
         initOfflineIndexes();
 
         // register this object as event listener
         OpenCms.addCmsEventListener(this, new int[] {
             I_CmsEventListener.EVENT_CLEAR_CACHES,
+            I_CmsEventListener.EVENT_BEFORE_PUBLISH_PROJECT,
             I_CmsEventListener.EVENT_PUBLISH_PROJECT,
             I_CmsEventListener.EVENT_REBUILD_SEARCHINDEXES});
     }
@@ -2033,6 +2184,41 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
         }
     }
 
+    /**
+     * Sets the maximum size of the text extraction result cache (in MB).<p>
+     * 
+     * If the cache grows larger, the least recently used text extraction results are removed.<p>
+     *
+     * @param extractionCacheMaxSize the maximum size of the text extraction result cache to set
+     */
+    public void setExtractionCacheMaxSize(int extractionCacheMaxSize) {
+
+        m_extractionCacheMaxSize = extractionCacheMaxSize;
+        if (m_extractionResultCache != null) {
+            m_extractionResultCache.setMaxSize(extractionCacheMaxSize * 1024L * 1024L);
+        }
+    }
+
+    /**
+     * Sets the maximum size of the text extraction result cache (in MB) as a String.<p>
+     *
+     * @param extractionCacheMaxSize the maximum size of the text extraction result cache to set
+     */
+    public void setExtractionCacheMaxSize(String extractionCacheMaxSize) {
+
+        try {
+            setExtractionCacheMaxSize(Integer.parseInt(extractionCacheMaxSize));
+        } catch (NumberFormatException e) {
+            LOG.error(
+                Messages.get().getBundle().key(
+                    Messages.LOG_PARSE_EXTRACTION_CACHE_SIZE_FAILED_2,
+                    extractionCacheMaxSize,
+                    new Integer(DEFAULT_EXTRACTION_CACHE_MAX_SIZE)),
+                e);
+            setExtractionCacheMaxSize(DEFAULT_EXTRACTION_CACHE_MAX_SIZE);
+        }
+    }
+
     /**
      * Sets the unlock mode during indexing.<p>
      * 
@@ -2099,6 +2285,39 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
         }
     }
 
+    /**
+     * Sets the maximum number of indexing threads extracting the content of resources in parallel.<p>
+     * 
+     * The default is {@link #DEFAULT_MAX_INDEXING_THREADS}, so parallel indexing has to be enabled explicitly.
+     * A value of <code>0</code> means the number of processors available to the JVM is used.<p>
+     *
+     * @param maxIndexingThreads the maximum number of indexing threads to set
+     */
+    public void setMaxIndexingThreads(int maxIndexingThreads) {
+
+        m_maxIndexingThreads = Math.max(0, maxIndexingThreads);
+    }
+
+    /**
+     * Sets the maximum number of indexing threads extracting the content of resources in parallel as a string.<p>
+     *
+     * @param value the maximum number of indexing threads to set
+     */
+    public void setMaxIndexingThreads(String value) {
+
+        try {
+            setMaxIndexingThreads(Integer.parseInt(value.trim()));
+        } catch (Exception e) {
+            LOG.error(
+                Messages.get().getBundle().key(
+                    Messages.LOG_PARSE_MAX_INDEXING_THREADS_FAILED_2,
+                    value,
+                    new Integer(DEFAULT_MAX_INDEXING_THREADS)),
+                e);
+            setMaxIndexingThreads(DEFAULT_MAX_INDEXING_THREADS);
+        }
+    }
+
     /**
      * Sets the maximum number of modifications before a commit in the search index is triggered.<p>
      *
@@ -2129,6 +2348,36 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
         }
     }
 
+    /**
+     * Sets the number of resources the offline indexer updates in one batch.<p>
+     *
+     * @param batchSize the number of resources to set
+     */
+    public void setOfflineUpdateBatchSize(int batchSize) {
+
+        m_offlineIndexingQueue.setBatchSize(batchSize);
+    }
+
+    /**
+     * Sets the number of resources the offline indexer updates in one batch as a string.<p>
+     *
+     * @param value the number of resources to set
+     */
+    public void setOfflineUpdateBatchSize(String value) {
+
+        try {
+            setOfflineUpdateBatchSize(Integer.parseInt(value.trim()));
+        } catch (Exception e) {
+            LOG.error(
+                Messages.get().getBundle().key(
+                    Messages.LOG_PARSE_OI_BATCH_SIZE_FAILED_2,
+                    value,
+                    new Integer(CmsSearchIndexingQueue.DEFAULT_BATCH_SIZE)),
+                e);
+            setOfflineUpdateBatchSize(CmsSearchIndexingQueue.DEFAULT_BATCH_SIZE);
+        }
+    }
+
     /**
      * Sets the update frequency of the offline indexer in milliseconds.<p>
      *
@@ -2160,6 +2409,36 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
         }
     }
 
+    /**
+     * Sets the maximum number of resources waiting for the offline indexer before changes have to wait.<p>
+     *
+     * @param capacity the capacity of the offline indexing queue
+     */
+    public void setOfflineUpdateQueueCapacity(int capacity) {
+
+        m_offlineIndexingQueue.setCapacity(capacity);
+    }
+
+    /**
+     * Sets the maximum number of resources waiting for the offline indexer before changes have to wait as a string.<p>
+     *
+     * @param value the capacity of the offline indexing queue
+     */
+    public void setOfflineUpdateQueueCapacity(String value) {
+
+        try {
+            setOfflineUpdateQueueCapacity(Integer.parseInt(value.trim()));
+        } catch (Exception e) {
+            LOG.error(
+                Messages.get().getBundle().key(
+                    Messages.LOG_PARSE_OI_QUEUE_CAPACITY_FAILED_2,
+                    value,
+                    new Integer(CmsSearchIndexingQueue.DEFAULT_CAPACITY)),
+                e);
+            setOfflineUpdateQueueCapacity(CmsSearchIndexingQueue.DEFAULT_CAPACITY);
+        }
+    }
+
     /**
      * Sets the Solr configuration.<p>
      * 
@@ -2211,6 +2490,8 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
         if (m_offlineHandler != null) {
             OpenCms.removeCmsEventListener(m_offlineHandler);
         }
+        // keep the changes not yet indexed for the next startup
+        saveOfflineIndexingQueue();
 
         Iterator<CmsSearchIndex> i = m_indexes.iterator();
         while (i.hasNext()) {
@@ -2220,6 +2501,10 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
         }
         m_indexes.clear();
 
+        if (m_extractionResultCache != null) {
+            m_extractionResultCache.shutDown();
+        }
+
         shutDownSolrContainer();
 
         if (CmsLog.INIT.isInfoEnabled()) {
@@ -2386,7 +2671,10 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
      */
     protected CmsIndexingThreadManager getThreadManager() {
 
-        return new CmsIndexingThreadManager(m_timeout, m_maxModificationsBeforeCommit);
+        int maxThreads = m_maxIndexingThreads > 0
+        ? m_maxIndexingThreads
+        : Runtime.getRuntime().availableProcessors();
+        return new CmsIndexingThreadManager(m_timeout, m_maxModificationsBeforeCommit, maxThreads);
     }
 
     /**
@@ -2587,6 +2875,26 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
                 }
             }
 
+            List<String> folders = m_accessControlChangedFolders.remove(publishHistoryId);
+            if (folders != null) {
+                // the access control lists indexed for the files below these folders are outdated
+                Set<CmsUUID> updateIds = new HashSet<CmsUUID>();
+                for (CmsPublishedResource res : updateResources) {
+                    updateIds.add(res.getStructureId());
+                }
+                for (String folder : folders) {
+                    try {
+                        for (CmsResource file : readFilesInSubtree(adminCms, folder)) {
+                            if (updateIds.add(file.getStructureId())) {
+                                updateResources.add(new CmsPublishedResource(file));
+                            }
+                        }
+                    } catch (CmsException e) {
+                        LOG.error(e.getLocalizedMessage(), e);
+                    }
+                }
+            }
+
             findRelatedContainerPages(adminCms, updateResources);
             if (!updateResources.isEmpty()) {
                 // sort the resource to update
@@ -2788,12 +3096,40 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
      * 
      * @throws CmsException if something goes wrong
      */
-    protected synchronized void updateIndexIncremental(
+    protected void updateIndexIncremental(
         CmsObject cms,
         CmsSearchIndex index,
         I_CmsReport report,
         List<CmsPublishedResource> resourcesToIndex) throws CmsException {
 
+        updateIndexIncremental(cms, index, report, resourcesToIndex, false);
+    }
+
+    /**
+     * Incrementally updates the given index.<p>
+     * 
+     * With a soft commit, the changes are visible in searches right away, but they are not yet durably 
+     * written to the index. This is used while more changes are waiting for the offline indexer, 
+     * the changes are durably written with the first hard commit after that.<p>
+     * 
+     * @param cms the OpenCms user context to use for accessing the VFS
+     * @param index the index to update
+     * @param report the report to write output messages to 
+     * @param resourcesToIndex a list of <code>{@link CmsPublishedResource}</code> objects to update in the index
+     * @param softCommit if <code>true</code>, the changes are only soft committed, 
+     *      if the index writer supports this
+     * 
+     * @throws CmsException if something goes wrong
+     * 
+     * @see I_CmsSoftCommitIndexWriter#softCommit()
+     */
+    protected synchronized void updateIndexIncremental(
+        CmsObject cms,
+        CmsSearchIndex index,
+        I_CmsReport report,
+        List<CmsPublishedResource> resourcesToIndex,
+        boolean softCommit) throws CmsException {
+
         // update the existing index
         List<CmsSearchIndexUpdateData> updateCollections = new ArrayList<CmsSearchIndexUpdateData>();
 
@@ -2870,7 +3206,11 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
                 // close the index writer
                 if (writer != null) {
                     try {
-                        writer.commit();
+                        if (softCommit && (writer instanceof I_CmsSoftCommitIndexWriter)) {
+                            ((I_CmsSoftCommitIndexWriter)writer).softCommit();
+                        } else {
+                            writer.commit();
+                        }
                     } catch (IOException e) {
                         LOG.error(
                             Messages.get().getBundle().key(
@@ -2894,6 +3234,11 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
     /**
      * Updates the offline search indexes for the given list of resources.<p>
      * 
+     * The changes are only soft committed if more resources are waiting in the offline indexing queue, 
+     * so a hard commit is done once for each series of changes. To limit the changes that are lost 
+     * on a crash, a hard commit is forced after {@link #MAX_OFFLINE_SOFT_COMMITS} soft committed batches, 
+     * or after {@link #MAX_OFFLINE_SOFT_COMMIT_TIME} milliseconds since the last hard commit.<p>
+     * 
      * @param report the report to write the index information to
      * @param resourcesToIndex the list of {@link CmsPublishedResource} objects to index
      */
@@ -2909,6 +3254,20 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
             // NOOP, should never happen
         }
 
+        long now = System.currentTimeMillis();
+        if (m_offlineLastHardCommit == 0) {
+            m_offlineLastHardCommit = now;
+        }
+        boolean softCommit = !m_offlineIndexingQueue.isEmpty()
+            && (m_offlineSoftCommits < MAX_OFFLINE_SOFT_COMMITS)
+            && ((now - m_offlineLastHardCommit) < MAX_OFFLINE_SOFT_COMMIT_TIME);
+        if (softCommit) {
+            m_offlineSoftCommits++;
+        } else {
+            m_offlineSoftCommits = 0;
+            m_offlineLastHardCommit = now;
+        }
+
         Iterator<CmsSearchIndex> j = m_offlineIndexes.iterator();
         while (j.hasNext()) {
             CmsSearchIndex index = j.next();
@@ -2916,7 +3275,7 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
                 try {
                     // switch to the index project
                     cms.getRequestContext().setCurrentProject(cms.readProject(index.getProject()));
-                    updateIndexIncremental(cms, index, report, resourcesToIndex);
+                    updateIndexIncremental(cms, index, report, resourcesToIndex, softCommit);
                 } catch (CmsException e) {
                     LOG.error(Messages.get().getBundle().key(Messages.LOG_UPDATE_INDEX_FAILED_1, index.getName()), e);
                 }
@@ -2948,6 +3307,26 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
         }
     }
 
+    /**
+     * Checks if the given list of indexes contains a Solr index.<p>
+     * 
+     * Solr indexes store the access control list of each document, so these must be updated 
+     * for all files below a folder if the access control entries of the folder change.<p>
+     * 
+     * @param indexes the indexes to check
+     * 
+     * @return <code>true</code> if the given list of indexes contains a Solr index
+     */
+    private boolean containsSolrIndex(List<CmsSearchIndex> indexes) {
+
+        for (CmsSearchIndex index : indexes) {
+            if (index instanceof CmsSolrIndex) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Creates the Solr core container.<p>
      * 
@@ -3019,6 +3398,123 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
         return result;
     }
 
+    /**
+     * Returns the root paths of the changed folders in the given publish list, 
+     * for which the access control entries differ between the given project and the online project.<p>
+     * 
+     * @param projectId the id of the project that is published
+     * @param publishList the publish list
+     * 
+     * @return the root paths of the folders with changed access control entries
+     */
+    private List<String> getAccessControlChangedFolders(CmsUUID projectId, CmsPublishList publishList) {
+
+        List<String> result = new ArrayList<String>();
+        CmsObject cms;
+        try {
+            cms = OpenCms.initCmsObject(m_adminCms);
+            cms.getRequestContext().setCurrentProject(cms.readProject(projectId));
+        } catch (CmsException e) {
+            LOG.error(e.getLocalizedMessage(), e);
+            return result;
+        }
+        for (CmsResource folder : publishList.getFolderList()) {
+            if (!folder.getState().isChanged()) {
+                // new and deleted folders do not have files with outdated access control lists
+                continue;
+            }
+            try {
+                Set<CmsAccessControlEntry> entries = new HashSet<CmsAccessControlEntry>(
+                    cms.getAccessControlEntries(folder.getRootPath(), false));
+                Set<CmsAccessControlEntry> onlineEntries = new HashSet<CmsAccessControlEntry>(
+                    m_adminCms.getAccessControlEntries(folder.getRootPath(), false));
+                if (!entries.equals(onlineEntries)) {
+                    result.add(folder.getRootPath());
+                }
+            } catch (CmsException e) {
+                // e.g. a moved folder, update the files below to be sure
+                result.add(folder.getRootPath());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the file the pending offline index updates are saved to on shutdown.<p>
+     * 
+     * @return the file for the pending offline index updates, or <code>null</code> if no index directory is set
+     */
+    private File getOfflineIndexingQueueFile() {
+
+        if (getDirectory() == null) {
+            return null;
+        }
+        String path = OpenCms.getSystemInfo().getAbsoluteRfsPathRelativeToWebInf(getDirectory());
+        return new File(path, OFFLINE_INDEXING_QUEUE_FILE);
+    }
+
+    /**
+     * Loads the offline index updates that were pending on the last shutdown into the offline indexing queue.<p>
+     */
+    private void loadOfflineIndexingQueue() {
+
+        File file = getOfflineIndexingQueueFile();
+        if (file == null) {
+            return;
+        }
+        try {
+            int count = m_offlineIndexingQueue.load(file);
+            if ((count > 0) && LOG.isInfoEnabled()) {
+                LOG.info(Messages.get().getBundle().key(
+                    Messages.LOG_OI_QUEUE_LOAD_2,
+                    Integer.valueOf(count),
+                    file.getAbsolutePath()));
+            }
+        } catch (IOException e) {
+            LOG.error(Messages.get().getBundle().key(Messages.LOG_OI_QUEUE_READ_ERROR_1, file.getAbsolutePath()), e);
+        }
+    }
+
+    /**
+     * Reads the files below the given folder.<p>
+     * 
+     * These files must be re-indexed if the access control entries of the folder change, 
+     * since the access control lists stored in the index contain the inherited entries.<p>
+     * 
+     * @param cms the OpenCms context to use
+     * @param folder the root path of the folder
+     * 
+     * @return the files below the given folder
+     * 
+     * @throws CmsException if something goes wrong
+     */
+    private List<CmsResource> readFilesInSubtree(CmsObject cms, String folder) throws CmsException {
+
+        return cms.readResources(folder, CmsResourceFilter.ALL.addRequireFile(), true);
+    }
+
+    /**
+     * Saves the pending offline index updates, so they are indexed after the next startup.<p>
+     */
+    private void saveOfflineIndexingQueue() {
+
+        File file = getOfflineIndexingQueueFile();
+        if (file == null) {
+            return;
+        }
+        try {
+            int count = m_offlineIndexingQueue.save(file);
+            if ((count > 0) && LOG.isInfoEnabled()) {
+                LOG.info(Messages.get().getBundle().key(
+                    Messages.LOG_OI_QUEUE_SAVE_2,
+                    Integer.valueOf(count),
+                    file.getAbsolutePath()));
+            }
+        } catch (IOException e) {
+            LOG.error(Messages.get().getBundle().key(Messages.LOG_OI_QUEUE_WRITE_ERROR_1, file.getAbsolutePath()), e);
+        }
+    }
+
     /**
      * Shuts down the Solr core container.<p>
      */
@@ -0,0 +1,50 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.search;
+
+import java.io.IOException;
+
+/**
+ * An index writer that is able to make changes visible to searches without durably writing them.<p>
+ * 
+ * Index writers that do not implement this interface are always committed with {@link #commit()}.<p>
+ * 
+ * @since 9.5.0 
+ */
+public interface I_CmsSoftCommitIndexWriter extends I_CmsIndexWriter {
+
+    /**
+     * Makes all previous operations visible to searches, without durably writing them to the index.<p>
+     * 
+     * The operations are durably written with the next {@link #commit()}.<p>
+     * 
+     * @throws IOException in case something goes wrong
+     */
+    void softCommit() throws IOException;
+}
@@ -334,6 +334,24 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String LOG_NO_INDEX_WITH_NAME_1 = "LOG_NO_INDEX_WITH_NAME_1";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_OI_QUEUE_FULL_2 = "LOG_OI_QUEUE_FULL_2";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_OI_QUEUE_INVALID_ENTRY_1 = "LOG_OI_QUEUE_INVALID_ENTRY_1";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_OI_QUEUE_LOAD_2 = "LOG_OI_QUEUE_LOAD_2";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_OI_QUEUE_READ_ERROR_1 = "LOG_OI_QUEUE_READ_ERROR_1";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_OI_QUEUE_SAVE_2 = "LOG_OI_QUEUE_SAVE_2";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_OI_QUEUE_WRITE_ERROR_1 = "LOG_OI_QUEUE_WRITE_ERROR_1";
+
     /** Message constant for key in the resource bundle. */
     public static final String LOG_OI_UPDATE_EVENT_1 = "LOG_OI_UPDATE_EVENT_1";
 
@@ -355,12 +373,24 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String LOG_PARSE_EXTRACTION_CACHE_AGE_FAILED_2 = "LOG_PARSE_EXTRACTION_CACHE_AGE_FAILED_2";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_PARSE_EXTRACTION_CACHE_SIZE_FAILED_2 = "LOG_PARSE_EXTRACTION_CACHE_SIZE_FAILED_2";
+
     /** Message constant for key in the resource bundle. */
     public static final String LOG_PARSE_MAXCOMMIT_FAILED_2 = "LOG_PARSE_MAXCOMMIT_FAILED_2";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_PARSE_MAX_INDEXING_THREADS_FAILED_2 = "LOG_PARSE_MAX_INDEXING_THREADS_FAILED_2";
+
     /** Message constant for key in the resource bundle. */
     public static final String LOG_PARSE_OFFLINE_UPDATE_FAILED_2 = "LOG_PARSE_OFFLINE_UPDATE_FAILED_2";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_PARSE_OI_BATCH_SIZE_FAILED_2 = "LOG_PARSE_OI_BATCH_SIZE_FAILED_2";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_PARSE_OI_QUEUE_CAPACITY_FAILED_2 = "LOG_PARSE_OI_QUEUE_CAPACITY_FAILED_2";
+
     /** Message constant for key in the resource bundle. */
     public static final String LOG_PARSE_TIMEOUT_FAILED_2 = "LOG_PARSE_TIMEOUT_FAILED_2";
 
@@ -460,6 +490,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String RPT_SEARCH_INDEXING_STATS_4 = "RPT_SEARCH_INDEXING_STATS_4";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String RPT_SEARCH_INDEXING_THROUGHPUT_3 = "RPT_SEARCH_INDEXING_THROUGHPUT_3";
+
     /** Message constant for key in the resource bundle. */
     public static final String RPT_SEARCH_INDEXING_TIMEOUT_1 = "RPT_SEARCH_INDEXING_TIMEOUT_1";
 
@@ -43,6 +43,7 @@ import org.opencms.search.fields.CmsSearchField;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
 
 import org.apache.commons.logging.Log;
 
@@ -116,13 +117,11 @@ public abstract class A_CmsVfsDocument implements I_CmsDocumentFactory {
             // check if caching is enabled for this document type
             CmsExtractionResultCache cache = getCache();
             String cacheName = null;
-            if ((cache != null) && (resource.getSiblingCount() > 1)) {
-                // hard drive based caching only makes sense for resources that have siblings, 
-                // because the index will also store the content as a blob
-                cacheName = cache.getCacheName(
-                    resource,
-                    isLocaleDependend() ? index.getLocaleForResource(cms, resource, null) : null,
-                    getName());
+            Locale locale = null;
+            if (cache != null) {
+                // the cache name is an alias to the content key, so an unchanged resource is found without reading it
+                locale = isLocaleDependend() ? index.getLocaleForResource(cms, resource, null) : null;
+                cacheName = cache.getCacheName(resource, locale, getName());
                 content = cache.getCacheObject(cacheName);
             }
 
@@ -145,10 +144,20 @@ public abstract class A_CmsVfsDocument implements I_CmsDocumentFactory {
             if (content == null) {
                 // extraction result has not been attached to the resource
                 try {
-                    content = extractContent(cms, resource, index);
-                    if ((cache != null) && (resource.getSiblingCount() > 1)) {
-                        // save extracted content to the cache
-                        cache.saveCacheObject(cacheName, content);
+                    if (cache != null) {
+                        // look up the extraction result by the content, which may be shared with other resources
+                        CmsFile file = readFile(cms, resource);
+                        String contentKey = cache.getContentKey(file.getContents(), locale, getName());
+                        content = cache.getCacheObject(contentKey);
+                        if (content == null) {
+                            // pass the file with the content already read to avoid reading it again
+                            content = extractContent(cms, file, index);
+                            // save extracted content to the cache
+                            cache.saveCacheObject(contentKey, content);
+                        }
+                        cache.saveCacheAlias(cacheName, contentKey);
+                    } else {
+                        content = extractContent(cms, resource, index);
                     }
                 } catch (CmsIndexNoContentException e) {
                     // there was no content found for the resource 
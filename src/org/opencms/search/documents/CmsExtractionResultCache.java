@@ -27,46 +27,304 @@
 
 package org.opencms.search.documents;
 
-import org.opencms.cache.CmsVfsDiskCache;
 import org.opencms.file.CmsResource;
+import org.opencms.i18n.CmsEncoder;
 import org.opencms.main.CmsLog;
 import org.opencms.search.extractors.CmsExtractionResult;
 import org.opencms.search.extractors.I_CmsExtractionResult;
 import org.opencms.util.CmsFileUtil;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
 
+import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.logging.Log;
 
 /**
  * Implements a disk cache that stores text extraction results in the RFS.<p>
  * 
- * This cache operates on resource file names, plus a hash code calculated from 
- * {@link org.opencms.file.CmsResource#getDateLastModified()}
- * and {@link org.opencms.file.CmsResource#getLength()}. Optional a locale can be appended to this name.<p> 
+ * The extraction results are stored by a content key, which is calculated from a hash of the binary content
+ * of a resource, the search document type and an optional locale, see 
+ * {@link #getContentKey(byte[], Locale, String)}. Resources with identical content share a single extraction result,
+ * regardless of their path, and no matter if they are siblings or not.<p>
  * 
- * Since text extraction is done only on the content of a resource, all siblings must have the same content.
- * The difference can be only by the locale setting in case of an XML content or XML page. However,
- * the most problematic contents to extract for the search are in fact the MS Office and PDF formats.
- * For these documents, all siblings must produce the exact same text extraction result.<p>
+ * Since the content key requires the content of a resource, the cache also stores aliases from a cache name
+ * to a content key. The cache name is calculated from the resource id, the date of the last content 
+ * modification, the search document type and the locale, see {@link #getCacheName(CmsResource, Locale, String)}.
+ * Looking up an unchanged resource by its cache name does not require reading its content.<p>
+ * 
+ * The results and aliases are appended to segment files in the repository folder. The results are stored
+ * in a compact binary format compressed with deflate. The location of all results and aliases 
+ * is kept in memory, so a lookup reads exactly one record from disk. The index is rebuilt from the 
+ * segment files when the cache is created.<p>
+ * 
+ * The total size of the cache is limited. If it is exceeded, the least recently used results are removed.
+ * Segment files that contain mostly removed records are compacted by copying the remaining records to the 
+ * current segment file. The positions of the removed records are appended to a file next to their segment file,
+ * so they are skipped when the segment file is read again. Lookups and writes from parallel indexing threads 
+ * run concurrently, only removing results and compacting segments blocks other threads.<p>
  * 
  * This cache is usable for resources from the online AND the offline project at the same time, 
- * because any change to a resource will result in a changed hash code. This means a resource changed in the offline
- * project will have a new hash code compared to the online project. If the resource is identical in the online and 
- * the offline project, the generated hash codes will be the same.<p>
+ * because the content key only depends on the content of the resource.<p>
  * 
  * @since 6.2.0
  */
 public class CmsExtractionResultCache {
 
+    /**
+     * An alias from a cache name to a content key.<p>
+     */
+    private static class CmsCacheAlias {
+
+        /** The content key of the extraction result. */
+        String m_contentKey;
+
+        /** The position of the alias record in the segment file. */
+        long m_position;
+
+        /** The length of the alias record. */
+        int m_recordLength;
+
+        /** The segment containing the alias record. */
+        CmsCacheSegment m_segment;
+
+        /**
+         * Creates a new alias.<p>
+         * 
+         * @param contentKey the content key of the extraction result
+         * @param segment the segment containing the alias record
+         * @param position the position of the alias record in the segment file
+         * @param recordLength the length of the alias record
+         */
+        CmsCacheAlias(String contentKey, CmsCacheSegment segment, long position, int recordLength) {
+
+            m_contentKey = contentKey;
+            m_segment = segment;
+            m_position = position;
+            m_recordLength = recordLength;
+        }
+    }
+
+    /**
+     * The location of an extraction result in a segment file.<p>
+     */
+    private static class CmsCacheEntry {
+
+        /** The time of the last access to the extraction result. */
+        volatile long m_lastAccess;
+
+        /** The length of the stored extraction result. */
+        int m_length;
+
+        /** The position of the stored extraction result in the segment file. */
+        long m_position;
+
+        /** The length of the whole record. */
+        int m_recordLength;
+
+        /** The segment containing the extraction result. */
+        CmsCacheSegment m_segment;
+
+        /**
+         * Creates a new cache entry.<p>
+         * 
+         * @param segment the segment containing the extraction result
+         * @param position the position of the stored extraction result in the segment file
+         * @param length the length of the stored extraction result
+         * @param recordLength the length of the whole record
+         * @param lastAccess the time of the last access to the extraction result
+         */
+        CmsCacheEntry(CmsCacheSegment segment, long position, int length, int recordLength, long lastAccess) {
+
+            m_segment = segment;
+            m_position = position;
+            m_length = length;
+            m_recordLength = recordLength;
+            m_lastAccess = lastAccess;
+        }
+    }
+
+    /**
+     * A segment file of the cache.<p>
+     */
+    private static class CmsCacheSegment {
+
+        /** The channel used to read and write the segment file. */
+        FileChannel m_channel;
+
+        /** The segment file. */
+        File m_file;
+
+        /** The length of the segment file. */
+        long m_length;
+
+        /** The total length of the records in the segment file that are still in use. */
+        long m_liveBytes;
+
+        /** The random access file the channel belongs to. */
+        RandomAccessFile m_randomAccessFile;
+
+        /** The file containing the positions of the removed records of the segment file. */
+        File m_removedFile;
+
+        /**
+         * Opens a segment file, creating it if required.<p>
+         * 
+         * @param file the segment file
+         * 
+         * @throws IOException if the file can not be opened
+         */
+        CmsCacheSegment(File file)
+        throws IOException {
+
+            m_file = file;
+            String path = file.getPath();
+            m_removedFile = new File(path.substring(0, path.length() - SEGMENT_SUFFIX.length()) + REMOVED_SUFFIX);
+            m_randomAccessFile = new RandomAccessFile(file, "rw");
+            m_channel = m_randomAccessFile.getChannel();
+            m_length = m_channel.size();
+        }
+
+        /**
+         * Appends the positions of removed records to the file of removed records.<p>
+         * 
+         * @param positions the positions of the removed records
+         * 
+         * @throws IOException if writing fails
+         */
+        void addRemoved(List<Long> positions) throws IOException {
+
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(
+                m_removedFile,
+                true)));
+            try {
+                for (Long position : positions) {
+                    out.writeLong(position.longValue());
+                }
+            } finally {
+                out.close();
+            }
+        }
+
+        /**
+         * Closes the segment file.<p>
+         */
+        void close() {
+
+            try {
+                m_randomAccessFile.close();
+            } catch (IOException e) {
+                // ignore
+            }
+        }
+
+        /**
+         * Reads the positions of the removed records from the file of removed records.<p>
+         * 
+         * An incomplete position at the end of the file, left by an interrupted write, is ignored.<p>
+         * 
+         * @return the positions of the removed records
+         * 
+         * @throws IOException if reading fails
+         */
+        Set<Long> readRemoved() throws IOException {
+
+            Set<Long> result = new HashSet<Long>();
+            if (!m_removedFile.exists()) {
+                return result;
+            }
+            DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(m_removedFile)));
+            try {
+                for (long i = m_removedFile.length() / 8; i > 0; i--) {
+                    result.add(Long.valueOf(in.readLong()));
+                }
+            } finally {
+                in.close();
+            }
+            return result;
+        }
+    }
+
+    /** The default maximum size of the cache in bytes (1 GB). */
+    public static final long DEFAULT_MAX_SIZE = 1024L * 1024L * 1024L;
+
     /** The log object for this class. */
     private static final Log LOG = CmsLog.getLog(CmsExtractionResultCache.class);
 
+    /** The maximum size of a segment file in bytes. */
+    private static final long MAX_SEGMENT_SIZE = 64L * 1024L * 1024L;
+
+    /** Record type of an alias from a cache name to a content key. */
+    private static final byte RECORD_ALIAS = 'A';
+
+    /** Record type of an extraction result. */
+    private static final byte RECORD_RESULT = 'R';
+
+    /** The suffix of the files containing the positions of the removed records of a segment file. */
+    private static final String REMOVED_SUFFIX = ".del";
+
+    /** The prefix of the segment file names. */
+    private static final String SEGMENT_PREFIX = "segment-";
+
+    /** The suffix of the segment file names. */
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    /** The segment file new records are appended to. */
+    private CmsCacheSegment m_activeSegment;
+
+    /** The aliases from cache names to content keys. */
+    private Map<String, CmsCacheAlias> m_aliases;
+
+    /** The lock serializing the appends to the active segment file. */
+    private final Object m_appendLock;
+
+    /** The locations of the extraction results by their content key. */
+    private Map<String, CmsCacheEntry> m_entries;
+
+    /** Read lock for lookups and appends, write lock for removing results and compacting segments. */
+    private final ReentrantReadWriteLock m_lock;
+
+    /** The maximum size of the cache in bytes. */
+    private volatile long m_maxSize;
+
+    /** The number of the next segment file. */
+    private int m_nextSegmentNumber;
+
     /** The name of the cache base repository folder in the RFS. */
     private String m_rfsRepository;
 
+    /** The segment files of the cache, oldest first. */
+    private List<CmsCacheSegment> m_segments;
+
+    /** The total length of the records in use. */
+    private volatile long m_size;
+
     /**
      * Creates a new disk cache.<p>
      * 
@@ -77,65 +335,49 @@ public class CmsExtractionResultCache {
 
         // normalize the given folder name 
         m_rfsRepository = CmsFileUtil.normalizePath(basepath + foldername + File.separatorChar);
+        m_entries = new ConcurrentHashMap<String, CmsCacheEntry>();
+        m_aliases = new ConcurrentHashMap<String, CmsCacheAlias>();
+        m_segments = new ArrayList<CmsCacheSegment>();
+        m_appendLock = new Object();
+        m_lock = new ReentrantReadWriteLock();
+        m_maxSize = DEFAULT_MAX_SIZE;
+        m_nextSegmentNumber = 1;
+        open();
     }
 
     /**
-     * Removes all expired extraction result cache entries from the RFS cache.<p>
+     * Removes all expired extraction results from the cache.<p>
      * 
-     * @param maxAge the maximum age of the extraction result cache files in hours (or fractions of hours)
+     * If the cache is larger than its maximum size, the least recently used results are removed as well.<p>
      * 
-     * @return the total number of deleted resources
+     * @param maxAge the maximum age of the extraction results since their last use in hours (or fractions of hours)
+     * 
+     * @return the total number of removed results
      */
-    public synchronized int cleanCache(float maxAge) {
+    public int cleanCache(float maxAge) {
 
-        // calculate oldest possible date for the cache files
+        // calculate oldest possible date for the last access
         long expireDate = System.currentTimeMillis() - (long)(maxAge * 60.0f * 60.0f * 1000.0f);
-        File basedir = new File(m_rfsRepository);
-        // perform the cache cleanup
-        int count = 0;
-        if (basedir.canRead() && basedir.isDirectory()) {
-            File[] files = basedir.listFiles();
-            if (files != null) {
-                for (int i = 0; i < files.length; i++) {
-                    File f = files[i];
-                    if (f.canWrite()) {
-                        if (f.lastModified() < expireDate) {
-                            try {
-                                f.delete();
-                                count++;
-                            } catch (Exception e) {
-                                if (LOG.isWarnEnabled()) {
-                                    LOG.warn(
-                                        Messages.get().getBundle().key(
-                                            Messages.LOG_EXCERPT_CACHE_DELETE_ERROR_1,
-                                            f.getAbsolutePath()),
-                                        e);
-                                }
-                            }
-                        }
-                    }
-                }
-            }
-        }
-        return count;
+        return evict(expireDate, m_maxSize);
     }
 
     /**
-     * Returns the RFS name used for caching an the text extraction result
+     * Returns the name used for caching the text extraction result 
      * based on the given VFS resource and locale.<p>  
      * 
+     * The name changes whenever the content of the resource changes. It can be looked up 
+     * after it has been connected to a content key with {@link #saveCacheAlias(String, String)}.<p>
+     * 
      * @param resource the VFS resource to generate the cache name for
      * @param locale the locale to generate the cache name for (may be <code>null</code>)
      * @param docTypeName the name of the search document type
      * 
-     * @return the RFS name to use for caching the given VFS resource with parameters 
+     * @return the name to use for caching the given VFS resource with parameters 
      */
     public String getCacheName(CmsResource resource, Locale locale, String docTypeName) {
 
         // create a StringBuffer for the result
-        StringBuffer buf = new StringBuffer(m_rfsRepository.length() + 36);
-        buf.append(m_rfsRepository);
-        buf.append('/');
+        StringBuffer buf = new StringBuffer(64);
         buf.append(resource.getResourceId().toString());
 
         if (docTypeName != null) {
@@ -153,40 +395,80 @@ public class CmsExtractionResultCache {
         // please note that we need only worry about last change in content, since properties are ignored here
         buf.append('_');
         buf.append(resource.getDateContent());
-
-        // finally append the extension 
-        buf.append(".ext");
         return buf.toString();
     }
 
     /**
-     * Returns the extraction result in the requested file in the disk cache, or <code>null</code> if the
-     * file is not found in the cache, or is found but out-dated.<p>
+     * Returns the extraction result stored for the given cache name or content key, 
+     * or <code>null</code> if no result is found in the cache.<p>
      * 
-     * @param rfsName the file RFS name to look up in the cache 
+     * @param key the cache name or content key to look up in the cache 
      * 
-     * @return the extraction result stored in the requested file in the RFS disk cache, or <code>null</code> 
+     * @return the extraction result stored for the given key, or <code>null</code> 
      */
-    public CmsExtractionResult getCacheObject(String rfsName) {
+    public CmsExtractionResult getCacheObject(String key) {
 
+        m_lock.readLock().lock();
         try {
-            File f = new File(rfsName);
-            if (f.exists()) {
-                long age = f.lastModified();
-                if ((System.currentTimeMillis() - age) > 3600000) {
-                    // file has not been touched for 1 hour, touch the file with the current date
-                    f.setLastModified(System.currentTimeMillis());
+            CmsCacheAlias alias = m_aliases.get(key);
+            CmsCacheEntry entry = m_entries.get(alias != null ? alias.m_contentKey : key);
+            if (entry == null) {
+                return null;
+            }
+            byte[] data = new byte[entry.m_length];
+            ByteBuffer buffer = ByteBuffer.wrap(data);
+            while (buffer.hasRemaining()) {
+                int read = entry.m_segment.m_channel.read(buffer, entry.m_position + buffer.position());
+                if (read < 0) {
+                    throw new EOFException();
                 }
-                byte[] byteContent = CmsFileUtil.readFile(f);
-                return CmsExtractionResult.fromBytes(byteContent);
             }
+            entry.m_lastAccess = System.currentTimeMillis();
+            return decode(data);
         } catch (IOException e) {
             // unable to read content
+            LOG.warn(Messages.get().getBundle().key(Messages.LOG_EXTRACTION_CACHE_READ_ERROR_1, key), e);
+        } finally {
+            m_lock.readLock().unlock();
         }
         // this code can be reached only in case of an error
         return null;
     }
 
+    /**
+     * Returns the key used for caching the text extraction result based on the given content and locale.<p>
+     * 
+     * @param content the binary content of the resource
+     * @param locale the locale to generate the key for (may be <code>null</code>)
+     * @param docTypeName the name of the search document type
+     * 
+     * @return the key to use for caching the extraction result of the given content
+     */
+    public String getContentKey(byte[] content, Locale locale, String docTypeName) {
+
+        StringBuffer buf = new StringBuffer(64);
+        buf.append(DigestUtils.shaHex(content));
+        if (docTypeName != null) {
+            buf.append('_');
+            buf.append(docTypeName);
+        }
+        if (locale != null) {
+            buf.append('_');
+            buf.append(locale.toString());
+        }
+        return buf.toString();
+    }
+
+    /**
+     * Returns the maximum size of the cache in bytes.<p>
+     * 
+     * @return the maximum size of the cache in bytes
+     */
+    public long getMaxSize() {
+
+        return m_maxSize;
+    }
+
     /**
      * Returns the absolute path of the cache repository in the RFS.<p>
      * 
@@ -198,18 +480,589 @@ public class CmsExtractionResultCache {
     }
 
     /**
-     * Serializes the given extraction result and saves it in the disk cache.<p> 
+     * Returns the total size of the extraction results and aliases in the cache in bytes.<p>
+     * 
+     * @return the size of the cache in bytes
+     */
+    public long getSize() {
+
+        return m_size;
+    }
+
+    /**
+     * Connects the given cache name with the extraction result stored for the given content key.<p>
+     * 
+     * Nothing is stored if there is no extraction result for the content key.<p>
+     * 
+     * @param cacheName the cache name, see {@link #getCacheName(CmsResource, Locale, String)}
+     * @param contentKey the content key, see {@link #getContentKey(byte[], Locale, String)}
+     * 
+     * @throws IOException in case of disk access errors
+     */
+    public void saveCacheAlias(String cacheName, String contentKey) throws IOException {
+
+        CmsCacheAlias existing = m_aliases.get(cacheName);
+        if (((existing != null) && existing.m_contentKey.equals(contentKey)) || !m_entries.containsKey(contentKey)) {
+            // alias already stored, or no result to point to
+            return;
+        }
+        m_lock.readLock().lock();
+        try {
+            synchronized (m_appendLock) {
+                byte[] record = createRecord(RECORD_ALIAS, cacheName, contentKey, null);
+                long position = append(record);
+                CmsCacheAlias alias = new CmsCacheAlias(contentKey, m_activeSegment, position, record.length);
+                addAlias(cacheName, alias);
+            }
+        } finally {
+            m_lock.readLock().unlock();
+        }
+        evictIfRequired();
+    }
+
+    /**
+     * Stores the given extraction result in the cache.<p> 
      * 
-     * @param rfsName the RFS name of the file to save the extraction result in
-     * @param content the extraction result to serialize and save
+     * If a result is already stored for the key, nothing is written.<p>
+     * 
+     * @param key the key to store the extraction result for, usually a content key 
+     * @param content the extraction result to store
      * 
      * @throws IOException in case of disk access errors
      */
-    public void saveCacheObject(String rfsName, I_CmsExtractionResult content) throws IOException {
+    public void saveCacheObject(String key, I_CmsExtractionResult content) throws IOException {
+
+        if ((content.getContentItems() == null) || m_entries.containsKey(key)) {
+            return;
+        }
+        byte[] data = encode(content.getContentItems());
+        m_lock.readLock().lock();
+        try {
+            synchronized (m_appendLock) {
+                if (m_entries.containsKey(key)) {
+                    // stored by another indexing thread in the meantime
+                    return;
+                }
+                byte[] record = createRecord(RECORD_RESULT, key, null, data);
+                long position = append(record) + (record.length - data.length);
+                CmsCacheEntry entry = new CmsCacheEntry(
+                    m_activeSegment,
+                    position,
+                    data.length,
+                    record.length,
+                    System.currentTimeMillis());
+                addEntry(key, entry);
+            }
+        } finally {
+            m_lock.readLock().unlock();
+        }
+        evictIfRequired();
+    }
+
+    /**
+     * Sets the maximum size of the cache in bytes.<p>
+     * 
+     * @param maxSize the maximum size of the cache in bytes
+     */
+    public void setMaxSize(long maxSize) {
+
+        m_maxSize = maxSize;
+        evictIfRequired();
+    }
+
+    /**
+     * Closes all segment files of the cache.<p>
+     */
+    public void shutDown() {
+
+        m_lock.writeLock().lock();
+        try {
+            for (CmsCacheSegment segment : m_segments) {
+                segment.close();
+            }
+            m_segments.clear();
+            m_entries.clear();
+            m_aliases.clear();
+            m_size = 0;
+            m_activeSegment = null;
+        } finally {
+            m_lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Reads a string written with {@link #writeString(DataOutputStream, String)}.<p>
+     * 
+     * @param in the stream to read from
+     * 
+     * @return the string read
+     * 
+     * @throws IOException if reading fails
+     */
+    private static String readString(DataInputStream in) throws IOException {
+
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, CmsEncoder.ENCODING_UTF_8);
+    }
+
+    /**
+     * Writes a string as length and UTF-8 encoded bytes.<p>
+     * 
+     * @param out the stream to write to 
+     * @param value the string to write, may be <code>null</code>
+     * 
+     * @throws IOException if writing fails
+     */
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+
+        if (value == null) {
+            out.writeInt(-1);
+        } else {
+            byte[] bytes = value.getBytes(CmsEncoder.ENCODING_UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Adds an alias to the in-memory index, replacing an existing alias for the same cache name.<p>
+     * 
+     * @param cacheName the cache name
+     * @param alias the alias
+     */
+    private void addAlias(String cacheName, CmsCacheAlias alias) {
+
+        alias.m_segment.m_liveBytes += alias.m_recordLength;
+        m_size += alias.m_recordLength;
+        CmsCacheAlias old = m_aliases.put(cacheName, alias);
+        if (old != null) {
+            old.m_segment.m_liveBytes -= old.m_recordLength;
+            m_size -= old.m_recordLength;
+        }
+    }
+
+    /**
+     * Adds an extraction result to the in-memory index, replacing an existing entry for the same key.<p>
+     * 
+     * @param key the content key
+     * @param entry the entry
+     */
+    private void addEntry(String key, CmsCacheEntry entry) {
+
+        entry.m_segment.m_liveBytes += entry.m_recordLength;
+        m_size += entry.m_recordLength;
+        CmsCacheEntry old = m_entries.put(key, entry);
+        if (old != null) {
+            old.m_segment.m_liveBytes -= old.m_recordLength;
+            m_size -= old.m_recordLength;
+        }
+    }
+
+    /**
+     * Adds the position of a removed record to the removed positions of its segment.<p>
+     * 
+     * @param removed the removed positions by segment
+     * @param segment the segment containing the removed record
+     * @param position the position of the removed record
+     */
+    private void addRemoved(Map<CmsCacheSegment, List<Long>> removed, CmsCacheSegment segment, long position) {
+
+        List<Long> positions = removed.get(segment);
+        if (positions == null) {
+            positions = new ArrayList<Long>();
+            removed.put(segment, positions);
+        }
+        positions.add(Long.valueOf(position));
+    }
+
+    /**
+     * Appends a record to the active segment file, starting a new segment file if the active one is full.<p>
+     * 
+     * Must be called while holding the append lock.<p>
+     * 
+     * @param record the record to append
+     * 
+     * @return the position of the record in the active segment file
+     * 
+     * @throws IOException if writing fails
+     */
+    private long append(byte[] record) throws IOException {
+
+        if (m_activeSegment == null) {
+            throw new IOException(m_rfsRepository);
+        }
+        if ((m_activeSegment.m_length > 0) && ((m_activeSegment.m_length + record.length) > MAX_SEGMENT_SIZE)) {
+            m_activeSegment = createSegment();
+        }
+        long position = m_activeSegment.m_length;
+        ByteBuffer buffer = ByteBuffer.wrap(record);
+        while (buffer.hasRemaining()) {
+            m_activeSegment.m_channel.write(buffer, position + buffer.position());
+        }
+        m_activeSegment.m_length += record.length;
+        return position;
+    }
+
+    /**
+     * Copies the records still in use from the given segments to the active segment, then deletes the segments.<p>
+     * 
+     * Must be called while holding the write lock.<p>
+     * 
+     * @param segments the segments to compact
+     * 
+     * @throws IOException if reading or writing fails
+     */
+    private void compact(Set<CmsCacheSegment> segments) throws IOException {
+
+        synchronized (m_appendLock) {
+            if (segments.contains(m_activeSegment)) {
+                m_activeSegment = createSegment();
+            }
+            for (Map.Entry<String, CmsCacheEntry> e : m_entries.entrySet()) {
+                CmsCacheEntry entry = e.getValue();
+                if (segments.contains(entry.m_segment)) {
+                    byte[] data = new byte[entry.m_length];
+                    ByteBuffer buffer = ByteBuffer.wrap(data);
+                    while (buffer.hasRemaining()) {
+                        if (entry.m_segment.m_channel.read(buffer, entry.m_position + buffer.position()) < 0) {
+                            throw new EOFException(entry.m_segment.m_file.getAbsolutePath());
+                        }
+                    }
+                    byte[] record = createRecord(RECORD_RESULT, e.getKey(), null, data);
+                    long position = append(record) + (record.length - data.length);
+                    addEntry(e.getKey(), new CmsCacheEntry(
+                        m_activeSegment,
+                        position,
+                        data.length,
+                        record.length,
+                        entry.m_lastAccess));
+                }
+            }
+            for (Map.Entry<String, CmsCacheAlias> e : m_aliases.entrySet()) {
+                if (segments.contains(e.getValue().m_segment)) {
+                    String contentKey = e.getValue().m_contentKey;
+                    byte[] record = createRecord(RECORD_ALIAS, e.getKey(), contentKey, null);
+                    long position = append(record);
+                    addAlias(e.getKey(), new CmsCacheAlias(contentKey, m_activeSegment, position, record.length));
+                }
+            }
+            for (CmsCacheSegment segment : segments) {
+                segment.close();
+                m_segments.remove(segment);
+                if (!segment.m_file.delete()) {
+                    LOG.warn(Messages.get().getBundle().key(
+                        Messages.LOG_EXCERPT_CACHE_DELETE_ERROR_1,
+                        segment.m_file.getAbsolutePath()));
+                } else if (segment.m_removedFile.exists() && !segment.m_removedFile.delete()) {
+                    LOG.warn(Messages.get().getBundle().key(
+                        Messages.LOG_EXCERPT_CACHE_DELETE_ERROR_1,
+                        segment.m_removedFile.getAbsolutePath()));
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates a record for a segment file.<p>
+     * 
+     * @param type the record type 
+     * @param key the key of the record
+     * @param target the content key for an alias record
+     * @param data the stored extraction result for a result record
+     * 
+     * @return the record
+     * 
+     * @throws IOException if creating the record fails
+     */
+    private byte[] createRecord(byte type, String key, String target, byte[] data) throws IOException {
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + (data != null ? data.length : 0));
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(type);
+        out.writeLong(System.currentTimeMillis());
+        writeString(out, key);
+        if (type == RECORD_ALIAS) {
+            writeString(out, target);
+        } else {
+            out.writeInt(data.length);
+            out.write(data);
+        }
+        out.close();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Creates a new segment file and adds it to the list of segments.<p>
+     * 
+     * @return the new segment
+     * 
+     * @throws IOException if the segment file can not be created
+     */
+    private CmsCacheSegment createSegment() throws IOException {
+
+        File file = new File(m_rfsRepository, SEGMENT_PREFIX + m_nextSegmentNumber + SEGMENT_SUFFIX);
+        m_nextSegmentNumber++;
+        CmsCacheSegment segment = new CmsCacheSegment(file);
+        m_segments.add(segment);
+        return segment;
+    }
+
+    /**
+     * Decodes a stored extraction result.<p>
+     * 
+     * @param data the stored extraction result
+     * 
+     * @return the extraction result
+     * 
+     * @throws IOException if the data is invalid
+     */
+    private CmsExtractionResult decode(byte[] data) throws IOException {
 
-        byte[] byteContent = content.getBytes();
-        if (byteContent != null) {
-            CmsVfsDiskCache.saveFile(rfsName, byteContent);
+        DataInputStream in = new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(data)));
+        try {
+            int count = in.readInt();
+            Map<String, String> items = new HashMap<String, String>(count * 2);
+            for (int i = 0; i < count; i++) {
+                items.put(readString(in), readString(in));
+            }
+            return new CmsExtractionResult(null, items);
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Encodes the items of an extraction result in a compressed binary format.<p>
+     * 
+     * @param items the extracted content items
+     * 
+     * @return the encoded extraction result
+     * 
+     * @throws IOException if encoding fails
+     */
+    private byte[] encode(Map<String, String> items) throws IOException {
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(1024);
+        DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(bytes));
+        try {
+            out.writeInt(items.size());
+            for (Map.Entry<String, String> item : items.entrySet()) {
+                writeString(out, item.getKey());
+                writeString(out, item.getValue());
+            }
+        } finally {
+            out.close();
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Removes the results not used since the given date, then the least recently used results until the 
+     * cache is not larger than the given size, and compacts the segment files.<p>
+     * 
+     * The positions of the removed records in the segment files that are not compacted are written
+     * to the files of removed records, so the records are not read again when the cache is reopened.<p>
+     * 
+     * @param expireDate results not used since this date are removed
+     * @param maxSize the maximum size of the cache in bytes
+     * 
+     * @return the number of removed results
+     */
+    private int evict(long expireDate, long maxSize) {
+
+        int count = 0;
+        m_lock.writeLock().lock();
+        try {
+            List<Map.Entry<String, CmsCacheEntry>> entries = new ArrayList<Map.Entry<String, CmsCacheEntry>>(
+                m_entries.entrySet());
+            Collections.sort(entries, new Comparator<Map.Entry<String, CmsCacheEntry>>() {
+
+                public int compare(Map.Entry<String, CmsCacheEntry> e1, Map.Entry<String, CmsCacheEntry> e2) {
+
+                    long t1 = e1.getValue().m_lastAccess;
+                    long t2 = e2.getValue().m_lastAccess;
+                    return t1 < t2 ? -1 : (t1 == t2 ? 0 : 1);
+                }
+            });
+            Map<CmsCacheSegment, List<Long>> removed = new HashMap<CmsCacheSegment, List<Long>>();
+            for (Map.Entry<String, CmsCacheEntry> e : entries) {
+                CmsCacheEntry entry = e.getValue();
+                if ((entry.m_lastAccess >= expireDate) && (m_size <= maxSize)) {
+                    break;
+                }
+                m_entries.remove(e.getKey());
+                entry.m_segment.m_liveBytes -= entry.m_recordLength;
+                m_size -= entry.m_recordLength;
+                addRemoved(removed, entry.m_segment, entry.m_position);
+                count++;
+            }
+            if (count > 0) {
+                // remove the aliases to removed results
+                Iterator<CmsCacheAlias> i = m_aliases.values().iterator();
+                while (i.hasNext()) {
+                    CmsCacheAlias alias = i.next();
+                    if (!m_entries.containsKey(alias.m_contentKey)) {
+                        i.remove();
+                        alias.m_segment.m_liveBytes -= alias.m_recordLength;
+                        m_size -= alias.m_recordLength;
+                        addRemoved(removed, alias.m_segment, alias.m_position);
+                    }
+                }
+                // compact the segments that contain more removed than used records
+                Set<CmsCacheSegment> segments = new HashSet<CmsCacheSegment>();
+                for (CmsCacheSegment segment : m_segments) {
+                    if ((segment.m_liveBytes * 2) < segment.m_length) {
+                        segments.add(segment);
+                    }
+                }
+                for (Map.Entry<CmsCacheSegment, List<Long>> e : removed.entrySet()) {
+                    if (!segments.contains(e.getKey())) {
+                        e.getKey().addRemoved(e.getValue());
+                    }
+                }
+                if (!segments.isEmpty()) {
+                    compact(segments);
+                }
+                if (LOG.isInfoEnabled()) {
+                    LOG.info(Messages.get().getBundle().key(
+                        Messages.LOG_EXTRACTION_CACHE_EVICTED_3,
+                        Integer.valueOf(count),
+                        Integer.valueOf(segments.size()),
+                        m_rfsRepository));
+                }
+            }
+        } catch (IOException e) {
+            LOG.error(Messages.get().getBundle().key(Messages.LOG_EXTRACTION_CACHE_WRITE_ERROR_1, m_rfsRepository), e);
+        } finally {
+            m_lock.writeLock().unlock();
+        }
+        return count;
+    }
+
+    /**
+     * Removes the least recently used results if the cache is larger than its maximum size.<p>
+     * 
+     * To avoid removing results on every write, the cache is reduced to 80% of its maximum size.<p>
+     */
+    private void evictIfRequired() {
+
+        long maxSize = m_maxSize;
+        if (m_size > maxSize) {
+            evict(0, (maxSize / 10) * 8);
+        }
+    }
+
+    /**
+     * Opens the segment files in the repository folder and rebuilds the in-memory index.<p>
+     * 
+     * Files of the previous cache format, which stored each result in a file of its own, are deleted.<p>
+     */
+    private void open() {
+
+        File folder = new File(m_rfsRepository);
+        if (!folder.exists()) {
+            folder.mkdirs();
+        }
+        List<Integer> numbers = new ArrayList<Integer>();
+        File[] files = folder.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                String name = file.getName();
+                if (name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX)) {
+                    try {
+                        numbers.add(Integer.valueOf(name.substring(
+                            SEGMENT_PREFIX.length(),
+                            name.length() - SEGMENT_SUFFIX.length())));
+                    } catch (NumberFormatException e) {
+                        // not a segment file
+                    }
+                } else if (name.endsWith(".ext") && !file.delete()) {
+                    LOG.warn(Messages.get().getBundle().key(
+                        Messages.LOG_EXCERPT_CACHE_DELETE_ERROR_1,
+                        file.getAbsolutePath()));
+                }
+            }
+        }
+        Collections.sort(numbers);
+        try {
+            for (Integer number : numbers) {
+                CmsCacheSegment segment = new CmsCacheSegment(new File(
+                    m_rfsRepository,
+                    SEGMENT_PREFIX + number + SEGMENT_SUFFIX));
+                m_segments.add(segment);
+                m_nextSegmentNumber = number.intValue() + 1;
+                readSegment(segment);
+            }
+            m_activeSegment = m_segments.isEmpty() ? createSegment() : m_segments.get(m_segments.size() - 1);
+            if (LOG.isInfoEnabled()) {
+                LOG.info(Messages.get().getBundle().key(
+                    Messages.LOG_EXTRACTION_CACHE_OPEN_3,
+                    Integer.valueOf(m_entries.size()),
+                    Long.valueOf(m_size),
+                    m_rfsRepository));
+            }
+        } catch (IOException e) {
+            LOG.error(Messages.get().getBundle().key(Messages.LOG_EXTRACTION_CACHE_READ_ERROR_1, m_rfsRepository), e);
+        }
+    }
+
+    /**
+     * Reads the records of a segment file into the in-memory index.<p>
+     * 
+     * Records listed in the file of removed records of the segment are skipped. 
+     * An incomplete record at the end of the file, left by an interrupted write, is cut off.<p>
+     * 
+     * @param segment the segment to read
+     * 
+     * @throws IOException if reading fails
+     */
+    private void readSegment(CmsCacheSegment segment) throws IOException {
+
+        Set<Long> removed = segment.readRemoved();
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(segment.m_file)));
+        long position = 0;
+        try {
+            while (position < segment.m_length) {
+                try {
+                    byte type = in.readByte();
+                    long time = in.readLong();
+                    String key = readString(in);
+                    int headerLength = 1 + 8 + 4 + key.getBytes(CmsEncoder.ENCODING_UTF_8).length;
+                    if (type == RECORD_RESULT) {
+                        int length = in.readInt();
+                        in.readFully(new byte[length]);
+                        int recordLength = headerLength + 4 + length;
+                        long dataPosition = position + headerLength + 4;
+                        if (!removed.contains(Long.valueOf(dataPosition))) {
+                            addEntry(key, new CmsCacheEntry(segment, dataPosition, length, recordLength, time));
+                        }
+                        position += recordLength;
+                    } else if (type == RECORD_ALIAS) {
+                        String contentKey = readString(in);
+                        int recordLength = headerLength + 4 + contentKey.getBytes(CmsEncoder.ENCODING_UTF_8).length;
+                        if (!removed.contains(Long.valueOf(position))) {
+                            addAlias(key, new CmsCacheAlias(contentKey, segment, position, recordLength));
+                        }
+                        position += recordLength;
+                    } else {
+                        throw new EOFException();
+                    }
+                } catch (EOFException e) {
+                    LOG.warn(Messages.get().getBundle().key(
+                        Messages.LOG_EXTRACTION_CACHE_TRUNCATED_2,
+                        segment.m_file.getAbsolutePath(),
+                        Long.valueOf(position)));
+                    segment.m_channel.truncate(position);
+                    segment.m_length = position;
+                }
+            }
+        } finally {
+            in.close();
         }
     }
-}
\ No newline at end of file
+}
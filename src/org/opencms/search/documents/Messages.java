@@ -67,6 +67,21 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String LOG_EXCERPT_CACHE_DELETE_ERROR_1 = "LOG_EXCERPT_CACHE_DELETE_ERROR_1";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_EXTRACTION_CACHE_EVICTED_3 = "LOG_EXTRACTION_CACHE_EVICTED_3";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_EXTRACTION_CACHE_OPEN_3 = "LOG_EXTRACTION_CACHE_OPEN_3";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_EXTRACTION_CACHE_READ_ERROR_1 = "LOG_EXTRACTION_CACHE_READ_ERROR_1";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_EXTRACTION_CACHE_TRUNCATED_2 = "LOG_EXTRACTION_CACHE_TRUNCATED_2";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_EXTRACTION_CACHE_WRITE_ERROR_1 = "LOG_EXTRACTION_CACHE_WRITE_ERROR_1";
+
     /** Message constant for key in the resource bundle. */
     public static final String LOG_EXTRACT_CONTENT_2 = "LOG_EXTRACT_CONTENT_2";
 
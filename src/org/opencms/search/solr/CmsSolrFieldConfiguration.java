@@ -51,7 +51,11 @@ import org.opencms.search.fields.CmsSearchFieldConfiguration;
 import org.opencms.search.fields.CmsSearchFieldMapping;
 import org.opencms.search.fields.CmsSearchFieldMappingType;
 import org.opencms.search.fields.I_CmsSearchFieldMapping;
+import org.opencms.security.CmsAccessControlList;
+import org.opencms.security.CmsPermissionSet;
+import org.opencms.security.CmsPermissionSetCustom;
 import org.opencms.util.CmsStringUtil;
+import org.opencms.util.CmsUUID;
 import org.opencms.xml.CmsXmlContentDefinition;
 import org.opencms.xml.containerpage.CmsContainerElementBean;
 import org.opencms.xml.containerpage.CmsContainerPageBean;
@@ -155,6 +159,8 @@ public class CmsSolrFieldConfiguration extends CmsSearchFieldConfiguration {
 
         document.addSearchField(m_solrFields.get(CmsSearchField.FIELD_VERSION), "" + resource.getVersion());
 
+        document = appendAccessControlList(document, cms, resource);
+
         return document;
     }
 
@@ -182,6 +188,58 @@ public class CmsSolrFieldConfiguration extends CmsSearchFieldConfiguration {
         }
     }
 
+    /**
+     * Appends the principals of the access control list of the resource to the document.<p>
+     * 
+     * The principals allowed and denied to read the resource are stored in separate fields,
+     * this allows to filter the search results by the read permissions of the current user
+     * inside the index, see {@link CmsSolrIndex#getPermissionFilterQuery(CmsObject)}.<p>
+     * 
+     * Since the access control list also contains the entries inherited from the parent folders,
+     * the search manager re-indexes the files below a folder if the permissions of the folder are 
+     * changed, both in the offline indexes and on publishing.<p>
+     * 
+     * @param document the document to extend
+     * @param cms the OpenCms context used for indexing
+     * @param resource the resource that is indexed
+     * 
+     * @return the extended document
+     */
+    protected I_CmsSearchDocument appendAccessControlList(
+        I_CmsSearchDocument document,
+        CmsObject cms,
+        CmsResource resource) {
+
+        String storedSiteRoot = cms.getRequestContext().getSiteRoot();
+        try {
+            cms.getRequestContext().setSiteRoot("");
+            CmsAccessControlList acl = cms.getAccessControlList(resource.getRootPath());
+            List<String> principals = new ArrayList<String>();
+            List<String> allowed = new ArrayList<String>();
+            List<String> denied = new ArrayList<String>();
+            for (Map.Entry<CmsUUID, CmsPermissionSetCustom> entry : acl.getPermissionMap().entrySet()) {
+                String principal = entry.getKey().toString();
+                CmsPermissionSet permissions = entry.getValue();
+                principals.add(principal);
+                if ((permissions.getDeniedPermissions() & CmsPermissionSet.PERMISSION_READ) > 0) {
+                    // denied permissions always win over allowed permissions
+                    denied.add(principal);
+                } else if ((permissions.getAllowedPermissions() & CmsPermissionSet.PERMISSION_READ) > 0) {
+                    allowed.add(principal);
+                }
+            }
+            CmsSolrDocument solrDocument = (CmsSolrDocument)document;
+            solrDocument.addMultiValuedField(CmsSearchField.FIELD_ACL_PRINCIPALS, principals);
+            solrDocument.addMultiValuedField(CmsSearchField.FIELD_ACL_READ_ALLOWED, allowed);
+            solrDocument.addMultiValuedField(CmsSearchField.FIELD_ACL_READ_DENIED, denied);
+        } catch (CmsException e) {
+            LOG.error(e.getLocalizedMessage(), e);
+        } finally {
+            cms.getRequestContext().setSiteRoot(storedSiteRoot);
+        }
+        return document;
+    }
+
     /**
      * @see org.opencms.search.fields.CmsSearchFieldConfiguration#appendDates(org.opencms.search.I_CmsSearchDocument, org.opencms.file.CmsObject, org.opencms.file.CmsResource, org.opencms.search.extractors.I_CmsExtractionResult, java.util.List, java.util.List)
      */
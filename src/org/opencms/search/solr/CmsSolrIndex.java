@@ -33,13 +33,17 @@ package org.opencms.search.solr;
 
 import org.opencms.configuration.CmsConfigurationException;
 import org.opencms.configuration.CmsParameterConfiguration;
+import org.opencms.file.CmsGroup;
 import org.opencms.file.CmsObject;
 import org.opencms.file.CmsProject;
 import org.opencms.file.CmsPropertyDefinition;
 import org.opencms.file.CmsResource;
+import org.opencms.file.CmsUser;
 import org.opencms.file.types.CmsResourceTypeXmlContainerPage;
 import org.opencms.file.types.CmsResourceTypeXmlContent;
 import org.opencms.i18n.CmsEncoder;
+import org.opencms.json.JSONException;
+import org.opencms.json.JSONWriter;
 import org.opencms.main.CmsException;
 import org.opencms.main.CmsIllegalArgumentException;
 import org.opencms.main.CmsLog;
@@ -56,6 +60,7 @@ import org.opencms.search.I_CmsIndexWriter;
 import org.opencms.search.I_CmsSearchDocument;
 import org.opencms.search.documents.I_CmsDocumentFactory;
 import org.opencms.search.fields.CmsSearchField;
+import org.opencms.security.CmsAccessControlEntry;
 import org.opencms.security.CmsRole;
 import org.opencms.security.CmsRoleViolationException;
 import org.opencms.util.CmsRequestUtil;
@@ -67,7 +72,9 @@ import java.io.UnsupportedEncodingException;
 import java.io.Writer;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Date;
 import java.util.List;
 import java.util.Locale;
 
@@ -76,6 +83,7 @@ import javax.servlet.ServletResponse;
 import org.apache.commons.logging.Log;
 import org.apache.lucene.index.Term;
 import org.apache.solr.client.solrj.SolrQuery;
+import org.apache.solr.client.solrj.SolrQuery.ORDER;
 import org.apache.solr.client.solrj.SolrServer;
 import org.apache.solr.client.solrj.embedded.EmbeddedSolrServer;
 import org.apache.solr.client.solrj.response.QueryResponse;
@@ -86,6 +94,7 @@ import org.apache.solr.common.SolrInputDocument;
 import org.apache.solr.common.params.CommonParams;
 import org.apache.solr.common.params.HighlightParams;
 import org.apache.solr.common.util.ContentStreamBase;
+import org.apache.solr.common.util.DateUtil;
 import org.apache.solr.common.util.NamedList;
 import org.apache.solr.core.CoreContainer;
 import org.apache.solr.core.SolrCore;
@@ -98,6 +107,7 @@ import org.apache.solr.request.SolrRequestHandler;
 import org.apache.solr.response.BinaryQueryResponseWriter;
 import org.apache.solr.response.QueryResponseWriter;
 import org.apache.solr.response.SolrQueryResponse;
+import org.apache.solr.schema.IndexSchema;
 import org.apache.solr.schema.SchemaField;
 import org.apache.solr.search.DocListAndSet;
 import org.apache.solr.search.DocSlice;
@@ -126,9 +136,15 @@ public class CmsSolrIndex extends CmsSearchIndex {
     /** Indicates the maximum number of documents from the complete result set to return. */
     public static final int ROWS_MAX = 50;
 
+    /** The number of documents fetched from Solr at once when streaming a search result. */
+    public static final int STREAM_CHUNK_SIZE = 500;
+
     /** A constant for debug formatting output. */
     protected static final int DEBUG_PADDING_RIGHT = 50;
 
+    /** The content type of a streamed search result. */
+    private static final String CONTENT_TYPE_JSON = "application/json; charset=UTF-8";
+
     /** The name for the parameters key of the response header. */
     private static final String HEADER_PARAMS_NAME = "params";
 
@@ -156,6 +172,12 @@ public class CmsSolrIndex extends CmsSearchIndex {
         0L,
         0);
 
+    /** The name of the key that is used for the documents of a streamed search result. */
+    private static final String QUERY_DOCS_NAME = "docs";
+
+    /** The name of the key that is used for the hit count of a streamed search result. */
+    private static final String QUERY_NUM_FOUND_NAME = "numFound";
+
     /** The name of the key that is used for the result documents inside the Solr query response. */
     private static final String QUERY_RESPONSE_NAME = "response";
 
@@ -581,6 +603,162 @@ public class CmsSolrIndex extends CmsSearchIndex {
         }
     }
 
+    /**
+     * Performs a search on the Solr index and passes all found documents one by one to the given handler.<p>
+     * 
+     * Uses the default chunk size {@link #STREAM_CHUNK_SIZE}.<p>
+     * 
+     * @param cms the current OpenCms context
+     * @param query the OpenCms Solr query
+     * @param handler the handler for the found documents
+     * 
+     * @return the number of documents passed to the handler
+     * 
+     * @throws CmsSearchException if something goes wrong
+     * 
+     * @see #stream(CmsObject, CmsSolrQuery, int, I_CmsSolrResultHandler)
+     */
+    public long stream(CmsObject cms, CmsSolrQuery query, I_CmsSolrResultHandler handler) throws CmsSearchException {
+
+        return stream(cms, query, STREAM_CHUNK_SIZE, handler);
+    }
+
+    /**
+     * Performs a search on the Solr index and passes all found documents one by one to the given handler.<p>
+     * 
+     * In contrast to {@link #search(CmsObject, CmsSolrQuery, boolean)} the result is not limited by 
+     * {@link #ROWS_MAX} and never held in memory completely. The documents are fetched from Solr in chunks 
+     * of the given size, ordered by their id, and every chunk is selected by a filter on the id of the last 
+     * document of the previous chunk. So the memory consumption is constant, and the cost of fetching 
+     * a chunk does not grow with its position in the result like it does with the start parameter.<p>
+     * 
+     * The sort, start, rows, facet and highlighting parameters of the query are ignored.<p>
+     * 
+     * @param cms the current OpenCms context
+     * @param query the OpenCms Solr query
+     * @param chunkSize the number of documents to fetch from Solr at once
+     * @param handler the handler for the found documents
+     * 
+     * @return the number of documents passed to the handler
+     * 
+     * @throws CmsSearchException if something goes wrong
+     */
+    public long stream(CmsObject cms, CmsSolrQuery query, int chunkSize, I_CmsSolrResultHandler handler)
+    throws CmsSearchException {
+
+        // check if the user is allowed to access this index
+        checkOfflineAccess(cms);
+
+        int previousPriority = Thread.currentThread().getPriority();
+        CmsSolrQuery streamQuery = query.clone();
+        long count = 0;
+        try {
+            CmsObject searchCms = OpenCms.initCmsObject(cms);
+
+            // change thread priority in order to reduce search impact on overall system performance
+            if (getPriority() > 0) {
+                Thread.currentThread().setPriority(getPriority());
+            }
+
+            String permissionFilter = getPermissionFilterQuery(searchCms);
+            if (permissionFilter != null) {
+                streamQuery.addFilterQuery(permissionFilter);
+            }
+            streamQuery.setHighlight(false);
+            streamQuery.setFacet(false);
+            streamQuery.setSort(CmsSearchField.FIELD_ID, ORDER.asc);
+            if (streamQuery.getFields() != null) {
+                streamQuery.addField(CmsSearchField.FIELD_ID);
+            }
+            streamQuery.setStart(new Integer(0));
+            streamQuery.setRows(new Integer(chunkSize));
+
+            String lastId = null;
+            boolean hasMore = true;
+            while (hasMore) {
+                String keyFilter = null;
+                if (lastId != null) {
+                    // the filter changes with every chunk, so it must not be stored in the filter cache
+                    keyFilter = "{!cache=false}" + CmsSearchField.FIELD_ID + ":{" + lastId + " TO *}";
+                    streamQuery.addFilterQuery(keyFilter);
+                }
+                SolrDocumentList chunk = m_solr.query(streamQuery).getResults();
+                if (keyFilter != null) {
+                    streamQuery.removeFilterQuery(keyFilter);
+                }
+                hasMore = chunk.size() == chunkSize;
+                for (SolrDocument doc : chunk) {
+                    lastId = doc.getFirstValue(CmsSearchField.FIELD_ID).toString();
+                    CmsSolrDocument searchDoc = new CmsSolrDocument(doc);
+                    CmsResource resource = PSEUDO_RES;
+                    if (needsPermissionCheck(searchDoc)) {
+                        // the index side filter does not cover changes not yet reflected in the index
+                        resource = getResource(searchCms, searchDoc);
+                        if (resource == null) {
+                            continue;
+                        }
+                    }
+                    count++;
+                    if (!handler.handleResult(new CmsSearchResource(resource, searchDoc))) {
+                        // the handler does not want any more results
+                        return count;
+                    }
+                }
+            }
+        } catch (Exception e) {
+            throw new CmsSearchException(Messages.get().container(
+                Messages.LOG_SOLR_ERR_SEARCH_EXECUTION_FAILD_1,
+                CmsEncoder.decode(streamQuery.toString())), e);
+        } finally {
+
+            // re-set thread to previous priority
+            Thread.currentThread().setPriority(previousPriority);
+        }
+        return count;
+    }
+
+    /**
+     * Performs a search on the Solr index and streams all found documents as JSON to the given response.<p>
+     * 
+     * The response has the form <code>{"response":{"docs":[...],"numFound":n}}</code>, 
+     * it is written while the documents are fetched from Solr, 
+     * see {@link #stream(CmsObject, CmsSolrQuery, int, I_CmsSolrResultHandler)}.<p>
+     * 
+     * @param response the servlet response to write the documents to
+     * @param cms the current OpenCms context
+     * @param query the OpenCms Solr query
+     * 
+     * @throws CmsSearchException if the search fails
+     * @throws IOException if writing the response fails
+     */
+    public void stream(ServletResponse response, CmsObject cms, CmsSolrQuery query)
+    throws CmsSearchException, IOException {
+
+        response.setContentType(CONTENT_TYPE_JSON);
+        Writer out = new FastWriter(new OutputStreamWriter(response.getOutputStream(), UTF8));
+        final JSONWriter json = new JSONWriter(out);
+        final IndexSchema schema = OpenCms.getSearchManager().getSolrServerConfiguration().getSolrSchema();
+        try {
+            json.object().key(QUERY_RESPONSE_NAME).object().key(QUERY_DOCS_NAME).array();
+            long count = stream(cms, query, new I_CmsSolrResultHandler() {
+
+                public boolean handleResult(CmsSearchResource result) throws IOException {
+
+                    try {
+                        writeDocument(json, schema, (SolrInputDocument)result.getDocument().getDocument());
+                    } catch (JSONException e) {
+                        throw new IOException(e.getLocalizedMessage(), e);
+                    }
+                    return true;
+                }
+            });
+            json.endArray().key(QUERY_NUM_FOUND_NAME).value(count).endObject().endObject();
+        } catch (JSONException e) {
+            throw new IOException(e.getLocalizedMessage(), e);
+        }
+        out.flush();
+    }
+
     /**
      * @see org.opencms.search.CmsSearchIndex#createIndexBackup()
      */
@@ -636,6 +814,72 @@ public class CmsSolrIndex extends CmsSearchIndex {
         return excludeFromIndex;
     }
 
+    /**
+     * Returns the filter query that restricts the search result to the documents the current user
+     * is allowed to read, according to the access control lists stored in the index.<p>
+     * 
+     * The filter follows the evaluation of an access control list for a user: A document can be read if 
+     * one of the principals of the user is allowed to read it, or if none of the principals of the user 
+     * has an entry and "all others" are allowed to read it. In both cases none of the principals of the user 
+     * must be denied to read it. Documents without stored access control information, e.g. indexed 
+     * with an older version, are not filtered.<p>
+     * 
+     * Like the permission check of the VFS, the filter is not applied to the resources of the organizational 
+     * units the user is a VFS manager of, and not at all for a VFS manager of the root organizational unit.<p>
+     * 
+     * @param cms the current OpenCms context
+     * 
+     * @return the filter query, or <code>null</code> if the search result must not be filtered
+     * 
+     * @throws CmsException if reading the groups, roles or organizational unit resources of the current user fails
+     */
+    protected String getPermissionFilterQuery(CmsObject cms) throws CmsException {
+
+        if (!isCheckingPermissions() || OpenCms.getRoleManager().hasRole(cms, CmsRole.VFS_MANAGER)) {
+            // the user is allowed to read all documents
+            return null;
+        }
+        CmsUser user = cms.getRequestContext().getCurrentUser();
+        List<String> principals = new ArrayList<String>();
+        principals.add(user.getId().toString());
+        for (CmsGroup group : cms.getGroupsOfUser(user.getName(), false)) {
+            principals.add(group.getId().toString());
+        }
+        List<String> managedPaths = new ArrayList<String>();
+        for (CmsRole role : OpenCms.getRoleManager().getRolesOfUser(cms, user.getName(), "", true, false, false)) {
+            principals.add(role.getId().toString());
+            if (role.getRoleName().equals(CmsRole.VFS_MANAGER.getRoleName())) {
+                // the user is allowed to read all resources of the organizational unit
+                for (CmsResource resource : OpenCms.getOrgUnitManager().getResourcesForOrganizationalUnit(
+                    cms,
+                    role.getOuFqn())) {
+                    managedPaths.add(resource.getRootPath());
+                }
+            }
+        }
+        String principalTerms = "(\"" + CmsStringUtil.listAsString(principals, "\" OR \"") + "\")";
+
+        StringBuffer result = new StringBuffer(256);
+        // one of the principals is allowed to read
+        result.append("+(").append(CmsSearchField.FIELD_ACL_READ_ALLOWED).append(':').append(principalTerms);
+        // or no principal has an entry and all others are allowed to read
+        result.append(" OR (+").append(CmsSearchField.FIELD_ACL_READ_ALLOWED).append(":\"");
+        result.append(CmsAccessControlEntry.PRINCIPAL_ALL_OTHERS_ID).append("\" -");
+        result.append(CmsSearchField.FIELD_ACL_PRINCIPALS).append(':').append(principalTerms).append(')');
+        // or there is no access control information stored for the document
+        result.append(" OR (*:* -").append(CmsSearchField.FIELD_ACL_PRINCIPALS).append(":[* TO *]))");
+        // and none of the principals is denied to read
+        result.append(" -").append(CmsSearchField.FIELD_ACL_READ_DENIED).append(':').append(principalTerms);
+        if (!managedPaths.isEmpty()) {
+            // or the document is one of the resources of an organizational unit the user is a VFS manager of
+            String pathTerms = "(\"" + CmsStringUtil.listAsString(managedPaths, "\" OR \"") + "\")";
+            result.insert(0, '(').append(')');
+            result.append(" OR ").append(CmsSearchField.FIELD_PARENT_FOLDERS).append(':').append(pathTerms);
+            result.append(" OR ").append(CmsSearchField.FIELD_PATH).append(':').append(pathTerms);
+        }
+        return result.toString();
+    }
+
     /**
      * @see org.opencms.search.CmsSearchIndex#indexSearcherClose()
      */
@@ -728,21 +972,18 @@ public class CmsSolrIndex extends CmsSearchIndex {
      * the requested amount of search results and to provide a working pagination with
      * security check.</li>
      *
-     * <li>To be sure we get enough documents left even the permission check reduces the amount
-     * of found documents, the rows are multiplied by <code>'5'</code> and the current page
-     * additionally the offset is added. The count of documents we don't have enough
-     * permissions for grows with increasing page number, that's why we also multiply
-     * the rows by the current page count.</li>
+     * <li>The documents the user is not allowed to read are filtered out by Solr with the
+     * filter query returned by {@link #getPermissionFilterQuery(CmsObject)}, that works on the
+     * access control lists stored in the index. So only the requested page has to be fetched
+     * from Solr, and the hit count is correct for all pages.</li>
      *
-     * <li>Also make sure we perform the permission check for all found documents, so start with
-     * the first found doc.</li>
+     * <li>The permission check with the VFS is only performed for the documents of the requested page.
+     * It covers changes not yet reflected in the index, e.g. deleted resources or changed permissions
+     * of a parent folder. To fill up the page in this case, one additional page is fetched in reserve.</li>
      * </ul>
      *
-     * <b>NOTE:</b> If latter pages than the current one are containing protected documents the
-     * total hit count will be incorrect, because the permission check ends if we have
-     * enough results found for the page to display. With other words latter pages than
-     * the current can contain documents that will first be checked if those pages are
-     * requested to be displayed, what causes a incorrect hit count.<p>
+     * <b>NOTE:</b> If the permissions stored in the index are out of date for documents on other pages
+     * than the current one, the total hit count can be incorrect.<p>
      *
      * @param cms the current OpenCms context
      * @param ignoreMaxRows <code>true</code> to return all all requested rows, <code>false</code> to use max rows
@@ -776,6 +1017,7 @@ public class CmsSolrIndex extends CmsSearchIndex {
 
         query.setHighlight(false);
         LocalSolrQueryRequest solrQueryRequest = null;
+        String permissionFilter = null;
         try {
 
             // initialize the search context
@@ -796,15 +1038,22 @@ public class CmsSolrIndex extends CmsSearchIndex {
                 rows = ROWS_MAX;
             }
             int start = query.getStart() != null ? query.getStart().intValue() : 0;
-            int end = start + rows;
             int page = 0;
             if (rows > 0) {
                 page = Math.round(start / rows) + 1;
+                start = rows * (page - 1);
             }
 
-            // set the start to '0' and expand the rows before performing the query
-            query.setStart(new Integer(0));
-            query.setRows(new Integer((5 * rows * page) + start));
+            // the documents the user is not allowed to read are already filtered out by Solr, 
+            // so only the requested page is fetched, together with one reserve page that is used to fill 
+            // up the page in case the index contains permissions that are not up to date
+            permissionFilter = getPermissionFilterQuery(searchCms);
+            if (permissionFilter != null) {
+                query.addFilterQuery(permissionFilter);
+            }
+            int offset = start;
+            query.setStart(new Integer(offset));
+            query.setRows(new Integer(2 * rows));
 
             // perform the Solr query and remember the original Solr response
             QueryResponse queryResponse = m_solr.query(query);
@@ -812,11 +1061,9 @@ public class CmsSolrIndex extends CmsSearchIndex {
 
             // initialize the counts
             long hitCount = queryResponse.getResults().getNumFound();
-            start = -1;
-            end = -1;
+            int end = -1;
             if ((rows > 0) && (page > 0) && (hitCount > 0)) {
                 // calculate the final size of the search result
-                start = rows * (page - 1);
                 end = start + rows;
                 // ensure that both i and n are inside the range of foundDocuments.size()
                 start = new Long((start > hitCount) ? hitCount : start).intValue();
@@ -834,9 +1081,8 @@ public class CmsSolrIndex extends CmsSearchIndex {
                 m_postProcessor.init();
             }
 
-            // process found documents
-            List<CmsSearchResource> allDocs = new ArrayList<CmsSearchResource>();
-            int cnt = 0;
+            // process found documents, the permission check is only performed for the documents of the page
+            int cnt = offset;
             for (int i = 0; (i < queryResponse.getResults().size()) && (cnt < end); i++) {
                 try {
                     SolrDocument doc = queryResponse.getResults().get(i);
@@ -859,7 +1105,6 @@ public class CmsSolrIndex extends CmsSearchIndex {
                                 }
                                 maxScore = maxScore < searchDoc.getScore() ? searchDoc.getScore() : maxScore;
                             }
-                            allDocs.add(new CmsSearchResource(resource, searchDoc));
                             cnt++;
                         } else {
                             visibleHitCount--;
@@ -870,27 +1115,13 @@ public class CmsSolrIndex extends CmsSearchIndex {
                         resourceDocumentList.add(new CmsSearchResource(PSEUDO_RES, searchDoc));
                         solrDocumentList.add(doc);
                         maxScore = maxScore < searchDoc.getScore() ? searchDoc.getScore() : maxScore;
+                        cnt++;
                     }
                 } catch (Exception e) {
                     // should not happen, but if it does we want to go on with the next result nevertheless
                     LOG.warn(Messages.get().getBundle().key(Messages.LOG_SOLR_ERR_RESULT_ITERATION_FAILED_0), e);
                 }
             }
-            // the last documents were all secret so let's take the last found docs
-            if (resourceDocumentList.isEmpty() && (allDocs.size() > 0)) {
-                page = Math.round(allDocs.size() / rows) + 1;
-                int showCount = allDocs.size() % rows;
-                showCount = showCount == 0 ? rows : showCount;
-                start = allDocs.size() - new Long(showCount).intValue();
-                end = allDocs.size();
-                if (allDocs.size() > start) {
-                    resourceDocumentList = allDocs.subList(start, end);
-                    for (CmsSearchResource r : resourceDocumentList) {
-                        maxScore = maxScore < r.getDocument().getScore() ? r.getDocument().getScore() : maxScore;
-                        solrDocumentList.add(((CmsSolrDocument)r.getDocument()).getSolrDocument());
-                    }
-                }
-            }
             long processTime = System.currentTimeMillis() - startTime - solrTime;
 
             // create and return the result
@@ -1037,12 +1268,63 @@ public class CmsSolrIndex extends CmsSearchIndex {
                 CmsEncoder.decode(query.toString())), e);
         } finally {
 
+            // do not change the filter queries of the given query permanently
+            if (permissionFilter != null) {
+                query.removeFilterQuery(permissionFilter);
+            }
+
             // re-set thread to previous priority
             Thread.currentThread().setPriority(previousPriority);
         }
 
     }
 
+    /**
+     * Writes a found document as JSON object.<p>
+     * 
+     * Fields that are multi-valued according to the Solr schema are written as JSON arrays, 
+     * dates are written in the Solr date format.<p>
+     * 
+     * @param json the JSON writer
+     * @param schema the Solr schema
+     * @param doc the document to write
+     * 
+     * @throws JSONException if writing the document fails
+     */
+    private static void writeDocument(JSONWriter json, IndexSchema schema, SolrInputDocument doc)
+    throws JSONException {
+
+        json.object();
+        for (String name : doc.getFieldNames()) {
+            Collection<Object> values = doc.getFieldValues(name);
+            if ((values == null) || values.isEmpty()) {
+                continue;
+            }
+            json.key(name);
+            SchemaField field = schema.getFieldOrNull(name);
+            boolean multiValued = (field != null) ? field.multiValued() : (values.size() > 1);
+            if (multiValued) {
+                json.array();
+            }
+            for (Object value : values) {
+                if (value instanceof Date) {
+                    json.value(DateUtil.getThreadLocalDateFormat().format((Date)value));
+                } else if ((value instanceof Number) || (value instanceof Boolean)) {
+                    json.value(value);
+                } else {
+                    json.value(String.valueOf(value));
+                }
+                if (!multiValued) {
+                    break;
+                }
+            }
+            if (multiValued) {
+                json.endArray();
+            }
+        }
+        json.endObject();
+    }
+
     /**
      * Writes the Solr response.<p>
      *
@@ -34,8 +34,8 @@ package org.opencms.search.solr;
 import org.opencms.db.CmsPublishedResource;
 import org.opencms.main.CmsLog;
 import org.opencms.main.OpenCms;
-import org.opencms.search.I_CmsIndexWriter;
 import org.opencms.search.I_CmsSearchDocument;
+import org.opencms.search.I_CmsSoftCommitIndexWriter;
 
 import java.io.IOException;
 
@@ -50,7 +50,7 @@ import org.apache.solr.common.SolrInputDocument;
  * 
  * @since 8.5.0
  */
-public class CmsSolrIndexWriter implements I_CmsIndexWriter {
+public class CmsSolrIndexWriter implements I_CmsSoftCommitIndexWriter {
 
     /** The log object for this class. */
     protected static final Log LOG = CmsLog.getLog(CmsSolrIndexWriter.class);
@@ -172,6 +172,26 @@ public class CmsSolrIndexWriter implements I_CmsIndexWriter {
         // should be configured within solrconfig.xml
     }
 
+    /**
+     * Sends a soft commit to the Solr server, so a new searcher is opened without flushing the index.<p>
+     * 
+     * @see org.opencms.search.I_CmsSoftCommitIndexWriter#softCommit()
+     */
+    public void softCommit() throws IOException {
+
+        if ((m_server != null) && (m_index != null)) {
+            try {
+                LOG.info(Messages.get().getBundle().key(
+                    Messages.LOG_SOLR_WRITER_COMMIT_2,
+                    m_index.getName(),
+                    m_index.getPath()));
+                m_server.commit(false, true, true);
+            } catch (SolrServerException e) {
+                throw new IOException(e.getLocalizedMessage(), e);
+            }
+        }
+    }
+
     /**
      * @see org.opencms.search.I_CmsIndexWriter#updateDocument(java.lang.String, org.opencms.search.I_CmsSearchDocument)
      */
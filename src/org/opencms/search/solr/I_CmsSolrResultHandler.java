@@ -0,0 +1,57 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.search.solr;
+
+import org.opencms.search.CmsSearchResource;
+
+import java.io.IOException;
+
+/**
+ * Handles the documents of a streamed Solr search result one by one.<p>
+ * 
+ * @see CmsSolrIndex#stream(org.opencms.file.CmsObject, CmsSolrQuery, I_CmsSolrResultHandler)
+ * 
+ * @since 9.5.0
+ */
+public interface I_CmsSolrResultHandler {
+
+    /**
+     * Handles a single found document.<p>
+     * 
+     * The result is only valid during this call, implementations must not keep 
+     * references to it if the memory consumption of the search should stay constant.<p>
+     * 
+     * @param result the found document, together with the resource it belongs to
+     * 
+     * @return <code>true</code> to continue with the next document, <code>false</code> to stop the search
+     * 
+     * @throws IOException if writing the result fails
+     */
+    boolean handleResult(CmsSearchResource result) throws IOException;
+}
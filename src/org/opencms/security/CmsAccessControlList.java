@@ -62,6 +62,9 @@ public class CmsAccessControlList {
      */
     private Map<CmsUUID, CmsPermissionSetCustom> m_permissions;
 
+    /** Signals if this access control list may contain entries for single users. */
+    private boolean m_userEntries;
+
     /**
      * Constructor to create an empty access control list for a given resource.<p>
      *
@@ -84,6 +87,7 @@ public class CmsAccessControlList {
             m_permissions.put(entry.getPrincipal(), p);
         }
         p.addPermissions(entry.getPermissions());
+        updateUserEntries(entry);
     }
 
     /**
@@ -100,6 +104,7 @@ public class CmsAccessControlList {
             CmsUUID id = i.next();
             acl.m_permissions.put(id, (CmsPermissionSetCustom)(m_permissions.get(id)).clone());
         }
+        acl.m_userEntries = m_userEntries;
         return acl;
     }
 
@@ -202,6 +207,20 @@ public class CmsAccessControlList {
         return principals;
     }
 
+    /**
+     * Checks if this access control list may contain entries for single users.<p>
+     * 
+     * Entries are considered to be user entries unless they are flagged as group, role, 
+     * 'all others' or 'overwrite all' entries. So if this method returns <code>false</code>, 
+     * the permissions of a user only depend on the groups and roles of the user.<p>
+     * 
+     * @return <code>true</code> if this access control list may contain entries for single users
+     */
+    public boolean hasUserEntries() {
+
+        return m_userEntries;
+    }
+
     /**
      * Sets the allowed permissions of a given access control entry as allowed permissions in the access control list.<p>
      * The denied permissions are left unchanged.
@@ -216,6 +235,7 @@ public class CmsAccessControlList {
             m_permissions.put(entry.getPrincipal(), p);
         }
         p.setPermissions(entry.getAllowedPermissions(), p.getDeniedPermissions());
+        updateUserEntries(entry);
     }
 
     /**
@@ -232,5 +252,26 @@ public class CmsAccessControlList {
             m_permissions.put(entry.getPrincipal(), p);
         }
         p.setPermissions(p.getAllowedPermissions(), entry.getDeniedPermissions());
+        updateUserEntries(entry);
+    }
+
+    /**
+     * Updates the user entries flag for the given access control entry.<p>
+     * 
+     * @param entry the access control entry
+     */
+    private void updateUserEntries(CmsAccessControlEntry entry) {
+
+        int principalFlags = CmsAccessControlEntry.ACCESS_FLAGS_GROUP
+            | CmsAccessControlEntry.ACCESS_FLAGS_ROLE
+            | CmsAccessControlEntry.ACCESS_FLAGS_ALLOTHERS
+            | CmsAccessControlEntry.ACCESS_FLAGS_OVERWRITE_ALL;
+        if (m_userEntries
+            || ((entry.getFlags() & principalFlags) != 0)
+            || entry.getPrincipal().equals(CmsAccessControlEntry.PRINCIPAL_ALL_OTHERS_ID)
+            || entry.getPrincipal().equals(CmsAccessControlEntry.PRINCIPAL_OVERWRITE_ALL_ID)) {
+            return;
+        }
+        m_userEntries = true;
     }
 }
\ No newline at end of file
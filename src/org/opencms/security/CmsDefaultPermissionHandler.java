@@ -28,12 +28,15 @@
 package org.opencms.security;
 
 import org.opencms.configuration.CmsSystemConfiguration;
+import org.opencms.db.CmsCacheKey;
 import org.opencms.db.CmsCacheSettings;
 import org.opencms.db.CmsDbContext;
 import org.opencms.db.CmsDriverManager;
 import org.opencms.db.CmsSecurityManager;
 import org.opencms.db.I_CmsCacheKey;
+import org.opencms.file.CmsGroup;
 import org.opencms.file.CmsProject;
+import org.opencms.file.CmsRequestContext;
 import org.opencms.file.CmsResource;
 import org.opencms.file.CmsResourceFilter;
 import org.opencms.file.CmsUser;
@@ -43,8 +46,13 @@ import org.opencms.main.CmsException;
 import org.opencms.main.CmsInitException;
 import org.opencms.main.CmsLog;
 import org.opencms.main.OpenCms;
+import org.opencms.monitor.CmsMemoryMonitor;
+import org.opencms.util.CmsUUID;
 
 import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
 
 import org.apache.commons.logging.Log;
 
@@ -55,6 +63,52 @@ import org.apache.commons.logging.Log;
  */
 public class CmsDefaultPermissionHandler implements I_CmsPermissionHandler {
 
+    /**
+     * The principal key of a user, together with the version of the user groups cache it was calculated for.<p>
+     */
+    private static class CmsPrincipalKey {
+
+        /** The calculated principal key. */
+        String m_key;
+
+        /** The id of the user. */
+        CmsUUID m_userId;
+
+        /** The version of the user groups cache. */
+        int m_version;
+
+        /**
+         * Creates a new principal key.<p>
+         * 
+         * @param userId the id of the user
+         * @param version the version of the user groups cache
+         * @param key the calculated principal key
+         */
+        CmsPrincipalKey(CmsUUID userId, int version, String key) {
+
+            m_userId = userId;
+            m_version = version;
+            m_key = key;
+        }
+
+        /**
+         * Checks if this principal key was calculated for the given user and user groups cache version.<p>
+         * 
+         * @param userId the id of the user
+         * @param version the version of the user groups cache
+         * 
+         * @return <code>true</code> if this principal key was calculated for the given user and version
+         */
+        boolean matches(CmsUUID userId, int version) {
+
+            return m_userId.equals(userId) && (m_version == version);
+        }
+    }
+
+    /** Request context attribute name for the principal key of the current user. */
+    private static final String ATTRIBUTE_PRINCIPAL_KEY = CmsDefaultPermissionHandler.class.getName()
+        + ".principalKey";
+
     /** The log object for this class. */
     private static final Log LOG = CmsLog.getLog(CmsDefaultPermissionHandler.class);
 
@@ -67,6 +121,9 @@ public class CmsDefaultPermissionHandler implements I_CmsPermissionHandler {
     /** The class used for cache key generation. */
     private I_CmsCacheKey m_keyGenerator;
 
+    /** Signals if users with the same groups and roles share the cached permission check results. */
+    private boolean m_sharedKeys;
+
     /**
      * @see org.opencms.security.I_CmsPermissionHandler#hasPermissions(org.opencms.db.CmsDbContext, org.opencms.file.CmsResource, org.opencms.security.CmsPermissionSet, boolean, org.opencms.file.CmsResourceFilter)
      */
@@ -84,18 +141,85 @@ public class CmsDefaultPermissionHandler implements I_CmsPermissionHandler {
         }
 
         // checking the filter is less cost intensive then checking the cache,
-        // this is why basic filter results are not cached
-        String cacheKey = m_keyGenerator.getCacheKeyForUserPermissions(
-            filter.requireVisible() && checkLock ? "11" : (!filter.requireVisible() && checkLock
+        // this is why these results are not cached
+
+        boolean writeRequired = requiredPermissions.requiresWritePermission()
+            || requiredPermissions.requiresControlPermission();
+
+        if (writeRequired && checkLock) {
+            // check lock state only if required
+            CmsLock lock = m_driverManager.getLock(dbc, resource);
+            // if the resource is not locked by the current user, write and control 
+            // access must cause a permission error that is not cached
+            if (lock.isUnlocked() || !lock.isLockableBy(dbc.currentUser())) {
+                return I_CmsPermissionHandler.PERM_NOTLOCKED;
+            }
+        }
+
+        String prefix = null;
+        CmsPermissionCheckResult result = null;
+        if (dbc.getProjectId().isNullUUID()) {
+            prefix = filter.requireVisible() && checkLock ? "11" : (!filter.requireVisible() && checkLock
             ? "01"
-            : (filter.requireVisible() && !checkLock ? "10" : "00")),
-            dbc,
-            resource,
-            requiredPermissions);
-        CmsPermissionCheckResult cacheResult = OpenCms.getMemoryMonitor().getCachedPermission(cacheKey);
-        if (cacheResult != null) {
-            return cacheResult;
+            : (filter.requireVisible() && !checkLock ? "10" : "00"));
+            result = getCachedPermission(dbc, prefix, resource, requiredPermissions);
+        }
+        if (result == null) {
+            result = calculatePermissions(dbc, resource, requiredPermissions, filter);
+            if (prefix != null) {
+                OpenCms.getMemoryMonitor().cachePermission(
+                    getCacheKey(dbc, prefix, resource, requiredPermissions),
+                    resource,
+                    result);
+            }
         }
+        return result;
+    }
+
+    /**
+     * @see org.opencms.security.I_CmsPermissionHandler#init(org.opencms.db.CmsDriverManager, CmsSystemConfiguration)
+     */
+    public void init(CmsDriverManager driverManager, CmsSystemConfiguration systemConfiguration) {
+
+        m_driverManager = driverManager;
+        m_securityManager = driverManager.getSecurityManager();
+
+        CmsCacheSettings settings = systemConfiguration.getCacheSettings();
+
+        String className = settings.getCacheKeyGenerator();
+        try {
+            // initialize the key generator
+            m_keyGenerator = (I_CmsCacheKey)Class.forName(className).newInstance();
+        } catch (Exception e) {
+            throw new CmsInitException(org.opencms.main.Messages.get().container(
+                org.opencms.main.Messages.ERR_CRITICAL_CLASS_CREATION_1,
+                className), e);
+        }
+        // the keys can only be shared if they are not created by a custom key generator
+        m_sharedKeys = m_keyGenerator.getClass() == CmsCacheKey.class;
+    }
+
+    /**
+     * Calculates the result of a permission check for the current user, without looking at the lock state.<p>
+     * 
+     * @param dbc the current database context
+     * @param resource the resource to check the permissions for
+     * @param requiredPermissions the required permissions
+     * @param filter the resource filter to use
+     * 
+     * @return <code>{@link #PERM_ALLOWED}</code> if the user has sufficient permissions on the resource, 
+     *      otherwise <code>{@link #PERM_DENIED}</code>
+     * 
+     * @throws CmsException if something goes wrong
+     */
+    protected CmsPermissionCheckResult calculatePermissions(
+        CmsDbContext dbc,
+        CmsResource resource,
+        CmsPermissionSet requiredPermissions,
+        CmsResourceFilter filter) throws CmsException {
+
+        boolean writeRequired = requiredPermissions.requiresWritePermission()
+            || requiredPermissions.requiresControlPermission();
 
         int denied = 0;
 
@@ -111,10 +235,6 @@ public class CmsDefaultPermissionHandler implements I_CmsPermissionHandler {
             CmsRole.VFS_MANAGER,
             resource);
 
-        // check lock status 
-        boolean writeRequired = requiredPermissions.requiresWritePermission()
-            || requiredPermissions.requiresControlPermission();
-
         // if the resource type is jsp
         // write is only allowed for administrators
         if (writeRequired && !canIgnorePermissions && (CmsResourceTypeJsp.isJsp(resource))) {
@@ -124,16 +244,6 @@ public class CmsDefaultPermissionHandler implements I_CmsPermissionHandler {
             }
         }
 
-        if (writeRequired && checkLock) {
-            // check lock state only if required
-            CmsLock lock = m_driverManager.getLock(dbc, resource);
-            // if the resource is not locked by the current user, write and control 
-            // access must cause a permission error that must not be cached
-            if (lock.isUnlocked() || !lock.isLockableBy(dbc.currentUser())) {
-                return I_CmsPermissionHandler.PERM_NOTLOCKED;
-            }
-        }
-
         CmsPermissionSetCustom permissions;
         if (canIgnorePermissions) {
             // if the current user is administrator, anything is allowed
@@ -211,31 +321,218 @@ public class CmsDefaultPermissionHandler implements I_CmsPermissionHandler {
                         permissions.getPermissionString()}));
             }
         }
-        if (dbc.getProjectId().isNullUUID()) {
-            OpenCms.getMemoryMonitor().cachePermission(cacheKey, result);
+        return result;
+    }
+
+    /**
+     * Returns the key under which the result of a permission check for the current user is cached.<p>
+     * 
+     * With the default cache key generator, the key does not contain the user name but the principal 
+     * key of the current user, so that all users with the same groups and roles share the cached results. 
+     * This is not possible if the access control list of the resource contains entries for single users, 
+     * then the key contains the id of the current user instead.<p>
+     * 
+     * If a custom cache key generator is configured, the key is created by the generator.<p>
+     * 
+     * @param dbc the current database context
+     * @param prefix the prefix for the key, encoding the filter and lock check flags
+     * @param resource the resource to check the permissions for
+     * @param requiredPermissions the required permissions
+     * 
+     * @return the cache key
+     * 
+     * @throws CmsException if something goes wrong
+     */
+    protected String getCacheKey(
+        CmsDbContext dbc,
+        String prefix,
+        CmsResource resource,
+        CmsPermissionSet requiredPermissions) throws CmsException {
+
+        if (!m_sharedKeys) {
+            return m_keyGenerator.getCacheKeyForUserPermissions(prefix, dbc, resource, requiredPermissions);
+        }
+        String principalKey;
+        if (m_driverManager.getAccessControlList(dbc, resource, false).hasUserEntries()) {
+            principalKey = getUserKey(dbc);
+        } else {
+            principalKey = getPrincipalKey(dbc);
         }
+        return getCacheKey(dbc, prefix, principalKey, resource, requiredPermissions);
+    }
 
+    /**
+     * Returns the cached result of a permission check for the current user, 
+     * or <code>null</code> if the result is not cached.<p>
+     * 
+     * Since the results are cached either with the principal key or the user key of the current user, 
+     * depending on the access control list of the resource, both keys are looked up. This way the 
+     * access control list of the resource is not needed for a cache hit.<p>
+     * 
+     * @param dbc the current database context
+     * @param prefix the prefix for the key, encoding the filter and lock check flags
+     * @param resource the resource to check the permissions for
+     * @param requiredPermissions the required permissions
+     * 
+     * @return the cached result of the permission check, or <code>null</code>
+     * 
+     * @throws CmsException if something goes wrong
+     * 
+     * @see #getCacheKey(CmsDbContext, String, CmsResource, CmsPermissionSet)
+     */
+    protected CmsPermissionCheckResult getCachedPermission(
+        CmsDbContext dbc,
+        String prefix,
+        CmsResource resource,
+        CmsPermissionSet requiredPermissions) throws CmsException {
+
+        CmsMemoryMonitor monitor = OpenCms.getMemoryMonitor();
+        if (!m_sharedKeys) {
+            return monitor.getCachedPermission(m_keyGenerator.getCacheKeyForUserPermissions(
+                prefix,
+                dbc,
+                resource,
+                requiredPermissions));
+        }
+        CmsPermissionCheckResult result = monitor.getCachedPermission(getCacheKey(
+            dbc,
+            prefix,
+            getPrincipalKey(dbc),
+            resource,
+            requiredPermissions));
+        if (result == null) {
+            result = monitor.getCachedPermission(getCacheKey(
+                dbc,
+                prefix,
+                getUserKey(dbc),
+                resource,
+                requiredPermissions));
+        }
         return result;
     }
 
     /**
-     * @see org.opencms.security.I_CmsPermissionHandler#init(org.opencms.db.CmsDriverManager, CmsSystemConfiguration)
+     * Returns the principal key of the current user.<p>
+     * 
+     * The principal key is calculated only once per request context, it is calculated again 
+     * only if the group or role memberships of any user have changed in the meantime.<p>
+     * 
+     * @param dbc the current database context
+     * 
+     * @return the principal key of the current user
+     * 
+     * @throws CmsException if something goes wrong
+     * 
+     * @see #getPrincipalKey(CmsUser, List, List)
      */
-    public void init(CmsDriverManager driverManager, CmsSystemConfiguration systemConfiguration) {
+    protected String getPrincipalKey(CmsDbContext dbc) throws CmsException {
 
-        m_driverManager = driverManager;
-        m_securityManager = driverManager.getSecurityManager();
+        CmsUser user = dbc.currentUser();
+        CmsRequestContext context = dbc.getRequestContext();
+        int version = OpenCms.getMemoryMonitor().getUserGroupsVersion();
+        if (context != null) {
+            Object cached = context.getAttribute(ATTRIBUTE_PRINCIPAL_KEY);
+            if ((cached instanceof CmsPrincipalKey) && ((CmsPrincipalKey)cached).matches(user.getId(), version)) {
+                return ((CmsPrincipalKey)cached).m_key;
+            }
+        }
+        String remoteAddress = (context != null) ? context.getRemoteAddress() : null;
+        List<CmsGroup> groups = m_driverManager.getGroupsOfUser(
+            dbc,
+            user.getName(),
+            "",
+            true,
+            false,
+            false,
+            remoteAddress);
+        List<CmsGroup> roles = m_driverManager.getGroupsOfUser(
+            dbc,
+            user.getName(),
+            "",
+            true,
+            true,
+            true,
+            remoteAddress);
+        String key = getPrincipalKey(user, groups, roles);
+        if (context != null) {
+            context.setAttribute(ATTRIBUTE_PRINCIPAL_KEY, new CmsPrincipalKey(user.getId(), version, key));
+        }
+        return key;
+    }
 
-        CmsCacheSettings settings = systemConfiguration.getCacheSettings();
+    /**
+     * Returns the principal key for the given user and groups.<p>
+     * 
+     * Apart from the access control entries, the result of a permission check depends only on the 
+     * groups, the roles and the organizational unit of the user. The principal key is a fingerprint 
+     * of these, so users with the same principals share the same key.<p>
+     * 
+     * @param user the user
+     * @param groups the groups of the user
+     * @param roles the role groups of the user
+     * 
+     * @return the principal key
+     */
+    protected static String getPrincipalKey(CmsUser user, List<CmsGroup> groups, List<CmsGroup> roles) {
 
-        String className = settings.getCacheKeyGenerator();
-        try {
-            // initialize the key generator
-            m_keyGenerator = (I_CmsCacheKey)Class.forName(className).newInstance();
-        } catch (Exception e) {
-            throw new CmsInitException(org.opencms.main.Messages.get().container(
-                org.opencms.main.Messages.ERR_CRITICAL_CLASS_CREATION_1,
-                className), e);
+        // the order of the groups must not matter
+        Set<String> ids = new TreeSet<String>();
+        for (CmsGroup group : groups) {
+            ids.add(group.getId().toString());
+        }
+        for (CmsGroup role : roles) {
+            ids.add(role.getId().toString());
+        }
+        StringBuilder principals = new StringBuilder(64 + (ids.size() * 37));
+        principals.append(user.isGuestUser());
+        principals.append('|');
+        principals.append(user.getOuFqn());
+        for (String id : ids) {
+            principals.append('|');
+            principals.append(id);
         }
+        return "p" + CmsUUID.getConstantUUID(principals.toString());
+    }
+
+    /**
+     * Returns the key for caching the permission check results of the current user, 
+     * if the access control list of a resource contains entries for single users.<p>
+     * 
+     * @param dbc the current database context
+     * 
+     * @return the user key of the current user
+     */
+    protected String getUserKey(CmsDbContext dbc) {
+
+        return "u" + dbc.currentUser().getId();
+    }
+
+    /**
+     * Returns the key under which the result of a permission check is cached for the given principal key.<p>
+     * 
+     * @param dbc the current database context
+     * @param prefix the prefix for the key, encoding the filter and lock check flags
+     * @param principalKey the principal key or the user key of the current user
+     * @param resource the resource to check the permissions for
+     * @param requiredPermissions the required permissions
+     * 
+     * @return the cache key
+     */
+    private String getCacheKey(
+        CmsDbContext dbc,
+        String prefix,
+        String principalKey,
+        CmsResource resource,
+        CmsPermissionSet requiredPermissions) {
+
+        StringBuilder cacheKey = new StringBuilder(128);
+        cacheKey.append(prefix);
+        cacheKey.append('_');
+        cacheKey.append(principalKey);
+        cacheKey.append(dbc.currentProject().isOnlineProject() ? "_0_" : "_1_");
+        cacheKey.append(requiredPermissions.getPermissionString());
+        cacheKey.append('_');
+        cacheKey.append(resource.getStructureId().toString());
+        return cacheKey.toString();
     }
 }
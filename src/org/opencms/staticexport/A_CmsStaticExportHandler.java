@@ -321,6 +321,8 @@ public abstract class A_CmsStaticExportHandler implements I_CmsStaticExportHandl
 
         // first delete the base file
         deleteFile(rfsFile, vfsName);
+        // also delete the compressed variant of the base file
+        deleteFile(new File(rfsFilePath + CmsStaticExportManager.EXPORT_GZIP_SUFFIX), vfsName);
 
         // now delete the file parameter variations
         // get the parent folder
@@ -331,6 +333,9 @@ public abstract class A_CmsStaticExportHandler implements I_CmsStaticExportHandl
             if (paramVariants != null) {
                 for (int v = 0; v < paramVariants.length; v++) {
                     deleteFile(paramVariants[v], vfsName);
+                    deleteFile(
+                        new File(paramVariants[v].getPath() + CmsStaticExportManager.EXPORT_GZIP_SUFFIX),
+                        vfsName);
                 }
             }
         }
@@ -37,6 +37,7 @@ import org.opencms.loader.I_CmsResourceLoader;
 import org.opencms.main.CmsException;
 import org.opencms.main.CmsLog;
 import org.opencms.main.OpenCms;
+import org.opencms.report.CmsBufferedReport;
 import org.opencms.report.I_CmsReport;
 import org.opencms.util.CmsFileUtil;
 import org.opencms.util.CmsRequestUtil;
@@ -54,9 +55,14 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletResponse;
@@ -74,6 +80,219 @@ import org.apache.commons.logging.Log;
  */
 public class CmsAfterPublishStaticExportHandler extends A_CmsStaticExportHandler {
 
+    /**
+     * Exports a list of resources with several threads in parallel.<p>
+     * 
+     * The resources are grouped by a key, the resources of a group are exported 
+     * one after the other by the same thread. The report output of each resource is 
+     * buffered and written to the report in the order of the list.<p>
+     */
+    private abstract class CmsParallelExport implements Runnable {
+
+        /** Signals that the workers should stop exporting. */
+        private AtomicBoolean m_cancelled = new AtomicBoolean();
+
+        /** The cms context of the exporting thread. */
+        private CmsObject m_cms;
+
+        /** The first error of the workers. */
+        private AtomicReference<Throwable> m_error = new AtomicReference<Throwable>();
+
+        /** The latches that are released when a resource has been exported. */
+        private CountDownLatch[] m_finished;
+
+        /** The indexes of the resources to export grouped by key. */
+        private List<List<Integer>> m_groups;
+
+        /** The index of the next group to export. */
+        private AtomicInteger m_nextGroup = new AtomicInteger();
+
+        /** The rate limiter for the export. */
+        private CmsStaticExportRateLimiter m_rateLimiter;
+
+        /** The report of the exporting thread. */
+        private I_CmsReport m_report;
+
+        /** The buffered reports of the exported resources. */
+        private CmsBufferedReport[] m_reports;
+
+        /**
+         * Creates a new parallel export.<p>
+         * 
+         * @param cms the cms context of the exporting thread
+         * @param keys the group keys of the resources to export, one for each resource
+         * @param report the report to write the output to
+         */
+        CmsParallelExport(CmsObject cms, List<?> keys, I_CmsReport report) {
+
+            m_cms = cms;
+            m_report = report;
+            m_rateLimiter = new CmsStaticExportRateLimiter(OpenCms.getStaticExportManager().getExportRate());
+            m_finished = new CountDownLatch[keys.size()];
+            m_reports = new CmsBufferedReport[keys.size()];
+            Map<Object, List<Integer>> groups = new LinkedHashMap<Object, List<Integer>>();
+            for (int i = 0; i < keys.size(); i++) {
+                m_finished[i] = new CountDownLatch(1);
+                m_reports[i] = new CmsBufferedReport(report);
+                List<Integer> group = groups.get(keys.get(i));
+                if (group == null) {
+                    group = new ArrayList<Integer>();
+                    groups.put(keys.get(i), group);
+                }
+                group.add(Integer.valueOf(i));
+            }
+            m_groups = new ArrayList<List<Integer>>(groups.values());
+        }
+
+        /**
+         * Exports groups of resources until all resources have been exported.<p>
+         * 
+         * @see java.lang.Runnable#run()
+         */
+        public void run() {
+
+            // the cms context must not be shared between threads
+            CmsObject cms = null;
+            try {
+                cms = OpenCms.initCmsObject(m_cms);
+            } catch (CmsException e) {
+                LOG.error(e.getLocalizedMessage(), e);
+                m_cancelled.set(true);
+            }
+            int group = m_nextGroup.getAndIncrement();
+            while (group < m_groups.size()) {
+                for (Integer index : m_groups.get(group)) {
+                    int i = index.intValue();
+                    try {
+                        if (!m_cancelled.get()) {
+                            m_rateLimiter.acquire();
+                            exportResource(cms, i, m_reports[i]);
+                        }
+                    } catch (InterruptedException e) {
+                        m_cancelled.set(true);
+                    } catch (Throwable t) {
+                        LOG.error(Messages.get().getBundle().key(Messages.LOG_STATIC_EXPORT_ERROR_0), t);
+                        m_reports[i].println(t);
+                        // like the export with a single thread, the first error stops the export
+                        m_error.compareAndSet(null, t);
+                        m_cancelled.set(true);
+                    } finally {
+                        m_finished[i].countDown();
+                    }
+                }
+                group = m_nextGroup.getAndIncrement();
+            }
+        }
+
+        /**
+         * Exports the resources with the given number of threads.<p>
+         * 
+         * With a single thread, the resources are exported by the current thread 
+         * and errors are not caught. With several threads, the first error stops the export 
+         * and is thrown after all workers have finished.<p>
+         * 
+         * @param threads the number of threads
+         * 
+         * @throws CmsException in case of errors accessing the VFS
+         * @throws IOException in case of errors writing to the export output stream
+         * @throws ServletException in case of errors accessing the servlet 
+         */
+        void export(int threads) throws CmsException, IOException, ServletException {
+
+            if ((threads <= 1) || (m_groups.size() <= 1)) {
+                for (int i = 0; i < m_reports.length; i++) {
+                    try {
+                        m_rateLimiter.acquire();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    exportResource(m_cms, i, m_report);
+                }
+                return;
+            }
+            List<Thread> workers = new ArrayList<Thread>(threads);
+            try {
+                for (int i = 0; (i < threads) && (i < m_groups.size()); i++) {
+                    Thread worker = new Thread(this, "OpenCms: Static export " + (i + 1));
+                    workers.add(worker);
+                    worker.start();
+                }
+                for (int i = 0; i < m_reports.length; i++) {
+                    boolean finished = false;
+                    while (!finished) {
+                        try {
+                            m_finished[i].await();
+                            finished = true;
+                        } catch (InterruptedException e) {
+                            // stop the export, the workers release the remaining latches 
+                            m_cancelled.set(true);
+                        }
+                    }
+                    m_reports[i].flush();
+                }
+            } finally {
+                m_cancelled.set(true);
+                for (Thread worker : workers) {
+                    try {
+                        worker.join();
+                    } catch (InterruptedException e) {
+                        // ignore
+                    }
+                }
+            }
+            throwError(m_error.get());
+        }
+
+        /**
+         * Exports a single resource.<p>
+         * 
+         * @param cms the cms context of the current thread
+         * @param index the index of the resource to export
+         * @param report the report to write the output to
+         * 
+         * @throws CmsException in case of errors accessing the VFS
+         * @throws IOException in case of errors writing to the export output stream
+         * @throws ServletException in case of errors accessing the servlet 
+         */
+        protected abstract void exportResource(CmsObject cms, int index, I_CmsReport report)
+        throws CmsException, IOException, ServletException;
+
+        /**
+         * Throws the given error of a worker in the exporting thread.<p>
+         * 
+         * @param error the error to throw, if <code>null</code> nothing is thrown
+         * 
+         * @throws CmsException in case of errors accessing the VFS
+         * @throws IOException in case of errors writing to the export output stream
+         * @throws ServletException in case of errors accessing the servlet 
+         */
+        private void throwError(Throwable error) throws CmsException, IOException, ServletException {
+
+            if (error == null) {
+                return;
+            }
+            if (error instanceof CmsException) {
+                throw (CmsException)error;
+            }
+            if (error instanceof IOException) {
+                throw (IOException)error;
+            }
+            if (error instanceof ServletException) {
+                throw (ServletException)error;
+            }
+            if (error instanceof RuntimeException) {
+                throw (RuntimeException)error;
+            }
+            if (error instanceof Error) {
+                throw (Error)error;
+            }
+            throw new CmsStaticExportException(
+                Messages.get().container(Messages.LOG_STATIC_EXPORT_ERROR_0),
+                error);
+        }
+    }
+
     /** Header field set-cookie constant. */
     private static final String HEADER_FIELD_SET_COOKIE = "Set-Cookie";
 
@@ -280,6 +499,8 @@ public class CmsAfterPublishStaticExportHandler extends A_CmsStaticExportHandler
     /**
      * Exports all non template resources found in a list of published resources.<p>
      * 
+     * Siblings are exported by the same thread, since they share their content.<p>
+     * 
      * @param cms the current cms object
      * @param publishedResources the list of published resources
      * @param report an I_CmsReport instance to print output message, or null to write messages to the log file
@@ -305,60 +526,67 @@ public class CmsAfterPublishStaticExportHandler extends A_CmsStaticExportHandler
                 new Integer(publishedResources.size())));
         }
 
-        CmsStaticExportManager manager = OpenCms.getStaticExportManager();
-        List<CmsStaticExportData> resourcesToExport = new ArrayList<CmsStaticExportData>();
+        final CmsStaticExportManager manager = OpenCms.getStaticExportManager();
+        final List<CmsStaticExportData> resourcesToExport = new ArrayList<CmsStaticExportData>();
         boolean templatesFound = readNonTemplateResourcesToExport(cms, publishedResources, resourcesToExport);
 
-        int count = 1;
-        int size = resourcesToExport.size();
+        final int size = resourcesToExport.size();
         if (LOG.isDebugEnabled()) {
             LOG.debug(Messages.get().getBundle().key(Messages.LOG_NUM_EXPORT_1, new Integer(size)));
         }
+        List<CmsUUID> resourceIds = new ArrayList<CmsUUID>(size);
+        for (CmsStaticExportData exportData : resourcesToExport) {
+            resourceIds.add(exportData.getResource().getResourceId());
+        }
         // now do the export
-        Iterator<CmsStaticExportData> i = resourcesToExport.iterator();
-        while (i.hasNext()) {
-            CmsStaticExportData exportData = i.next();
-            if (LOG.isDebugEnabled()) {
-                LOG.debug(Messages.get().getBundle().key(
-                    Messages.LOG_EXPORT_FILE_2,
-                    exportData.getVfsName(),
-                    exportData.getRfsName()));
-            }
-
-            report.print(
-                org.opencms.report.Messages.get().container(
-                    org.opencms.report.Messages.RPT_SUCCESSION_2,
-                    new Integer(count++),
-                    new Integer(size)),
-                I_CmsReport.FORMAT_NOTE);
-            report.print(Messages.get().container(Messages.RPT_EXPORTING_0), I_CmsReport.FORMAT_NOTE);
-            report.print(org.opencms.report.Messages.get().container(
-                org.opencms.report.Messages.RPT_ARGUMENT_1,
-                exportData.getVfsName()));
-            report.print(org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_DOTS_0));
-            int status = manager.export(null, null, cms, exportData);
-            if (status == HttpServletResponse.SC_OK) {
-                report.println(
-                    org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_OK_0),
-                    I_CmsReport.FORMAT_OK);
-            } else {
-                report.println(
-                    org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_IGNORED_0),
+        CmsParallelExport export = new CmsParallelExport(cms, resourceIds, report) {
+
+            @Override
+            protected void exportResource(CmsObject exportCms, int index, I_CmsReport exportReport)
+            throws CmsException, IOException, ServletException {
+
+                CmsStaticExportData exportData = resourcesToExport.get(index);
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug(Messages.get().getBundle().key(
+                        Messages.LOG_EXPORT_FILE_2,
+                        exportData.getVfsName(),
+                        exportData.getRfsName()));
+                }
+                long start = System.currentTimeMillis();
+                exportReport.print(
+                    org.opencms.report.Messages.get().container(
+                        org.opencms.report.Messages.RPT_SUCCESSION_2,
+                        new Integer(index + 1),
+                        new Integer(size)),
                     I_CmsReport.FORMAT_NOTE);
+                exportReport.print(Messages.get().container(Messages.RPT_EXPORTING_0), I_CmsReport.FORMAT_NOTE);
+                exportReport.print(org.opencms.report.Messages.get().container(
+                    org.opencms.report.Messages.RPT_ARGUMENT_1,
+                    exportData.getVfsName()));
+                exportReport.print(org.opencms.report.Messages.get().container(
+                    org.opencms.report.Messages.RPT_DOTS_0));
+                int status = manager.export(null, null, exportCms, exportData);
+                if (status == HttpServletResponse.SC_OK) {
+                    exportReport.print(
+                        org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_OK_0),
+                        I_CmsReport.FORMAT_OK);
+                } else {
+                    exportReport.print(
+                        org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_IGNORED_0),
+                        I_CmsReport.FORMAT_NOTE);
+                }
+                printExportTime(exportReport, start);
+
+                if (LOG.isInfoEnabled()) {
+                    Object[] arguments = new Object[] {
+                        exportData.getVfsName(),
+                        exportData.getRfsName(),
+                        new Integer(status)};
+                    LOG.info(Messages.get().getBundle().key(Messages.LOG_EXPORT_FILE_STATUS_3, arguments));
+                }
             }
-
-            if (LOG.isInfoEnabled()) {
-                Object[] arguments = new Object[] {
-                    exportData.getVfsName(),
-                    exportData.getRfsName(),
-                    new Integer(status)};
-                LOG.info(Messages.get().getBundle().key(Messages.LOG_EXPORT_FILE_STATUS_3, arguments));
-            }
-            //don't lock up the CPU exclusively - allow other Threads to run as well 
-            Thread.yield();
-        }
-
-        resourcesToExport = null;
+        };
+        export.export(manager.getExportThreads());
 
         report.println(
             Messages.get().container(Messages.RPT_STATICEXPORT_NONTEMPLATE_RESOURCES_END_0),
@@ -567,20 +795,24 @@ public class CmsAfterPublishStaticExportHandler extends A_CmsStaticExportHandler
                 exportFile.getName(),
                 new Long((dateLastModified / 1000) * 1000)));
         }
-        if (cookies.length() > 0) {
+        String cookie = cookies.toString();
+        if (cookie.length() > 0) {
             // set the cookies, included the session id to keep the same session
-            urlcon.setRequestProperty(REQUEST_PROPERTY_COOKIE, cookies.toString());
+            urlcon.setRequestProperty(REQUEST_PROPERTY_COOKIE, cookie);
         }
 
         // now perform the request
         urlcon.connect();
         int status = urlcon.getResponseCode();
 
-        if (cookies.length() == 0) {
-            //Now retrieve the cookies. The jsessionid is here
-            cookies.append(urlcon.getHeaderField(HEADER_FIELD_SET_COOKIE));
-            if (LOG.isDebugEnabled()) {
-                LOG.debug(Messages.get().getBundle().key(Messages.LOG_STATICEXPORT_COOKIES_1, cookies));
+        // the cookies may be shared by several export threads
+        synchronized (cookies) {
+            if (cookies.length() == 0) {
+                //Now retrieve the cookies. The jsessionid is here
+                cookies.append(urlcon.getHeaderField(HEADER_FIELD_SET_COOKIE));
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug(Messages.get().getBundle().key(Messages.LOG_STATICEXPORT_COOKIES_1, cookies));
+                }
             }
         }
         urlcon.disconnect();
@@ -597,15 +829,17 @@ public class CmsAfterPublishStaticExportHandler extends A_CmsStaticExportHandler
     /**
      * Exports all template resources found in a list of published resources.<p>
      * 
+     * The detail pages of a resource are exported by the same thread as the resource itself.<p>
+     * 
      * @param cms the cms context, in the root site as Export user
      * @param publishedTemplateResources list of potential candidates to export
      * @param report an I_CmsReport instance to print output message, or null to write messages to the log file    
      */
     protected void exportTemplateResources(CmsObject cms, List<String> publishedTemplateResources, I_CmsReport report) {
 
-        CmsStaticExportManager manager = OpenCms.getStaticExportManager();
-        int size = publishedTemplateResources.size();
-        int count = 1;
+        final CmsStaticExportManager manager = OpenCms.getStaticExportManager();
+        final List<String> rfsNames = publishedTemplateResources;
+        final int size = rfsNames.size();
 
         if (LOG.isDebugEnabled()) {
             LOG.debug(Messages.get().getBundle().key(Messages.LOG_EXPORT_TEMPLATES_1, new Integer(size)));
@@ -614,92 +848,106 @@ public class CmsAfterPublishStaticExportHandler extends A_CmsStaticExportHandler
             Messages.get().container(Messages.RPT_STATICEXPORT_TEMPLATE_RESOURCES_BEGIN_0),
             I_CmsReport.FORMAT_HEADLINE);
 
-        StringBuffer cookies = new StringBuffer();
+        final StringBuffer cookies = new StringBuffer();
         // now loop through all of them and request them from the server
-        Iterator<String> i = publishedTemplateResources.iterator();
-        while (i.hasNext()) {
-            String rfsName = i.next();
-            CmsStaticExportData data = null;
-            try {
-                data = manager.getVfsNameInternal(cms, rfsName);
-            } catch (CmsVfsResourceNotFoundException e) {
-                String rfsBaseName = rfsName;
-                int pos = rfsName.lastIndexOf('_');
-                if (pos >= 0) {
-                    rfsBaseName = rfsName.substring(0, pos);
-                }
+        CmsParallelExport export = new CmsParallelExport(cms, rfsNames, report) {
+
+            @Override
+            protected void exportResource(CmsObject exportCms, int index, I_CmsReport exportReport) {
+
+                String rfsName = rfsNames.get(index);
+                CmsStaticExportData data = null;
                 try {
-                    data = manager.getVfsNameInternal(cms, rfsBaseName);
-                } catch (CmsVfsResourceNotFoundException e2) {
-                    if (LOG.isInfoEnabled()) {
-                        LOG.info(Messages.get().getBundle().key(
-                            Messages.LOG_NO_INTERNAL_VFS_RESOURCE_FOUND_1,
-                            new String[] {rfsName}));
+                    data = manager.getVfsNameInternal(exportCms, rfsName);
+                } catch (CmsVfsResourceNotFoundException e) {
+                    String rfsBaseName = rfsName;
+                    int pos = rfsName.lastIndexOf('_');
+                    if (pos >= 0) {
+                        rfsBaseName = rfsName.substring(0, pos);
+                    }
+                    try {
+                        data = manager.getVfsNameInternal(exportCms, rfsBaseName);
+                    } catch (CmsVfsResourceNotFoundException e2) {
+                        if (LOG.isInfoEnabled()) {
+                            LOG.info(Messages.get().getBundle().key(
+                                Messages.LOG_NO_INTERNAL_VFS_RESOURCE_FOUND_1,
+                                new String[] {rfsName}));
+                        }
                     }
                 }
-            }
-            if (data != null) {
+                if (data == null) {
+                    // no valid resource found for rfs name (already deleted), skip it
+                    return;
+                }
+                long start = System.currentTimeMillis();
                 data.setRfsName(rfsName);
-                report.print(
+                exportReport.print(
                     org.opencms.report.Messages.get().container(
                         org.opencms.report.Messages.RPT_SUCCESSION_2,
-                        new Integer(count++),
+                        new Integer(index + 1),
                         new Integer(size)),
                     I_CmsReport.FORMAT_NOTE);
-                report.print(Messages.get().container(Messages.RPT_EXPORTING_0), I_CmsReport.FORMAT_NOTE);
-                report.print(org.opencms.report.Messages.get().container(
+                exportReport.print(Messages.get().container(Messages.RPT_EXPORTING_0), I_CmsReport.FORMAT_NOTE);
+                exportReport.print(org.opencms.report.Messages.get().container(
                     org.opencms.report.Messages.RPT_ARGUMENT_1,
                     rfsName));
-                report.print(org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_DOTS_0));
-            } else {
-                // no valid resource found for rfs name (already deleted), skip it
-                continue;
-            }
+                exportReport.print(org.opencms.report.Messages.get().container(
+                    org.opencms.report.Messages.RPT_DOTS_0));
 
-            try {
-                CmsResource resource = data.getResource();
                 try {
-                    Collection<String> detailPages = CmsDetailPageUtil.getAllDetailPagesWithUrlName(cms, resource);
-                    for (String detailPageUri : detailPages) {
-                        String altRfsName = manager.getRfsName(cms, detailPageUri);
-                        CmsStaticExportData detailData = new CmsStaticExportData(
-                            data.getVfsName(),
-                            altRfsName,
-                            data.getResource(),
-                            data.getParameters());
-                        exportTemplateResource(detailData, cookies);
+                    CmsResource resource = data.getResource();
+                    try {
+                        Collection<String> detailPages = CmsDetailPageUtil.getAllDetailPagesWithUrlName(
+                            exportCms,
+                            resource);
+                        for (String detailPageUri : detailPages) {
+                            String altRfsName = manager.getRfsName(exportCms, detailPageUri);
+                            CmsStaticExportData detailData = new CmsStaticExportData(
+                                data.getVfsName(),
+                                altRfsName,
+                                data.getResource(),
+                                data.getParameters());
+                            exportTemplateResource(detailData, cookies);
+                        }
+                    } catch (CmsException e) {
+                        LOG.error(e.getLocalizedMessage(), e);
                     }
-                } catch (CmsException e) {
-                    LOG.error(e.getLocalizedMessage(), e);
-                }
-
-                int status = exportTemplateResource(data, cookies);
 
-                // write the report
-                if (status == HttpServletResponse.SC_OK) {
-                    report.println(
-                        org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_OK_0),
-                        I_CmsReport.FORMAT_OK);
-                } else if (status == HttpServletResponse.SC_NOT_MODIFIED) {
-                    report.println(
-                        org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_SKIPPED_0),
-                        I_CmsReport.FORMAT_NOTE);
-                } else if (status == HttpServletResponse.SC_SEE_OTHER) {
-                    report.println(
-                        org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_IGNORED_0),
-                        I_CmsReport.FORMAT_NOTE);
-                } else {
-                    report.println(
-                        org.opencms.report.Messages.get().container(
-                            org.opencms.report.Messages.RPT_ARGUMENT_1,
-                            new Integer(status)),
-                        I_CmsReport.FORMAT_OK);
+                    int status = exportTemplateResource(data, cookies);
+
+                    // write the report
+                    if (status == HttpServletResponse.SC_OK) {
+                        exportReport.print(
+                            org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_OK_0),
+                            I_CmsReport.FORMAT_OK);
+                    } else if (status == HttpServletResponse.SC_NOT_MODIFIED) {
+                        exportReport.print(
+                            org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_SKIPPED_0),
+                            I_CmsReport.FORMAT_NOTE);
+                    } else if (status == HttpServletResponse.SC_SEE_OTHER) {
+                        exportReport.print(
+                            org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_IGNORED_0),
+                            I_CmsReport.FORMAT_NOTE);
+                    } else {
+                        exportReport.print(
+                            org.opencms.report.Messages.get().container(
+                                org.opencms.report.Messages.RPT_ARGUMENT_1,
+                                new Integer(status)),
+                            I_CmsReport.FORMAT_OK);
+                    }
+                    printExportTime(exportReport, start);
+                } catch (IOException e) {
+                    exportReport.println(e);
                 }
-            } catch (IOException e) {
-                report.println(e);
             }
-            //don't lock up the CPU exclusively - allow other Threads to run as well 
-            Thread.yield();
+        };
+        try {
+            export.export(manager.getExportThreads());
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            // does not happen, errors are written to the report
+            LOG.error(e.getLocalizedMessage(), e);
         }
         report.println(
             Messages.get().container(Messages.RPT_STATICEXPORT_TEMPLATE_RESOURCES_END_0),
@@ -890,4 +1138,19 @@ public class CmsAfterPublishStaticExportHandler extends A_CmsStaticExportHandler
 
         return templatesFound;
     }
-}
\ No newline at end of file
+
+    /**
+     * Prints the time needed for exporting a resource to the report and ends the report line.<p>
+     * 
+     * @param report the report to write to
+     * @param start the time the export of the resource was started
+     */
+    private void printExportTime(I_CmsReport report, long start) {
+
+        report.println(
+            Messages.get().container(
+                Messages.RPT_EXPORT_TIME_1,
+                new Long(System.currentTimeMillis() - start)),
+            I_CmsReport.FORMAT_NOTE);
+    }
+}
@@ -115,6 +115,12 @@ public class CmsStaticExportManager implements I_CmsEventListener {
     /** Name for the default work path. */
     public static final String EXPORT_DEFAULT_WORKPATH = CmsSystemInfo.FOLDER_WEBINF + "temp";
 
+    /** The minimum size of an exported file for which a gzip compressed variant is written. */
+    public static final int EXPORT_GZIP_MIN_BYTES = 512;
+
+    /** The suffix of the gzip compressed variants of exported files. */
+    public static final String EXPORT_GZIP_SUFFIX = ".gz";
+
     /** Flag value for links without parameters. */
     public static final int EXPORT_LINK_WITH_PARAMETER = 2;
 
@@ -172,6 +178,9 @@ public class CmsStaticExportManager implements I_CmsEventListener {
     /** List of export resources which should be part of the static export. */
     private List<String> m_exportFolders;
 
+    /** Indicates if a gzip compressed variant of exported files should be written. */
+    private boolean m_exportGzip;
+
     /** The additional http headers for the static export. */
     private List<String> m_exportHeaders;
 
@@ -187,9 +196,15 @@ public class CmsStaticExportManager implements I_CmsEventListener {
     /** List of export rules. */
     private List<CmsStaticExportExportRule> m_exportRules;
 
+    /** The maximum number of resources exported per second after publish, 0 means unlimited. */
+    private int m_exportRate;
+
     /** List of export suffixes where the "export" property default is always <code>true</code>. */
     private List<String> m_exportSuffixes;
 
+    /** The number of threads exporting resources in parallel after publish. */
+    private int m_exportThreads;
+
     /** Temporary variable for reading the xml config file. */
     private CmsStaticExportExportRule m_exportTmpRule;
 
@@ -285,6 +300,7 @@ public class CmsStaticExportManager implements I_CmsEventListener {
         m_exportTmpRule = new CmsStaticExportExportRule("", "");
         m_rfsTmpRule = new CmsStaticExportRfsRule("", "", "", "", "", "", null, null);
         m_fullStaticExport = false;
+        m_exportThreads = 1;
     }
 
     /**
@@ -1058,6 +1074,16 @@ public class CmsStaticExportManager implements I_CmsEventListener {
         return Collections.unmodifiableList(m_exportRules);
     }
 
+    /**
+     * Returns the maximum number of resources exported per second after publish.<p>
+     * 
+     * @return the maximum number of resources exported per second, 0 means unlimited
+     */
+    public int getExportRate() {
+
+        return m_exportRate;
+    }
+
     /**
      * Gets the list of resource suffixes which will be exported by default.<p>
      * 
@@ -1068,6 +1094,16 @@ public class CmsStaticExportManager implements I_CmsEventListener {
         return m_exportSuffixes;
     }
 
+    /**
+     * Returns the number of threads exporting resources in parallel after publish.<p>
+     * 
+     * @return the number of export threads
+     */
+    public int getExportThreads() {
+
+        return m_exportThreads;
+    }
+
     /**
      * Returns the export URL used for internal requests for exporting resources that require a 
      * request / response (like JSP).<p>
@@ -1717,6 +1753,10 @@ public class CmsStaticExportManager implements I_CmsEventListener {
                     Messages.INIT_EXPORT_OPTIMIZATION_1,
                     getPlainExportOptimization()));
                 CmsLog.INIT.info(Messages.get().getBundle().key(Messages.INIT_EXPORT_TESTRESOURCE_1, getTestResource()));
+                CmsLog.INIT.info(Messages.get().getBundle().key(
+                    Messages.INIT_EXPORT_THREADS_2,
+                    new Integer(getExportThreads()),
+                    new Integer(getExportRate())));
                 CmsLog.INIT.info(Messages.get().getBundle().key(
                     Messages.INIT_LINKSUBSTITUTION_HANDLER_1,
                     getLinkSubstitutionHandler().getClass().getName()));
@@ -1795,6 +1835,19 @@ public class CmsStaticExportManager implements I_CmsEventListener {
         return result;
     }
 
+    /**
+     * Returns true if a gzip compressed variant of exported files is written.<p>
+     * 
+     * The compressed variant is written next to the exported file with the suffix {@link #EXPORT_GZIP_SUFFIX},
+     * so that it can be delivered by the web server without compressing the file for every request.<p>
+     *
+     * @return true if a gzip compressed variant of exported files is written
+     */
+    public boolean isExportGzip() {
+
+        return m_exportGzip;
+    }
+
     /**
      * Returns true if the export process is a full static export.<p>
      *
@@ -2060,6 +2113,16 @@ public class CmsStaticExportManager implements I_CmsEventListener {
         m_exportFolders.add(folder);
     }
 
+    /**
+     * Sets if a gzip compressed variant of exported files should be written.<p>
+     * 
+     * @param value must be <code>true</code> or <code>false</code>
+     */
+    public void setExportGzip(String value) {
+
+        m_exportGzip = Boolean.valueOf(value).booleanValue();
+    }
+
     /**
      * Sets specific http header for the static export.<p>
      * 
@@ -2091,6 +2154,16 @@ public class CmsStaticExportManager implements I_CmsEventListener {
         m_staticExportPathConfigured = path;
     }
 
+    /**
+     * Sets the maximum number of resources exported per second after publish.<p>
+     * 
+     * @param rate the maximum number of resources exported per second, 0 means unlimited
+     */
+    public void setExportRate(String rate) {
+
+        m_exportRate = Math.max(0, Integer.parseInt(rate.trim()));
+    }
+
     /**
      * Adds a suffix to the list of resource suffixes which will be exported by default.<p>
      * 
@@ -2101,6 +2174,16 @@ public class CmsStaticExportManager implements I_CmsEventListener {
         m_exportSuffixes.add(suffix.toLowerCase());
     }
 
+    /**
+     * Sets the number of threads exporting resources in parallel after publish.<p>
+     * 
+     * @param threads the number of export threads
+     */
+    public void setExportThreads(String threads) {
+
+        m_exportThreads = Math.max(1, Integer.parseInt(threads.trim()));
+    }
+
     /**
      * Sets the export url.<p>
      * 
@@ -2794,9 +2877,7 @@ public class CmsStaticExportManager implements I_CmsEventListener {
         File exportFile = new File(exportFileName);
         // write new exported file content
         try {
-            FileOutputStream exportStream = new FileOutputStream(exportFile);
-            exportStream.write(content);
-            exportStream.close();
+            writeFile(exportFile, content);
 
             // log export success 
             if (LOG.isInfoEnabled()) {
@@ -2827,6 +2908,9 @@ public class CmsStaticExportManager implements I_CmsEventListener {
             // otherwise take the last modification date form the OpenCms resource
             exportFile.setLastModified((resource.getDateLastModified() / 1000) * 1000);
         }
+        if (m_exportGzip) {
+            writeGzipVariant(exportFile, content);
+        }
     }
 
     /**
@@ -2881,4 +2965,95 @@ public class CmsStaticExportManager implements I_CmsEventListener {
             return Collections.emptyMap();
         }
     }
+
+    /**
+     * Checks if the file with the given name is compressed well by gzip, 
+     * based on its MIME type.<p>
+     * 
+     * @param fileName the name of the file to check
+     * 
+     * @return <code>true</code> if the file is compressed well by gzip
+     */
+    private boolean isCompressible(String fileName) {
+
+        String mimeType = OpenCms.getResourceManager().getMimeType(fileName, null, null);
+        if (mimeType == null) {
+            return false;
+        }
+        return mimeType.startsWith("text/")
+            || (mimeType.indexOf("javascript") > -1)
+            || (mimeType.indexOf("json") > -1)
+            || (mimeType.indexOf("xml") > -1);
+    }
+
+    /**
+     * Writes the given content to the given file.<p>
+     * 
+     * The content is written to a temporary file first, which is then renamed,
+     * so the web server never delivers a partially written file.<p>
+     * 
+     * @param file the file to write
+     * @param content the content to write
+     * 
+     * @throws IOException if something goes wrong
+     */
+    private void writeFile(File file, byte[] content) throws IOException {
+
+        File tempFile = new File(file.getPath() + "." + Thread.currentThread().getId() + ".tmp");
+        try {
+            FileOutputStream exportStream = new FileOutputStream(tempFile);
+            try {
+                exportStream.write(content);
+            } finally {
+                exportStream.close();
+            }
+            if (!tempFile.renameTo(file)) {
+                // some file systems can not replace an existing file
+                file.delete();
+                if (!tempFile.renameTo(file)) {
+                    throw new IOException(file.getPath());
+                }
+            }
+        } finally {
+            if (tempFile.exists()) {
+                tempFile.delete();
+            }
+        }
+    }
+
+    /**
+     * Writes the gzip compressed variant of an exported file.<p>
+     * 
+     * If the content of the file is not compressible, an existing compressed variant 
+     * from an earlier export is deleted.<p>
+     * 
+     * @param exportFile the exported file
+     * @param content the content of the exported file
+     * 
+     * @throws CmsException if something goes wrong
+     */
+    private void writeGzipVariant(File exportFile, byte[] content) throws CmsException {
+
+        File gzipFile = new File(exportFile.getPath() + EXPORT_GZIP_SUFFIX);
+        try {
+            byte[] gzipContent = null;
+            if ((content.length >= EXPORT_GZIP_MIN_BYTES) && isCompressible(exportFile.getName())) {
+                gzipContent = CmsFileUtil.gzip(content);
+            }
+            if ((gzipContent == null) || (gzipContent.length >= content.length)) {
+                // make sure the web server does not deliver an outdated compressed variant
+                if (gzipFile.exists()) {
+                    gzipFile.delete();
+                }
+                return;
+            }
+            writeFile(gzipFile, gzipContent);
+            // web servers only use the compressed variant if it is not older than the exported file
+            gzipFile.setLastModified(exportFile.lastModified());
+        } catch (IOException e) {
+            throw new CmsStaticExportException(Messages.get().container(
+                Messages.ERR_OUTPUT_STREAM_1,
+                gzipFile.getPath()), e);
+        }
+    }
 }
@@ -0,0 +1,146 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.staticexport;
+
+/**
+ * Token bucket used to limit the number of resources exported per second.<p>
+ * 
+ * The bucket holds at most one second worth of tokens, so short bursts are possible
+ * after the export has been idle, but the average rate never exceeds the configured limit.<p>
+ * 
+ * @since 9.5.0
+ */
+public class CmsStaticExportRateLimiter {
+
+    /**
+     * The clock used by the rate limiter to read the time and to wait.<p>
+     */
+    public interface I_CmsClock {
+
+        /**
+         * Returns the current time in milliseconds.<p>
+         * 
+         * @return the current time in milliseconds
+         */
+        long currentTimeMillis();
+
+        /**
+         * Waits for the given time.<p>
+         * 
+         * @param millis the time to wait in milliseconds
+         * 
+         * @throws InterruptedException if the current thread is interrupted while waiting
+         */
+        void sleep(long millis) throws InterruptedException;
+    }
+
+    /** The clock using the system time. */
+    public static final I_CmsClock SYSTEM_CLOCK = new I_CmsClock() {
+
+        public long currentTimeMillis() {
+
+            return System.currentTimeMillis();
+        }
+
+        public void sleep(long millis) throws InterruptedException {
+
+            Thread.sleep(millis);
+        }
+    };
+
+    /** The clock to read the time from. */
+    private I_CmsClock m_clock;
+
+    /** The time the tokens were last refilled. */
+    private long m_lastRefill;
+
+    /** The number of tokens added per second, a value &lt;= 0 means unlimited. */
+    private int m_rate;
+
+    /** The available tokens, negative if tokens have already been reserved by waiting threads. */
+    private double m_tokens;
+
+    /**
+     * Creates a new rate limiter.<p>
+     * 
+     * @param rate the maximum number of permits per second, a value &lt;= 0 means unlimited
+     */
+    public CmsStaticExportRateLimiter(int rate) {
+
+        this(rate, SYSTEM_CLOCK);
+    }
+
+    /**
+     * Creates a new rate limiter using the given clock.<p>
+     * 
+     * @param rate the maximum number of permits per second, a value &lt;= 0 means unlimited
+     * @param clock the clock to read the time from
+     */
+    public CmsStaticExportRateLimiter(int rate, I_CmsClock clock) {
+
+        m_rate = rate;
+        m_clock = clock;
+        m_tokens = Math.max(rate, 0);
+        m_lastRefill = clock.currentTimeMillis();
+    }
+
+    /**
+     * Takes a permit, waiting until one is available.<p>
+     * 
+     * @throws InterruptedException if the current thread is interrupted while waiting
+     */
+    public void acquire() throws InterruptedException {
+
+        if (m_rate <= 0) {
+            return;
+        }
+        long wait;
+        synchronized (this) {
+            long now = m_clock.currentTimeMillis();
+            m_tokens = Math.min(m_rate, m_tokens + (((now - m_lastRefill) * m_rate) / 1000.0));
+            m_lastRefill = now;
+            // reserve the token, a negative balance is the time the caller has to wait
+            m_tokens -= 1;
+            wait = m_tokens < 0 ? (long)Math.ceil((-m_tokens * 1000.0) / m_rate) : 0;
+        }
+        if (wait > 0) {
+            m_clock.sleep(wait);
+        }
+    }
+
+    /**
+     * Returns the maximum number of permits per second.<p>
+     * 
+     * @return the maximum number of permits per second, a value &lt;= 0 means unlimited
+     */
+    public int getRate() {
+
+        return m_rate;
+    }
+}
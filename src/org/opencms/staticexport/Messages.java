@@ -97,6 +97,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String INIT_EXPORT_TESTRESOURCE_1 = "INIT_EXPORT_TESTRESOURCE_1";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String INIT_EXPORT_THREADS_2 = "INIT_EXPORT_THREADS_2";
+
     /** Message constant for key in the resource bundle. */
     public static final String INIT_EXPORT_URL_1 = "INIT_EXPORT_URL_1";
 
@@ -319,6 +322,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String RPT_EXPORTING_0 = "RPT_EXPORTING_0";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String RPT_EXPORT_TIME_1 = "RPT_EXPORT_TIME_1";
+
     /** Message constant for key in the resource bundle. */
     public static final String RPT_STATICEXPORT_BEGIN_0 = "RPT_STATICEXPORT_BEGIN_0";
 
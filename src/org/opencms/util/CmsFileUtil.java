@@ -56,6 +56,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
 
 import org.apache.commons.collections.Closure;
 
@@ -425,6 +426,24 @@ public final class CmsFileUtil {
         return buf.toString();
     }
 
+    /**
+     * Compresses the given content with gzip.<p>
+     * 
+     * @param content the content to compress
+     * 
+     * @return the gzip compressed content
+     * 
+     * @throws IOException in case of errors during compression
+     */
+    public static byte[] gzip(byte[] content) throws IOException {
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(content.length / 4 + 64);
+        GZIPOutputStream gzip = new GZIPOutputStream(out);
+        gzip.write(content);
+        gzip.close();
+        return out.toByteArray();
+    }
+
     /**
      * Normalizes a file path that might contain <code>'../'</code> or <code>'./'</code> or <code>'//'</code> 
      * elements to a normal absolute path, the path separator char used is {@link File#separatorChar}.<p>
@@ -73,12 +73,18 @@ public final class CmsRequestUtil {
     /** HTTP Accept Header for the cms:device-tag. */
     public static final String HEADER_ACCEPT = "Accept";
 
+    /** HTTP Header "Accept-Encoding". */
+    public static final String HEADER_ACCEPT_ENCODING = "Accept-Encoding";
+
     /** HTTP Accept-Charset Header for internal requests used during static export. */
     public static final String HEADER_ACCEPT_CHARSET = "Accept-Charset";
 
     /** HTTP Accept-Language Header for internal requests used during static export. */
     public static final String HEADER_ACCEPT_LANGUAGE = "Accept-Language";
 
+    /** HTTP Header "Accept-Ranges". */
+    public static final String HEADER_ACCEPT_RANGES = "Accept-Ranges";
+
     /** HTTP Header "Cache-Control". */
     public static final String HEADER_CACHE_CONTROL = "Cache-Control";
 
@@ -88,6 +94,15 @@ public final class CmsRequestUtil {
     /** The "Content-Disposition" http header. */
     public static final String HEADER_CONTENT_DISPOSITION = "Content-Disposition";
 
+    /** The "Content-Encoding" http header. */
+    public static final String HEADER_CONTENT_ENCODING = "Content-Encoding";
+
+    /** The "Content-Length" http header. */
+    public static final String HEADER_CONTENT_LENGTH = "Content-Length";
+
+    /** The "Content-Range" http header. */
+    public static final String HEADER_CONTENT_RANGE = "Content-Range";
+
     /** The "Content-Type" http header. */
     public static final String HEADER_CONTENT_TYPE = "Content-Type";
 
@@ -97,6 +112,9 @@ public final class CmsRequestUtil {
     /** HTTP Header "If-Modified-Since". */
     public static final String HEADER_IF_MODIFIED_SINCE = "If-Modified-Since";
 
+    /** HTTP Header "If-Range". */
+    public static final String HEADER_IF_RANGE = "If-Range";
+
     /** The Header that stores the session id (used by OpenCms upload applet). */
     public static final String HEADER_JSESSIONID = "JSESSIONID";
 
@@ -112,12 +130,18 @@ public final class CmsRequestUtil {
     /** HTTP Header "Pragma". */
     public static final String HEADER_PRAGMA = "Pragma";
 
+    /** HTTP Header "Range". */
+    public static final String HEADER_RANGE = "Range";
+
     /** HTTP Header "Server". */
     public static final String HEADER_SERVER = "Server";
 
     /** HTTP Header "user-agent". */
     public static final String HEADER_USER_AGENT = "user-agent";
 
+    /** HTTP Header value "gzip" (for "Accept-Encoding" and "Content-Encoding"). */
+    public static final String HEADER_VALUE_GZIP = "gzip";
+
     /** HTTP Header value "max-age=" (for "Cache-Control"). */
     public static final String HEADER_VALUE_MAX_AGE = "max-age=";
 
@@ -130,6 +154,9 @@ public final class CmsRequestUtil {
     /** HTTP Header value "no-store" (for "Cache-Control"). */
     public static final String HEADER_VALUE_NO_STORE = "no-store";
 
+    /** HTTP Header "Vary". */
+    public static final String HEADER_VARY = "Vary";
+
     /** HTTP Header "WWW-Authenticate". */
     public static final String HEADER_WWW_AUTHENTICATE = "WWW-Authenticate";
 
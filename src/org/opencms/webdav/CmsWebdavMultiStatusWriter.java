@@ -0,0 +1,218 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.webdav;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import org.dom4j.Element;
+import org.dom4j.Namespace;
+import org.dom4j.io.OutputFormat;
+import org.dom4j.io.XMLWriter;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.AttributesImpl;
+
+/**
+ * Writes a WebDAV multistatus response one response element at a time.<p>
+ * 
+ * Only the response element currently written has to be kept in memory, instead of 
+ * building the document with all response elements before writing it. The namespace 
+ * is declared once on the multistatus element and not repeated for every response element.<p>
+ * 
+ * @since 9.5.0
+ */
+public class CmsWebdavMultiStatusWriter {
+
+    /**
+     * XML writer that does not declare the namespace of the multistatus element again.<p>
+     */
+    private static class CmsNamespaceXmlWriter extends XMLWriter {
+
+        /** The namespace already declared on the multistatus element. */
+        private Namespace m_namespace;
+
+        /**
+         * Creates a new XML writer.<p>
+         * 
+         * @param writer the writer to write to
+         * @param namespace the namespace already declared on the multistatus element
+         */
+        CmsNamespaceXmlWriter(Writer writer, Namespace namespace) {
+
+            super(writer, new OutputFormat());
+            m_namespace = namespace;
+        }
+
+        /**
+         * @see org.dom4j.io.XMLWriter#isNamespaceDeclaration(org.dom4j.Namespace)
+         */
+        @Override
+        protected boolean isNamespaceDeclaration(Namespace ns) {
+
+            if (m_namespace.equals(ns)) {
+                return false;
+            }
+            return super.isNamespaceDeclaration(ns);
+        }
+    }
+
+    /** The name of the element describing the multistatus response as a whole. */
+    private static final String TAG_RESPONSEDESCRIPTION = "responsedescription";
+
+    /** The namespace of the multistatus element. */
+    private Namespace m_namespace;
+
+    /** The number of response elements written. */
+    private int m_responseCount;
+
+    /** The name of the multistatus element. */
+    private String m_tagName;
+
+    /** The XML writer. */
+    private CmsNamespaceXmlWriter m_xmlWriter;
+
+    /**
+     * Creates a new multistatus writer.<p>
+     * 
+     * @param writer the writer to write to
+     * @param namespace the namespace of the multistatus element
+     * @param tagName the name of the multistatus element
+     */
+    public CmsWebdavMultiStatusWriter(Writer writer, Namespace namespace, String tagName) {
+
+        m_namespace = namespace;
+        m_tagName = tagName;
+        m_xmlWriter = new CmsNamespaceXmlWriter(writer, namespace);
+    }
+
+    /**
+     * Closes the multistatus element and flushes the output.<p>
+     * 
+     * @throws IOException if writing fails
+     */
+    public void close() throws IOException {
+
+        try {
+            m_xmlWriter.endElement(m_namespace.getURI(), m_tagName, getQualifiedName());
+            m_xmlWriter.endDocument();
+        } catch (SAXException e) {
+            throw new IOException(e.getMessage());
+        }
+    }
+
+    /**
+     * Flushes the output, so the response elements written so far are sent to the client.<p>
+     * 
+     * @throws IOException if writing fails
+     */
+    public void flush() throws IOException {
+
+        m_xmlWriter.flush();
+    }
+
+    /**
+     * Returns the number of response elements written.<p>
+     * 
+     * @return the number of response elements written
+     */
+    public int getResponseCount() {
+
+        return m_responseCount;
+    }
+
+    /**
+     * Writes the XML declaration and opens the multistatus element.<p>
+     * 
+     * @throws IOException if writing fails
+     */
+    public void open() throws IOException {
+
+        try {
+            m_xmlWriter.startDocument();
+            m_xmlWriter.startPrefixMapping(m_namespace.getPrefix(), m_namespace.getURI());
+            m_xmlWriter.startElement(m_namespace.getURI(), m_tagName, getQualifiedName(), new AttributesImpl());
+        } catch (SAXException e) {
+            throw new IOException(e.getMessage());
+        }
+    }
+
+    /**
+     * Writes the description of the multistatus response as a whole.<p>
+     * 
+     * The description has to be written after the last response element.<p>
+     * 
+     * @param description the description text
+     * 
+     * @throws IOException if writing fails
+     */
+    public void writeResponseDescription(String description) throws IOException {
+
+        String qualifiedName = m_namespace.getPrefix() + ":" + TAG_RESPONSEDESCRIPTION;
+        try {
+            m_xmlWriter.startElement(
+                m_namespace.getURI(),
+                TAG_RESPONSEDESCRIPTION,
+                qualifiedName,
+                new AttributesImpl());
+            m_xmlWriter.characters(description.toCharArray(), 0, description.length());
+            m_xmlWriter.endElement(m_namespace.getURI(), TAG_RESPONSEDESCRIPTION, qualifiedName);
+        } catch (SAXException e) {
+            throw new IOException(e.getMessage());
+        }
+    }
+
+    /**
+     * Writes all child elements of the given element and removes them from it.<p>
+     * 
+     * The given element is used as a temporary parent for the response elements.<p>
+     * 
+     * @param parent the element containing the response elements to write
+     * 
+     * @throws IOException if writing fails
+     */
+    @SuppressWarnings("unchecked")
+    public void writeResponses(Element parent) throws IOException {
+
+        for (Element response : (Iterable<Element>)parent.elements()) {
+            m_xmlWriter.write(response);
+            m_responseCount++;
+        }
+        parent.clearContent();
+    }
+
+    /**
+     * Returns the qualified name of the multistatus element.<p>
+     * 
+     * @return the qualified name of the multistatus element
+     */
+    private String getQualifiedName() {
+
+        return m_namespace.getPrefix() + ":" + m_tagName;
+    }
+}
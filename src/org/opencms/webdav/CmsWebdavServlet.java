@@ -87,7 +87,6 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Stack;
 import java.util.StringTokenizer;
 import java.util.TimeZone;
 import java.util.Vector;
@@ -198,6 +197,9 @@ public class CmsWebdavServlet extends HttpServlet {
     /** Default namespace. */
     private static final String DEFAULT_NAMESPACE = "DAV:";
 
+    /** Default for the maximum number of responses to a PROPFIND request. */
+    private static final int DEFAULT_PROPFIND_MAX_RESPONSES = 100000;
+
     /** The text to send if the depth is inifinity. */
     private static final String DEPTH_INFINITY = "Infinity";
 
@@ -252,6 +254,12 @@ public class CmsWebdavServlet extends HttpServlet {
     /** The name of the init parameter in the web.xml to allow listing. */
     private static final String INIT_PARAM_LIST = "listings";
 
+    /** The name of the init parameter in the web.xml for the depth used for PROPFIND requests with depth infinity. */
+    private static final String INIT_PARAM_PROPFIND_MAX_DEPTH = "propfindMaxDepth";
+
+    /** The name of the init parameter in the web.xml for the maximum number of responses to a PROPFIND request. */
+    private static final String INIT_PARAM_PROPFIND_MAX_RESPONSES = "propfindMaxResponses";
+
     /** The name of the init parameter in the web.xml to set read only. */
     private static final String INIT_PARAM_READONLY = "readonly";
 
@@ -267,6 +275,9 @@ public class CmsWebdavServlet extends HttpServlet {
     /** The log object for this class. */
     private static final Log LOG = CmsLog.getLog(CmsWebdavServlet.class);
 
+    /** The number of items listed in a PROPFIND request for which the locks are read and the responses are written. */
+    private static final int PROPFIND_BATCH_SIZE = 200;
+
     /** The repository used from this servlet. */
     private static A_CmsRepository m_repository;
 
@@ -363,6 +374,12 @@ public class CmsWebdavServlet extends HttpServlet {
     /** Should we generate directory listings? */
     private boolean m_listings;
 
+    /** The depth used for PROPFIND requests with depth infinity. */
+    private int m_propfindMaxDepth = CmsRepositoryLockInfo.DEPTH_INFINITY_VALUE;
+
+    /** The maximum number of responses to a PROPFIND request. */
+    private int m_propfindMaxResponses = DEFAULT_PROPFIND_MAX_RESPONSES;
+
     /** Read only flag. By default, it's set to true. */
     private boolean m_readOnly = true;
 
@@ -464,6 +481,10 @@ public class CmsWebdavServlet extends HttpServlet {
                 Boolean.valueOf(m_readOnly)));
         }
 
+        // init parameters: PROPFIND limits
+        m_propfindMaxDepth = readIntInitParam(INIT_PARAM_PROPFIND_MAX_DEPTH, m_propfindMaxDepth);
+        m_propfindMaxResponses = readIntInitParam(INIT_PARAM_PROPFIND_MAX_RESPONSES, m_propfindMaxResponses);
+
         // Load the MD5 helper used to calculate signatures.
         try {
             m_md5Helper = MessageDigest.getInstance("MD5");
@@ -523,22 +544,23 @@ public class CmsWebdavServlet extends HttpServlet {
 
         InputStream resourceInputStream = null;
         if (!item.isCollection()) {
-            resourceInputStream = new ByteArrayInputStream(item.getContent());
+            resourceInputStream = item.getContentStream();
         } else {
             resourceInputStream = is;
         }
 
         Reader reader = new InputStreamReader(resourceInputStream);
-
-        // Copy the input stream to the output stream
-        exception = copyRange(reader, writer);
-
-        // Clean up the reader
         try {
-            reader.close();
-        } catch (Exception e) {
-            if (LOG.isErrorEnabled()) {
-                LOG.error(Messages.get().getBundle().key(Messages.ERR_CLOSE_READER_0), e);
+            // Copy the input stream to the output stream
+            exception = copyRange(reader, writer);
+        } finally {
+            // Clean up the reader
+            try {
+                reader.close();
+            } catch (Exception e) {
+                if (LOG.isErrorEnabled()) {
+                    LOG.error(Messages.get().getBundle().key(Messages.ERR_CLOSE_READER_0), e);
+                }
             }
         }
 
@@ -564,30 +586,24 @@ public class CmsWebdavServlet extends HttpServlet {
         IOException exception = null;
         InputStream resourceInputStream = null;
 
-        // Optimization: If the binary content has already been loaded, send
-        // it directly
         if (!item.isCollection()) {
-            byte[] buffer = item.getContent();
-            if (buffer != null) {
-                ostream.write(buffer, 0, buffer.length);
-                return;
-            }
-            resourceInputStream = new ByteArrayInputStream(item.getContent());
+            resourceInputStream = item.getContentStream();
         } else {
             resourceInputStream = is;
         }
 
         InputStream istream = new BufferedInputStream(resourceInputStream, m_input);
-
-        // Copy the input stream to the output stream
-        exception = copyRange(istream, ostream);
-
-        // Clean up the input stream
         try {
-            istream.close();
-        } catch (Exception e) {
-            if (LOG.isErrorEnabled()) {
-                LOG.error(Messages.get().getBundle().key(Messages.ERR_CLOSE_INPUT_STREAM_0), e);
+            // Copy the input stream to the output stream
+            exception = copyRange(istream, ostream);
+        } finally {
+            // Clean up the input stream
+            try {
+                istream.close();
+            } catch (Exception e) {
+                if (LOG.isErrorEnabled()) {
+                    LOG.error(Messages.get().getBundle().key(Messages.ERR_CLOSE_INPUT_STREAM_0), e);
+                }
             }
         }
 
@@ -612,17 +628,19 @@ public class CmsWebdavServlet extends HttpServlet {
 
         IOException exception = null;
 
-        InputStream resourceInputStream = new ByteArrayInputStream(item.getContent());
+        InputStream resourceInputStream = item.getContentStream();
 
         Reader reader = new InputStreamReader(resourceInputStream);
-        exception = copyRange(reader, writer, range.getStart(), range.getEnd());
-
-        // Clean up the input stream
         try {
-            reader.close();
-        } catch (Exception e) {
-            if (LOG.isErrorEnabled()) {
-                LOG.error(Messages.get().getBundle().key(Messages.ERR_CLOSE_READER_0), e);
+            exception = copyRange(reader, writer, range.getStart(), range.getEnd());
+        } finally {
+            // Clean up the reader
+            try {
+                reader.close();
+            } catch (Exception e) {
+                if (LOG.isErrorEnabled()) {
+                    LOG.error(Messages.get().getBundle().key(Messages.ERR_CLOSE_READER_0), e);
+                }
             }
         }
 
@@ -654,33 +672,35 @@ public class CmsWebdavServlet extends HttpServlet {
 
         while ((exception == null) && (ranges.hasNext())) {
 
-            InputStream resourceInputStream = new ByteArrayInputStream(item.getContent());
+            InputStream resourceInputStream = item.getContentStream();
 
             Reader reader = new InputStreamReader(resourceInputStream);
-            CmsWebdavRange currentRange = ranges.next();
-
-            // Writing MIME header.
-            writer.println();
-            writer.println("--" + MIME_SEPARATION);
-            if (contentType != null) {
-                writer.println("Content-Type: " + contentType);
-            }
-            writer.println("Content-Range: bytes "
-                + currentRange.getStart()
-                + "-"
-                + currentRange.getEnd()
-                + "/"
-                + currentRange.getLength());
-            writer.println();
+            try {
+                CmsWebdavRange currentRange = ranges.next();
 
-            // Printing content
-            exception = copyRange(reader, writer, currentRange.getStart(), currentRange.getEnd());
+                // Writing MIME header.
+                writer.println();
+                writer.println("--" + MIME_SEPARATION);
+                if (contentType != null) {
+                    writer.println("Content-Type: " + contentType);
+                }
+                writer.println("Content-Range: bytes "
+                    + currentRange.getStart()
+                    + "-"
+                    + currentRange.getEnd()
+                    + "/"
+                    + currentRange.getLength());
+                writer.println();
 
-            try {
-                reader.close();
-            } catch (Exception e) {
-                if (LOG.isErrorEnabled()) {
-                    LOG.error(Messages.get().getBundle().key(Messages.ERR_CLOSE_READER_0), e);
+                // Printing content
+                exception = copyRange(reader, writer, currentRange.getStart(), currentRange.getEnd());
+            } finally {
+                try {
+                    reader.close();
+                } catch (Exception e) {
+                    if (LOG.isErrorEnabled()) {
+                        LOG.error(Messages.get().getBundle().key(Messages.ERR_CLOSE_READER_0), e);
+                    }
                 }
             }
 
@@ -710,16 +730,18 @@ public class CmsWebdavServlet extends HttpServlet {
 
         IOException exception = null;
 
-        InputStream resourceInputStream = new ByteArrayInputStream(item.getContent());
+        InputStream resourceInputStream = item.getContentStream();
         InputStream istream = new BufferedInputStream(resourceInputStream, m_input);
-        exception = copyRange(istream, ostream, range.getStart(), range.getEnd());
-
-        // Clean up the input stream
         try {
-            istream.close();
-        } catch (Exception e) {
-            if (LOG.isErrorEnabled()) {
-                LOG.error(Messages.get().getBundle().key(Messages.ERR_CLOSE_INPUT_STREAM_0), e);
+            exception = copyRange(istream, ostream, range.getStart(), range.getEnd());
+        } finally {
+            // Clean up the input stream
+            try {
+                istream.close();
+            } catch (Exception e) {
+                if (LOG.isErrorEnabled()) {
+                    LOG.error(Messages.get().getBundle().key(Messages.ERR_CLOSE_INPUT_STREAM_0), e);
+                }
             }
         }
 
@@ -751,33 +773,34 @@ public class CmsWebdavServlet extends HttpServlet {
 
         while ((exception == null) && (ranges.hasNext())) {
 
-            InputStream resourceInputStream = new ByteArrayInputStream(item.getContent());
+            InputStream resourceInputStream = item.getContentStream();
             InputStream istream = new BufferedInputStream(resourceInputStream, m_input);
+            try {
+                CmsWebdavRange currentRange = ranges.next();
 
-            CmsWebdavRange currentRange = ranges.next();
-
-            // Writing MIME header.
-            ostream.println();
-            ostream.println("--" + MIME_SEPARATION);
-            if (contentType != null) {
-                ostream.println("Content-Type: " + contentType);
-            }
-            ostream.println("Content-Range: bytes "
-                + currentRange.getStart()
-                + "-"
-                + currentRange.getEnd()
-                + "/"
-                + currentRange.getLength());
-            ostream.println();
-
-            // Printing content
-            exception = copyRange(istream, ostream, currentRange.getStart(), currentRange.getEnd());
+                // Writing MIME header.
+                ostream.println();
+                ostream.println("--" + MIME_SEPARATION);
+                if (contentType != null) {
+                    ostream.println("Content-Type: " + contentType);
+                }
+                ostream.println("Content-Range: bytes "
+                    + currentRange.getStart()
+                    + "-"
+                    + currentRange.getEnd()
+                    + "/"
+                    + currentRange.getLength());
+                ostream.println();
 
-            try {
-                istream.close();
-            } catch (Exception e) {
-                if (LOG.isErrorEnabled()) {
-                    LOG.error(Messages.get().getBundle().key(Messages.ERR_CLOSE_INPUT_STREAM_0), e);
+                // Printing content
+                exception = copyRange(istream, ostream, currentRange.getStart(), currentRange.getEnd());
+            } finally {
+                try {
+                    istream.close();
+                } catch (Exception e) {
+                    if (LOG.isErrorEnabled()) {
+                        LOG.error(Messages.get().getBundle().key(Messages.ERR_CLOSE_INPUT_STREAM_0), e);
+                    }
                 }
             }
 
@@ -843,7 +866,18 @@ public class CmsWebdavServlet extends HttpServlet {
         }
 
         try {
-            istream.skip(start);
+            // streams read from the database may skip less than requested
+            long skipped = 0;
+            while (skipped < start) {
+                long count = istream.skip(start - skipped);
+                if (count <= 0) {
+                    if (istream.read() == -1) {
+                        break;
+                    }
+                    count = 1;
+                }
+                skipped += count;
+            }
         } catch (IOException e) {
             return e;
         }
@@ -852,10 +886,13 @@ public class CmsWebdavServlet extends HttpServlet {
         long bytesToRead = (end - start) + 1;
 
         byte[] buffer = new byte[m_input];
-        int len = buffer.length;
-        while ((bytesToRead > 0) && (len >= buffer.length)) {
+        while (bytesToRead > 0) {
             try {
-                len = istream.read(buffer);
+                // streams read from the database may return less than a full buffer
+                int len = istream.read(buffer);
+                if (len == -1) {
+                    break;
+                }
                 if (bytesToRead >= len) {
                     ostream.write(buffer, 0, len);
                     bytesToRead -= len;
@@ -865,10 +902,6 @@ public class CmsWebdavServlet extends HttpServlet {
                 }
             } catch (IOException e) {
                 exception = e;
-                len = -1;
-            }
-
-            if (len < buffer.length) {
                 break;
             }
         }
@@ -923,7 +956,18 @@ public class CmsWebdavServlet extends HttpServlet {
     protected IOException copyRange(Reader reader, PrintWriter writer, long start, long end) {
 
         try {
-            reader.skip(start);
+            // streams read from the database may skip less than requested
+            long skipped = 0;
+            while (skipped < start) {
+                long count = reader.skip(start - skipped);
+                if (count <= 0) {
+                    if (reader.read() == -1) {
+                        break;
+                    }
+                    count = 1;
+                }
+                skipped += count;
+            }
         } catch (IOException e) {
             return e;
         }
@@ -932,10 +976,13 @@ public class CmsWebdavServlet extends HttpServlet {
         long bytesToRead = (end - start) + 1;
 
         char[] buffer = new char[m_input];
-        int len = buffer.length;
-        while ((bytesToRead > 0) && (len >= buffer.length)) {
+        while (bytesToRead > 0) {
             try {
-                len = reader.read(buffer);
+                // streams read from the database may return less than a full buffer
+                int len = reader.read(buffer);
+                if (len == -1) {
+                    break;
+                }
                 if (bytesToRead >= len) {
                     writer.write(buffer, 0, len);
                     bytesToRead -= len;
@@ -945,10 +992,6 @@ public class CmsWebdavServlet extends HttpServlet {
                 }
             } catch (IOException e) {
                 exception = e;
-                len = -1;
-            }
-
-            if (len < buffer.length) {
                 break;
             }
         }
@@ -1900,63 +1943,102 @@ public class CmsWebdavServlet extends HttpServlet {
             return;
         }
 
+        // depth infinity is limited by configuration
+        boolean infinite = depth == CmsRepositoryLockInfo.DEPTH_INFINITY_VALUE;
+        if (infinite) {
+            depth = m_propfindMaxDepth;
+        }
+        // the locks are only read if they are part of the response
+        boolean readLocks = (type == FIND_ALL_PROP)
+            || ((type == FIND_BY_PROPERTY) && properties.contains(TAG_LOCKDISCOVERY));
+
         resp.setStatus(CmsWebdavStatus.SC_MULTI_STATUS);
         resp.setContentType("text/xml; charset=UTF-8");
 
-        // Create multistatus object
-        Document doc = DocumentHelper.createDocument();
-        Element multiStatusElem = doc.addElement(new QName(TAG_MULTISTATUS, Namespace.get("D", DEFAULT_NAMESPACE)));
-
-        if (depth == 0) {
-            parseProperties(req, multiStatusElem, item, type, properties);
-        } else {
-            // The stack always contains the object of the current level
-            Stack<I_CmsRepositoryItem> stack = new Stack<I_CmsRepositoryItem>();
-            stack.push(item);
-
-            // Stack of the objects one level below
-            Stack<I_CmsRepositoryItem> stackBelow = new Stack<I_CmsRepositoryItem>();
-
-            while ((!stack.isEmpty()) && (depth >= 0)) {
-
-                I_CmsRepositoryItem currentItem = stack.pop();
-                parseProperties(req, multiStatusElem, currentItem, type, properties);
+        // The response elements are written as soon as they are created
+        Namespace namespace = Namespace.get("D", DEFAULT_NAMESPACE);
+        Element multiStatusElem = DocumentHelper.createElement(new QName(TAG_MULTISTATUS, namespace));
+        Writer writer = resp.getWriter();
+        CmsWebdavMultiStatusWriter multiStatus = new CmsWebdavMultiStatusWriter(writer, namespace, TAG_MULTISTATUS);
+        try {
+            multiStatus.open();
 
-                if ((currentItem.isCollection()) && (depth > 0)) {
+            List<I_CmsRepositoryItem> items = new ArrayList<I_CmsRepositoryItem>();
+            items.add(item);
+            writeProperties(req, multiStatus, multiStatusElem, items, type, properties, readLocks);
 
+            // the collections of the current level, only these are kept in memory for the next level
+            List<I_CmsRepositoryItem> collections = new ArrayList<I_CmsRepositoryItem>();
+            if (item.isCollection()) {
+                collections.add(item);
+            }
+            boolean truncated = false;
+            boolean incomplete = false;
+            int level = 0;
+            while (!collections.isEmpty() && (level < depth) && !truncated) {
+                List<I_CmsRepositoryItem> collectionsBelow = new ArrayList<I_CmsRepositoryItem>();
+                Iterator<I_CmsRepositoryItem> iter = collections.iterator();
+                while (iter.hasNext() && !truncated) {
+                    I_CmsRepositoryItem currentItem = iter.next();
+                    List<I_CmsRepositoryItem> list;
                     try {
-                        List<I_CmsRepositoryItem> list = m_session.list(currentItem.getName());
-                        Iterator<I_CmsRepositoryItem> iter = list.iterator();
-                        while (iter.hasNext()) {
-                            I_CmsRepositoryItem element = iter.next();
-                            stackBelow.push(element);
-                        }
-
+                        list = m_session.list(currentItem.getName());
                     } catch (CmsException e) {
-
-                        resp.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
-
                         if (LOG.isErrorEnabled()) {
                             LOG.error(
                                 Messages.get().getBundle().key(Messages.LOG_LIST_ITEMS_ERROR_1, currentItem.getName()),
                                 e);
                         }
-
-                        return;
+                        // the collection already has a response, so only the description tells about the error
+                        incomplete = true;
+                        continue;
+                    }
+                    for (int i = 0; (i < list.size()) && !truncated; i += PROPFIND_BATCH_SIZE) {
+                        int end = Math.min(i + PROPFIND_BATCH_SIZE, list.size());
+                        int remaining = m_propfindMaxResponses > 0
+                            ? m_propfindMaxResponses - multiStatus.getResponseCount()
+                            : Integer.MAX_VALUE;
+                        if ((end - i) > remaining) {
+                            end = i + remaining;
+                            truncated = true;
+                        }
+                        List<I_CmsRepositoryItem> batch = list.subList(i, end);
+                        writeProperties(req, multiStatus, multiStatusElem, batch, type, properties, readLocks);
+                        for (I_CmsRepositoryItem element : batch) {
+                            if (element.isCollection()) {
+                                collectionsBelow.add(element);
+                            }
+                        }
                     }
                 }
+                collections = collectionsBelow;
+                level++;
+            }
+            if (!truncated && infinite) {
+                // the members of the collections below the depth limit have not been listed for depth infinity
+                truncated = hasMembers(collections);
+            }
 
-                if (stack.isEmpty()) {
-                    depth--;
-                    stack = stackBelow;
-                    stackBelow = new Stack<I_CmsRepositoryItem>();
+            if (truncated) {
+                if (LOG.isWarnEnabled()) {
+                    LOG.warn(Messages.get().getBundle().key(
+                        Messages.LOG_PROPFIND_TRUNCATED_2,
+                        path,
+                        Integer.valueOf(multiStatus.getResponseCount())));
                 }
             }
+            if (truncated || incomplete) {
+                // every href already has its response, so the description at the end tells the client about it
+                multiStatus.writeResponseDescription(
+                    Messages.get().getBundle().key(Messages.GUI_PROPFIND_INCOMPLETE_0));
+            }
+        } finally {
+            try {
+                multiStatus.close();
+            } finally {
+                writer.close();
+            }
         }
-
-        Writer writer = resp.getWriter();
-        doc.write(writer);
-        writer.close();
     }
 
     /**
@@ -3017,17 +3099,15 @@ public class CmsWebdavServlet extends HttpServlet {
     }
 
     /**
-     * Print the lock discovery information associated with a path.<p>
+     * Print the lock discovery information of a lock.<p>
      *
-     * @param path the path to the resource
+     * @param lock the lock of the resource, or <code>null</code> if the resource is not locked
      * @param elem the dom element where to add the lock discovery elements
      * @param req the servlet request we are processing
      * 
      * @return true if at least one lock was displayed
      */
-    private boolean generateLockDiscovery(String path, Element elem, HttpServletRequest req) {
-
-        CmsRepositoryLockInfo lock = m_session.getLock(path);
+    private boolean generateLockDiscovery(CmsRepositoryLockInfo lock, Element elem, HttpServletRequest req) {
 
         if (lock != null) {
 
@@ -3064,6 +3144,27 @@ public class CmsWebdavServlet extends HttpServlet {
         return MD5_ENCODER.encode(m_md5Helper.digest(lockTokenStr.getBytes()));
     }
 
+    /**
+     * Returns the URL encoded href of the item with the given path.<p>
+     * 
+     * @param req the servlet request we are processing
+     * @param path the path of the item
+     * 
+     * @return the href of the item
+     * 
+     * @throws UnsupportedEncodingException if the path can not be encoded
+     */
+    private String getHref(HttpServletRequest req, String path) throws UnsupportedEncodingException {
+
+        String href = req.getContextPath() + req.getServletPath();
+        if ((href.endsWith("/")) && (path.startsWith("/"))) {
+            href += path.substring(1);
+        } else {
+            href += path;
+        }
+        return rewriteUrl(href);
+    }
+
     /**
      * Return the relative path associated with this servlet.<p>
      *
@@ -3083,6 +3184,30 @@ public class CmsWebdavServlet extends HttpServlet {
         return (result);
     }
 
+    /**
+     * Checks if at least one of the given collections has members.<p>
+     * 
+     * The collections are listed one after the other until the first member is found.<p>
+     * 
+     * @param collections the collections to check
+     * 
+     * @return true if at least one of the given collections has members, or if a collection can not be listed
+     */
+    private boolean hasMembers(List<I_CmsRepositoryItem> collections) {
+
+        for (I_CmsRepositoryItem collection : collections) {
+            try {
+                if (!m_session.list(collection.getName()).isEmpty()) {
+                    return true;
+                }
+            } catch (CmsException e) {
+                // the members are unknown, so the collection may have members
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Check to see if a resource is currently write locked.<p>
      * 
@@ -3354,13 +3479,15 @@ public class CmsWebdavServlet extends HttpServlet {
      * @param type the propfind type
      * @param propertiesVector if the propfind type is find properties by
      *          name, then this Vector contains those properties
+     * @param locks the prefetched locks keyed by item name, or <code>null</code> if no locks are required
      */
     private void parseProperties(
         HttpServletRequest req,
         Element elem,
         I_CmsRepositoryItem item,
         int type,
-        List<String> propertiesVector) {
+        List<String> propertiesVector,
+        Map<String, CmsRepositoryLockInfo> locks) {
 
         String path = item.getName();
         Element responseElem = addElement(elem, TAG_RESPONSE);
@@ -3373,20 +3500,14 @@ public class CmsWebdavServlet extends HttpServlet {
         // Generating href element
         Element hrefElem = addElement(responseElem, TAG_HREF);
 
-        String href = req.getContextPath() + req.getServletPath();
-        if ((href.endsWith("/")) && (path.startsWith("/"))) {
-            href += path.substring(1);
-        } else {
-            href += path;
-        }
-
         try {
-            hrefElem.addText(rewriteUrl(href));
+            hrefElem.addText(getHref(req, path));
         } catch (UnsupportedEncodingException ex) {
             return;
         }
 
         String resourceName = path;
+        CmsRepositoryLockInfo lock = locks != null ? locks.get(path) : null;
 
         Element propstatElem = addElement(responseElem, TAG_PROPSTAT);
         Element propElem = addElement(propstatElem, TAG_PROP);
@@ -3426,7 +3547,7 @@ public class CmsWebdavServlet extends HttpServlet {
                 addElement(addElement(lockEntryElem, TAG_LOCKSCOPE), CmsRepositoryLockInfo.SCOPE_SHARED);
                 addElement(addElement(lockEntryElem, TAG_LOCKTYPE), CmsRepositoryLockInfo.TYPE_WRITE);
 
-                generateLockDiscovery(path, propElem, req);
+                generateLockDiscovery(lock, propElem, req);
 
                 addElement(propstatElem, TAG_STATUS).addText(status);
 
@@ -3517,7 +3638,7 @@ public class CmsWebdavServlet extends HttpServlet {
                         addElement(addElement(lockEntryElem, TAG_LOCKSCOPE), CmsRepositoryLockInfo.SCOPE_SHARED);
                         addElement(addElement(lockEntryElem, TAG_LOCKTYPE), CmsRepositoryLockInfo.TYPE_WRITE);
                     } else if (property.equals(TAG_LOCKDISCOVERY)) {
-                        if (!generateLockDiscovery(path, propElem, req)) {
+                        if (!generateLockDiscovery(lock, propElem, req)) {
                             addElement(propElem, TAG_LOCKDISCOVERY);
                         }
                     } else {
@@ -3555,6 +3676,34 @@ public class CmsWebdavServlet extends HttpServlet {
         }
     }
 
+    /**
+     * Reads an integer init parameter of the servlet.<p>
+     * 
+     * @param name the name of the init parameter
+     * @param defaultValue the value to use if the init parameter is not set or invalid
+     * 
+     * @return the value of the init parameter
+     */
+    private int readIntInitParam(String name, int defaultValue) {
+
+        int result = defaultValue;
+        String value = getServletConfig().getInitParameter(name);
+        if (value != null) {
+            try {
+                result = Integer.parseInt(value.trim());
+            } catch (NumberFormatException e) {
+                if (LOG.isErrorEnabled()) {
+                    LOG.error(Messages.get().getBundle().key(Messages.LOG_READ_INIT_PARAM_ERROR_2, name, value), e);
+                }
+            }
+        }
+
+        if (LOG.isInfoEnabled()) {
+            LOG.info(Messages.get().getBundle().key(Messages.LOG_READ_INIT_PARAM_2, name, Integer.valueOf(result)));
+        }
+        return result;
+    }
+
     /**
      * Sends a response back to authenticate the user.<p>
      * 
@@ -3612,4 +3761,38 @@ public class CmsWebdavServlet extends HttpServlet {
         doc.write(writer);
         writer.close();
     }
+
+    /**
+     * Writes the responses for a batch of items of a PROPFIND request.<p>
+     * 
+     * The locks of all items in the batch are read at once if they are required.<p>
+     * 
+     * @param req the servlet request we are processing
+     * @param multiStatus the writer for the multistatus response
+     * @param multiStatusElem the element used as temporary parent for the response elements
+     * @param items the items to write the responses for
+     * @param type the propfind type
+     * @param properties if the propfind type is find properties by name, then this list contains those properties
+     * @param readLocks if the locks of the items are required
+     * 
+     * @throws IOException if writing the responses fails
+     */
+    private void writeProperties(
+        HttpServletRequest req,
+        CmsWebdavMultiStatusWriter multiStatus,
+        Element multiStatusElem,
+        List<I_CmsRepositoryItem> items,
+        int type,
+        List<String> properties,
+        boolean readLocks) throws IOException {
+
+        Map<String, CmsRepositoryLockInfo> locks = readLocks ? m_session.getLocks(items) : null;
+        Iterator<I_CmsRepositoryItem> iter = items.iterator();
+        while (iter.hasNext()) {
+            parseProperties(req, multiStatusElem, iter.next(), type, properties, locks);
+        }
+        multiStatus.writeResponses(multiStatusElem);
+        // send the responses of the batch to the client
+        multiStatus.flush();
+    }
 }
\ No newline at end of file
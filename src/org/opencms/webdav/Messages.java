@@ -52,6 +52,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String GUI_DIRECTORY_TITLE_1 = "GUI_DIRECTORY_TITLE_1";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String GUI_PROPFIND_INCOMPLETE_0 = "GUI_PROPFIND_INCOMPLETE_0";
+
     /** Message constant for key in the resource bundle. */
     public static final String ERR_CLOSE_INPUT_STREAM_0 = "ERR_CLOSE_INPUT_STREAM_0";
 
@@ -142,6 +145,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String LOG_PARSE_DEST_HEADER_0 = "LOG_PARSE_DEST_HEADER_0";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_PROPFIND_TRUNCATED_2 = "LOG_PROPFIND_TRUNCATED_2";
+
     /** Message constant for key in the resource bundle. */
     public static final String LOG_READ_INIT_PARAM_2 = "LOG_READ_INIT_PARAM_2";
 
@@ -30,6 +30,7 @@ package org.opencms.xml.containerpage;
 import org.opencms.cache.CmsVfsCache;
 import org.opencms.file.CmsResource;
 import org.opencms.file.types.CmsResourceTypeXmlContainerPage;
+import org.opencms.file.types.CmsResourceTypeXmlContent;
 import org.opencms.main.CmsLog;
 import org.opencms.monitor.CmsMemoryMonitor;
 import org.opencms.util.CmsCollectionsGenericWrapper;
@@ -69,6 +70,12 @@ public final class CmsADECache extends CmsVfsCache {
     /** Read-write lock to ensure that the cache maps aren't accessed while we iterate through them to remove invalid entries. */
     private ReadWriteLock m_lock = new ReentrantReadWriteLock(true);
 
+    /** Cache for offline XML contents. */
+    private Map<String, CmsXmlContent> m_xmlContentsOffline;
+
+    /** Cache for online XML contents. */
+    private Map<String, CmsXmlContent> m_xmlContentsOnline;
+
     /**
      * Initializes the cache. Only intended to be called during startup.<p>
      * 
@@ -121,6 +128,25 @@ public final class CmsADECache extends CmsVfsCache {
         }
     }
 
+    /**
+     * Flushes the XML contents cache.<p>
+     * 
+     * @param online if to flush the online or offline cache
+     */
+    public void flushXmlContents(boolean online) {
+
+        try {
+            m_lock.writeLock().lock();
+            if (online) {
+                m_xmlContentsOnline.clear();
+            } else {
+                m_xmlContentsOffline.clear();
+            }
+        } finally {
+            m_lock.writeLock().unlock();
+        }
+    }
+
     /**
      * Returns the cached container page under the given key and for the given project.<p>
      * 
@@ -220,6 +246,57 @@ public final class CmsADECache extends CmsVfsCache {
         }
     }
 
+    /**
+     * Returns the cached XML content under the given key and for the given project.<p>
+     * 
+     * The returned instance is shared, callers must only use it as a template 
+     * for a {@link CmsXmlContent#copy()} and never modify it directly.<p>
+     * 
+     * @param key the cache key
+     * @param online if cached in online or offline project
+     * 
+     * @return the cached XML content or <code>null</code> if not found
+     */
+    public CmsXmlContent getCacheXmlContent(String key, boolean online) {
+
+        try {
+            m_lock.readLock().lock();
+            CmsXmlContent retValue;
+            if (online) {
+                retValue = m_xmlContentsOnline.get(key);
+                if (LOG.isDebugEnabled()) {
+                    if (retValue == null) {
+                        LOG.debug(Messages.get().getBundle().key(
+                            Messages.LOG_DEBUG_CACHE_MISSED_ONLINE_1,
+                            new Object[] {key}));
+
+                    } else {
+                        LOG.debug(Messages.get().getBundle().key(
+                            Messages.LOG_DEBUG_CACHE_MATCHED_ONLINE_2,
+                            new Object[] {key, retValue}));
+                    }
+                }
+            } else {
+                retValue = m_xmlContentsOffline.get(key);
+                if (LOG.isDebugEnabled()) {
+                    if (retValue == null) {
+                        LOG.debug(Messages.get().getBundle().key(
+                            Messages.LOG_DEBUG_CACHE_MISSED_OFFLINE_1,
+                            new Object[] {key}));
+
+                    } else {
+                        LOG.debug(Messages.get().getBundle().key(
+                            Messages.LOG_DEBUG_CACHE_MATCHED_OFFLINE_2,
+                            new Object[] {key, retValue}));
+                    }
+                }
+            }
+            return retValue;
+        } finally {
+            m_lock.readLock().unlock();
+        }
+    }
+
     /**
      * Returns the cache key for the given parameters.<p>
      * 
@@ -233,6 +310,21 @@ public final class CmsADECache extends CmsVfsCache {
         return structureId.toString() + "_" + keepEncoding;
     }
 
+    /**
+     * Returns the XML content cache key for the given resource.<p>
+     * 
+     * The key contains the date of last modification, so a modified resource
+     * will never match a previously cached version of its XML content.<p>
+     * 
+     * @param resource the XML content resource
+     * 
+     * @return the XML content cache key for the given resource
+     */
+    public String getCacheKey(CmsResource resource) {
+
+        return resource.getStructureId().toString() + "_" + resource.getDateLastModified();
+    }
+
     /**
      * Caches the given container page under the given key and for the given project.<p>
      * 
@@ -297,6 +389,39 @@ public final class CmsADECache extends CmsVfsCache {
         }
     }
 
+    /**
+     * Caches the given XML content under the given key and for the given project.<p>
+     * 
+     * The cached instance is shared, so it must not be modified after it has been cached.<p>
+     * 
+     * @param key the cache key
+     * @param xmlContent the object to cache
+     * @param online if to cache in online or offline project
+     */
+    public void setCacheXmlContent(String key, CmsXmlContent xmlContent, boolean online) {
+
+        try {
+            m_lock.writeLock().lock();
+            if (online) {
+                m_xmlContentsOnline.put(key, xmlContent);
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug(Messages.get().getBundle().key(
+                        Messages.LOG_DEBUG_CACHE_SET_ONLINE_2,
+                        new Object[] {key, xmlContent}));
+                }
+            } else {
+                m_xmlContentsOffline.put(key, xmlContent);
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug(Messages.get().getBundle().key(
+                        Messages.LOG_DEBUG_CACHE_SET_OFFLINE_2,
+                        new Object[] {key, xmlContent}));
+                }
+            }
+        } finally {
+            m_lock.writeLock().unlock();
+        }
+    }
+
     /**
      * Removes the container page identified by its structure id from the cache.<p>
      * 
@@ -351,6 +476,7 @@ public final class CmsADECache extends CmsVfsCache {
             m_lock.writeLock().lock();
             flushContainerPages(online);
             flushGroupContainers(online);
+            flushXmlContents(online);
         } finally {
             m_lock.writeLock().unlock();
         }
@@ -373,6 +499,9 @@ public final class CmsADECache extends CmsVfsCache {
             } else {
                 removeCachedContent(resource, m_groupContainersOffline);
             }
+            if (CmsResourceTypeXmlContent.isXmlContent(resource)) {
+                removeCachedContent(resource, m_xmlContentsOffline);
+            }
         } finally {
             m_lock.writeLock().unlock();
         }
@@ -403,6 +532,15 @@ public final class CmsADECache extends CmsVfsCache {
         lruMapGroupContainer = CmsCollectionsGenericWrapper.createLRUMap(cacheSettings.getGroupContainerOnlineSize());
         m_groupContainersOnline = Collections.synchronizedMap(lruMapGroupContainer);
         memMonitor.register(CmsADECache.class.getName() + ".groupContainersOnline", lruMapGroupContainer);
+
+        // XML content caches
+        Map<String, CmsXmlContent> lruMapXmlContent = CmsCollectionsGenericWrapper.createLRUMap(cacheSettings.getXmlContentOfflineSize());
+        m_xmlContentsOffline = Collections.synchronizedMap(lruMapXmlContent);
+        memMonitor.register(CmsADECache.class.getName() + ".xmlContentsOffline", lruMapXmlContent);
+
+        lruMapXmlContent = CmsCollectionsGenericWrapper.createLRUMap(cacheSettings.getXmlContentOnlineSize());
+        m_xmlContentsOnline = Collections.synchronizedMap(lruMapXmlContent);
+        memMonitor.register(CmsADECache.class.getName() + ".xmlContentsOnline", lruMapXmlContent);
     }
 
     /**
@@ -52,6 +52,15 @@ public class CmsADECacheSettings {
     /** The size of the group container online cache. */
     private int m_groupContainerOnlineSize;
 
+    /** Default size for XML content caches. */
+    private static final int DEFAULT_XML_CONTENT_SIZE = 256;
+
+    /** The size of the XML content offline cache. */
+    private int m_xmlContentOfflineSize;
+
+    /** The size of the XML content online cache. */
+    private int m_xmlContentOnlineSize;
+
     /**
      * Default constructor.<p>
      */
@@ -152,6 +161,52 @@ public class CmsADECacheSettings {
         m_groupContainerOnlineSize = getIntValue(size, DEFAULT_GROUP_CONTAINER_SIZE);
     }
 
+    /**
+     * Returns the size of the XML content offline cache.<p>
+     * 
+     * @return the size of the XML content offline cache
+     */
+    public int getXmlContentOfflineSize() {
+
+        if (m_xmlContentOfflineSize <= 0) {
+            return DEFAULT_XML_CONTENT_SIZE;
+        }
+        return m_xmlContentOfflineSize;
+    }
+
+    /**
+     * Returns the size of the XML content online cache.<p>
+     * 
+     * @return the size of the XML content online cache
+     */
+    public int getXmlContentOnlineSize() {
+
+        if (m_xmlContentOnlineSize <= 0) {
+            return DEFAULT_XML_CONTENT_SIZE;
+        }
+        return m_xmlContentOnlineSize;
+    }
+
+    /**
+     * Sets the size of the cache for offline XML contents.<p>
+     *
+     * @param size the size of the cache for offline XML contents
+     */
+    public void setXmlContentOfflineSize(String size) {
+
+        m_xmlContentOfflineSize = getIntValue(size, DEFAULT_XML_CONTENT_SIZE);
+    }
+
+    /**
+     * Sets the size of the cache for online XML contents.<p>
+     *
+     * @param size the size of the cache for online XML contents
+     */
+    public void setXmlContentOnlineSize(String size) {
+
+        m_xmlContentOnlineSize = getIntValue(size, DEFAULT_XML_CONTENT_SIZE);
+    }
+
     /**
      * Turns a string into an int.<p>
      * 
@@ -31,6 +31,7 @@ import org.opencms.file.CmsFile;
 import org.opencms.file.CmsObject;
 import org.opencms.file.CmsPropertyDefinition;
 import org.opencms.file.CmsResource;
+import org.opencms.file.history.I_CmsHistoryResource;
 import org.opencms.file.types.CmsResourceTypeXmlContent;
 import org.opencms.i18n.CmsEncoder;
 import org.opencms.loader.CmsLoaderException;
@@ -40,6 +41,7 @@ import org.opencms.xml.CmsXmlContentDefinition;
 import org.opencms.xml.CmsXmlEntityResolver;
 import org.opencms.xml.CmsXmlException;
 import org.opencms.xml.CmsXmlUtils;
+import org.opencms.xml.containerpage.CmsADECache;
 
 import java.io.UnsupportedEncodingException;
 import java.util.Locale;
@@ -210,21 +212,7 @@ public final class CmsXmlContentFactory {
 
         byte[] contentBytes = file.getContents();
         String filename = cms.getSitePath(file);
-
-        String encoding = null;
-        try {
-            encoding = cms.readPropertyObject(filename, CmsPropertyDefinition.PROPERTY_CONTENT_ENCODING, true).getValue();
-        } catch (CmsException e) {
-            // encoding will be null 
-        }
-        if (encoding == null) {
-            encoding = OpenCms.getSystemInfo().getDefaultEncoding();
-        } else {
-            encoding = CmsEncoder.lookupEncoding(encoding, null);
-            if (encoding == null) {
-                throw new CmsXmlException(Messages.get().container(Messages.ERR_XMLCONTENT_INVALID_ENC_1, filename));
-            }
-        }
+        String encoding = getEncoding(cms, file);
 
         CmsXmlContent content;
         if (contentBytes.length > 0) {
@@ -258,6 +246,12 @@ public final class CmsXmlContentFactory {
      * Factory method to unmarshal (read) a XML content instance from
      * a resource, using the request attributes as cache.<p>
      * 
+     * Contents not found in the request attributes are taken from a cross request cache 
+     * of parsed XML contents, keyed by structure id and date of last modification. 
+     * Every request gets its own copy of the cached XML content, so the returned instance 
+     * can be modified without affecting other requests. Since the cached contents are parsed without 
+     * link validation, the broken links are removed from each copy with the given OpenCms context.<p>
+     * 
      * @param cms the current OpenCms context object
      * @param resource the resource to unmarshal
      * @param req the current request
@@ -285,8 +279,13 @@ public final class CmsXmlContentFactory {
         CmsXmlContent content = (CmsXmlContent)req.getAttribute(rootPath);
 
         if (content == null) {
-            // unmarshal XML structure from the file content
-            content = unmarshal(cms, cms.readFile(resource));
+            if (resource instanceof I_CmsHistoryResource) {
+                // unmarshal XML structure from the file content
+                content = unmarshal(cms, cms.readFile(resource));
+            } else {
+                // use a copy of the content from the cross request cache 
+                content = unmarshalCached(cms, resource);
+            }
             // store the content as request attribute for future read requests
             req.setAttribute(rootPath, content);
         }
@@ -372,4 +371,85 @@ public final class CmsXmlContentFactory {
 
         return unmarshal(null, xmlData, encoding, resolver);
     }
-}
\ No newline at end of file
+
+    /**
+     * Gets the ADE cache from the ADE manager.<p>
+     * 
+     * @return the ADE cache 
+     */
+    private static CmsADECache getCache() {
+
+        return OpenCms.getADEManager().getCache();
+    }
+
+    /**
+     * Returns the encoding of the given XML content file, read from the content encoding property.<p>
+     * 
+     * @param cms the current cms object
+     * @param file the XML content file
+     * 
+     * @return the encoding of the file
+     * 
+     * @throws CmsXmlException if the encoding property contains an invalid encoding
+     */
+    private static String getEncoding(CmsObject cms, CmsFile file) throws CmsXmlException {
+
+        String filename = cms.getSitePath(file);
+        String encoding = null;
+        try {
+            encoding = cms.readPropertyObject(filename, CmsPropertyDefinition.PROPERTY_CONTENT_ENCODING, true).getValue();
+        } catch (CmsException e) {
+            // encoding will be null 
+        }
+        if (encoding == null) {
+            encoding = OpenCms.getSystemInfo().getDefaultEncoding();
+        } else {
+            encoding = CmsEncoder.lookupEncoding(encoding, null);
+            if (encoding == null) {
+                throw new CmsXmlException(Messages.get().container(Messages.ERR_XMLCONTENT_INVALID_ENC_1, filename));
+            }
+        }
+        return encoding;
+    }
+
+    /**
+     * Returns a copy of the XML content for the given resource from the cross request cache, 
+     * unmarshalling and caching the XML content if required.<p>
+     * 
+     * The cached XML content is unmarshalled without link validation, since the result of the validation depends 
+     * on the permissions of the current user and on the request time. The broken links are removed
+     * from the returned copy with the given OpenCms context instead.<p>
+     * 
+     * @param cms the current OpenCms context object
+     * @param resource the resource to unmarshal
+     * 
+     * @return a copy of the cached XML content
+     * 
+     * @throws CmsException if something goes wrong
+     */
+    private static CmsXmlContent unmarshalCached(CmsObject cms, CmsResource resource) throws CmsException {
+
+        boolean online = cms.getRequestContext().getCurrentProject().isOnlineProject();
+        CmsXmlContent cached = getCache().getCacheXmlContent(getCache().getCacheKey(resource), online);
+        if (cached == null) {
+            CmsFile file = cms.readFile(resource);
+            String encoding = getEncoding(cms, file);
+            CmsXmlEntityResolver resolver = new CmsXmlEntityResolver(cms);
+            Document document;
+            if (file.getContents().length > 0) {
+                document = CmsXmlUtils.unmarshalHelper(file.getContents(), resolver);
+            } else {
+                document = DocumentHelper.createDocument();
+            }
+            // no OpenCms context, so the links are not validated 
+            cached = new CmsXmlContent(null, document, encoding, resolver);
+            cached.setFile(file);
+            getCache().setCacheXmlContent(getCache().getCacheKey(file), cached, online);
+        }
+        CmsXmlContent content = cached.copy();
+        // remove the links that are broken for the current user at the current request time
+        content.getHandler().invalidateBrokenLinks(cms, content);
+        // call prepare for use content handler and return the result 
+        return content.getHandler().prepareForUse(cms, content);
+    }
+}
@@ -0,0 +1,245 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.cache;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for the LRU caches used by the Flex cache and the memory monitor.<p>
+ * 
+ * Run with several threads (<code>-t 4</code>) to measure the lock contention.<p>
+ * 
+ * @since 9.5.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CmsLruCacheBenchmark {
+
+    /**
+     * The position of a benchmark thread in the key sequence.<p>
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+
+        /** The current position. */
+        int m_position;
+
+        /**
+         * Returns the next position, wrapping around at the given size.<p>
+         * 
+         * @param size the number of positions
+         * 
+         * @return the next position
+         */
+        int next(int size) {
+
+            m_position = (m_position + 7) % size;
+            return m_position;
+        }
+    }
+
+    /**
+     * Simple cache object with constant costs.<p>
+     */
+    private static class CacheObject implements I_CmsLruCacheObject {
+
+        /** The next object in the LRU list. */
+        private I_CmsLruCacheObject m_next;
+
+        /** The previous object in the LRU list. */
+        private I_CmsLruCacheObject m_previous;
+
+        /** The cached value. */
+        private Object m_value;
+
+        /**
+         * Creates a new cache object.<p>
+         * 
+         * @param value the cached value
+         */
+        CacheObject(Object value) {
+
+            m_value = value;
+        }
+
+        /**
+         * @see org.opencms.cache.I_CmsLruCacheObject#addToLruCache()
+         */
+        public void addToLruCache() {
+
+            // noop
+        }
+
+        /**
+         * @see org.opencms.cache.I_CmsLruCacheObject#getLruCacheCosts()
+         */
+        public int getLruCacheCosts() {
+
+            return 1;
+        }
+
+        /**
+         * @see org.opencms.cache.I_CmsLruCacheObject#getNextLruObject()
+         */
+        public I_CmsLruCacheObject getNextLruObject() {
+
+            return m_next;
+        }
+
+        /**
+         * @see org.opencms.cache.I_CmsLruCacheObject#getPreviousLruObject()
+         */
+        public I_CmsLruCacheObject getPreviousLruObject() {
+
+            return m_previous;
+        }
+
+        /**
+         * @see org.opencms.cache.I_CmsLruCacheObject#getValue()
+         */
+        public Object getValue() {
+
+            return m_value;
+        }
+
+        /**
+         * @see org.opencms.cache.I_CmsLruCacheObject#removeFromLruCache()
+         */
+        public void removeFromLruCache() {
+
+            // noop
+        }
+
+        /**
+         * @see org.opencms.cache.I_CmsLruCacheObject#setNextLruObject(org.opencms.cache.I_CmsLruCacheObject)
+         */
+        public void setNextLruObject(I_CmsLruCacheObject theNextObject) {
+
+            m_next = theNextObject;
+        }
+
+        /**
+         * @see org.opencms.cache.I_CmsLruCacheObject#setPreviousLruObject(org.opencms.cache.I_CmsLruCacheObject)
+         */
+        public void setPreviousLruObject(I_CmsLruCacheObject thePreviousObject) {
+
+            m_previous = thePreviousObject;
+        }
+    }
+
+    /** The number of entries that fit into the caches. */
+    @Param({"1000", "100000"})
+    public int m_size;
+
+    /** The cache objects, twice as many as fit into the LRU cache. */
+    private CacheObject[] m_cacheObjects;
+
+    /** The keys, twice as many as fit into the map. */
+    private String[] m_keys;
+
+    /** The LRU cache. */
+    private CmsLruCache m_lruCache;
+
+    /** The lock striped LRU map. */
+    private Map<String, Object> m_lruMap;
+
+    /**
+     * Benchmarks adding objects to a full LRU cache, half of the objects have been evicted before.<p>
+     * 
+     * @param cursor the position of the current thread
+     * 
+     * @return the result of the add operation
+     */
+    @Benchmark
+    public boolean lruCacheAdd(Cursor cursor) {
+
+        return m_lruCache.add(m_cacheObjects[cursor.next(m_cacheObjects.length)]);
+    }
+
+    /**
+     * Benchmarks reading from a full LRU map, half of the reads are misses.<p>
+     * 
+     * @param cursor the position of the current thread
+     * 
+     * @return the value read from the map
+     */
+    @Benchmark
+    public Object lruMapGet(Cursor cursor) {
+
+        return m_lruMap.get(m_keys[cursor.next(m_keys.length)]);
+    }
+
+    /**
+     * Benchmarks writing to a full LRU map, half of the writes evict another entry.<p>
+     * 
+     * @param cursor the position of the current thread
+     * 
+     * @return the previous value
+     */
+    @Benchmark
+    public Object lruMapPut(Cursor cursor) {
+
+        String key = m_keys[cursor.next(m_keys.length)];
+        return m_lruMap.put(key, key);
+    }
+
+    /**
+     * Fills the caches.<p>
+     */
+    @Setup
+    public void setUp() {
+
+        m_lruCache = new CmsLruCache(m_size, m_size / 2, 1);
+        m_lruMap = new CmsConcurrentLruMap<String, Object>(m_size);
+        m_cacheObjects = new CacheObject[m_size * 2];
+        m_keys = new String[m_size * 2];
+        for (int i = 0; i < m_keys.length; i++) {
+            m_keys[i] = "/sites/default/folder" + (i % 100) + "/resource" + i + ".html";
+            m_cacheObjects[i] = new CacheObject(m_keys[i]);
+            m_lruCache.add(m_cacheObjects[i]);
+            m_lruMap.put(m_keys[i], m_keys[i]);
+        }
+    }
+}
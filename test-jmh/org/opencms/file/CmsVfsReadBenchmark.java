@@ -0,0 +1,167 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.file;
+
+import org.opencms.main.CmsException;
+import org.opencms.main.OpenCms;
+import org.opencms.monitor.CmsMemoryMonitor;
+import org.opencms.test.OpenCmsBenchmarkSetup;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for reading resources, files and properties from the VFS of the HSQLDB test database.<p>
+ * 
+ * With the "cold" cache setting the VFS caches are flushed before every invocation, 
+ * so every read goes to the database.<p>
+ * 
+ * @since 9.5.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CmsVfsReadBenchmark {
+
+    /** Cache setting for reading with flushed caches. */
+    private static final String CACHE_COLD = "cold";
+
+    /** The file to read. */
+    private static final String FILE = "/folder1/subfolder11/page1.html";
+
+    /** The cache setting, either "warm" or "cold". */
+    @Param({"warm", CACHE_COLD})
+    public String m_cache;
+
+    /** The OpenCms context. */
+    private CmsObject m_cms;
+
+    /**
+     * Flushes the VFS caches for the "cold" cache setting.<p>
+     */
+    @Setup(Level.Invocation)
+    public void flushCaches() {
+
+        if (CACHE_COLD.equals(m_cache)) {
+            OpenCms.getMemoryMonitor().flushCache(
+                CmsMemoryMonitor.CacheType.RESOURCE,
+                CmsMemoryMonitor.CacheType.RESOURCE_LIST,
+                CmsMemoryMonitor.CacheType.PROPERTY,
+                CmsMemoryMonitor.CacheType.PROPERTY_LIST,
+                CmsMemoryMonitor.CacheType.ACL,
+                CmsMemoryMonitor.CacheType.PERMISSION);
+        }
+    }
+
+    /**
+     * Benchmarks reading a file with its content.<p>
+     * 
+     * @return the file
+     * 
+     * @throws CmsException if something goes wrong
+     */
+    @Benchmark
+    public CmsFile readFile() throws CmsException {
+
+        return m_cms.readFile(FILE);
+    }
+
+    /**
+     * Benchmarks reading a property of a resource.<p>
+     * 
+     * @return the property
+     * 
+     * @throws CmsException if something goes wrong
+     */
+    @Benchmark
+    public CmsProperty readPropertyObject() throws CmsException {
+
+        return m_cms.readPropertyObject(FILE, CmsPropertyDefinition.PROPERTY_TITLE, false);
+    }
+
+    /**
+     * Benchmarks reading a property of a resource, searching the parent folders.<p>
+     * 
+     * @return the property
+     * 
+     * @throws CmsException if something goes wrong
+     */
+    @Benchmark
+    public CmsProperty readPropertyObjectSearch() throws CmsException {
+
+        return m_cms.readPropertyObject(FILE, CmsPropertyDefinition.PROPERTY_TEMPLATE, true);
+    }
+
+    /**
+     * Benchmarks reading a resource without its content.<p>
+     * 
+     * @return the resource
+     * 
+     * @throws CmsException if something goes wrong
+     */
+    @Benchmark
+    public CmsResource readResource() throws CmsException {
+
+        return m_cms.readResource(FILE);
+    }
+
+    /**
+     * Sets up OpenCms with the test VFS.<p>
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+
+        m_cms = OpenCmsBenchmarkSetup.setupOpenCms("simpletest", getClass().getName());
+        m_cms.getRequestContext().setSiteRoot("/sites/default/");
+    }
+
+    /**
+     * Removes the OpenCms instance.<p>
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+
+        OpenCmsBenchmarkSetup.removeOpenCms();
+    }
+}
@@ -0,0 +1,266 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.flex;
+
+import org.opencms.file.CmsObject;
+import org.opencms.test.OpenCmsBenchmarkSetup;
+import org.opencms.test.OpenCmsTestServletRequest;
+import org.opencms.util.CmsRequestUtil;
+
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.http.HttpSession;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for matching Flex cache keys against requests.<p>
+ * 
+ * This is done for every cachable include, so it is one of the most frequent operations when rendering a page.<p>
+ * 
+ * @since 9.5.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CmsFlexCacheKeyBenchmark {
+
+    /**
+     * Request that only supports attributes, parameters and headers.<p>
+     */
+    private static class BenchmarkRequest extends OpenCmsTestServletRequest {
+
+        /** The request attributes. */
+        private Map<String, Object> m_attributes = new HashMap<String, Object>();
+
+        /** The request headers. */
+        private Map<String, String> m_headers = new HashMap<String, String>();
+
+        /** The request parameters. */
+        private Map<String, String[]> m_parameters = new HashMap<String, String[]>();
+
+        /**
+         * Creates a new request.<p>
+         */
+        BenchmarkRequest() {
+
+            m_headers.put(
+                CmsRequestUtil.HEADER_USER_AGENT,
+                "Mozilla/5.0 (Windows NT 6.1; WOW64; rv:31.0) Gecko/20100101 Firefox/31.0");
+            m_headers.put(CmsRequestUtil.HEADER_ACCEPT, "text/html,application/xhtml+xml");
+            m_parameters.put("page", new String[] {"2"});
+            m_parameters.put("category", new String[] {"news", "events"});
+            m_parameters.put("__locale", new String[] {"en"});
+        }
+
+        /**
+         * @see org.opencms.test.OpenCmsTestServletRequest#getAttribute(java.lang.String)
+         */
+        @Override
+        public Object getAttribute(String name) {
+
+            return m_attributes.get(name);
+        }
+
+        /**
+         * @see org.opencms.test.OpenCmsTestServletRequest#getAttributeNames()
+         */
+        @Override
+        public Enumeration getAttributeNames() {
+
+            return Collections.enumeration(m_attributes.keySet());
+        }
+
+        /**
+         * @see org.opencms.test.OpenCmsTestServletRequest#getHeader(java.lang.String)
+         */
+        @Override
+        public String getHeader(String name) {
+
+            return m_headers.get(name);
+        }
+
+        /**
+         * @see org.opencms.test.OpenCmsTestServletRequest#getParameter(java.lang.String)
+         */
+        @Override
+        public String getParameter(String name) {
+
+            String[] values = m_parameters.get(name);
+            return values == null ? null : values[0];
+        }
+
+        /**
+         * @see org.opencms.test.OpenCmsTestServletRequest#getParameterMap()
+         */
+        @Override
+        public Map getParameterMap() {
+
+            return m_parameters;
+        }
+
+        /**
+         * @see org.opencms.test.OpenCmsTestServletRequest#getScheme()
+         */
+        @Override
+        public String getScheme() {
+
+            return "http";
+        }
+
+        /**
+         * @see org.opencms.test.OpenCmsTestServletRequest#getServerPort()
+         */
+        @Override
+        public int getServerPort() {
+
+            return 8080;
+        }
+
+        /**
+         * @see org.opencms.test.OpenCmsTestServletRequest#getSession(boolean)
+         */
+        @Override
+        public HttpSession getSession(boolean create) {
+
+            return null;
+        }
+
+        /**
+         * @see org.opencms.test.OpenCmsTestServletRequest#removeAttribute(java.lang.String)
+         */
+        @Override
+        public void removeAttribute(String name) {
+
+            m_attributes.remove(name);
+        }
+
+        /**
+         * @see org.opencms.test.OpenCmsTestServletRequest#setAttribute(java.lang.String, java.lang.Object)
+         */
+        @Override
+        public void setAttribute(String name, Object value) {
+
+            m_attributes.put(name, value);
+        }
+    }
+
+    /** The cache directives of the key to match. */
+    @Param({
+        "always",
+        "uri; user; locale; params=page,category",
+        "uri; no-params=print; no-attrs=org.opencms.detail; schemes=http,https; ports=8080; device; element",
+        "container-element; site; encoding; ip; attrs=org.opencms.flex.controller,missing; session=user"})
+    public String m_cacheDirectives;
+
+    /** The cache key. */
+    private CmsFlexCacheKey m_key;
+
+    /** The request. */
+    private BenchmarkRequest m_request;
+
+    /** The request key. */
+    private CmsFlexRequestKey m_requestKey;
+
+    /**
+     * Benchmarks creating the key of a request.<p>
+     * 
+     * @return the request key
+     */
+    @Benchmark
+    public CmsFlexRequestKey createRequestKey() {
+
+        return new CmsFlexRequestKey(m_request, "/index.html", false);
+    }
+
+    /**
+     * Benchmarks matching a cache key with a request key, which builds the variation.<p>
+     * 
+     * @return the variation, or <code>null</code> if the request is not cachable
+     */
+    @Benchmark
+    public String matchRequestKey() {
+
+        return m_key.matchRequestKey(m_requestKey);
+    }
+
+    /**
+     * Benchmarks parsing the cache directives of a resource.<p>
+     * 
+     * @return the parsed cache key
+     */
+    @Benchmark
+    public CmsFlexCacheKey parseCacheKey() {
+
+        return new CmsFlexCacheKey("/sites/default/index.html", m_cacheDirectives, false);
+    }
+
+    /**
+     * Sets up OpenCms and creates the request and the keys.<p>
+     * 
+     * @throws Exception if the setup fails
+     */
+    @Setup
+    public void setUp() throws Exception {
+
+        CmsObject cms = OpenCmsBenchmarkSetup.setupOpenCms("simpletest", getClass().getName());
+        cms.getRequestContext().setUri("/index.html");
+        m_request = new BenchmarkRequest();
+        CmsFlexController controller = new CmsFlexController(cms, null, null, m_request, null, false, true);
+        CmsFlexController.setController(m_request, controller);
+        m_key = new CmsFlexCacheKey("/sites/default/index.html", m_cacheDirectives, false);
+        m_requestKey = new CmsFlexRequestKey(m_request, "/index.html", false);
+    }
+
+    /**
+     * Removes the OpenCms instance.<p>
+     */
+    @TearDown
+    public void tearDown() {
+
+        OpenCmsBenchmarkSetup.removeOpenCms();
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.search;
+
+import org.opencms.file.CmsObject;
+import org.opencms.main.CmsException;
+import org.opencms.main.OpenCms;
+import org.opencms.report.CmsLogReport;
+import org.opencms.test.OpenCmsBenchmarkSetup;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for concurrent searches on one Lucene index.<p>
+ * 
+ * The searches run in several threads, the number of threads can be changed 
+ * with the JMH option <code>-t</code>.<p>
+ * 
+ * @since 9.5.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class CmsSearchIndexBenchmark {
+
+    /** The name of the searched index. */
+    private static final String INDEX_ONLINE = "Online project (VFS)";
+
+    /** The OpenCms context. */
+    private CmsObject m_cms;
+
+    /**
+     * Benchmarks a search for a word contained in one document.<p>
+     * 
+     * @return the search result
+     * 
+     * @throws CmsException if something goes wrong
+     */
+    @Benchmark
+    public List<CmsSearchResult> search() throws CmsException {
+
+        // the context is not shared by the threads
+        CmsSearch searchBean = new CmsSearch();
+        searchBean.init(OpenCms.initCmsObject(m_cms));
+        searchBean.setIndex(INDEX_ONLINE);
+        searchBean.setQuery(">>SearchEgg1<<");
+        return searchBean.getSearchResult();
+    }
+
+    /**
+     * Sets up OpenCms with the test VFS and builds the search index.<p>
+     * 
+     * @throws CmsException if building the search index fails
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws CmsException {
+
+        m_cms = OpenCmsBenchmarkSetup.setupOpenCms("simpletest", getClass().getName());
+        OpenCms.getSearchManager().rebuildIndex(INDEX_ONLINE, new CmsLogReport(Locale.ENGLISH, getClass()));
+    }
+
+    /**
+     * Removes the OpenCms instance.<p>
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+
+        OpenCmsBenchmarkSetup.removeOpenCms();
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.search.solr;
+
+import org.opencms.file.CmsObject;
+import org.opencms.file.types.CmsResourceTypeFolder;
+import org.opencms.file.types.CmsResourceTypePlain;
+import org.opencms.main.CmsException;
+import org.opencms.main.OpenCms;
+import org.opencms.search.CmsSearchException;
+import org.opencms.search.CmsSearchIndex;
+import org.opencms.security.I_CmsPrincipal;
+import org.opencms.test.OpenCmsBenchmarkSetup;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for paging through a Solr search result as the guest user.<p>
+ * 
+ * Half of the indexed resources are in a folder the guest user is not allowed to read,
+ * so the result has to be filtered by the read permissions of the user. The cost of a search 
+ * should not depend on the requested page.<p>
+ * 
+ * @since 9.5.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CmsSolrDeepPagingBenchmark {
+
+    /** The root folder of the indexed resources. */
+    private static final String ROOT = "/deeppaging/";
+
+    /** The number of rows per page. */
+    private static final int ROWS = 20;
+
+    /** The requested page. */
+    @Param({"1", "10", "50"})
+    public int m_page;
+
+    /** The number of resources to create. */
+    @Param({"4000"})
+    public int m_resources;
+
+    /** The OpenCms context of the guest user. */
+    private CmsObject m_guest;
+
+    /** The Solr online index. */
+    private CmsSolrIndex m_index;
+
+    /** The search query. */
+    private String m_query;
+
+    /**
+     * Benchmarks searching the requested page.<p>
+     * 
+     * @return the search result
+     * 
+     * @throws CmsSearchException if something goes wrong
+     */
+    @Benchmark
+    public CmsSolrResultList search() throws CmsSearchException {
+
+        return m_index.search(m_guest, m_query);
+    }
+
+    /**
+     * Sets up OpenCms with the Solr configuration and indexes the resources.<p>
+     * 
+     * @throws CmsException if creating or publishing the resources fails
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws CmsException {
+
+        CmsObject cms = OpenCmsBenchmarkSetup.setupOpenCms(
+            "simpletest",
+            "/../org/opencms/search/solr",
+            getClass().getName());
+        // disable all indexes except the Solr online index
+        for (String indexName : OpenCms.getSearchManager().getIndexNames()) {
+            if (!indexName.equalsIgnoreCase(AllTests.SOLR_ONLINE)) {
+                CmsSearchIndex index = OpenCms.getSearchManager().getIndex(indexName);
+                if (index != null) {
+                    index.setEnabled(false);
+                }
+            }
+        }
+        cms.getRequestContext().setSiteRoot("/sites/default/");
+
+        String[] folders = new String[] {ROOT + "public/", ROOT + "protected/"};
+        cms.createResource(ROOT, CmsResourceTypeFolder.getStaticTypeId());
+        for (String folder : folders) {
+            cms.createResource(folder, CmsResourceTypeFolder.getStaticTypeId());
+        }
+        cms.chacc(folders[1], I_CmsPrincipal.PRINCIPAL_GROUP, OpenCms.getDefaultUsers().getGroupGuests(), "-r+i");
+        for (int i = 0; i < m_resources; i++) {
+            cms.createResource(
+                folders[i % folders.length] + "file" + i + ".txt",
+                CmsResourceTypePlain.getStaticTypeId(),
+                ("Deep paging benchmark file " + i).getBytes(),
+                null);
+        }
+        cms.unlockProject(cms.getRequestContext().getCurrentProject().getUuid());
+        OpenCms.getPublishManager().publishProject(cms);
+        OpenCms.getPublishManager().waitWhileRunning();
+
+        m_index = OpenCms.getSearchManager().getIndexSolr(AllTests.SOLR_ONLINE);
+        m_guest = OpenCms.initCmsObject(OpenCms.getDefaultUsers().getUserGuest());
+        m_query = "q=+text:benchmark +parent-folders:\"/sites/default"
+            + ROOT
+            + "\"&rows="
+            + ROWS
+            + "&start="
+            + ((m_page - 1) * ROWS);
+    }
+
+    /**
+     * Removes the OpenCms instance.<p>
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+
+        OpenCmsBenchmarkSetup.removeOpenCms();
+    }
+}
@@ -0,0 +1,204 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.security;
+
+import org.opencms.file.CmsObject;
+import org.opencms.file.types.CmsResourceTypeFolder;
+import org.opencms.file.types.CmsResourceTypePlain;
+import org.opencms.main.CmsException;
+import org.opencms.main.OpenCms;
+import org.opencms.monitor.CmsMemoryMonitor;
+import org.opencms.test.OpenCmsBenchmarkSetup;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for reading the inherited access control lists and permissions of the resources in a deep folder tree.<p>
+ * 
+ * The tree consists of a chain of nested folders, with access control entries on every third folder, 
+ * and the resources are distributed evenly over all folders of the chain.
+ * Creating the default tree of 100,000 resources takes a while, 
+ * use <code>-p m_resources=10000</code> for a faster run.<p>
+ * 
+ * With the "cold" cache setting the access control list and permission caches are flushed 
+ * before every invocation.<p>
+ * 
+ * @since 9.5.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CmsAclTreeBenchmark {
+
+    /** Cache setting for reading with flushed caches. */
+    private static final String CACHE_COLD = "cold";
+
+    /** The root folder of the tree. */
+    private static final String TREE_ROOT = "/acltree/";
+
+    /** The cache setting, either "warm" or "cold". */
+    @Param({"warm", CACHE_COLD})
+    public String m_cache;
+
+    /** The depth of the folder chain. */
+    @Param({"10"})
+    public int m_levels;
+
+    /** The number of resources in the tree. */
+    @Param({"100000"})
+    public int m_resources;
+
+    /** The OpenCms context. */
+    private CmsObject m_cms;
+
+    /** The name of the guest user. */
+    private String m_guestUser;
+
+    /** The paths of the resources in the tree. */
+    private String[] m_paths;
+
+    /** The position of the next resource to read. */
+    private int m_position;
+
+    /**
+     * Flushes the access control list and permission caches for the "cold" cache setting.<p>
+     */
+    @Setup(Level.Invocation)
+    public void flushCaches() {
+
+        if (CACHE_COLD.equals(m_cache)) {
+            OpenCms.getMemoryMonitor().flushCache(
+                CmsMemoryMonitor.CacheType.ACL,
+                CmsMemoryMonitor.CacheType.PERMISSION);
+        }
+    }
+
+    /**
+     * Benchmarks reading the access control list of a resource, including the inherited entries.<p>
+     * 
+     * @return the access control list
+     * 
+     * @throws CmsException if something goes wrong
+     */
+    @Benchmark
+    public CmsAccessControlList getAccessControlList() throws CmsException {
+
+        return m_cms.getAccessControlList(nextPath());
+    }
+
+    /**
+     * Benchmarks calculating the permissions of the guest user on a resource.<p>
+     * 
+     * @return the permissions
+     * 
+     * @throws CmsException if something goes wrong
+     */
+    @Benchmark
+    public CmsPermissionSet getPermissions() throws CmsException {
+
+        return m_cms.getPermissions(nextPath(), m_guestUser);
+    }
+
+    /**
+     * Sets up OpenCms and creates the folder tree.<p>
+     * 
+     * @throws CmsException if creating the tree fails
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws CmsException {
+
+        m_cms = OpenCmsBenchmarkSetup.setupOpenCms("simpletest", getClass().getName());
+        m_cms.getRequestContext().setSiteRoot("/sites/default/");
+        m_guestUser = OpenCms.getDefaultUsers().getUserGuest();
+        String[] groups = new String[] {
+            OpenCms.getDefaultUsers().getGroupUsers(),
+            OpenCms.getDefaultUsers().getGroupGuests()};
+
+        String[] folders = new String[m_levels];
+        String folder = TREE_ROOT;
+        m_cms.createResource(folder, CmsResourceTypeFolder.getStaticTypeId());
+        for (int level = 0; level < m_levels; level++) {
+            folder += "level" + level + "/";
+            folders[level] = folder;
+            m_cms.createResource(folder, CmsResourceTypeFolder.getStaticTypeId());
+            if ((level % 3) == 0) {
+                m_cms.chacc(
+                    folder,
+                    I_CmsPrincipal.PRINCIPAL_GROUP,
+                    groups[(level / 3) % groups.length],
+                    ((level % 2) == 0) ? "+r+v" : "-w");
+            }
+        }
+
+        // distribute the resources over all levels, so that most of them are deep in the tree
+        m_paths = new String[m_resources];
+        for (int i = 0; i < m_resources; i++) {
+            m_paths[i] = folders[i % m_levels] + "file" + i + ".txt";
+            m_cms.createResource(m_paths[i], CmsResourceTypePlain.getStaticTypeId());
+        }
+    }
+
+    /**
+     * Removes the OpenCms instance.<p>
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+
+        OpenCmsBenchmarkSetup.removeOpenCms();
+    }
+
+    /**
+     * Returns the path of the next resource to read.<p>
+     * 
+     * The resources are visited in a fixed order that jumps between the levels of the tree.<p>
+     * 
+     * @return the path of the next resource
+     */
+    private String nextPath() {
+
+        m_position = (m_position + 7919) % m_paths.length;
+        return m_paths[m_position];
+    }
+}
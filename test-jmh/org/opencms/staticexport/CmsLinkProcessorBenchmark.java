@@ -0,0 +1,134 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.staticexport;
+
+import org.opencms.file.CmsObject;
+import org.opencms.i18n.CmsEncoder;
+import org.opencms.test.OpenCmsBenchmarkSetup;
+
+import java.util.concurrent.TimeUnit;
+
+import org.htmlparser.util.ParserException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for replacing links with macros when saving HTML content, 
+ * and for processing the macros when rendering it with the {@link CmsLinkProcessor}.<p>
+ * 
+ * @since 9.5.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CmsLinkProcessorBenchmark {
+
+    /** The OpenCms context. */
+    private CmsObject m_cms;
+
+    /** The HTML with links. */
+    private String m_html;
+
+    /** The link table created when replacing the links. */
+    private CmsLinkTable m_linkTable;
+
+    /** The HTML with link macros. */
+    private String m_macroHtml;
+
+    /**
+     * Benchmarks replacing the link macros of an HTML content with links.<p>
+     * 
+     * @return the HTML with links
+     * 
+     * @throws ParserException if parsing the HTML fails
+     */
+    @Benchmark
+    public String processLinks() throws ParserException {
+
+        CmsLinkProcessor processor = new CmsLinkProcessor(m_cms, m_linkTable, CmsEncoder.ENCODING_UTF_8, null);
+        return processor.processLinks(m_macroHtml);
+    }
+
+    /**
+     * Benchmarks replacing the links of an HTML content with link macros.<p>
+     * 
+     * @return the HTML with link macros
+     * 
+     * @throws ParserException if parsing the HTML fails
+     */
+    @Benchmark
+    public String replaceLinks() throws ParserException {
+
+        CmsLinkProcessor processor = new CmsLinkProcessor(m_cms, new CmsLinkTable(), CmsEncoder.ENCODING_UTF_8, null);
+        return processor.replaceLinks(m_html);
+    }
+
+    /**
+     * Sets up OpenCms and creates the HTML contents.<p>
+     * 
+     * @throws Exception if the setup fails
+     */
+    @Setup
+    public void setUp() throws Exception {
+
+        m_cms = OpenCmsBenchmarkSetup.setupOpenCms("simpletest", getClass().getName());
+        m_cms.getRequestContext().setSiteRoot("/sites/default/");
+        m_cms.getRequestContext().setUri("/index.html");
+        StringBuffer html = new StringBuffer();
+        for (int i = 0; i < 20; i++) {
+            html.append("<p>Paragraph ").append(i).append(" with an <a href=\"/folder1/page");
+            html.append((i % 4) + 1).append(".html\">internal link</a>, ");
+            html.append("an <a href=\"http://www.opencms.org/en/\">external link</a> and an image ");
+            html.append("<img src=\"/folder1/image").append((i % 2) + 1).append(".gif\" alt=\"image\" />.</p>\n");
+        }
+        m_html = html.toString();
+        m_linkTable = new CmsLinkTable();
+        m_macroHtml = new CmsLinkProcessor(m_cms, m_linkTable, CmsEncoder.ENCODING_UTF_8, null).replaceLinks(m_html);
+    }
+
+    /**
+     * Removes the OpenCms instance.<p>
+     */
+    @TearDown
+    public void tearDown() {
+
+        OpenCmsBenchmarkSetup.removeOpenCms();
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.test;
+
+import org.opencms.file.CmsObject;
+
+/**
+ * Sets up the OpenCms test instance for the JMH benchmarks.<p>
+ * 
+ * The benchmarks use the same HSQLDB configuration and test data as the unit tests,
+ * as configured in <code>test.properties</code>.<p>
+ * 
+ * @since 9.5.0
+ */
+public final class OpenCmsBenchmarkSetup {
+
+    /**
+     * Hides the public constructor.<p>
+     */
+    private OpenCmsBenchmarkSetup() {
+
+        // noop
+    }
+
+    /**
+     * Removes the OpenCms instance set up by {@link #setupOpenCms(String, String, String)}.<p>
+     */
+    public static void removeOpenCms() {
+
+        OpenCmsTestCase.removeOpenCms();
+    }
+
+    /**
+     * Sets up an OpenCms instance and imports the given test data folder.<p>
+     * 
+     * @param importFolder the folder to import in the "real" FS
+     * @param benchmarkName the name of the benchmark (for writing it to the console)
+     * 
+     * @return an initialized OpenCms context with "Admin" user in the "Offline" project with the site root set to "/" 
+     */
+    public static CmsObject setupOpenCms(String importFolder, String benchmarkName) {
+
+        return setupOpenCms(importFolder, null, benchmarkName);
+    }
+
+    /**
+     * Sets up an OpenCms instance with a special configuration and imports the given test data folder.<p>
+     * 
+     * @param importFolder the folder to import in the "real" FS
+     * @param specialConfigFolder the folder with the special configuration files, relative to the test data folder
+     * @param benchmarkName the name of the benchmark (for writing it to the console)
+     * 
+     * @return an initialized OpenCms context with "Admin" user in the "Offline" project with the site root set to "/" 
+     */
+    public static CmsObject setupOpenCms(String importFolder, String specialConfigFolder, String benchmarkName) {
+
+        OpenCmsTestProperties.initialize(AllTests.TEST_PROPERTIES_PATH);
+        // the test case constructor reads the database configuration
+        new OpenCmsTestCase(benchmarkName);
+        CmsObject cms = OpenCmsTestCase.setupOpenCms(importFolder, "/", null, specialConfigFolder, benchmarkName, true);
+        // errors logged during a benchmark must not abort the measurement
+        OpenCmsTestLogAppender.setBreakOnError(false);
+        return cms;
+    }
+}
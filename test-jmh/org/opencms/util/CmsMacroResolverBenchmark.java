@@ -0,0 +1,107 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.util;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for resolving macros with the {@link CmsMacroResolver}.<p>
+ * 
+ * @since 9.5.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CmsMacroResolverBenchmark {
+
+    /** The input with macros. */
+    private String m_input;
+
+    /** The input without macros. */
+    private String m_plainInput;
+
+    /** The macro resolver. */
+    private CmsMacroResolver m_resolver;
+
+    /**
+     * Benchmarks resolving an input that contains several macros.<p>
+     * 
+     * @return the resolved input
+     */
+    @Benchmark
+    public String resolveMacros() {
+
+        return m_resolver.resolveMacros(m_input);
+    }
+
+    /**
+     * Benchmarks resolving an input that contains no macros, which is the most common case.<p>
+     * 
+     * @return the resolved input
+     */
+    @Benchmark
+    public String resolveNoMacros() {
+
+        return m_resolver.resolveMacros(m_plainInput);
+    }
+
+    /**
+     * Creates the macro resolver and the input.<p>
+     */
+    @Setup
+    public void setUp() {
+
+        m_resolver = CmsMacroResolver.newInstance();
+        for (int i = 0; i < 20; i++) {
+            m_resolver.addMacro("key" + i, "value" + i);
+        }
+        m_resolver.setKeepEmptyMacros(true);
+        StringBuffer input = new StringBuffer();
+        StringBuffer plainInput = new StringBuffer();
+        for (int i = 0; i < 20; i++) {
+            input.append("<p>Text with %(key").append(i).append(") and ${key").append(i).append("}.</p>\n");
+            plainInput.append("<p>Text without any macros in line ").append(i).append(".</p>\n");
+        }
+        m_input = input.toString();
+        m_plainInput = plainInput.toString();
+    }
+}
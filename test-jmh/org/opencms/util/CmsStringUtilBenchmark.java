@@ -0,0 +1,124 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.util;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for the frequently used String operations of {@link CmsStringUtil}.<p>
+ * 
+ * @since 9.5.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CmsStringUtilBenchmark {
+
+    /** A comma separated list as found in property values. */
+    private String m_list;
+
+    /** A path to join with another path. */
+    private String m_path;
+
+    /** A text with several occurrences of the search String. */
+    private String m_text;
+
+    /**
+     * Benchmarks joining two paths.<p>
+     * 
+     * @return the joined path
+     */
+    @Benchmark
+    public String joinPaths() {
+
+        return CmsStringUtil.joinPaths(m_path, "/subfolder/index.html");
+    }
+
+    /**
+     * Fills the input Strings.<p>
+     */
+    @Setup
+    public void setUp() {
+
+        m_list = "title, description, keywords , navtext,navpos, template, locale, content-encoding";
+        m_path = "/sites/default/folder/";
+        StringBuffer text = new StringBuffer();
+        for (int i = 0; i < 50; i++) {
+            text.append("<p>Some text with a ${macro} in paragraph ").append(i).append(".</p>\n");
+        }
+        m_text = text.toString();
+    }
+
+    /**
+     * Benchmarks splitting a String at a char delimiter.<p>
+     * 
+     * @return the split list
+     */
+    @Benchmark
+    public List<String> splitAsListChar() {
+
+        return CmsStringUtil.splitAsList(m_list, ',', true);
+    }
+
+    /**
+     * Benchmarks splitting a String at a String delimiter.<p>
+     * 
+     * @return the split list
+     */
+    @Benchmark
+    public List<String> splitAsListString() {
+
+        return CmsStringUtil.splitAsList(m_list, ", ", true);
+    }
+
+    /**
+     * Benchmarks the substitution of a String in a larger text.<p>
+     * 
+     * @return the substituted text
+     */
+    @Benchmark
+    public String substitute() {
+
+        return CmsStringUtil.substitute(m_text, "${macro}", "value");
+    }
+}
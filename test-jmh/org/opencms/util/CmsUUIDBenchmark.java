@@ -0,0 +1,144 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.util;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for creating, parsing and comparing {@link CmsUUID} instances.<p>
+ * 
+ * @since 9.5.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CmsUUIDBenchmark {
+
+    /** A UUID that is equal to, but not the same as {@link #m_uuid}. */
+    private CmsUUID m_other;
+
+    /** A UUID. */
+    private CmsUUID m_uuid;
+
+    /** The String representation of {@link #m_uuid}. */
+    private String m_uuidString;
+
+    /**
+     * Benchmarks comparing two equal UUIDs.<p>
+     * 
+     * @return the result of the comparison
+     */
+    @Benchmark
+    public boolean equalsUUID() {
+
+        return m_uuid.equals(m_other);
+    }
+
+    /**
+     * Benchmarks generating a new UUID.<p>
+     * 
+     * @return the new UUID
+     */
+    @Benchmark
+    public CmsUUID generate() {
+
+        return new CmsUUID();
+    }
+
+    /**
+     * Benchmarks the hash code calculation of a UUID, as done for every cache lookup by id.<p>
+     * 
+     * @return the hash code
+     */
+    @Benchmark
+    public int hashCodeUUID() {
+
+        return m_uuid.hashCode();
+    }
+
+    /**
+     * Benchmarks parsing a UUID from its String representation.<p>
+     * 
+     * @return the parsed UUID
+     */
+    @Benchmark
+    public CmsUUID parse() {
+
+        return new CmsUUID(m_uuidString);
+    }
+
+    /**
+     * Initializes the UUID generator and creates the UUIDs.<p>
+     * 
+     * @throws Exception if the UUID generator can not be initialized
+     */
+    @Setup
+    public void setUp() throws Exception {
+
+        CmsUUID.init(CmsUUID.getDummyEthernetAddress());
+        m_uuid = new CmsUUID();
+        m_uuidString = m_uuid.toString();
+        m_other = new CmsUUID(m_uuidString);
+    }
+
+    /**
+     * Benchmarks the String representation of a UUID.<p>
+     * 
+     * @return the String representation
+     */
+    @Benchmark
+    public String toStringUUID() {
+
+        return m_uuid.toString();
+    }
+
+    /**
+     * Benchmarks the validation of a UUID String.<p>
+     * 
+     * @return the result of the validation
+     */
+    @Benchmark
+    public boolean validate() {
+
+        return CmsUUID.isValidUUID(m_uuidString);
+    }
+}
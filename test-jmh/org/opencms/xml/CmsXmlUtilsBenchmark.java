@@ -0,0 +1,130 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.xml;
+
+import org.opencms.i18n.CmsEncoder;
+import org.opencms.util.CmsFileUtil;
+
+import java.util.concurrent.TimeUnit;
+
+import org.dom4j.Document;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for parsing XML contents with {@link CmsXmlUtils#unmarshalHelper(byte[], org.xml.sax.EntityResolver)}.<p>
+ * 
+ * @since 9.5.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CmsXmlUtilsBenchmark {
+
+    /** The XML content used for the benchmarks. */
+    private static final String CONTENT_FILE = "org/opencms/xml/content/xmlcontent-1.xml";
+
+    /** The schema of the XML content. */
+    private static final String SCHEMA_FILE = "org/opencms/xml/content/xmlcontent-definition-1.xsd";
+
+    /** The system id of the schema. */
+    private static final String SCHEMA_SYSTEM_ID = "http://www.opencms.org/test1.xsd";
+
+    /** The XML content as byte array. */
+    private byte[] m_content;
+
+    /** The XML content as String. */
+    private String m_contentString;
+
+    /** The entity resolver. */
+    private CmsXmlEntityResolver m_resolver;
+
+    /**
+     * Reads the XML content and caches its schema in the entity resolver.<p>
+     * 
+     * @throws Exception if the files can not be read
+     */
+    @Setup
+    public void setUp() throws Exception {
+
+        m_resolver = new CmsXmlEntityResolver(null);
+        CmsXmlEntityResolver.cacheSystemId(SCHEMA_SYSTEM_ID, CmsFileUtil.readFile(SCHEMA_FILE));
+        m_contentString = CmsFileUtil.readFile(CONTENT_FILE, CmsEncoder.ENCODING_UTF_8);
+        m_content = m_contentString.getBytes(CmsEncoder.ENCODING_UTF_8);
+    }
+
+    /**
+     * Benchmarks parsing an XML content from a byte array.<p>
+     * 
+     * @return the parsed document
+     * 
+     * @throws CmsXmlException if parsing fails
+     */
+    @Benchmark
+    public Document unmarshalBytes() throws CmsXmlException {
+
+        return CmsXmlUtils.unmarshalHelper(m_content, m_resolver);
+    }
+
+    /**
+     * Benchmarks parsing an XML content from a byte array, resolving external entities.<p>
+     * 
+     * @return the parsed document
+     * 
+     * @throws CmsXmlException if parsing fails
+     */
+    @Benchmark
+    public Document unmarshalBytesValidating() throws CmsXmlException {
+
+        return CmsXmlUtils.unmarshalHelper(m_content, m_resolver, true);
+    }
+
+    /**
+     * Benchmarks parsing an XML content from a String.<p>
+     * 
+     * @return the parsed document
+     * 
+     * @throws CmsXmlException if parsing fails
+     */
+    @Benchmark
+    public Document unmarshalString() throws CmsXmlException {
+
+        return CmsXmlUtils.unmarshalHelper(m_contentString, m_resolver);
+    }
+}
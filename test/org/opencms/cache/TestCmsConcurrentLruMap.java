@@ -0,0 +1,115 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.cache;
+
+import org.opencms.test.OpenCmsTestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests for the lock striped LRU map.<p>
+ */
+public class TestCmsConcurrentLruMap extends OpenCmsTestCase {
+
+    /**
+     * Tests that concurrent access keeps the map within its size limit.<p>
+     * 
+     * @throws Exception if something goes wrong
+     */
+    public void testConcurrentAccess() throws Exception {
+
+        final CmsConcurrentLruMap<String, Integer> map = new CmsConcurrentLruMap<String, Integer>(256, 8);
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int t = 0; t < 8; t++) {
+            final int offset = t * 1000;
+            Thread thread = new Thread() {
+
+                @Override
+                public void run() {
+
+                    for (int i = 0; i < 1000; i++) {
+                        String key = "key" + (offset + i);
+                        map.put(key, Integer.valueOf(i));
+                        map.get(key);
+                        map.get("missing" + i);
+                    }
+                }
+            };
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertTrue(map.size() <= 256);
+        assertEquals(16000, map.getHitCount() + map.getMissCount());
+        assertTrue(map.getMissCount() >= 8000);
+        assertEquals(8000 - map.size(), map.getEvictionCount());
+    }
+
+    /**
+     * Tests the LRU eviction and the statistic counters.<p>
+     */
+    public void testEviction() {
+
+        CmsConcurrentLruMap<String, String> map = new CmsConcurrentLruMap<String, String>(3, 16);
+        // a small map must not be split into segments
+        assertEquals(1, map.getSegmentCount());
+        map.put("a", "A");
+        map.put("b", "B");
+        map.put("c", "C");
+        // touch "a" so "b" becomes the eldest entry
+        assertEquals("A", map.get("a"));
+        map.put("d", "D");
+        assertEquals(3, map.size());
+        assertNull(map.get("b"));
+        assertEquals("C", map.get("c"));
+        assertEquals("D", map.get("d"));
+        assertEquals(3, map.getHitCount());
+        assertEquals(1, map.getMissCount());
+        assertEquals(1, map.getEvictionCount());
+
+        map.remove("c");
+        assertFalse(map.containsKey("c"));
+        assertEquals(2, map.entrySet().size());
+        map.clear();
+        assertTrue(map.isEmpty());
+    }
+
+    /**
+     * Tests the segment layout of larger maps.<p>
+     */
+    public void testSegments() {
+
+        assertEquals(16, new CmsConcurrentLruMap<String, String>(8192, 16).getSegmentCount());
+        assertEquals(4, new CmsConcurrentLruMap<String, String>(64, 16).getSegmentCount());
+        assertEquals(1, new CmsConcurrentLruMap<String, String>(8192, 1).getSegmentCount());
+        assertEquals(8192, new CmsConcurrentLruMap<String, String>(8192, 16).getMaxSize());
+    }
+}
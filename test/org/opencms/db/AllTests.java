@@ -27,6 +27,7 @@
 
 package org.opencms.db;
 
+import org.opencms.db.generic.TestCmsOrderedParallelTask;
 import org.opencms.test.OpenCmsTestProperties;
 
 import junit.framework.Test;
@@ -65,6 +66,7 @@ public final class AllTests {
         suite.addTest(TestSubscriptionManager.suite());
         suite.addTest(TestAliases.suite());
         suite.addTest(TestUrlNameMapping.suite());
+        suite.addTest(new TestSuite(TestCmsOrderedParallelTask.class));
         // $JUnit-END$
         return suite;
     }
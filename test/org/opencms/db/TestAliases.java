@@ -130,6 +130,28 @@ public class TestAliases extends OpenCmsTestCase {
         assertTrue("At least 3 aliases", aliasManager.getAliasesForSite(cms, "").size() >= 3);
     }
 
+    /**
+     * Tests that alias lookups by path reflect alias changes.<p>
+     * 
+     * @throws Exception if something goes wrong 
+     */
+    public void testAliasLookupAfterChange() throws Exception {
+
+        CmsObject cms = getCmsObject();
+        CmsAliasManager aliasManager = OpenCms.getAliasManager();
+        CmsResource foo = cms.createResource("/system/foo5", CmsResourceTypePlain.getStaticTypeId());
+        assertTrue(aliasManager.getAliasesForPath(cms, "", "/xyzzy5").isEmpty());
+        CmsAlias alias = new CmsAlias(foo.getStructureId(), "", "/xyzzy5", CmsAliasMode.page);
+        aliasManager.saveAliases(cms, foo.getStructureId(), Collections.singletonList(alias));
+        List<CmsAlias> aliases = aliasManager.getAliasesForPath(cms, "", "/xyzzy5");
+        assertEquals(1, aliases.size());
+        assertEquals(foo.getStructureId(), aliases.get(0).getStructureId());
+        CmsAlias alias2 = new CmsAlias(foo.getStructureId(), "", "/xyzzy6", CmsAliasMode.page);
+        aliasManager.saveAliases(cms, foo.getStructureId(), Collections.singletonList(alias2));
+        assertTrue(aliasManager.getAliasesForPath(cms, "", "/xyzzy5").isEmpty());
+        assertEquals(1, aliasManager.getAliasesForPath(cms, "", "/xyzzy6").size());
+    }
+
     /**
      * Tests reading/writing rewrite aliases.<p>
      * 
@@ -0,0 +1,207 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.db.generic;
+
+import org.opencms.main.CmsException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the ordered parallel task used to publish files with several threads.<p>
+ */
+public class TestCmsOrderedParallelTask extends TestCase {
+
+    /** The number of items used in the tests. */
+    private static final int SIZE = 40;
+
+    /**
+     * Default JUnit constructor.<p>
+     * 
+     * @param arg0 JUnit parameters
+     */
+    public TestCmsOrderedParallelTask(String arg0) {
+
+        super(arg0);
+    }
+
+    /**
+     * Tests that the items run by the workers after a failed item are still processed.<p>
+     * 
+     * @throws Exception in case the test fails
+     */
+    public void testFailure() throws Exception {
+
+        final int failing = 10;
+        // the failing item waits until the other workers have run some items after it
+        final CountDownLatch laterItems = new CountDownLatch(3);
+        final Set<Integer> run = Collections.synchronizedSet(new TreeSet<Integer>());
+        final List<Integer> processed = new ArrayList<Integer>();
+        CmsProjectDriver.CmsOrderedParallelTask<Object> task = new CmsProjectDriver.CmsOrderedParallelTask<Object>(
+            SIZE,
+            "Test") {
+
+            @Override
+            void finishWorker(Object context) {
+
+                // noop
+            }
+
+            @Override
+            Object getGroupKey(int index) {
+
+                return Integer.valueOf(index);
+            }
+
+            @Override
+            void handleError(int index, Throwable error) throws CmsException {
+
+                throw (CmsException)error;
+            }
+
+            @Override
+            void processItem(int index) {
+
+                processed.add(Integer.valueOf(index));
+            }
+
+            @Override
+            void runItem(Object context, int index) throws Throwable {
+
+                if (index == failing) {
+                    laterItems.await(10, TimeUnit.SECONDS);
+                    throw new CmsException(Messages.get().container(Messages.ERR_ERROR_PUBLISHING_FILE_1, "/test"));
+                }
+                run.add(Integer.valueOf(index));
+                if (index > failing) {
+                    laterItems.countDown();
+                }
+            }
+
+            @Override
+            Object startWorker() {
+
+                return null;
+            }
+        };
+        try {
+            task.execute(4);
+            fail("The error of the failed item was not thrown");
+        } catch (CmsException e) {
+            // expected
+        }
+        // all items that have been run are processed in the order of the list, the failed one is not processed
+        assertEquals(new ArrayList<Integer>(run), processed);
+        assertFalse(processed.contains(Integer.valueOf(failing)));
+        assertTrue(processed.size() > failing);
+    }
+
+    /**
+     * Tests that all items are processed in list order and items of a group are run by one worker in order.<p>
+     * 
+     * @throws Exception in case the test fails
+     */
+    public void testOrder() throws Exception {
+
+        final Map<Integer, List<Integer>> runByGroup = new HashMap<Integer, List<Integer>>();
+        final Map<Integer, String> threadByGroup = Collections.synchronizedMap(new HashMap<Integer, String>());
+        final List<Integer> processed = new ArrayList<Integer>();
+        CmsProjectDriver.CmsOrderedParallelTask<Object> task = new CmsProjectDriver.CmsOrderedParallelTask<Object>(
+            SIZE,
+            "Test") {
+
+            @Override
+            void finishWorker(Object context) {
+
+                // noop
+            }
+
+            @Override
+            Object getGroupKey(int index) {
+
+                return Integer.valueOf(index % 7);
+            }
+
+            @Override
+            void handleError(int index, Throwable error) {
+
+                fail(error.toString());
+            }
+
+            @Override
+            void processItem(int index) {
+
+                processed.add(Integer.valueOf(index));
+            }
+
+            @Override
+            void runItem(Object context, int index) {
+
+                Integer group = Integer.valueOf(index % 7);
+                String thread = Thread.currentThread().getName();
+                synchronized (runByGroup) {
+                    List<Integer> items = runByGroup.get(group);
+                    if (items == null) {
+                        items = new ArrayList<Integer>();
+                        runByGroup.put(group, items);
+                    }
+                    items.add(Integer.valueOf(index));
+                }
+                String previous = threadByGroup.put(group, thread);
+                assertTrue((previous == null) || previous.equals(thread));
+            }
+
+            @Override
+            Object startWorker() {
+
+                return null;
+            }
+        };
+        task.execute(4);
+        assertEquals(SIZE, processed.size());
+        for (int i = 0; i < SIZE; i++) {
+            assertEquals(i, processed.get(i).intValue());
+        }
+        for (Map.Entry<Integer, List<Integer>> entry : runByGroup.entrySet()) {
+            List<Integer> items = entry.getValue();
+            for (int i = 1; i < items.size(); i++) {
+                assertTrue(items.get(i - 1).intValue() < items.get(i).intValue());
+            }
+        }
+    }
+}
@@ -29,10 +29,16 @@ package org.opencms.file;
 
 import org.opencms.main.CmsException;
 import org.opencms.main.OpenCms;
+import org.opencms.monitor.CmsMemoryMonitor;
 import org.opencms.test.OpenCmsTestCase;
 import org.opencms.test.OpenCmsTestProperties;
 import org.opencms.util.CmsUUID;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 import junit.extensions.TestSetup;
 import junit.framework.Test;
 import junit.framework.TestSuite;
@@ -74,6 +80,7 @@ public class TestReadResource extends OpenCmsTestCase {
         suite.addTest(new TestReadResource("testReadWithResourceID"));
         suite.addTest(new TestReadResource("testReadWithWrongResourceID"));
         suite.addTest(new TestReadResource("testReadFileWithResourceID"));
+        suite.addTest(new TestReadResource("testReadResourcesWithIds"));
 
         TestSetup wrapper = new TestSetup(suite) {
 
@@ -373,4 +380,49 @@ public class TestReadResource extends OpenCmsTestCase {
 
     }
 
+    /**
+     * Test reading several resources and their properties at once.<p>
+     *
+     * @throws Throwable if something is wrong
+     */
+    public void testReadResourcesWithIds() throws Throwable {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing reading several resources and their properties at once");
+
+        List<CmsResource> resources = cms.readResources("/folder1/", CmsResourceFilter.DEFAULT, true);
+        assertFalse(resources.isEmpty());
+        // request the resources in reverse order, together with an id that does not exist
+        List<CmsUUID> ids = new ArrayList<CmsUUID>();
+        for (int i = resources.size() - 1; i >= 0; i--) {
+            ids.add(resources.get(i).getStructureId());
+        }
+        ids.add(1, new CmsUUID("a7b5d298-b3ab-11d8-b3e3-514d35713fed"));
+
+        List<CmsResource> result = cms.readResources(ids, CmsResourceFilter.DEFAULT);
+        assertEquals(resources.size(), result.size());
+        for (int i = 0; i < result.size(); i++) {
+            CmsResource expected = resources.get(resources.size() - 1 - i);
+            assertEquals(expected.getStructureId(), result.get(i).getStructureId());
+            assertEquals(expected.getRootPath(), result.get(i).getRootPath());
+        }
+
+        // the properties must be the same as read for each resource
+        for (boolean search : new boolean[] {false, true}) {
+            Map<CmsUUID, Map<String, String>> expected = new HashMap<CmsUUID, Map<String, String>>();
+            for (CmsResource resource : result) {
+                expected.put(resource.getStructureId(), CmsProperty.toMap(cms.readPropertyObjects(resource, search)));
+            }
+            // make sure the properties are read from the database again
+            OpenCms.getMemoryMonitor().flushCache(CmsMemoryMonitor.CacheType.PROPERTY_LIST);
+            Map<CmsUUID, List<CmsProperty>> properties = cms.readPropertiesForResources(result, search);
+            assertEquals(result.size(), properties.size());
+            for (CmsResource resource : result) {
+                assertEquals(
+                    expected.get(resource.getStructureId()),
+                    CmsProperty.toMap(properties.get(resource.getStructureId())));
+            }
+        }
+    }
+
 }
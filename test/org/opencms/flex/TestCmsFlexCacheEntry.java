@@ -28,12 +28,119 @@
 package org.opencms.flex;
 
 import org.opencms.test.OpenCmsTestCase;
+import org.opencms.util.CmsFileUtil;
+
+import java.io.ByteArrayInputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
 
 /**
  * Tests for the CmsFlexCacheEntry.<p>
  */
 public class TestCmsFlexCacheEntry extends OpenCmsTestCase {
 
+    /**
+     * Tests creating the compressed variant of the output of a cache entry.<p>
+     * 
+     * @throws Exception if the test fails
+     */
+    public void testCompress() throws Exception {
+
+        StringBuffer html = new StringBuffer();
+        for (int i = 0; i < 100; i++) {
+            html.append("<p>This is paragraph ").append(i).append(" of the page.</p>\n");
+        }
+        byte[] output = html.toString().getBytes();
+        CmsFlexCacheEntry entry = new CmsFlexCacheEntry();
+        entry.add(output);
+
+        // an entry must be completed before it is compressed
+        entry.compress();
+        assertNull(entry.getGzipBytes());
+
+        entry.complete();
+        int costs = entry.getLruCacheCosts();
+        entry.compress();
+        byte[] gzipBytes = entry.getGzipBytes();
+        assertNotNull(gzipBytes);
+        assertTrue(gzipBytes.length < output.length);
+        assertTrue(entry.getLruCacheCosts() > costs);
+        byte[] uncompressed = CmsFileUtil.readFully(new GZIPInputStream(new ByteArrayInputStream(gzipBytes)));
+        assertTrue(Arrays.equals(output, uncompressed));
+
+        // the compressed variant is dropped off heap and created again when the entry is moved back
+        entry.setOffHeapStore(new CmsFlexCacheOffHeapStore(output.length));
+        assertTrue(entry.moveToOffHeap());
+        assertNull(entry.getGzipBytes());
+        assertTrue(entry.moveToHeap());
+        assertTrue(Arrays.equals(gzipBytes, entry.getGzipBytes()));
+
+        // entries with include calls or small output are not compressed
+        entry = new CmsFlexCacheEntry();
+        entry.add(output);
+        entry.add("/system/include.jsp", null, null);
+        entry.complete();
+        entry.compress();
+        assertNull(entry.getGzipBytes());
+        entry = new CmsFlexCacheEntry();
+        entry.add("small".getBytes());
+        entry.complete();
+        entry.compress();
+        assertNull(entry.getGzipBytes());
+    }
+
+    /**
+     * Tests moving the output of a cache entry to the off-heap store and back.<p>
+     */
+    public void testMoveToOffHeap() {
+
+        byte[] first = "first output".getBytes();
+        byte[] second = "second output".getBytes();
+        CmsFlexCacheEntry entry = new CmsFlexCacheEntry();
+        entry.add(first);
+        entry.add("/system/include.jsp", null, null);
+        entry.add(second);
+        entry.complete();
+
+        // no store set, the output stays on the heap
+        assertFalse(entry.moveToOffHeap());
+
+        // the store is too small for the output
+        CmsFlexCacheOffHeapStore store = new CmsFlexCacheOffHeapStore(first.length);
+        entry.setOffHeapStore(store);
+        assertFalse(entry.moveToOffHeap());
+        assertFalse(entry.isOffHeap());
+        assertEquals(0, store.getUsedBytes());
+
+        store = new CmsFlexCacheOffHeapStore(1024);
+        entry.setOffHeapStore(store);
+        assertTrue(entry.moveToOffHeap());
+        assertTrue(entry.isOffHeap());
+        assertEquals(first.length + second.length, store.getUsedBytes());
+
+        // reading the elements must not move the output back
+        List<Object> elements = entry.elements();
+        assertEquals(5, elements.size());
+        assertTrue(Arrays.equals(first, (byte[])elements.get(0)));
+        assertEquals("/system/include.jsp", elements.get(1));
+        assertTrue(Arrays.equals(second, (byte[])elements.get(4)));
+        assertTrue(entry.isOffHeap());
+
+        assertTrue(entry.moveToHeap());
+        assertFalse(entry.isOffHeap());
+        assertEquals(0, store.getUsedBytes());
+        assertTrue(Arrays.equals(second, (byte[])entry.elements().get(4)));
+
+        // invalidated entries release the store and are never moved again
+        assertTrue(entry.moveToOffHeap());
+        assertTrue(entry.invalidate());
+        assertEquals(0, store.getUsedBytes());
+        assertFalse(entry.moveToOffHeap());
+        assertFalse(entry.moveToHeap());
+        assertTrue(Arrays.equals(first, (byte[])entry.elements().get(0)));
+    }
+
     /**
      * Tests the method getAbsoluteUri.<p>
      */
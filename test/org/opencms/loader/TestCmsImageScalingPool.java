@@ -0,0 +1,229 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.loader;
+
+import org.opencms.test.OpenCmsTestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests the image scaling pool.<p>
+ */
+public class TestCmsImageScalingPool extends OpenCmsTestCase {
+
+    /**
+     * Default JUnit constructor.<p>
+     * 
+     * @param arg0 JUnit parameters
+     */
+    public TestCmsImageScalingPool(String arg0) {
+
+        super(arg0);
+    }
+
+    /**
+     * Tests that concurrent operations for the same key are only executed once.<p>
+     * 
+     * @throws Exception in case the test fails
+     */
+    public void testCoalescing() throws Exception {
+
+        final CmsImageScalingPool pool = new CmsImageScalingPool(2, 10);
+        final AtomicInteger executions = new AtomicInteger();
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final Callable<byte[]> operation = new Callable<byte[]>() {
+
+            public byte[] call() throws Exception {
+
+                executions.incrementAndGet();
+                started.countDown();
+                release.await();
+                return new byte[] {1, 2, 3};
+            }
+        };
+        final List<byte[]> results = new ArrayList<byte[]>();
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int i = 0; i < 8; i++) {
+            Thread thread = new Thread() {
+
+                @Override
+                public void run() {
+
+                    try {
+                        byte[] result = pool.execute("key", operation);
+                        synchronized (results) {
+                            results.add(result);
+                        }
+                    } catch (Exception e) {
+                        // result is missing
+                    }
+                }
+            };
+            threads.add(thread);
+            thread.start();
+        }
+        started.await();
+        // give the other threads time to join the running operation
+        Thread.sleep(200);
+        release.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(1, executions.get());
+        assertEquals(8, results.size());
+        for (byte[] result : results) {
+            assertEquals(3, result.length);
+        }
+    }
+
+    /**
+     * Tests that operations are rejected if too many operations are waiting.<p>
+     * 
+     * @throws Exception in case the test fails
+     */
+    public void testRejection() throws Exception {
+
+        final CmsImageScalingPool pool = new CmsImageScalingPool(1, 0);
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        Thread blocking = new Thread() {
+
+            @Override
+            public void run() {
+
+                try {
+                    pool.execute("blocking", new Callable<byte[]>() {
+
+                        public byte[] call() throws Exception {
+
+                            started.countDown();
+                            release.await();
+                            return new byte[0];
+                        }
+                    });
+                } catch (Exception e) {
+                    // ignore
+                }
+            }
+        };
+        blocking.start();
+        started.await();
+        byte[] result = pool.execute("other", new Callable<byte[]>() {
+
+            public byte[] call() {
+
+                return new byte[1];
+            }
+        });
+        assertNull(result);
+        release.countDown();
+        blocking.join();
+        result = pool.execute("other", new Callable<byte[]>() {
+
+            public byte[] call() {
+
+                return new byte[1];
+            }
+        });
+        assertEquals(1, result.length);
+    }
+
+    /**
+     * Tests that operations which have to wait are not rejected if too many operations are waiting.<p>
+     * 
+     * @throws Exception in case the test fails
+     */
+    public void testWaiting() throws Exception {
+
+        final CmsImageScalingPool pool = new CmsImageScalingPool(1, 0);
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        Thread blocking = new Thread() {
+
+            @Override
+            public void run() {
+
+                try {
+                    pool.execute("blocking", new Callable<byte[]>() {
+
+                        public byte[] call() throws Exception {
+
+                            started.countDown();
+                            release.await();
+                            return new byte[0];
+                        }
+                    });
+                } catch (Exception e) {
+                    // ignore
+                }
+            }
+        };
+        blocking.start();
+        started.await();
+        final List<byte[]> results = new ArrayList<byte[]>();
+        Thread waiting = new Thread() {
+
+            @Override
+            public void run() {
+
+                try {
+                    byte[] result = pool.execute("other", new Callable<byte[]>() {
+
+                        public byte[] call() {
+
+                            return new byte[1];
+                        }
+                    }, true);
+                    synchronized (results) {
+                        results.add(result);
+                    }
+                } catch (Exception e) {
+                    // result is missing
+                }
+            }
+        };
+        waiting.start();
+        // the waiting operation must not be rejected while the blocking operation runs
+        Thread.sleep(200);
+        synchronized (results) {
+            assertTrue(results.isEmpty());
+        }
+        release.countDown();
+        blocking.join();
+        waiting.join();
+        assertEquals(1, results.size());
+        assertNotNull(results.get(0));
+        assertEquals(1, results.get(0).length);
+    }
+}
@@ -65,7 +65,9 @@ public final class AllTests {
         suite.addTest(TestCmsShellInline.suite());
         suite.addTest(TestOpenCmsSingleton.suite());
         suite.addTest(TestCmsEvents.suite());
+        suite.addTest(new TestSuite(TestCmsEventManager.class));
         suite.addTest(TestCmsSystemInfo.suite());
+        suite.addTest(TestCmsSessionStorage.suite());
         // $JUnit-END$
         return suite;
     }
@@ -0,0 +1,167 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.main;
+
+import org.opencms.test.OpenCmsTestCase;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Tests the event delivery of the event manager.<p>
+ */
+public class TestCmsEventManager extends OpenCmsTestCase {
+
+    /**
+     * Asynchronous event listener for test purposes, blocking on the first event until released.<p>
+     */
+    private static class CmsTestAsyncEventListener implements I_CmsAsyncEventListener {
+
+        /** The types of the received events. */
+        List<Integer> m_events = Collections.synchronizedList(new ArrayList<Integer>());
+
+        /** Released to let the listener process the first event. */
+        CountDownLatch m_release = new CountDownLatch(1);
+
+        /** Released when the listener received the first event. */
+        CountDownLatch m_started = new CountDownLatch(1);
+
+        /**
+         * @see org.opencms.main.I_CmsEventListener#cmsEvent(org.opencms.main.CmsEvent)
+         */
+        public void cmsEvent(CmsEvent event) {
+
+            m_events.add(event.getTypeInteger());
+            m_started.countDown();
+            try {
+                m_release.await();
+            } catch (InterruptedException e) {
+                // ignore
+            }
+        }
+    }
+
+    /**
+     * Default JUnit constructor.<p>
+     * 
+     * @param arg0 JUnit parameters
+     */
+    public TestCmsEventManager(String arg0) {
+
+        super(arg0);
+    }
+
+    /**
+     * Tests that asynchronous listeners receive their events in order and that repeated cache flushes are coalesced.<p>
+     * 
+     * @throws Exception in case the test fails
+     */
+    public void testAsyncDelivery() throws Exception {
+
+        CmsEventManager manager = new CmsEventManager();
+        CmsTestAsyncEventListener listener = new CmsTestAsyncEventListener();
+        manager.addCmsEventListener(listener);
+
+        manager.fireEvent(I_CmsEventListener.EVENT_PUBLISH_PROJECT);
+        // the firing thread must not wait for the listener
+        listener.m_started.await();
+        manager.fireEvent(I_CmsEventListener.EVENT_CLEAR_CACHES);
+        manager.fireEvent(I_CmsEventListener.EVENT_CLEAR_CACHES);
+        manager.fireEvent(I_CmsEventListener.EVENT_CLEAR_CACHES);
+        manager.fireEvent(I_CmsEventListener.EVENT_PUBLISH_PROJECT);
+        manager.fireEvent(I_CmsEventListener.EVENT_CLEAR_CACHES);
+        listener.m_release.countDown();
+        manager.shutDown();
+
+        List<Integer> expected = new ArrayList<Integer>();
+        expected.add(Integer.valueOf(I_CmsEventListener.EVENT_PUBLISH_PROJECT));
+        expected.add(Integer.valueOf(I_CmsEventListener.EVENT_CLEAR_CACHES));
+        expected.add(Integer.valueOf(I_CmsEventListener.EVENT_PUBLISH_PROJECT));
+        expected.add(Integer.valueOf(I_CmsEventListener.EVENT_CLEAR_CACHES));
+        assertEquals(expected, listener.m_events);
+
+        CmsEventListenerStatistics statistics = manager.getListenerStatistics().get(listener);
+        assertEquals(4, statistics.getCount());
+        assertEquals(2, statistics.getCoalescedCount());
+    }
+
+    /**
+     * Tests that the waiting events of a removed asynchronous listener are discarded.<p>
+     * 
+     * @throws Exception in case the test fails
+     */
+    public void testRemoveAsyncListener() throws Exception {
+
+        CmsEventManager manager = new CmsEventManager();
+        CmsTestAsyncEventListener listener = new CmsTestAsyncEventListener();
+        manager.addCmsEventListener(listener);
+        assertEquals(0, manager.getListenerStatistics().get(listener).getCount());
+
+        manager.fireEvent(I_CmsEventListener.EVENT_PUBLISH_PROJECT);
+        listener.m_started.await();
+        manager.fireEvent(I_CmsEventListener.EVENT_CLEAR_CACHES);
+        manager.fireEvent(I_CmsEventListener.EVENT_PUBLISH_PROJECT);
+
+        // the event being processed is finished, the waiting events are discarded
+        manager.removeCmsEventListener(listener);
+        assertFalse(manager.getListenerStatistics().containsKey(listener));
+        manager.fireEvent(I_CmsEventListener.EVENT_CLEAR_CACHES);
+        listener.m_release.countDown();
+        manager.shutDown();
+
+        assertEquals(
+            Collections.singletonList(Integer.valueOf(I_CmsEventListener.EVENT_PUBLISH_PROJECT)),
+            listener.m_events);
+        assertFalse(manager.getListenerStatistics().containsKey(listener));
+    }
+
+    /**
+     * Tests that synchronous listeners receive their events on the firing thread.<p>
+     * 
+     * @throws Exception in case the test fails
+     */
+    public void testSyncDelivery() throws Exception {
+
+        CmsEventManager manager = new CmsEventManager();
+        CmsTestEventListener listener = new CmsTestEventListener();
+        manager.addCmsEventListener(listener);
+        manager.fireEvent(I_CmsEventListener.EVENT_CLEAR_CACHES);
+        manager.fireEvent(I_CmsEventListener.EVENT_CLEAR_CACHES);
+        assertEquals(2, listener.getEvents().size());
+        assertEquals(2, manager.getListenerStatistics().get(listener).getCount());
+
+        // removing the listener also removes its statistics
+        manager.removeCmsEventListener(listener);
+        manager.fireEvent(I_CmsEventListener.EVENT_CLEAR_CACHES);
+        assertEquals(2, listener.getEvents().size());
+        assertFalse(manager.getListenerStatistics().containsKey(listener));
+    }
+}
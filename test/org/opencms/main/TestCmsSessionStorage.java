@@ -0,0 +1,211 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.main;
+
+import org.opencms.file.CmsObject;
+import org.opencms.file.CmsRequestContext;
+import org.opencms.test.OpenCmsTestCase;
+import org.opencms.test.OpenCmsTestProperties;
+import org.opencms.util.CmsUUID;
+
+import java.util.List;
+
+import junit.extensions.TestSetup;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+import org.apache.commons.collections.BufferUnderflowException;
+
+/**
+ * Tests the session storage providers and the broadcast queue.<p>
+ * 
+ * @since 9.5.0
+ */
+public class TestCmsSessionStorage extends OpenCmsTestCase {
+
+    /**
+     * Default JUnit constructor.<p>
+     * 
+     * @param arg0 JUnit parameters
+     */
+    public TestCmsSessionStorage(String arg0) {
+
+        super(arg0);
+    }
+
+    /**
+     * Test suite for this test class.<p>
+     * 
+     * @return the test suite
+     */
+    public static Test suite() {
+
+        OpenCmsTestProperties.initialize(org.opencms.test.AllTests.TEST_PROPERTIES_PATH);
+
+        TestSuite suite = new TestSuite();
+        suite.setName(TestCmsSessionStorage.class.getName());
+
+        suite.addTest(new TestCmsSessionStorage("testBroadcastQueue"));
+        suite.addTest(new TestCmsSessionStorage("testDefaultStorageProvider"));
+        suite.addTest(new TestCmsSessionStorage("testSerializingStorageProvider"));
+
+        TestSetup wrapper = new TestSetup(suite) {
+
+            @Override
+            protected void setUp() {
+
+                setupOpenCms(null, "/sites/default/");
+            }
+
+            @Override
+            protected void tearDown() {
+
+                removeOpenCms();
+            }
+        };
+
+        return wrapper;
+    }
+
+    /**
+     * Tests that the broadcast queue is bounded and removes the oldest broadcasts first.<p>
+     * 
+     * @throws Exception if the test fails
+     */
+    public void testBroadcastQueue() throws Exception {
+
+        CmsBroadcastQueue queue = new CmsBroadcastQueue(3);
+        assertTrue(queue.isEmpty());
+        for (int i = 0; i < 5; i++) {
+            queue.add("message" + i);
+        }
+        assertEquals(3, queue.size());
+        assertEquals("message2", queue.get());
+        assertEquals("message2", queue.remove());
+        assertEquals("message3", queue.remove());
+        assertEquals("message4", queue.remove());
+        assertTrue(queue.isEmpty());
+        assertNull(queue.poll());
+        try {
+            queue.remove();
+            fail("removing from an empty queue must fail");
+        } catch (BufferUnderflowException e) {
+            // expected
+        }
+    }
+
+    /**
+     * Tests the default session storage provider.<p>
+     * 
+     * @throws Exception if the test fails
+     */
+    public void testDefaultStorageProvider() throws Exception {
+
+        I_CmsSessionStorageProvider provider = new CmsDefaultSessionStorageProvider();
+        provider.initialize();
+        checkStorageProvider(provider);
+        provider.shutdown();
+    }
+
+    /**
+     * Tests the serializing session storage provider, which works on copies of the session info objects.<p>
+     * 
+     * @throws Exception if the test fails
+     */
+    public void testSerializingStorageProvider() throws Exception {
+
+        I_CmsSessionStorageProvider provider = new CmsSerializingSessionStorageProvider();
+        provider.initialize();
+        checkStorageProvider(provider);
+
+        // changes to a session info are only stored when it is written back
+        CmsObject cms = getCmsObject();
+        CmsSessionInfo info = new CmsSessionInfo(cms.getRequestContext(), new CmsUUID(), 1800);
+        provider.put(info);
+        CmsSessionInfo copy = provider.get(info.getSessionId());
+        assertNotSame(info, copy);
+        assertEquals(info.getSessionId(), copy.getSessionId());
+        assertEquals(info.getUserId(), copy.getUserId());
+        assertEquals(info.getProject(), copy.getProject());
+        provider.shutdown();
+    }
+
+    /**
+     * Checks the user index, removal and validation of a session storage provider.<p>
+     * 
+     * @param provider the initialized storage provider to check
+     * 
+     * @throws Exception if the check fails
+     */
+    private void checkStorageProvider(I_CmsSessionStorageProvider provider) throws Exception {
+
+        CmsRequestContext adminContext = getCmsObject().getRequestContext();
+        CmsObject guestCms = OpenCms.initCmsObject(OpenCms.getDefaultUsers().getUserGuest());
+        CmsRequestContext guestContext = guestCms.getRequestContext();
+        CmsUUID adminId = adminContext.getCurrentUser().getId();
+        CmsUUID guestId = guestContext.getCurrentUser().getId();
+
+        CmsSessionInfo admin1 = new CmsSessionInfo(adminContext, new CmsUUID(), 1800);
+        CmsSessionInfo admin2 = new CmsSessionInfo(adminContext, new CmsUUID(), 1800);
+        CmsSessionInfo guest1 = new CmsSessionInfo(guestContext, new CmsUUID(), 1800);
+        assertNull(provider.put(admin1));
+        assertNull(provider.put(admin2));
+        assertNull(provider.put(guest1));
+        // updating a session must not add it twice
+        assertNotNull(provider.put(admin1));
+
+        assertEquals(3, provider.getSize());
+        assertEquals(3, provider.getAll().size());
+        assertEquals(2, provider.getAllOfUser(adminId).size());
+        assertEquals(1, provider.getAllOfUser(guestId).size());
+        assertEquals(0, provider.getAllOfUser(new CmsUUID()).size());
+
+        // switch the user of a session
+        CmsSessionInfo switched = new CmsSessionInfo(guestContext, admin2.getSessionId(), 1800);
+        provider.put(switched);
+        assertEquals(3, provider.getSize());
+        assertEquals(1, provider.getAllOfUser(adminId).size());
+        List<CmsSessionInfo> guestSessions = provider.getAllOfUser(guestId);
+        assertEquals(2, guestSessions.size());
+
+        // remove a session
+        assertNotNull(provider.remove(admin1.getSessionId()));
+        assertNull(provider.remove(admin1.getSessionId()));
+        assertEquals(0, provider.getAllOfUser(adminId).size());
+        assertNull(provider.get(admin1.getSessionId()));
+
+        // expired sessions are removed during validation
+        CmsSessionInfo expired = new CmsSessionInfo(adminContext, new CmsUUID(), -1);
+        provider.put(expired);
+        assertEquals(1, provider.getAllOfUser(adminId).size());
+        provider.validate();
+        assertEquals(0, provider.getAllOfUser(adminId).size());
+        assertEquals(2, provider.getSize());
+        assertEquals(2, provider.getAllOfUser(guestId).size());
+    }
+}
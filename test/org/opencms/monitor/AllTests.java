@@ -58,6 +58,8 @@ public final class AllTests {
         TestSuite suite = new TestSuite("Tests for package " + AllTests.class.getPackage().getName());
         OpenCmsTestProperties.initialize(org.opencms.test.AllTests.TEST_PROPERTIES_PATH);
         //$JUnit-BEGIN$
+        suite.addTest(new TestSuite(TestCmsCacheKeyIndex.class));
+        suite.addTest(new TestSuite(TestCmsMetrics.class));
         suite.addTest(TestMemoryMonitor.suite());
         //$JUnit-END$
         return suite;
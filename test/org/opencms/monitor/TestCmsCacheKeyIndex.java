@@ -0,0 +1,96 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.monitor;
+
+import org.opencms.test.OpenCmsTestCase;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Tests for the cache key index used for selective cache invalidation.<p>
+ */
+public class TestCmsCacheKeyIndex extends OpenCmsTestCase {
+
+    /**
+     * Tests that keys no longer contained in the cache are pruned.<p>
+     */
+    public void testPrune() {
+
+        Map<String, Object> cache = new HashMap<String, Object>();
+        CmsCacheKeyIndex index = new CmsCacheKeyIndex(cache, 64);
+        for (int i = 0; i < 200; i++) {
+            String key = "key" + i;
+            if (i >= 190) {
+                cache.put(key, Boolean.TRUE);
+            }
+            index.add("/sites/default/file" + i, key);
+        }
+        assertTrue(index.size() <= 64);
+        assertEquals(1, index.removeKeys("/sites/default/file195").size());
+    }
+
+    /**
+     * Tests removing keys by path, for parent folders and for subtrees.<p>
+     */
+    public void testRemoveKeys() {
+
+        Map<String, Object> cache = new HashMap<String, Object>();
+        CmsCacheKeyIndex index = new CmsCacheKeyIndex(cache, 1000);
+        index.add("/", "root");
+        index.add("/sites/", "sites");
+        index.add("/sites/default/", "default");
+        index.add("/sites/default/a.html", "a1");
+        index.add("/sites/default/a.html", "a2");
+        index.add("/sites/default/folder/b.html", "b");
+        index.add("/sites/defaultx/c.html", "c");
+        assertEquals(7, index.size());
+
+        Set<String> keys = index.removeKeysForParentFolders("/sites/default/a.html");
+        assertEquals(3, keys.size());
+        assertTrue(keys.contains("root") && keys.contains("sites") && keys.contains("default"));
+
+        keys = index.removeKeys("/sites/default/a.html");
+        assertEquals(2, keys.size());
+
+        index.add("/sites/default/a.html", "a1");
+        keys = index.removeKeysForTree("/sites/default/");
+        assertEquals(2, keys.size());
+        assertTrue(keys.contains("a1") && keys.contains("b"));
+        assertEquals(1, index.size());
+        assertEquals(1, index.removeKeysForTree("/sites/defaultx/c.html").size());
+        assertEquals(0, index.size());
+
+        assertFalse(index.isIncomplete());
+        index.setIncomplete();
+        assertTrue(index.isIncomplete());
+        index.clear();
+        assertFalse(index.isIncomplete());
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.monitor;
+
+import org.opencms.monitor.CmsMemoryMonitor.CacheType;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for the metrics timers and request traces.<p>
+ */
+public class TestCmsMetrics extends TestCase {
+
+    /**
+     * Tests that nothing is recorded while metrics are disabled.<p>
+     */
+    public void testDisabled() {
+
+        CmsMetrics.setEnabled(false);
+        CmsMetrics.reset();
+        assertNull(CmsMetrics.startRequest("/disabled.html"));
+        long start = CmsMetrics.startTimer();
+        assertEquals(0, start);
+        CmsMetrics.addTime(CmsMetrics.TIMER_DB_QUERY, start);
+        Object statement = new Object();
+        CmsMetrics.startQuery(statement);
+        CmsMetrics.endQuery(statement);
+        assertTrue(CmsMetrics.getTimers().isEmpty());
+    }
+
+    /**
+     * Tests recording timers, queries and cache lookups in a request trace.<p>
+     */
+    public void testRequestTrace() {
+
+        CmsMetrics.setEnabled(true);
+        CmsMetrics.setTraceHeaderEnabled(false);
+        CmsMetrics.reset();
+        try {
+            CmsRequestTrace trace = CmsMetrics.startRequest("/index.html");
+            assertSame(trace, CmsMetrics.getCurrentTrace());
+
+            Object statement1 = new Object();
+            Object statement2 = new Object();
+            CmsMetrics.startQuery(statement1);
+            CmsMetrics.startQuery(statement2);
+            CmsMetrics.endQuery(statement2);
+            CmsMetrics.endQuery(statement1);
+            // a statement closed twice is only counted once
+            CmsMetrics.endQuery(statement1);
+            CmsMetrics.addTime(CmsMetrics.TIMER_FLEX_INCLUDE, CmsMetrics.startTimer());
+            CmsMetrics.addCacheLookup(CacheType.RESOURCE, true);
+            CmsMetrics.addCacheLookup(CacheType.RESOURCE, false);
+            CmsMetrics.addCacheLookup(CacheType.PROPERTY_LIST, true);
+
+            assertEquals(2, trace.getCount(CmsMetrics.TIMER_DB_QUERY));
+            assertEquals(1, trace.getCount(CmsMetrics.TIMER_FLEX_INCLUDE));
+            assertEquals(0, trace.getCount(CmsMetrics.TIMER_JSP_LOAD));
+            assertEquals(1, trace.getCacheHits(CacheType.RESOURCE));
+            assertEquals(1, trace.getCacheMisses(CacheType.RESOURCE));
+            assertEquals(2, trace.getCacheHits());
+            assertEquals(1, trace.getCacheMisses());
+            assertTrue(trace.toString().contains("cache=2/1"));
+            assertTrue(trace.toString().contains(CmsMetrics.TIMER_DB_QUERY + "=2/"));
+
+            CmsMetrics.endRequest(trace, null);
+            assertNull(CmsMetrics.getCurrentTrace());
+            assertEquals(2, CmsMetrics.getTimers().get(CmsMetrics.TIMER_DB_QUERY).getCount());
+            assertEquals(1, CmsMetrics.getTimers().get(CmsMetrics.TIMER_REQUEST).getCount());
+
+            // lookups outside of a request are not traced
+            CmsMetrics.addCacheLookup(CacheType.RESOURCE, true);
+            assertEquals(1, trace.getCacheHits(CacheType.RESOURCE));
+        } finally {
+            CmsMetrics.setEnabled(false);
+            CmsMetrics.reset();
+        }
+    }
+}
@@ -35,6 +35,9 @@ import org.opencms.test.OpenCmsTestCase;
 import org.opencms.test.OpenCmsTestProperties;
 import org.opencms.util.CmsStringUtil;
 
+import java.util.List;
+import java.util.Map;
+
 import junit.extensions.TestSetup;
 import junit.framework.Test;
 import junit.framework.TestSuite;
@@ -80,10 +83,48 @@ public class TestRepository extends OpenCmsTestCase {
             }
         };
         suite.addTest(new TestRepository("testPropertyCachingBug"));
+        suite.addTest(new TestRepository("testGetLocks"));
 
         return wrapper;
     }
 
+    /**
+     * Tests if reading the locks of a list of items returns the same locks as reading the lock of each item.<p>
+     * 
+     * @throws Exception if the test fails
+     */
+    public void testGetLocks() throws Exception {
+
+        I_CmsRepositorySession session = OpenCms.getRepositoryManager().getRepository(
+            "standard",
+            CmsRepository.class).login("Admin", "admin");
+        String lockedPath = "/folder1/page1.html";
+        session.lock(lockedPath, new CmsRepositoryLockInfo());
+        try {
+            List<I_CmsRepositoryItem> items = session.list("/folder1/");
+            Map<String, CmsRepositoryLockInfo> locks = session.getLocks(items);
+
+            boolean found = false;
+            for (I_CmsRepositoryItem item : items) {
+                CmsRepositoryLockInfo lock = session.getLock(item.getName());
+                if (lock == null) {
+                    assertFalse("unexpected lock for " + item.getName(), locks.containsKey(item.getName()));
+                    continue;
+                }
+                CmsRepositoryLockInfo listLock = locks.get(item.getName());
+                assertNotNull("missing lock for " + item.getName(), listLock);
+                assertEquals(lock.getPath(), listLock.getPath());
+                assertEquals(lock.getUsername(), listLock.getUsername());
+                assertEquals(lock.getOwner(), listLock.getOwner());
+                found |= item.getName().endsWith(lockedPath);
+            }
+            assertTrue("lock of " + lockedPath + " not found", found);
+            assertEquals("Admin", locks.get(session.getItem(lockedPath).getName()).getUsername());
+        } finally {
+            session.unlock(lockedPath);
+        }
+    }
+
     /**
      * Test for a bug with property caching caused by CmsResourceWrapperSystemFolder.<p>
      * 
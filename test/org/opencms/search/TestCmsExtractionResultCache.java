@@ -0,0 +1,184 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.search;
+
+import org.opencms.i18n.CmsEncoder;
+import org.opencms.search.documents.CmsExtractionResultCache;
+import org.opencms.search.extractors.CmsExtractionResult;
+import org.opencms.search.extractors.I_CmsExtractionResult;
+import org.opencms.util.CmsFileUtil;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the text extraction result cache, which does not require an OpenCms context.<p>
+ */
+public class TestCmsExtractionResultCache extends TestCase {
+
+    /**
+     * Default JUnit constructor.<p>
+     * 
+     * @param arg0 JUnit parameters
+     */
+    public TestCmsExtractionResultCache(String arg0) {
+
+        super(arg0);
+    }
+
+    /**
+     * Tests that the least recently used results are removed if the cache grows too large.<p>
+     * 
+     * @throws Exception in case the test fails
+     */
+    public void testEviction() throws Exception {
+
+        File folder = createFolder();
+        CmsExtractionResultCache cache = new CmsExtractionResultCache(folder.getAbsolutePath(), "/cache");
+        try {
+            for (int i = 0; i < 100; i++) {
+                cache.saveCacheObject("key" + i, createResult("Extracted text number " + i));
+            }
+            long size = cache.getSize();
+            cache.setMaxSize(size / 2);
+            assertTrue(cache.getSize() <= (size / 2));
+            assertNull(cache.getCacheObject("key0"));
+            assertNotNull(cache.getCacheObject("key99"));
+            // removing all results must not fail
+            assertTrue(cache.cleanCache(-1.0f) > 0);
+            assertNull(cache.getCacheObject("key99"));
+        } finally {
+            cache.shutDown();
+            CmsFileUtil.purgeDirectory(folder);
+        }
+    }
+
+    /**
+     * Tests that removed results are not read again when the cache is reopened.<p>
+     * 
+     * @throws Exception in case the test fails
+     */
+    public void testEvictionAfterReopen() throws Exception {
+
+        File folder = createFolder();
+        CmsExtractionResultCache cache = new CmsExtractionResultCache(folder.getAbsolutePath(), "/cache");
+        try {
+            for (int i = 0; i < 100; i++) {
+                cache.saveCacheObject("key" + i, createResult("Extracted text number " + i));
+            }
+            cache.saveCacheAlias("alias0", "key0");
+            cache.saveCacheAlias("alias99", "key99");
+            long size = cache.getSize();
+            // remove less than half of the results, so the segment file is not compacted
+            cache.setMaxSize((size / 4) * 3);
+            long reduced = cache.getSize();
+            assertTrue(reduced <= ((size / 4) * 3));
+            assertNull(cache.getCacheObject("key0"));
+            assertNull(cache.getCacheObject("alias0"));
+
+            cache.shutDown();
+            cache = new CmsExtractionResultCache(folder.getAbsolutePath(), "/cache");
+            assertEquals(reduced, cache.getSize());
+            assertNull(cache.getCacheObject("key0"));
+            assertNull(cache.getCacheObject("alias0"));
+            assertEquals("Extracted text number 99", cache.getCacheObject("alias99").getContent());
+        } finally {
+            cache.shutDown();
+            CmsFileUtil.purgeDirectory(folder);
+        }
+    }
+
+    /**
+     * Tests storing and reading results by content key and alias, also after reopening the cache.<p>
+     * 
+     * @throws Exception in case the test fails
+     */
+    public void testSaveAndRead() throws Exception {
+
+        File folder = createFolder();
+        CmsExtractionResultCache cache = new CmsExtractionResultCache(folder.getAbsolutePath(), "/cache");
+        try {
+            byte[] content = "Some content".getBytes(CmsEncoder.ENCODING_UTF_8);
+            String key = cache.getContentKey(content, Locale.ENGLISH, "text");
+            assertEquals(key, cache.getContentKey(content.clone(), Locale.ENGLISH, "text"));
+            assertFalse(key.equals(cache.getContentKey(content, Locale.GERMAN, "text")));
+            assertNull(cache.getCacheObject(key));
+
+            cache.saveCacheObject(key, createResult("Some extracted text"));
+            cache.saveCacheAlias("resource1", key);
+            cache.saveCacheAlias("resource2", key);
+            assertEquals("Some extracted text", cache.getCacheObject(key).getContent());
+            assertEquals("Some extracted text", cache.getCacheObject("resource2").getContent());
+            assertTrue(cache.getCacheObject(key).getContentItems().containsKey(I_CmsExtractionResult.ITEM_TITLE));
+
+            // the results and aliases are read from the segment files when the cache is reopened
+            cache.shutDown();
+            cache = new CmsExtractionResultCache(folder.getAbsolutePath(), "/cache");
+            assertEquals("Some extracted text", cache.getCacheObject("resource1").getContent());
+            assertNull(cache.getCacheObject("resource3"));
+        } finally {
+            cache.shutDown();
+            CmsFileUtil.purgeDirectory(folder);
+        }
+    }
+
+    /**
+     * Creates an extraction result for testing.<p>
+     * 
+     * @param text the extracted text
+     * 
+     * @return the extraction result
+     */
+    private static I_CmsExtractionResult createResult(String text) {
+
+        Map<String, String> items = new HashMap<String, String>();
+        items.put(I_CmsExtractionResult.ITEM_CONTENT, text);
+        items.put(I_CmsExtractionResult.ITEM_TITLE, null);
+        return new CmsExtractionResult(text, items);
+    }
+
+    /**
+     * Creates an empty temporary folder for the cache.<p>
+     * 
+     * @return the folder
+     * 
+     * @throws Exception in case the folder can not be created
+     */
+    private File createFolder() throws Exception {
+
+        File folder = File.createTempFile("extractCache", "");
+        folder.delete();
+        folder.mkdirs();
+        return folder;
+    }
+}
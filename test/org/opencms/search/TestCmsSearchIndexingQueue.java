@@ -0,0 +1,177 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.search;
+
+import org.opencms.db.CmsPublishedResource;
+import org.opencms.db.CmsResourceState;
+import org.opencms.file.CmsResource;
+import org.opencms.util.CmsUUID;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the offline indexing queue, which does not require an OpenCms context.<p>
+ */
+public class TestCmsSearchIndexingQueue extends TestCase {
+
+    /**
+     * Default JUnit constructor.<p>
+     * 
+     * @param arg0 JUnit parameters
+     */
+    public TestCmsSearchIndexingQueue(String arg0) {
+
+        super(arg0);
+    }
+
+    /**
+     * Tests that a batch is ready when either the batch size or the latency is reached.<p>
+     * 
+     * @throws Exception in case the test fails
+     */
+    public void testBatchThresholds() throws Exception {
+
+        CmsSearchIndexingQueue queue = new CmsSearchIndexingQueue(3, 100);
+        List<CmsPublishedResource> resources = new ArrayList<CmsPublishedResource>();
+        for (int i = 0; i < 5; i++) {
+            resources.add(createResource(new CmsUUID(), "/sites/default/file" + i + ".html", CmsResource.STATE_NEW));
+        }
+        queue.add(resources);
+
+        // the batch size is reached, so this must not wait for the latency
+        long start = System.currentTimeMillis();
+        queue.awaitBatch(60000);
+        assertTrue(System.currentTimeMillis() - start < 10000);
+        List<CmsPublishedResource> batch = queue.poll(queue.getBatchSize());
+        assertEquals(3, batch.size());
+        assertEquals("/sites/default/file0.html", batch.get(0).getRootPath());
+        assertEquals(2, queue.size());
+
+        // below the batch size, the batch is ready after the latency
+        start = System.currentTimeMillis();
+        queue.awaitBatch(200);
+        assertTrue(System.currentTimeMillis() - start < 10000);
+        assertTrue(queue.getLag() >= 200);
+        batch = queue.poll(queue.getBatchSize());
+        assertEquals(2, batch.size());
+        assertTrue(queue.isEmpty());
+        assertEquals(0, queue.getLag());
+        assertEquals(5, queue.getProcessedCount());
+        assertEquals(2, queue.getBatchCount());
+    }
+
+    /**
+     * Tests that changes of the same resource are merged.<p>
+     * 
+     * @throws Exception in case the test fails
+     */
+    public void testCoalesce() throws Exception {
+
+        CmsSearchIndexingQueue queue = new CmsSearchIndexingQueue();
+        CmsUUID id1 = new CmsUUID();
+        CmsUUID id2 = new CmsUUID();
+        queue.add(Collections.singletonList(createResource(id1, "/sites/default/a.html", CmsResource.STATE_NEW)));
+        queue.add(Collections.singletonList(createResource(id2, "/sites/default/b.html", CmsResource.STATE_NEW)));
+        queue.add(Collections.singletonList(createResource(id1, "/sites/default/a.html", CmsResource.STATE_CHANGED)));
+        // a move creates a separate entry for the new path
+        queue.add(Collections.singletonList(createResource(id2, "/sites/default/c.html", CmsResource.STATE_CHANGED)));
+
+        assertEquals(3, queue.size());
+        assertEquals(1, queue.getCoalescedCount());
+        List<CmsPublishedResource> batch = queue.poll(Integer.MAX_VALUE);
+        assertEquals(3, batch.size());
+        // the changed resource is moved to the end and has the latest state
+        assertEquals("/sites/default/b.html", batch.get(0).getRootPath());
+        assertEquals("/sites/default/a.html", batch.get(1).getRootPath());
+        assertEquals(CmsResource.STATE_CHANGED, batch.get(1).getState());
+        assertEquals("/sites/default/c.html", batch.get(2).getRootPath());
+    }
+
+    /**
+     * Tests saving the queue to a file and loading it again.<p>
+     * 
+     * @throws Exception in case the test fails
+     */
+    public void testSaveAndLoad() throws Exception {
+
+        CmsSearchIndexingQueue queue = new CmsSearchIndexingQueue();
+        CmsUUID id1 = new CmsUUID();
+        CmsUUID id2 = new CmsUUID();
+        List<CmsPublishedResource> resources = new ArrayList<CmsPublishedResource>();
+        resources.add(createResource(id1, "/sites/default/a b.html", CmsResource.STATE_CHANGED));
+        resources.add(createResource(id2, "/sites/default/c.html", CmsResource.STATE_DELETED));
+        queue.add(resources);
+
+        File file = File.createTempFile("offlineIndexingQueue", ".txt");
+        file.deleteOnExit();
+        assertEquals(2, queue.save(file));
+        assertEquals(2, queue.size());
+
+        CmsSearchIndexingQueue loaded = new CmsSearchIndexingQueue();
+        assertEquals(2, loaded.load(file));
+        assertFalse(file.exists());
+        List<CmsPublishedResource> batch = loaded.poll(Integer.MAX_VALUE);
+        assertEquals(2, batch.size());
+        for (int i = 0; i < 2; i++) {
+            CmsPublishedResource expected = resources.get(i);
+            CmsPublishedResource actual = batch.get(i);
+            assertEquals(expected.getStructureId(), actual.getStructureId());
+            assertEquals(expected.getResourceId(), actual.getResourceId());
+            assertEquals(expected.getRootPath(), actual.getRootPath());
+            assertEquals(expected.getState(), actual.getState());
+            assertEquals(expected.getType(), actual.getType());
+            assertEquals(expected.isFolder(), actual.isFolder());
+            assertEquals(expected.getSiblingCount(), actual.getSiblingCount());
+        }
+
+        // saving an empty queue removes the file
+        assertEquals(0, loaded.load(file));
+        assertEquals(0, loaded.save(file));
+        assertFalse(file.exists());
+    }
+
+    /**
+     * Creates a published resource for testing.<p>
+     * 
+     * @param structureId the structure id
+     * @param rootPath the root path
+     * @param state the resource state
+     * 
+     * @return the published resource
+     */
+    private static CmsPublishedResource createResource(CmsUUID structureId, String rootPath, CmsResourceState state) {
+
+        return new CmsPublishedResource(structureId, new CmsUUID(), -1, rootPath, 1, false, state, 1);
+    }
+}
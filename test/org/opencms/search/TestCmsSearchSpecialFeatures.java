@@ -34,20 +34,24 @@ import org.opencms.file.types.CmsResourceTypeBinary;
 import org.opencms.file.types.CmsResourceTypeFolder;
 import org.opencms.main.OpenCms;
 import org.opencms.report.CmsShellReport;
+import org.opencms.report.CmsStringBufferReport;
 import org.opencms.report.I_CmsReport;
 import org.opencms.search.fields.CmsSearchField;
 import org.opencms.test.OpenCmsTestCase;
 import org.opencms.test.OpenCmsTestProperties;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import junit.extensions.TestSetup;
 import junit.framework.Test;
 import junit.framework.TestSuite;
 
 import org.apache.lucene.document.Document;
+import org.apache.lucene.search.IndexSearcher;
 
 /**
  * Unit test for special search features added for OpenCms 7.5.<p>
@@ -82,6 +86,8 @@ public class TestCmsSearchSpecialFeatures extends OpenCmsTestCase {
         suite.addTest(new TestCmsSearchSpecialFeatures("testSearchIndexSetup"));
         suite.addTest(new TestCmsSearchSpecialFeatures("testIncrementalIndexUpdate"));
         suite.addTest(new TestCmsSearchSpecialFeatures("testLazyContentFields"));
+        suite.addTest(new TestCmsSearchSpecialFeatures("testParallelIndexing"));
+        suite.addTest(new TestCmsSearchSpecialFeatures("testConcurrentSearch"));
 
         TestSetup wrapper = new TestSetup(suite) {
 
@@ -141,6 +147,66 @@ public class TestCmsSearchSpecialFeatures extends OpenCmsTestCase {
         assertEquals("/sites/default/xmlcontent/article_0001.html", (searchResult.get(0)).getPath());
     }
 
+    /**
+     * Tests concurrent searches on one index while the index searcher is reopened.<p>
+     * 
+     * The throughput of concurrent searches is measured by the JMH benchmark 
+     * <code>CmsSearchIndexBenchmark</code>.<p>
+     * 
+     * @throws Exception in case the test fails
+     */
+    public void testConcurrentSearch() throws Exception {
+
+        echo("Testing concurrent searches while the index searcher is reopened");
+
+        final CmsObject cms = getCmsObject();
+        final CmsSearchIndex searchIndex = OpenCms.getSearchManager().getIndex(INDEX_SPECIAL);
+        final List<Throwable> errors = Collections.synchronizedList(new ArrayList<Throwable>());
+        final AtomicInteger searches = new AtomicInteger();
+        final int searchesPerThread = 50;
+        final int threadCount = 8;
+
+        // as long as the index is not changed, searches do not reopen the searcher
+        assertSearchEgg1(cms);
+        IndexSearcher searcher = searchIndex.getSearcher();
+        assertSearchEgg1(cms);
+        assertSame("Searcher reopened without index change", searcher, searchIndex.getSearcher());
+
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int t = 0; t < threadCount; t++) {
+            threads.add(new Thread() {
+
+                @Override
+                public void run() {
+
+                    try {
+                        for (int i = 0; i < searchesPerThread; i++) {
+                            assertSearchEgg1(OpenCms.initCmsObject(cms));
+                            searches.incrementAndGet();
+                        }
+                    } catch (Throwable e) {
+                        errors.add(e);
+                    }
+                }
+            });
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        // replace the index searcher while the searches are running
+        for (int i = 0; i < 5; i++) {
+            searchIndex.indexSearcherOpen(searchIndex.getPath());
+            Thread.sleep(10);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        if (!errors.isEmpty()) {
+            throw new Exception(errors.get(0));
+        }
+        assertEquals("Wrong number of searches", threadCount * searchesPerThread, searches.get());
+    }
+
     /**
      * Tests incremental index updates with the new content blob feature.<p>
      * 
@@ -209,4 +275,74 @@ public class TestCmsSearchSpecialFeatures extends OpenCmsTestCase {
         assertNotNull("No 'content blob' field available", doc.getField(CmsSearchField.FIELD_CONTENT_BLOB));
         // assertTrue("Content blob field not lazy", doc.getField(CmsSearchField.FIELD_CONTENT_BLOB).isLazy());
     }
+
+    /**
+     * Tests if rebuilding an index with several indexing threads creates the same documents 
+     * and the same report output as rebuilding it with one thread.<p>
+     * 
+     * @throws Exception in case the test fails
+     */
+    public void testParallelIndexing() throws Exception {
+
+        echo("Testing index rebuild with parallel indexing threads");
+
+        CmsSearchManager searchManager = OpenCms.getSearchManager();
+        int maxIndexingThreads = searchManager.getMaxIndexingThreads();
+        try {
+            searchManager.setMaxIndexingThreads(1);
+            CmsStringBufferReport report = new CmsStringBufferReport(Locale.ENGLISH);
+            searchManager.rebuildIndex(INDEX_SPECIAL, report);
+            int documents = searchManager.getIndex(INDEX_SPECIAL).getSearcher().getIndexReader().numDocs();
+            List<String> files = getIndexedFiles(report);
+
+            searchManager.setMaxIndexingThreads(4);
+            CmsStringBufferReport parallelReport = new CmsStringBufferReport(Locale.ENGLISH);
+            searchManager.rebuildIndex(INDEX_SPECIAL, parallelReport);
+            int parallelDocuments = searchManager.getIndex(INDEX_SPECIAL).getSearcher().getIndexReader().numDocs();
+
+            assertTrue("No documents in the index", documents > 0);
+            assertEquals("Wrong number of documents", documents, parallelDocuments);
+            assertFalse("No files in the report", files.isEmpty());
+            // the output of the threads is written in the order they are started
+            assertEquals("Wrong report output", files, getIndexedFiles(parallelReport));
+        } finally {
+            searchManager.setMaxIndexingThreads(maxIndexingThreads);
+        }
+    }
+
+    /**
+     * Searches the special test index for "SearchEgg1" and checks the result.<p>
+     * 
+     * @param cms the current users OpenCms context
+     */
+    private void assertSearchEgg1(CmsObject cms) {
+
+        CmsSearch searchBean = new CmsSearch();
+        searchBean.init(cms);
+        searchBean.setIndex(INDEX_SPECIAL);
+        searchBean.setQuery(">>SearchEgg1<<");
+        List<CmsSearchResult> searchResult = searchBean.getSearchResult();
+        assertNotNull("No search result", searchResult);
+        assertEquals("Wrong number of results", 1, searchResult.size());
+        assertEquals("/sites/default/xmlcontent/article_0001.html", searchResult.get(0).getPath());
+    }
+
+    /**
+     * Returns the report lines of the indexed files in the order they are written.<p>
+     * 
+     * @param report the report of an index rebuild
+     * 
+     * @return the report lines of the indexed files
+     */
+    private List<String> getIndexedFiles(CmsStringBufferReport report) {
+
+        String fileBegin = Messages.get().getBundle(Locale.ENGLISH).key(Messages.RPT_SEARCH_INDEXING_FILE_BEGIN_0);
+        List<String> result = new ArrayList<String>();
+        for (String line : report.toString().split("\n")) {
+            if (line.contains(fileBegin)) {
+                result.add(line.trim());
+            }
+        }
+        return result;
+    }
 }
\ No newline at end of file
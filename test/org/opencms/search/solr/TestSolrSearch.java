@@ -32,6 +32,7 @@ import org.opencms.file.CmsObject;
 import org.opencms.file.CmsProperty;
 import org.opencms.file.CmsPropertyDefinition;
 import org.opencms.file.CmsResource;
+import org.opencms.file.CmsResourceFilter;
 import org.opencms.file.types.CmsResourceTypeBinary;
 import org.opencms.file.types.CmsResourceTypeFolder;
 import org.opencms.file.types.CmsResourceTypePlain;
@@ -41,14 +42,19 @@ import org.opencms.report.I_CmsReport;
 import org.opencms.search.CmsSearchIndex;
 import org.opencms.search.CmsSearchResource;
 import org.opencms.search.fields.CmsSearchField;
+import org.opencms.security.CmsPermissionSet;
+import org.opencms.security.CmsRole;
+import org.opencms.security.I_CmsPrincipal;
 import org.opencms.test.OpenCmsTestCase;
 import org.opencms.test.OpenCmsTestProperties;
 import org.opencms.util.CmsRequestUtil;
+import org.opencms.util.CmsUUID;
 import org.opencms.xml.content.CmsXmlContent;
 import org.opencms.xml.content.CmsXmlContentFactory;
 
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
 import java.util.Iterator;
@@ -109,6 +115,10 @@ public class TestSolrSearch extends OpenCmsTestCase {
         suite.addTest(new TestSolrSearch("testXmlContent"));
         suite.addTest(new TestSolrSearch("testDocumentBoost"));
         suite.addTest(new TestSolrSearch("testAdvancedFacetting"));
+        suite.addTest(new TestSolrSearch("testPermissionFilter"));
+        suite.addTest(new TestSolrSearch("testPermissionFilterOrgUnit"));
+        suite.addTest(new TestSolrSearch("testPermissionFilterFolderChange"));
+        suite.addTest(new TestSolrSearch("testStream"));
 
         // suite.addTest(new TestSolrSearch("testAdvancedHighlighting"));
         // suite.addTest(new TestSolrSearch("testAdvancedMoreLikeThis"));
@@ -813,6 +823,121 @@ public class TestSolrSearch extends OpenCmsTestCase {
         }
     }
 
+    /**
+     * Tests that the search result is filtered with the read permissions stored in the index.<p>
+     * 
+     * @throws Exception if the test fails
+     */
+    public void testPermissionFilter() throws Exception {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing the permission filter of the search index");
+
+        String folderName = "/permissionfilter/";
+        String guests = OpenCms.getDefaultUsers().getGroupGuests();
+        cms.copyResource("/types/", folderName);
+        cms.chacc(folderName, I_CmsPrincipal.PRINCIPAL_GROUP, guests, "-r+i");
+        cms.unlockProject(cms.getRequestContext().getCurrentProject().getUuid());
+        OpenCms.getPublishManager().publishProject(cms);
+        OpenCms.getPublishManager().waitWhileRunning();
+
+        CmsSolrIndex index = OpenCms.getSearchManager().getIndexSolr(AllTests.SOLR_ONLINE);
+        String query = "q=+text:Alkacon +text:OpenCms +parent-folders:\"/sites/default" + folderName + "\"";
+
+        // the admin can read the file
+        CmsSolrResultList results = index.search(getCmsObject(), query);
+        AllTests.printResults(cms, results, false);
+        assertEquals(1, results.size());
+
+        // the group that is denied to read the file is stored in the index
+        CmsUUID guestsId = cms.readGroup(guests).getId();
+        results = index.search(getCmsObject(), query
+            + "&fq="
+            + CmsSearchField.FIELD_ACL_READ_DENIED
+            + ":\""
+            + guestsId
+            + "\"");
+        assertEquals(1, results.size());
+
+        // the guest user neither finds the file nor is it counted in the hits
+        CmsObject guest = OpenCms.initCmsObject(OpenCms.getDefaultUsers().getUserGuest());
+        results = index.search(guest, query);
+        assertEquals(0, results.size());
+        assertEquals(0, results.getNumFound());
+    }
+
+    /**
+     * Tests that the permissions stored in the index are updated for the files below a folder, 
+     * if only the permissions of the folder are changed and published.<p>
+     * 
+     * @throws Exception if the test fails
+     */
+    public void testPermissionFilterFolderChange() throws Exception {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing the permission filter after changing the permissions of a folder");
+
+        String folderName = "/permissionfilter/";
+        String guests = OpenCms.getDefaultUsers().getGroupGuests();
+        CmsSolrIndex index = OpenCms.getSearchManager().getIndexSolr(AllTests.SOLR_ONLINE);
+        String query = "q=+text:Alkacon +text:OpenCms +parent-folders:\"/sites/default" + folderName + "\"";
+        CmsObject guest = OpenCms.initCmsObject(OpenCms.getDefaultUsers().getUserGuest());
+        assertEquals(0, index.search(guest, query).size());
+
+        // only the folder is changed and published, not the file below
+        cms.lockResource(folderName);
+        cms.rmacc(folderName, I_CmsPrincipal.PRINCIPAL_GROUP, guests);
+        cms.unlockResource(folderName);
+        OpenCms.getPublishManager().publishResource(cms, folderName);
+        OpenCms.getPublishManager().waitWhileRunning();
+
+        // the guest user now finds the file
+        CmsSolrResultList results = index.search(guest, query);
+        AllTests.printResults(cms, results, false);
+        assertEquals(1, results.size());
+        assertEquals(1, results.getNumFound());
+    }
+
+    /**
+     * Tests that the permission filter is not applied to the resources of an organizational unit 
+     * for a VFS manager of the organizational unit, like the permission check of the VFS.<p>
+     * 
+     * @throws Exception if the test fails
+     */
+    public void testPermissionFilterOrgUnit() throws Exception {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing the permission filter for the VFS manager of an organizational unit");
+
+        String folderName = "/permissionfilter/";
+        String ouFqn = "/permissionfilter/";
+        String userName = ouFqn + "manager";
+        OpenCms.getOrgUnitManager().createOrganizationalUnit(cms, ouFqn, "permission filter ou", 0, folderName);
+        cms.createUser(userName, "manager", "VFS manager of the organizational unit", null);
+        // the group that is denied to read the folder
+        cms.addUserToGroup(userName, OpenCms.getDefaultUsers().getGroupGuests());
+
+        CmsSolrIndex index = OpenCms.getSearchManager().getIndexSolr(AllTests.SOLR_ONLINE);
+        String query = "q=+text:Alkacon +text:OpenCms +parent-folders:\"/sites/default" + folderName + "\"";
+        CmsObject manager = OpenCms.initCmsObject(cms);
+        manager.loginUser(userName, "manager");
+        assertEquals(0, index.search(manager, query).size());
+
+        // the VFS manager of the organizational unit may read the file in spite of the denied group
+        OpenCms.getRoleManager().addUserToRole(cms, CmsRole.VFS_MANAGER.forOrgUnit(ouFqn), userName);
+        manager = OpenCms.initCmsObject(cms);
+        manager.loginUser(userName, "manager");
+        assertTrue(manager.hasPermissions(
+            manager.readResource(folderName),
+            CmsPermissionSet.ACCESS_READ,
+            false,
+            CmsResourceFilter.ALL));
+        CmsSolrResultList results = index.search(manager, query);
+        AllTests.printResults(cms, results, false);
+        assertEquals(1, results.size());
+        assertEquals(1, results.getNumFound());
+    }
+
     /**
      * @throws Throwable
      */
@@ -956,6 +1081,48 @@ public class TestSolrSearch extends OpenCmsTestCase {
         }
     }
 
+    /**
+     * Tests streaming a search result in chunks.<p>
+     * 
+     * @throws Exception if the test fails
+     */
+    public void testStream() throws Exception {
+
+        echo("Testing streaming a search result in chunks");
+        CmsSolrIndex index = OpenCms.getSearchManager().getIndexSolr(AllTests.SOLR_ONLINE);
+        CmsSolrQuery query = new CmsSolrQuery(null, CmsRequestUtil.createParameterMap("q=*:*&rows=1000"));
+        CmsSolrResultList results = index.search(getCmsObject(), query, true);
+        assertTrue(results.getNumFound() > 20);
+
+        final List<String> ids = new ArrayList<String>();
+        long count = index.stream(getCmsObject(), query, 7, new I_CmsSolrResultHandler() {
+
+            public boolean handleResult(CmsSearchResource result) {
+
+                ids.add(result.getField(CmsSearchField.FIELD_ID));
+                return true;
+            }
+        });
+        // all documents are found exactly once, ordered by their id
+        assertEquals(results.getNumFound(), count);
+        assertEquals(count, ids.size());
+        for (int i = 1; i < ids.size(); i++) {
+            assertTrue(ids.get(i - 1).compareTo(ids.get(i)) < 0);
+        }
+
+        // the handler can stop the search
+        ids.clear();
+        count = index.stream(getCmsObject(), query, 7, new I_CmsSolrResultHandler() {
+
+            public boolean handleResult(CmsSearchResource result) {
+
+                ids.add(result.getField(CmsSearchField.FIELD_ID));
+                return ids.size() < 10;
+            }
+        });
+        assertEquals(10, count);
+    }
+
     /**
      * Test the cms search indexer.<p>
      * 
@@ -61,6 +61,7 @@ public final class AllTests {
         suite.addTest(TestCmsPrincipal.suite());
         suite.addTest(TestLoginAndPasswordHandler.suite());
         suite.addTest(TestOrganizationalUnits.suite());
+        suite.addTest(TestPermissionCache.suite());
         suite.addTest(TestRoles.suite());
         //$JUnit-END$
         return suite;
@@ -0,0 +1,306 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.security;
+
+import org.opencms.file.CmsGroup;
+import org.opencms.file.CmsObject;
+import org.opencms.file.CmsProject;
+import org.opencms.file.CmsResource;
+import org.opencms.file.CmsResourceFilter;
+import org.opencms.main.OpenCms;
+import org.opencms.test.OpenCmsTestCase;
+import org.opencms.test.OpenCmsTestProperties;
+import org.opencms.util.CmsUUID;
+
+import java.util.Collections;
+import java.util.List;
+
+import junit.extensions.TestSetup;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+/**
+ * Unit tests for the permission cache of the default permission handler.<p>
+ * 
+ * @since 9.5.0
+ */
+public class TestPermissionCache extends OpenCmsTestCase {
+
+    /** Name of the first test user. */
+    private static final String USER1 = "cacheUser1";
+
+    /** Name of the second test user. */
+    private static final String USER2 = "cacheUser2";
+
+    /**
+     * Default JUnit constructor.<p>
+     * 
+     * @param arg0 JUnit parameters
+     */
+    public TestPermissionCache(String arg0) {
+
+        super(arg0);
+    }
+
+    /**
+     * Test suite for this test class.<p>
+     * 
+     * @return the test suite
+     */
+    public static Test suite() {
+
+        OpenCmsTestProperties.initialize(org.opencms.test.AllTests.TEST_PROPERTIES_PATH);
+
+        TestSuite suite = new TestSuite();
+        suite.setName(TestPermissionCache.class.getName());
+
+        suite.addTest(new TestPermissionCache("testSharedPrincipalKey"));
+        suite.addTest(new TestPermissionCache("testUserEntryNotShared"));
+        suite.addTest(new TestPermissionCache("testFolderEntryInvalidatesSubtree"));
+        suite.addTest(new TestPermissionCache("testGroupMembershipChangesKey"));
+        suite.addTest(new TestPermissionCache("testPublishedFolderEntryInvalidatesSubtree"));
+
+        TestSetup wrapper = new TestSetup(suite) {
+
+            @Override
+            protected void setUp() {
+
+                setupOpenCms("simpletest", "/");
+            }
+
+            @Override
+            protected void tearDown() {
+
+                removeOpenCms();
+            }
+        };
+
+        return wrapper;
+    }
+
+    /**
+     * Tests that changing an access control entry of a folder invalidates 
+     * the cached permissions of the resources below the folder.<p>
+     * 
+     * @throws Throwable if something goes wrong
+     */
+    public void testFolderEntryInvalidatesSubtree() throws Throwable {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing that an access control entry on a folder invalidates the cached permissions of the subtree");
+
+        String foldername = "/folder1/subfolder12/";
+        String resourcename = foldername + "subsubfolder121/page1.html";
+
+        CmsObject cms1 = getUserCmsObject(USER1);
+        CmsObject cms2 = getUserCmsObject(USER2);
+        assertTrue(hasPermissions(cms1, resourcename, CmsPermissionSet.ACCESS_READ));
+        assertTrue(hasPermissions(cms2, resourcename, CmsPermissionSet.ACCESS_READ));
+
+        cms.lockResource(foldername);
+        cms.chacc(foldername, I_CmsPrincipal.PRINCIPAL_GROUP, OpenCms.getDefaultUsers().getGroupUsers(), "-r+i");
+        cms.unlockResource(foldername);
+
+        // the cached results must not be used anymore
+        assertFalse(hasPermissions(cms1, resourcename, CmsPermissionSet.ACCESS_READ));
+        assertFalse(hasPermissions(cms2, resourcename, CmsPermissionSet.ACCESS_READ));
+    }
+
+    /**
+     * Tests that changing the group memberships of a user changes the principal key of the user.<p>
+     * 
+     * @throws Throwable if something goes wrong
+     */
+    public void testGroupMembershipChangesKey() throws Throwable {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing that a group membership change changes the principal key");
+
+        String resourcename = "/folder1/page2.html";
+        cms.createGroup("cacheGroup", "", 0, null);
+        cms.lockResource(resourcename);
+        cms.chacc(resourcename, I_CmsPrincipal.PRINCIPAL_GROUP, "cacheGroup", "-w");
+        cms.unlockResource(resourcename);
+
+        CmsObject cms1 = getUserCmsObject(USER1);
+        String key = getPrincipalKey(cms, USER1);
+        assertTrue(hasPermissions(cms1, resourcename, CmsPermissionSet.ACCESS_WRITE));
+
+        cms.addUserToGroup(USER1, "cacheGroup");
+
+        assertFalse(key.equals(getPrincipalKey(cms, USER1)));
+        // the principal key kept in the request context must be calculated again
+        assertFalse(hasPermissions(cms1, resourcename, CmsPermissionSet.ACCESS_WRITE));
+        assertTrue(hasPermissions(getUserCmsObject(USER2), resourcename, CmsPermissionSet.ACCESS_WRITE));
+    }
+
+    /**
+     * Tests that publishing an access control entry of a folder invalidates 
+     * the cached access control lists of the resources below the folder in the online project.<p>
+     * 
+     * @throws Throwable if something goes wrong
+     */
+    public void testPublishedFolderEntryInvalidatesSubtree() throws Throwable {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing that publishing an access control entry on a folder invalidates the cached ACLs of the subtree");
+
+        String foldername = "/folder2/subfolder21/";
+        String resourcename = foldername + "image1.gif";
+        CmsUUID groupId = cms.readGroup(OpenCms.getDefaultUsers().getGroupGuests()).getId();
+
+        CmsObject onlineCms = OpenCms.initCmsObject(cms);
+        onlineCms.getRequestContext().setCurrentProject(cms.readProject(CmsProject.ONLINE_PROJECT_ID));
+        // cache the online access control list of the resource
+        assertNull(onlineCms.getAccessControlList(resourcename).getPermissions(groupId));
+
+        cms.lockResource(foldername);
+        cms.chacc(foldername, I_CmsPrincipal.PRINCIPAL_GROUP, OpenCms.getDefaultUsers().getGroupGuests(), "-w+i");
+        cms.unlockResource(foldername);
+        // the online access control list is not changed before publishing
+        assertNull(onlineCms.getAccessControlList(resourcename).getPermissions(groupId));
+
+        OpenCms.getPublishManager().publishResource(cms, foldername);
+        OpenCms.getPublishManager().waitWhileRunning();
+
+        // the cached access control list must be read again
+        CmsPermissionSetCustom permissions = onlineCms.getAccessControlList(resourcename).getPermissions(groupId);
+        assertNotNull(permissions);
+        assertEquals(CmsPermissionSet.PERMISSION_WRITE, permissions.getDeniedPermissions());
+    }
+
+    /**
+     * Tests that users with the same groups and roles have the same principal key.<p>
+     * 
+     * @throws Throwable if something goes wrong
+     */
+    public void testSharedPrincipalKey() throws Throwable {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing that users with the same groups share the principal key");
+
+        cms.createUser(USER1, "secret", "", null);
+        cms.addUserToGroup(USER1, OpenCms.getDefaultUsers().getGroupUsers());
+        cms.createUser(USER2, "secret", "", null);
+        cms.addUserToGroup(USER2, OpenCms.getDefaultUsers().getGroupUsers());
+
+        assertEquals(getPrincipalKey(cms, USER1), getPrincipalKey(cms, USER2));
+        assertFalse(getPrincipalKey(cms, USER1).equals(getPrincipalKey(cms, "Admin")));
+
+        assertTrue(hasPermissions(getUserCmsObject(USER1), "/index.html", CmsPermissionSet.ACCESS_WRITE));
+        assertTrue(hasPermissions(getUserCmsObject(USER2), "/index.html", CmsPermissionSet.ACCESS_WRITE));
+    }
+
+    /**
+     * Tests that the cached permissions of a user with own access control entries are not shared.<p>
+     * 
+     * @throws Throwable if something goes wrong
+     */
+    public void testUserEntryNotShared() throws Throwable {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing that a user with own access control entries does not share the cached permissions");
+
+        String resourcename = "/folder2/page1.html";
+        cms.lockResource(resourcename);
+        cms.chacc(resourcename, I_CmsPrincipal.PRINCIPAL_USER, USER1, "-w");
+        cms.unlockResource(resourcename);
+        assertTrue(cms.getAccessControlList(resourcename).hasUserEntries());
+
+        // first check the user with the own entry, then the other user
+        assertFalse(hasPermissions(getUserCmsObject(USER1), resourcename, CmsPermissionSet.ACCESS_WRITE));
+        assertTrue(hasPermissions(getUserCmsObject(USER2), resourcename, CmsPermissionSet.ACCESS_WRITE));
+
+        resourcename = "/folder2/index.html";
+        cms.lockResource(resourcename);
+        cms.chacc(resourcename, I_CmsPrincipal.PRINCIPAL_USER, USER1, "-w");
+        cms.unlockResource(resourcename);
+
+        // now the other way round
+        assertTrue(hasPermissions(getUserCmsObject(USER2), resourcename, CmsPermissionSet.ACCESS_WRITE));
+        assertFalse(hasPermissions(getUserCmsObject(USER1), resourcename, CmsPermissionSet.ACCESS_WRITE));
+
+        // resources without user entries can be shared
+        assertFalse(cms.getAccessControlList("/folder2/image2.gif").hasUserEntries());
+    }
+
+    /**
+     * Returns the principal key of the given user.<p>
+     * 
+     * @param cms the current OpenCms user context
+     * @param username the name of the user
+     * 
+     * @return the principal key of the user
+     * 
+     * @throws Exception if something goes wrong
+     */
+    private String getPrincipalKey(CmsObject cms, String username) throws Exception {
+
+        List<CmsGroup> groups = cms.getGroupsOfUser(username, false);
+        return CmsDefaultPermissionHandler.getPrincipalKey(
+            cms.readUser(username),
+            groups,
+            Collections.<CmsGroup> emptyList());
+    }
+
+    /**
+     * Returns a new OpenCms user context for the given test user in the offline project.<p>
+     * 
+     * @param username the name of the user
+     * 
+     * @return the OpenCms user context
+     * 
+     * @throws Exception if something goes wrong
+     */
+    private CmsObject getUserCmsObject(String username) throws Exception {
+
+        CmsObject cms = OpenCms.initCmsObject(getCmsObject());
+        cms.loginUser(username, "secret");
+        cms.getRequestContext().setCurrentProject(cms.readProject("Offline"));
+        return cms;
+    }
+
+    /**
+     * Checks the given permissions of the current user on the given resource, without checking the lock.<p>
+     * 
+     * @param cms the current OpenCms user context
+     * @param resourcename the name of the resource
+     * @param permissions the permissions to check
+     * 
+     * @return <code>true</code> if the permissions are granted
+     * 
+     * @throws Exception if something goes wrong
+     */
+    private boolean hasPermissions(CmsObject cms, String resourcename, CmsPermissionSet permissions)
+    throws Exception {
+
+        CmsResource resource = cms.readResource(resourcename, CmsResourceFilter.ALL);
+        return cms.hasPermissions(resource, permissions, false, CmsResourceFilter.ALL);
+    }
+}
@@ -60,6 +60,7 @@ public final class AllTests {
         //$JUnit-BEGIN$
         suite.addTest(TestCmsLinkManager.suite());
         suite.addTest(TestCmsStaticExportManager.suite());
+        suite.addTest(new TestSuite(TestCmsStaticExportRateLimiter.class));
         suite.addTest(TestExportFile.suite());
         suite.addTest(TestSecure.suite());
         suite.addTest(TestCmsExternalLinksValidator.suite());
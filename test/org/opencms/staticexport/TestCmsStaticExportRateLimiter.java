@@ -0,0 +1,160 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.staticexport;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the rate limiter of the static export.<p>
+ */
+public class TestCmsStaticExportRateLimiter extends TestCase {
+
+    /**
+     * Clock that only advances when the rate limiter waits or the test moves it forward.<p>
+     */
+    private static class CmsTestClock implements CmsStaticExportRateLimiter.I_CmsClock {
+
+        /** The current time. */
+        private long m_now = 1000000L;
+
+        /** The total time waited. */
+        private long m_waited;
+
+        /**
+         * @see org.opencms.staticexport.CmsStaticExportRateLimiter.I_CmsClock#currentTimeMillis()
+         */
+        public long currentTimeMillis() {
+
+            return m_now;
+        }
+
+        /**
+         * @see org.opencms.staticexport.CmsStaticExportRateLimiter.I_CmsClock#sleep(long)
+         */
+        public void sleep(long millis) {
+
+            m_waited += millis;
+            m_now += millis;
+        }
+
+        /**
+         * Moves the clock forward.<p>
+         * 
+         * @param millis the time to move the clock forward in milliseconds
+         */
+        void advance(long millis) {
+
+            m_now += millis;
+        }
+
+        /**
+         * Returns the total time waited.<p>
+         * 
+         * @return the total time waited in milliseconds
+         */
+        long getWaited() {
+
+            return m_waited;
+        }
+    }
+
+    /**
+     * Default JUnit constructor.<p>
+     * 
+     * @param arg0 JUnit parameters
+     */
+    public TestCmsStaticExportRateLimiter(String arg0) {
+
+        super(arg0);
+    }
+
+    /**
+     * Tests that the number of permits per second is limited.<p>
+     * 
+     * @throws Exception in case the test fails
+     */
+    public void testRateLimit() throws Exception {
+
+        CmsTestClock clock = new CmsTestClock();
+        CmsStaticExportRateLimiter limiter = new CmsStaticExportRateLimiter(20, clock);
+        // the first 20 permits are available immediately
+        for (int i = 0; i < 20; i++) {
+            limiter.acquire();
+        }
+        assertEquals(0, clock.getWaited());
+        // each of the next 10 permits takes 50 ms
+        for (int i = 0; i < 10; i++) {
+            limiter.acquire();
+        }
+        assertEquals(500, clock.getWaited());
+    }
+
+    /**
+     * Tests that the permits are refilled over time, but not beyond one second worth of permits.<p>
+     * 
+     * @throws Exception in case the test fails
+     */
+    public void testRefill() throws Exception {
+
+        CmsTestClock clock = new CmsTestClock();
+        CmsStaticExportRateLimiter limiter = new CmsStaticExportRateLimiter(10, clock);
+        for (int i = 0; i < 10; i++) {
+            limiter.acquire();
+        }
+        // after half a second, 5 permits are available again
+        clock.advance(500);
+        for (int i = 0; i < 5; i++) {
+            limiter.acquire();
+        }
+        assertEquals(0, clock.getWaited());
+        // after an idle minute, only one second worth of permits is available
+        clock.advance(60000);
+        for (int i = 0; i < 10; i++) {
+            limiter.acquire();
+        }
+        assertEquals(0, clock.getWaited());
+        limiter.acquire();
+        assertEquals(100, clock.getWaited());
+    }
+
+    /**
+     * Tests that a limiter without rate does not wait.<p>
+     * 
+     * @throws Exception in case the test fails
+     */
+    public void testUnlimited() throws Exception {
+
+        CmsTestClock clock = new CmsTestClock();
+        CmsStaticExportRateLimiter limiter = new CmsStaticExportRateLimiter(0, clock);
+        for (int i = 0; i < 10000; i++) {
+            limiter.acquire();
+        }
+        assertEquals(0, clock.getWaited());
+    }
+}
@@ -27,15 +27,21 @@
 
 package org.opencms.staticexport;
 
+import org.opencms.db.CmsPublishedResource;
 import org.opencms.file.CmsObject;
+import org.opencms.file.types.CmsResourceTypeFolder;
 import org.opencms.file.types.CmsResourceTypePlain;
 import org.opencms.main.OpenCms;
+import org.opencms.report.CmsStringBufferReport;
 import org.opencms.test.OpenCmsTestCase;
 import org.opencms.test.OpenCmsTestProperties;
 import org.opencms.util.CmsFileUtil;
 
 import java.io.File;
 import java.io.FileInputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
 
 import junit.extensions.TestSetup;
 import junit.framework.Test;
@@ -69,6 +75,7 @@ public class TestExportFile extends OpenCmsTestCase {
         suite.setName(TestExportFile.class.getName());
 
         suite.addTest(new TestExportFile("testStaticexportFile"));
+        suite.addTest(new TestExportFile("testStaticexportParallel"));
 
         TestSetup wrapper = new TestSetup(suite) {
 
@@ -130,4 +137,107 @@ public class TestExportFile extends OpenCmsTestCase {
 
         this.assertContent(cms, resourcename, exportContent);
     }
+
+    /**
+     * Tests the export after publish with several threads.<p>
+     * 
+     * @throws Throwable if something goes wrong
+     */
+    public void testStaticexportParallel() throws Throwable {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing the export after publish with several threads");
+
+        CmsStaticExportManager manager = OpenCms.getStaticExportManager();
+        String folder = "/parallel/";
+        int count = 12;
+        cms.createResource(folder, CmsResourceTypeFolder.getStaticTypeId());
+        List<String> resourcenames = new ArrayList<String>();
+        for (int i = 0; i < count; i++) {
+            // the names must not be prefixes of each other
+            String resourcename = folder + "file" + (100 + i) + ".txt";
+            cms.createResource(
+                resourcename,
+                CmsResourceTypePlain.getStaticTypeId(),
+                ("parallel export content " + i).getBytes(),
+                null);
+            resourcenames.add(resourcename);
+        }
+        cms.unlockResource(folder);
+        OpenCms.getPublishManager().publishProject(cms);
+        OpenCms.getPublishManager().waitWhileRunning();
+
+        List<CmsPublishedResource> resources = new ArrayList<CmsPublishedResource>();
+        for (String resourcename : resourcenames) {
+            resources.add(new CmsPublishedResource(cms.readResource(resourcename)));
+        }
+        int threads = manager.getExportThreads();
+        try {
+            // export with one thread to get the expected report order
+            manager.setExportThreads("1");
+            CmsStringBufferReport report = new CmsStringBufferReport(Locale.ENGLISH);
+            new CmsAfterPublishStaticExportHandler().doExportAfterPublish(resources, report);
+            List<String> expectedOrder = getExportedFiles(report.toString(), resourcenames);
+            assertEquals(count, expectedOrder.size());
+
+            // remove the exported files and export them again with several threads
+            for (String resourcename : resourcenames) {
+                assertTrue(getExportFile(cms, resourcename).delete());
+            }
+            manager.setExportThreads("4");
+            CmsStringBufferReport parallelReport = new CmsStringBufferReport(Locale.ENGLISH);
+            new CmsAfterPublishStaticExportHandler().doExportAfterPublish(resources, parallelReport);
+
+            assertFalse(parallelReport.hasError());
+            // the output of each resource is written in the order of the resources
+            assertEquals(expectedOrder, getExportedFiles(parallelReport.toString(), resourcenames));
+            for (String resourcename : resourcenames) {
+                File f = getExportFile(cms, resourcename);
+                assertTrue("Missing export file " + f, f.exists());
+                byte[] exportContent = new byte[(int)f.length()];
+                FileInputStream fileStream = new FileInputStream(f);
+                fileStream.read(exportContent);
+                fileStream.close();
+                this.assertContent(cms, resourcename, exportContent);
+            }
+        } finally {
+            manager.setExportThreads(String.valueOf(threads));
+        }
+    }
+
+    /**
+     * Returns the resource names in the order their report lines are written.<p>
+     * 
+     * @param report the report output
+     * @param resourcenames the exported resource names
+     * 
+     * @return the resource names in the order of their report lines
+     */
+    private List<String> getExportedFiles(String report, List<String> resourcenames) {
+
+        List<String> result = new ArrayList<String>();
+        for (String line : report.split("\\n")) {
+            for (String resourcename : resourcenames) {
+                if (line.contains(resourcename)) {
+                    result.add(resourcename);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the exported file of the given resource in the real file system.<p>
+     * 
+     * @param cms the current users OpenCms context
+     * @param resourcename the name of the exported resource
+     * 
+     * @return the exported file
+     */
+    private File getExportFile(CmsObject cms, String resourcename) {
+
+        String rootPath = cms.getRequestContext().addSiteRoot(resourcename);
+        return new File(CmsFileUtil.normalizePath(OpenCms.getStaticExportManager().getExportPath(rootPath)
+            + rootPath));
+    }
 }
\ No newline at end of file
@@ -59,6 +59,43 @@ public class TestCmsXmlContent extends OpenCmsTestCase {
         super(arg0);
     }
 
+    /**
+     * Tests that a copy of an XML content does not share its document with the original.<p>
+     *
+     * @throws Exception in case the test fails
+     */
+    public void testCopy() throws Exception {
+
+        CmsXmlEntityResolver resolver = new CmsXmlEntityResolver(null);
+
+        String content;
+        // unmarshal content definition
+        content = CmsFileUtil.readFile("org/opencms/xml/content/xmlcontent-definition-1.xsd", CmsEncoder.ENCODING_UTF_8);
+        CmsXmlContentDefinition definition = CmsXmlContentDefinition.unmarshal(content, SCHEMA_SYSTEM_ID_1, resolver);
+        // store content definition in entitiy resolver
+        content = CmsFileUtil.readFile("org/opencms/xml/content/xmlcontent-1.xml", CmsEncoder.ENCODING_UTF_8);
+        CmsXmlEntityResolver.cacheSystemId(
+            SCHEMA_SYSTEM_ID_1,
+            definition.getSchema().asXML().getBytes(CmsEncoder.ENCODING_UTF_8));
+        // now create the XML content
+        CmsXmlContent xmlcontent = CmsXmlContentFactory.unmarshal(content, CmsEncoder.ENCODING_UTF_8, resolver);
+        String original = xmlcontent.toString();
+
+        // the copy must have the same values as the original
+        CmsXmlContent copy = xmlcontent.copy();
+        assertEquals(original, copy.toString());
+        assertEquals("Multitest 1", copy.getValue("String", Locale.ENGLISH).getStringValue(null));
+
+        // changing the copy must not change the original
+        copy.getValue("String", Locale.ENGLISH).setStringValue(null, "Changed");
+        copy.addValue(null, "String", Locale.ENGLISH, 1).setStringValue(null, "Node 2");
+        assertEquals("Changed", copy.getValue("String", Locale.ENGLISH).getStringValue(null));
+        assertEquals(2, copy.getValue("String", Locale.ENGLISH).getMaxIndex());
+        assertEquals("Multitest 1", xmlcontent.getValue("String", Locale.ENGLISH).getStringValue(null));
+        assertEquals(1, xmlcontent.getValue("String", Locale.ENGLISH).getMaxIndex());
+        assertEquals(original, xmlcontent.toString());
+    }
+
     /**
      * Tests moving elements up and down in the XML content.<p>
      * 
@@ -41,13 +41,16 @@ import org.opencms.relations.CmsRelationType;
 import org.opencms.staticexport.CmsLinkTable;
 import org.opencms.test.OpenCmsTestCase;
 import org.opencms.test.OpenCmsTestProperties;
+import org.opencms.test.OpenCmsTestServletRequest;
 import org.opencms.util.CmsFileUtil;
 import org.opencms.xml.CmsXmlEntityResolver;
+import org.opencms.xml.containerpage.CmsADECache;
 import org.opencms.xml.types.CmsXmlHtmlValue;
 import org.opencms.xml.types.CmsXmlVfsFileValue;
 
 import java.io.IOException;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
 
@@ -60,6 +63,33 @@ import junit.framework.TestSuite;
  */
 public class TestCmsXmlContentLinks extends OpenCmsTestCase {
 
+    /**
+     * Servlet request for test purposes, which only supports attributes.<p>
+     */
+    private static class CmsTestAttributeRequest extends OpenCmsTestServletRequest {
+
+        /** The request attributes. */
+        private Map<String, Object> m_attributes = new HashMap<String, Object>();
+
+        /**
+         * @see org.opencms.test.OpenCmsTestServletRequest#getAttribute(java.lang.String)
+         */
+        @Override
+        public Object getAttribute(String name) {
+
+            return m_attributes.get(name);
+        }
+
+        /**
+         * @see org.opencms.test.OpenCmsTestServletRequest#setAttribute(java.lang.String, java.lang.Object)
+         */
+        @Override
+        public void setAttribute(String name, Object value) {
+
+            m_attributes.put(name, value);
+        }
+    }
+
     /** The link original filename. */
     private static final String FILENAME = "/folder1/image2.gif";
 
@@ -166,6 +196,7 @@ public class TestCmsXmlContentLinks extends OpenCmsTestCase {
         suite.addTest(new TestCmsXmlContentLinks("testRemoveParent"));
         suite.addTest(new TestCmsXmlContentLinks("testRelationType"));
         suite.addTest(new TestCmsXmlContentLinks("testInvalidateFalse"));
+        suite.addTest(new TestCmsXmlContentLinks("testCachedContentLinks"));
 
         TestSetup wrapper = new TestSetup(suite) {
 
@@ -261,6 +292,66 @@ public class TestCmsXmlContentLinks extends OpenCmsTestCase {
         assertEquals(resource.getStructureId(), link.getStructureId());
     }
 
+    /**
+     * Tests that the broken links are removed from each copy of a cached XML content 
+     * with the OpenCms context of the caller.<p>
+     * 
+     * @throws Exception in case something goes wrong
+     */
+    public void testCachedContentLinks() throws Exception {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing the link validation of cached XML contents");
+
+        String target = "/folder1/image-cached.gif";
+        String filename = "/xmlcontent-cached.html";
+        cms.createResource(target, CmsResourceTypePlain.getStaticTypeId());
+        String content = CmsFileUtil.readFile("org/opencms/xml/content/xmlcontent-12.xml", CmsEncoder.ENCODING_UTF_8);
+        content = content.replace(FILENAME, target);
+        int xmlcontentType = OpenCms.getResourceManager().getResourceType("xmlcontent").getTypeId();
+        CmsResource resource = cms.createResource(
+            filename,
+            xmlcontentType,
+            content.getBytes(CmsEncoder.ENCODING_UTF_8),
+            Collections.<CmsProperty> emptyList());
+
+        // the first request caches the content
+        CmsXmlContent xmlcontent = CmsXmlContentFactory.unmarshal(cms, resource, new CmsTestAttributeRequest());
+        assertNotNull(xmlcontent.getValue("ALink", Locale.ENGLISH));
+        CmsADECache cache = OpenCms.getADEManager().getCache();
+        CmsXmlContent cached = cache.getCacheXmlContent(cache.getCacheKey(resource), false);
+        assertNotNull(cached);
+
+        // the next request gets its own copy of the cached content
+        CmsXmlContent copy = CmsXmlContentFactory.unmarshal(cms, resource, new CmsTestAttributeRequest());
+        assertNotSame(xmlcontent, copy);
+        assertNotSame(cached, copy);
+        assertNotNull(copy.getValue("ALink", Locale.ENGLISH));
+        assertSame(cached, cache.getCacheXmlContent(cache.getCacheKey(resource), false));
+
+        // the link target is not released yet, so the link is removed from the copy, but not from the cached content
+        cms.setDateReleased(target, System.currentTimeMillis() + 1000000, false);
+        copy = CmsXmlContentFactory.unmarshal(cms, resource, new CmsTestAttributeRequest());
+        assertNull(copy.getValue("ALink", Locale.ENGLISH));
+        assertSame(cached, cache.getCacheXmlContent(cache.getCacheKey(resource), false));
+        assertNotNull(cached.getValue("ALink", Locale.ENGLISH));
+
+        // the links are not checked for the editor
+        long requestTime = cms.getRequestContext().getRequestTime();
+        try {
+            cms.getRequestContext().setRequestTime(CmsResource.DATE_RELEASED_EXPIRED_IGNORE);
+            copy = CmsXmlContentFactory.unmarshal(cms, resource, new CmsTestAttributeRequest());
+            assertNotNull(copy.getValue("ALink", Locale.ENGLISH));
+        } finally {
+            cms.getRequestContext().setRequestTime(requestTime);
+        }
+
+        // the link is valid again after the release date has been reset
+        cms.setDateReleased(target, CmsResource.DATE_RELEASED_DEFAULT, false);
+        copy = CmsXmlContentFactory.unmarshal(cms, resource, new CmsTestAttributeRequest());
+        assertNotNull(copy.getValue("ALink", Locale.ENGLISH));
+    }
+
     /**
      * Test the option to do not invalidate a broken link node.<p>
      * 